@@ -0,0 +1,299 @@
+-- 1.5.0 資料庫異動，需在匯入 camping(structure)-1.2.5.sql 後依序執行
+
+-- 商品類型遮罩：取代 can_borrow_product_group 每次查詢時的 group_concat(product.type)
+ALTER TABLE `camping`.`product_group`
+    ADD COLUMN `product_type_mask` BIGINT NOT NULL DEFAULT 0 COMMENT '商品類型遮罩，第n個位元為1代表群組內有編號n的啟用中商品' AFTER `borrow_end_date`;
+
+UPDATE `camping`.`product_group` `group`
+SET `group`.`product_type_mask` = (
+    SELECT IFNULL(BIT_OR(1 << `product`.`type`), 0)
+    FROM `camping`.`product` `product`
+    WHERE `product`.`group_id` = `group`.`id`
+      AND `product`.`enable` = 1
+);
+
+CREATE OR REPLACE VIEW `camping`.`can_borrow_product_group` AS
+SELECT `group`.`id`                                                 AS `id`,
+       `group`.`name`                                               AS `name`,
+       `group`.`cover_image`                                        AS `cover_image`,
+       `group`.`price`                                              AS `price`,
+       `group`.`borrow_start_date`                                  AS `borrow_start_date`,
+       `group`.`borrow_end_date`                                    AS `borrow_end_date`,
+       CONCAT(`group`.`city_name`, ' ', `group`.`city_area_name`)   AS `city`,
+       `group`.`city_name`                                          AS `city_name`,
+       `group`.`city_area_name`                                     AS `city_area_name`,
+       CONCAT(`user`.`account`, '(', `user`.`nick_name`, ')')       AS `user_name`,
+       `group`.`product_type_mask`                                  AS `product_type_mask`,
+       IFNULL(`comment`.`average`, 0)                               AS `comment`
+FROM `camping`.`product_group` `group`
+         LEFT JOIN `camping`.`rental_record` `record` ON `group`.`id` = `record`.`product_group_id`
+         JOIN `camping`.`user` `user` ON `group`.`create_account` = `user`.`account`
+         LEFT JOIN (
+    SELECT `group_id`, AVG(`comment`) AS `average`
+    FROM `camping`.`product_group_comment`
+    GROUP BY `group_id`
+) `comment` ON `group`.`id` = `comment`.`group_id`
+WHERE `group`.`enable` = 1
+  AND (`record`.`id` IS NULL OR `record`.`enable` = 0 OR `record`.`status` = '4')
+GROUP BY `group`.`id`;
+
+-- 可租借商品列表改為實體資料表：原本的檢視表更名為 can_borrow_product_group_source，作為重新計算與一致性檢查的來源
+CREATE OR REPLACE VIEW `camping`.`can_borrow_product_group_source` AS
+SELECT `group`.`id`                                                 AS `id`,
+       `group`.`name`                                               AS `name`,
+       `group`.`cover_image`                                        AS `cover_image`,
+       `group`.`price`                                              AS `price`,
+       `group`.`borrow_start_date`                                  AS `borrow_start_date`,
+       `group`.`borrow_end_date`                                    AS `borrow_end_date`,
+       CONCAT(`group`.`city_name`, ' ', `group`.`city_area_name`)   AS `city`,
+       `group`.`city_name`                                          AS `city_name`,
+       `group`.`city_area_name`                                     AS `city_area_name`,
+       CONCAT(`user`.`account`, '(', `user`.`nick_name`, ')')       AS `user_name`,
+       `group`.`product_type_mask`                                  AS `product_type_mask`,
+       IFNULL(`comment`.`average`, 0)                               AS `comment`
+FROM `camping`.`product_group` `group`
+         LEFT JOIN `camping`.`rental_record` `record` ON `group`.`id` = `record`.`product_group_id`
+         JOIN `camping`.`user` `user` ON `group`.`create_account` = `user`.`account`
+         LEFT JOIN (
+    SELECT `group_id`, AVG(`comment`) AS `average`
+    FROM `camping`.`product_group_comment`
+    GROUP BY `group_id`
+) `comment` ON `group`.`id` = `comment`.`group_id`
+WHERE `group`.`enable` = 1
+  AND (`record`.`id` IS NULL OR `record`.`enable` = 0 OR `record`.`status` = '4')
+GROUP BY `group`.`id`;
+
+DROP VIEW IF EXISTS `camping`.`can_borrow_product_group`;
+
+CREATE TABLE `camping`.`can_borrow_product_group`
+(
+    `id`                INT UNSIGNED NOT NULL COMMENT '商品群組編號',
+    `name`              VARCHAR(300) NOT NULL COMMENT '商品群組名稱',
+    `cover_image`       TEXT         NULL COMMENT '商品群組封面圖',
+    `price`             INT          NOT NULL COMMENT '租借價格',
+    `borrow_start_date` DATETIME     NOT NULL COMMENT '可租借的起始時間',
+    `borrow_end_date`   DATETIME     NOT NULL COMMENT '可租借的結束時間',
+    `city`              VARCHAR(41)  NOT NULL COMMENT '城市名稱 + 區域名稱',
+    `city_name`         VARCHAR(20)  NOT NULL COMMENT '城市名稱',
+    `city_area_name`    VARCHAR(20)  NOT NULL COMMENT '區名稱',
+    `user_name`         VARCHAR(152) NOT NULL COMMENT '使用者名稱，格式為：帳號(暱稱)',
+    `product_type_mask` BIGINT       NOT NULL COMMENT '商品類型遮罩',
+    `comment`           DOUBLE       NOT NULL COMMENT '商品群組評價平均',
+    PRIMARY KEY (`id`),
+    INDEX `can_borrow_product_group_borrow_start_date_id_index` (`borrow_start_date`, `id`),
+    INDEX `can_borrow_product_group_city_area_name_index` (`city_area_name`, `borrow_start_date`),
+    INDEX `can_borrow_product_group_price_index` (`price`),
+    CONSTRAINT `can_borrow_product_group_product_group_id_fk`
+        FOREIGN KEY (`id`) REFERENCES `camping`.`product_group` (`id`) ON DELETE CASCADE
+) COMMENT '可租借商品列表，由寫入流程依 can_borrow_product_group_source 維護';
+
+INSERT INTO `camping`.`can_borrow_product_group` (`id`, `name`, `cover_image`, `price`, `borrow_start_date`,
+                                                  `borrow_end_date`, `city`, `city_name`, `city_area_name`,
+                                                  `user_name`, `product_type_mask`, `comment`)
+SELECT `id`, `name`, `cover_image`, `price`, `borrow_start_date`, `borrow_end_date`, `city`, `city_name`,
+       `city_area_name`, `user_name`, `product_type_mask`, `comment`
+FROM `camping`.`can_borrow_product_group_source`;
+
+-- 評價統計：每次新增評價時累加數量與總和，讀取評價平均只需以主鍵查詢
+-- 先移除重複評價(保留最早的一筆)，再以唯一索引讓INSERT本身檢查重複評價
+DELETE `later`
+FROM `camping`.`product_group_comment` `later`
+         JOIN `camping`.`product_group_comment` `earlier`
+              ON `later`.`group_id` = `earlier`.`group_id`
+                  AND `later`.`comment_account` = `earlier`.`comment_account`
+                  AND `later`.`id` > `earlier`.`id`;
+
+ALTER TABLE `camping`.`product_group_comment`
+    ADD UNIQUE INDEX `product_group_comment_group_id_comment_account_uindex` (`group_id`, `comment_account`);
+
+DELETE `later`
+FROM `camping`.`user_comment` `later`
+         JOIN `camping`.`user_comment` `earlier`
+              ON `later`.`user_account` = `earlier`.`user_account`
+                  AND `later`.`comment_account` = `earlier`.`comment_account`
+                  AND `later`.`id` > `earlier`.`id`;
+
+ALTER TABLE `camping`.`user_comment`
+    ADD UNIQUE INDEX `user_comment_user_account_comment_account_uindex` (`user_account`, `comment_account`);
+
+CREATE TABLE `camping`.`product_group_comment_summary`
+(
+    `group_id`      INT UNSIGNED NOT NULL COMMENT '商品群組編號',
+    `comment_count` INT          NOT NULL DEFAULT 0 COMMENT '評價數量',
+    `comment_sum`   INT          NOT NULL DEFAULT 0 COMMENT '評價總和',
+    PRIMARY KEY (`group_id`),
+    CONSTRAINT `fk_product_group_comment_summary_group_id`
+        FOREIGN KEY (`group_id`) REFERENCES `camping`.`product_group` (`id`)
+) COMMENT '商品群組評價統計';
+
+CREATE TABLE `camping`.`user_comment_summary`
+(
+    `user_account`  VARCHAR(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '被評價的使用者帳號',
+    `comment_count` INT                                                           NOT NULL DEFAULT 0 COMMENT '評價數量',
+    `comment_sum`   INT                                                           NOT NULL DEFAULT 0 COMMENT '評價總和',
+    PRIMARY KEY (`user_account`),
+    CONSTRAINT `fk_user_comment_summary_user_account`
+        FOREIGN KEY (`user_account`) REFERENCES `camping`.`user` (`account`)
+) COMMENT '使用者評價統計';
+
+INSERT INTO `camping`.`product_group_comment_summary` (`group_id`, `comment_count`, `comment_sum`)
+SELECT `group_id`, COUNT(*), SUM(`comment`)
+FROM `camping`.`product_group_comment`
+GROUP BY `group_id`;
+
+INSERT INTO `camping`.`user_comment_summary` (`user_account`, `comment_count`, `comment_sum`)
+SELECT `user_account`, COUNT(*), SUM(`comment`)
+FROM `camping`.`user_comment`
+GROUP BY `user_account`;
+
+-- 可租借商品列表的評價平均改由評價統計取得
+CREATE OR REPLACE VIEW `camping`.`can_borrow_product_group_source` AS
+SELECT `group`.`id`                                                 AS `id`,
+       `group`.`name`                                               AS `name`,
+       `group`.`cover_image`                                        AS `cover_image`,
+       `group`.`price`                                              AS `price`,
+       `group`.`borrow_start_date`                                  AS `borrow_start_date`,
+       `group`.`borrow_end_date`                                    AS `borrow_end_date`,
+       CONCAT(`group`.`city_name`, ' ', `group`.`city_area_name`)   AS `city`,
+       `group`.`city_name`                                          AS `city_name`,
+       `group`.`city_area_name`                                     AS `city_area_name`,
+       CONCAT(`user`.`account`, '(', `user`.`nick_name`, ')')       AS `user_name`,
+       `group`.`product_type_mask`                                  AS `product_type_mask`,
+       IFNULL(`summary`.`comment_sum` / `summary`.`comment_count`, 0) AS `comment`
+FROM `camping`.`product_group` `group`
+         LEFT JOIN `camping`.`rental_record` `record` ON `group`.`id` = `record`.`product_group_id`
+         JOIN `camping`.`user` `user` ON `group`.`create_account` = `user`.`account`
+         LEFT JOIN `camping`.`product_group_comment_summary` `summary` ON `group`.`id` = `summary`.`group_id`
+WHERE `group`.`enable` = 1
+  AND (`record`.`id` IS NULL OR `record`.`enable` = 0 OR `record`.`status` = '4')
+GROUP BY `group`.`id`;
+
+-- 金流指令：租借、新增商品群組只在本地交易中寫入指令，由背景程序呼叫金流服務後寫回結果
+ALTER TABLE `camping`.`rental_record`
+    MODIFY COLUMN `transaction_id` INT NULL COMMENT '信用卡交易編號，金流服務建立交易前為NULL';
+
+CREATE TABLE `camping`.`payment_outbox`
+(
+    `id`                INT UNSIGNED  NOT NULL AUTO_INCREMENT COMMENT '流水編號',
+    `type`              CHAR(1)       NOT NULL COMMENT '指令類型(0: 建立交易/ 1: 建立金融機構帳號)',
+    `rental_record_id`  INT UNSIGNED  NULL COMMENT '租借紀錄編號，建立交易時才有值',
+    `payee_bank_account` CHAR(16)     NOT NULL COMMENT '收款的金融機構帳號，同一個帳號的交易需等待建立金融機構帳號的指令完成後才送出',
+    `payload`           VARCHAR(4000) NULL COMMENT '送至金流服務的資料(JSON)，不包含信用卡資料，完成、失敗或結果未知後清除',
+    `status`            CHAR(1)       NOT NULL DEFAULT '0' COMMENT '狀態(0: 等待送出/ 1: 已完成/ 2: 失敗/ 3: 結果未知)',
+    `attempt_count`     INT           NOT NULL DEFAULT 0 COMMENT '已送出次數',
+    `next_attempt_date` DATETIME      NOT NULL COMMENT '下次可送出的時間',
+    `last_error`        VARCHAR(500)  NULL COMMENT '最後一次失敗的原因',
+    `create_date`       DATETIME      NOT NULL COMMENT '建立時間',
+    `last_modify_date`  DATETIME      NOT NULL COMMENT '最後更新時間',
+    PRIMARY KEY (`id`),
+    INDEX `payment_outbox_status_next_attempt_date_index` (`status`, `next_attempt_date`),
+    INDEX `payment_outbox_payee_bank_account_index` (`payee_bank_account`, `status`, `type`),
+    CONSTRAINT `payment_outbox_rental_record_id_fk`
+        FOREIGN KEY (`rental_record_id`) REFERENCES `camping`.`rental_record` (`id`)
+) COMMENT '等待送至金流服務的指令';
+
+-- 租借紀錄狀態新增 5: 等待付款、6: 付款失敗，付款失敗的租借紀錄不再佔用商品群組
+CREATE OR REPLACE VIEW `camping`.`can_borrow_product_group_source` AS
+SELECT `group`.`id`                                                 AS `id`,
+       `group`.`name`                                               AS `name`,
+       `group`.`cover_image`                                        AS `cover_image`,
+       `group`.`price`                                              AS `price`,
+       `group`.`borrow_start_date`                                  AS `borrow_start_date`,
+       `group`.`borrow_end_date`                                    AS `borrow_end_date`,
+       CONCAT(`group`.`city_name`, ' ', `group`.`city_area_name`)   AS `city`,
+       `group`.`city_name`                                          AS `city_name`,
+       `group`.`city_area_name`                                     AS `city_area_name`,
+       CONCAT(`user`.`account`, '(', `user`.`nick_name`, ')')       AS `user_name`,
+       `group`.`product_type_mask`                                  AS `product_type_mask`,
+       IFNULL(`summary`.`comment_sum` / `summary`.`comment_count`, 0) AS `comment`
+FROM `camping`.`product_group` `group`
+         LEFT JOIN `camping`.`rental_record` `record` ON `group`.`id` = `record`.`product_group_id`
+         JOIN `camping`.`user` `user` ON `group`.`create_account` = `user`.`account`
+         LEFT JOIN `camping`.`product_group_comment_summary` `summary` ON `group`.`id` = `summary`.`group_id`
+WHERE `group`.`enable` = 1
+  AND (`record`.`id` IS NULL OR `record`.`enable` = 0 OR `record`.`status` IN ('4', '6'))
+GROUP BY `group`.`id`;
+
+-- 已在金流服務建立的金融機構帳號，同一帳號再次刊登商品群組時不再送出建立指令
+CREATE TABLE `camping`.`registered_bank_account`
+(
+    `account`     VARCHAR(16) NOT NULL COMMENT '金融機構帳號',
+    `create_date` DATETIME    NOT NULL COMMENT '在金流服務建立完成的時間',
+    PRIMARY KEY (`account`)
+) COMMENT '已在金流服務建立的金融機構帳號';
+
+-- 既有商品群組的帳號在刊登時都已同步建立
+INSERT IGNORE INTO `camping`.`registered_bank_account` (`account`, `create_date`)
+SELECT DISTINCT `bank_account`, NOW()
+FROM `camping`.`product_group`;
+
+-- 可租借日曆：第n個位元代表可租借起始日期後第n天是否可租借，NULL代表尚未有任何租借
+-- 同一商品群組不重疊的租借可同時存在，商品群組不再因任何一筆租借而從可租借商品列表移除
+-- 升級前已被租借的商品群組，由應用程式啟動時依租借紀錄補建日曆(ProductGroupCalendarManager)
+ALTER TABLE `camping`.`product_group`
+    ADD COLUMN `available_day_bitmap` VARBINARY(512) NULL COMMENT '可租借日曆' AFTER `product_type_mask`;
+
+ALTER TABLE `camping`.`can_borrow_product_group`
+    ADD COLUMN `available_day_bitmap` VARBINARY(512) NULL COMMENT '可租借日曆' AFTER `product_type_mask`;
+
+CREATE OR REPLACE VIEW `camping`.`can_borrow_product_group_source` AS
+SELECT `group`.`id`                                                 AS `id`,
+       `group`.`name`                                               AS `name`,
+       `group`.`cover_image`                                        AS `cover_image`,
+       `group`.`price`                                              AS `price`,
+       `group`.`borrow_start_date`                                  AS `borrow_start_date`,
+       `group`.`borrow_end_date`                                    AS `borrow_end_date`,
+       CONCAT(`group`.`city_name`, ' ', `group`.`city_area_name`)   AS `city`,
+       `group`.`city_name`                                          AS `city_name`,
+       `group`.`city_area_name`                                     AS `city_area_name`,
+       CONCAT(`user`.`account`, '(', `user`.`nick_name`, ')')       AS `user_name`,
+       `group`.`product_type_mask`                                  AS `product_type_mask`,
+       IFNULL(`summary`.`comment_sum` / `summary`.`comment_count`, 0) AS `comment`,
+       `group`.`available_day_bitmap`                               AS `available_day_bitmap`
+FROM `camping`.`product_group` `group`
+         JOIN `camping`.`user` `user` ON `group`.`create_account` = `user`.`account`
+         LEFT JOIN `camping`.`product_group_comment_summary` `summary` ON `group`.`id` = `summary`.`group_id`
+WHERE `group`.`enable` = 1;
+
+DELETE
+FROM `camping`.`can_borrow_product_group`;
+
+INSERT INTO `camping`.`can_borrow_product_group` (`id`, `name`, `cover_image`, `price`, `borrow_start_date`,
+                                                  `borrow_end_date`, `city`, `city_name`, `city_area_name`,
+                                                  `user_name`, `product_type_mask`, `comment`, `available_day_bitmap`)
+SELECT `id`, `name`, `cover_image`, `price`, `borrow_start_date`, `borrow_end_date`, `city`, `city_name`,
+       `city_area_name`, `user_name`, `product_type_mask`, `comment`, `available_day_bitmap`
+FROM `camping`.`can_borrow_product_group_source`;
+
+ALTER TABLE `camping`.`product_group`
+    ADD COLUMN `version` INT UNSIGNED NOT NULL DEFAULT 0 COMMENT '可租借日曆的版本' AFTER `available_day_bitmap`;
+
+-- 商品、商品圖片、租借明細改由序列分配流水編號，一次取得50個，讓新增多筆時能以JDBC batch送出
+-- MySQL沒有序列，Hibernate以單列資料表模擬，next_val為下一個可分配的編號
+-- 連線網址需加上 rewriteBatchedStatements=true，batch才會合併為單一INSERT
+CREATE TABLE `camping`.`product_seq`
+(
+    `next_val` BIGINT NOT NULL COMMENT '下一個可分配的商品編號'
+) COMMENT '商品流水編號序列';
+
+INSERT INTO `camping`.`product_seq` (`next_val`)
+SELECT IFNULL(MAX(`id`), 0) + 1
+FROM `camping`.`product`;
+
+CREATE TABLE `camping`.`product_image_seq`
+(
+    `next_val` BIGINT NOT NULL COMMENT '下一個可分配的商品圖片編號'
+) COMMENT '商品圖片流水編號序列';
+
+INSERT INTO `camping`.`product_image_seq` (`next_val`)
+SELECT IFNULL(MAX(`id`), 0) + 1
+FROM `camping`.`product_image`;
+
+CREATE TABLE `camping`.`rental_detail_seq`
+(
+    `next_val` BIGINT NOT NULL COMMENT '下一個可分配的租借明細編號'
+) COMMENT '租借明細流水編號序列';
+
+INSERT INTO `camping`.`rental_detail_seq` (`next_val`)
+SELECT IFNULL(MAX(`id`), 0) + 1
+FROM `camping`.`rental_detail`;
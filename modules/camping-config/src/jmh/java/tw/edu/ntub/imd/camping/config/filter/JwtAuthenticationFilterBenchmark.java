@@ -0,0 +1,64 @@
+package tw.edu.ntub.imd.camping.config.filter;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import tw.edu.ntub.imd.camping.config.util.JwtAuthenticationCache;
+import tw.edu.ntub.imd.camping.config.util.JwtUtils;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比較JwtAuthenticationFilter使用與不使用JwtAuthenticationCache時，每個請求的處理時間
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        JwtUtils jwtUtils = new JwtUtils("benchmarkSecret");
+        cachedFilter = new JwtAuthenticationFilter(new JwtAuthenticationCache(jwtUtils, 10000, 1800));
+        uncachedFilter = new JwtAuthenticationFilter(new JwtAuthenticationCache(jwtUtils, 0, 1800));
+        String token = jwtUtils.getToken(new User(
+                "benchmark",
+                "",
+                List.of(new SimpleGrantedAuthority("ROLE_USER"))
+        ));
+        request = new MockHttpServletRequest("GET", "/product-group");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Object cached() throws IOException, ServletException {
+        cachedFilter.doFilter(request, response, new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Object uncached() throws IOException, ServletException {
+        uncachedFilter.doFilter(request, response, new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
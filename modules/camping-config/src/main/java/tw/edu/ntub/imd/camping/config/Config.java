@@ -68,7 +68,7 @@ public class Config implements WebMvcConfigurer {
                 .allowedOrigins("*")
                 .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
-                .exposedHeaders("X-Auth-Token");
+                .exposedHeaders("X-Auth-Token", "X-Next-Cursor");
     }
 
     @Override
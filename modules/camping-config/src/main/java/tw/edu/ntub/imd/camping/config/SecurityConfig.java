@@ -1,6 +1,8 @@
 package tw.edu.ntub.imd.camping.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
@@ -11,20 +13,25 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.access.expression.DefaultWebSecurityExpressionHandler;
+import org.springframework.security.web.access.intercept.FilterSecurityInterceptor;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import tw.edu.ntub.imd.camping.config.context.DeferredJwtAuthenticationTrustResolver;
+import tw.edu.ntub.imd.camping.config.crypto.BoundedPasswordEncoder;
 import tw.edu.ntub.imd.camping.config.entrypoint.CustomEntryPoint;
 import tw.edu.ntub.imd.camping.config.filter.CustomLoginFilter;
 import tw.edu.ntub.imd.camping.config.filter.JwtAuthenticationFilter;
 import tw.edu.ntub.imd.camping.config.handler.CustomAuthenticationSuccessHandler;
 import tw.edu.ntub.imd.camping.config.handler.CustomerAccessDeniedHandler;
+import tw.edu.ntub.imd.camping.config.limiter.LoginAttemptLimiter;
 import tw.edu.ntub.imd.camping.config.properties.FileProperties;
 import tw.edu.ntub.imd.camping.config.provider.CustomAuthenticationProvider;
+import tw.edu.ntub.imd.camping.config.util.JwtAuthenticationCache;
 import tw.edu.ntub.imd.camping.config.util.JwtUtils;
 
 import java.util.Collections;
@@ -36,26 +43,66 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     private final String fileUrlName;
     private final UserDetailsService userDetailsService;
     private final JwtUtils jwtUtils;
+    private final JwtAuthenticationCache jwtAuthenticationCache;
 
     @Autowired
     public SecurityConfig(
             FileProperties fileProperties,
             UserDetailsService userDetailsService,
-            JwtUtils jwtUtils
+            JwtUtils jwtUtils,
+            JwtAuthenticationCache jwtAuthenticationCache
     ) {
         this.fileUrlName = fileProperties.getName();
         this.userDetailsService = userDetailsService;
         this.jwtUtils = jwtUtils;
+        this.jwtAuthenticationCache = jwtAuthenticationCache;
     }
 
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
-        auth.authenticationProvider(new CustomAuthenticationProvider(userDetailsService, passwordEncoder()));
+        ApplicationContext applicationContext = getApplicationContext();
+        auth.authenticationProvider(new CustomAuthenticationProvider(
+                userDetailsService,
+                applicationContext.getBean(PasswordEncoder.class),
+                applicationContext.getBean(LoginAttemptLimiter.class)
+        ));
     }
 
+    /**
+     * 密碼雜湊在獨立的執行緒中計算，設定值：
+     * camping.password.bcrypt-strength: BCrypt cost，預設10，調整後使用者下次登入時會重新雜湊
+     * camping.password.pool-size: 計算雜湊的執行緒數，預設為CPU核心數
+     * camping.password.queue-capacity: 等待計算的最大請求數，預設50
+     * camping.password.wait-timeout: 排隊加上計算的最長等待毫秒數，預設2000
+     */
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${camping.password.bcrypt-strength:10}") int strength,
+            @Value("${camping.password.pool-size:0}") int poolSize,
+            @Value("${camping.password.queue-capacity:50}") int queueCapacity,
+            @Value("${camping.password.wait-timeout:2000}") long waitTimeoutMillis
+    ) {
+        return new BoundedPasswordEncoder(
+                strength,
+                poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors(),
+                queueCapacity,
+                waitTimeoutMillis
+        );
+    }
+
+    /**
+     * 登入嘗試限制，設定值：
+     * camping.login-attempt.max-account-failures: 同一帳號在區間內的最大失敗次數，預設5
+     * camping.login-attempt.max-ip-attempts: 同一IP在區間內的最大嘗試次數，預設30
+     * camping.login-attempt.window-seconds: 區間秒數，預設300
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public LoginAttemptLimiter loginAttemptLimiter(
+            @Value("${camping.login-attempt.max-account-failures:5}") int maxAccountFailures,
+            @Value("${camping.login-attempt.max-ip-attempts:30}") int maxIpAttempts,
+            @Value("${camping.login-attempt.window-seconds:300}") long windowSeconds
+    ) {
+        return new LoginAttemptLimiter(maxAccountFailures, maxIpAttempts, windowSeconds);
     }
 
     // 這個表示哪些頁面"不會用到SpringSecurity"，相當於xml中的security="none"
@@ -115,7 +162,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         configuration.setAllowedOrigins(Collections.singletonList("*"));
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Collections.singletonList("*"));
-        configuration.setExposedHeaders(Collections.singletonList("X-Auth-Token"));
+        configuration.setExposedHeaders(List.of("X-Auth-Token", "X-Next-Cursor"));
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
         return source;
@@ -123,12 +170,16 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     private void configFilter(HttpSecurity http) throws Exception {
         http.userDetailsService(userDetailsService)
-                .addFilterBefore(new JwtAuthenticationFilter(jwtUtils), UsernamePasswordAuthenticationFilter.class)
+                // 放在AnonymousAuthenticationFilter、SessionManagementFilter之後，只有權限判斷會驗證Token
+                .addFilterBefore(new JwtAuthenticationFilter(jwtAuthenticationCache), FilterSecurityInterceptor.class)
                 .addFilterBefore(new CustomLoginFilter(authenticationManager(), new CustomAuthenticationSuccessHandler(jwtUtils)), UsernamePasswordAuthenticationFilter.class);
     }
 
     private void configRequestAuthorize(HttpSecurity http) throws Exception {
+        DefaultWebSecurityExpressionHandler expressionHandler = new DefaultWebSecurityExpressionHandler();
+        expressionHandler.setTrustResolver(new DeferredJwtAuthenticationTrustResolver());
         http.authorizeRequests() // 設定Requests的權限需求
+                .expressionHandler(expressionHandler)
                 .antMatchers(HttpMethod.GET, "/rental").authenticated()
                 .antMatchers(HttpMethod.POST, "/user/contact-information").authenticated()
                 .antMatchers(HttpMethod.POST, "/product-group/**", "/rental/**").authenticated()
@@ -152,6 +203,12 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         http.logout() // 設定Logout
                 .logoutRequestMatcher(new AntPathRequestMatcher("/logout", "GET")) // 設定Logout URL
                 .logoutSuccessUrl("/login") // 設定登出成功後的URL
+                .addLogoutHandler((request, response, authentication) -> { // 登出後該Token需重新驗證
+                    String authorization = request.getHeader("Authorization");
+                    if (authorization != null && authorization.startsWith("Bearer ")) {
+                        jwtAuthenticationCache.evict(authorization.replaceFirst("Bearer ", ""));
+                    }
+                })
                 .deleteCookies("JSESSIONID");
     }
 
@@ -0,0 +1,123 @@
+package tw.edu.ntub.imd.camping.config.context;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import tw.edu.ntub.imd.camping.config.util.JwtAuthenticationCache;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * 尚未驗證的JWT，第一次需要使用者資訊時才驗證Token
+ * 驗證失敗時視為匿名使用者，與{@link org.springframework.security.web.authentication.AnonymousAuthenticationFilter}相同
+ *
+ * @see DeferredJwtSecurityContext
+ * @since 1.5.0
+ */
+public class DeferredJwtAuthentication implements Authentication {
+    private static final Logger log = LogManager.getLogger(DeferredJwtAuthentication.class);
+    private static final String ANONYMOUS_KEY = UUID.randomUUID().toString();
+    private final transient JwtAuthenticationCache jwtAuthenticationCache;
+    private final String token;
+    private volatile Authentication resolved;
+
+    public DeferredJwtAuthentication(JwtAuthenticationCache jwtAuthenticationCache, String token) {
+        this.jwtAuthenticationCache = jwtAuthenticationCache;
+        this.token = token;
+    }
+
+    public boolean isResolved() {
+        return resolved != null;
+    }
+
+    /**
+     * @return Token對應的登入資訊，Token無效時為{@link AnonymousAuthenticationToken}
+     */
+    public Authentication resolve() {
+        Authentication result = resolved;
+        if (result == null) {
+            synchronized (this) {
+                result = resolved;
+                if (result == null) {
+                    result = resolved = verify();
+                }
+            }
+        }
+        return result;
+    }
+
+    private Authentication verify() {
+        try {
+            return jwtAuthenticationCache.getAuthentication(token);
+        } catch (ExpiredJwtException |
+                UnsupportedJwtException |
+                MalformedJwtException |
+                SignatureException |
+                IllegalArgumentException e) {
+            log.error("JWT解析錯誤", e);
+            return new AnonymousAuthenticationToken(
+                    ANONYMOUS_KEY,
+                    "anonymousUser",
+                    AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")
+            );
+        }
+    }
+
+    public boolean isAnonymous() {
+        return resolve() instanceof AnonymousAuthenticationToken;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return resolve().getAuthorities();
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getDetails() {
+        return resolve().getDetails();
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return resolve().getPrincipal();
+    }
+
+    /**
+     * 尚未驗證時回傳true，避免{@link org.springframework.security.access.intercept.AbstractSecurityInterceptor}
+     * 為了permitAll的請求驗證Token，實際的權限判斷由{@link DeferredJwtAuthenticationTrustResolver}處理
+     */
+    @Override
+    public boolean isAuthenticated() {
+        Authentication result = resolved;
+        return result == null || result.isAuthenticated();
+    }
+
+    @Override
+    public void setAuthenticated(boolean isAuthenticated) {
+        resolve().setAuthenticated(isAuthenticated);
+    }
+
+    @Override
+    public String getName() {
+        return resolve().getName();
+    }
+
+    @Override
+    public String toString() {
+        Authentication result = resolved;
+        return result != null ? result.toString() : "DeferredJwtAuthentication [Unresolved]";
+    }
+}
@@ -0,0 +1,28 @@
+package tw.edu.ntub.imd.camping.config.context;
+
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.core.Authentication;
+
+/**
+ * 權限判斷需要知道是否為匿名使用者時，才驗證{@link DeferredJwtAuthentication}的Token
+ *
+ * @since 1.5.0
+ */
+public class DeferredJwtAuthenticationTrustResolver extends AuthenticationTrustResolverImpl {
+
+    @Override
+    public boolean isAnonymous(Authentication authentication) {
+        if (authentication instanceof DeferredJwtAuthentication) {
+            return ((DeferredJwtAuthentication) authentication).isAnonymous();
+        }
+        return super.isAnonymous(authentication);
+    }
+
+    @Override
+    public boolean isRememberMe(Authentication authentication) {
+        if (authentication instanceof DeferredJwtAuthentication) {
+            return super.isRememberMe(((DeferredJwtAuthentication) authentication).resolve());
+        }
+        return super.isRememberMe(authentication);
+    }
+}
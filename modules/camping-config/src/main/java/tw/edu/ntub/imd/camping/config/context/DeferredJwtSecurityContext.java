@@ -0,0 +1,58 @@
+package tw.edu.ntub.imd.camping.config.context;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+
+import java.util.Objects;
+
+/**
+ * 請求帶有JWT時使用的SecurityContext，Token驗證前回傳{@link DeferredJwtAuthentication}，
+ * 驗證後回傳實際的登入資訊或匿名使用者
+ *
+ * @since 1.5.0
+ */
+public class DeferredJwtSecurityContext implements SecurityContext {
+    private static final long serialVersionUID = 1L;
+    private final transient DeferredJwtAuthentication deferredAuthentication;
+    private boolean overridden;
+    private Authentication authentication;
+
+    public DeferredJwtSecurityContext(DeferredJwtAuthentication deferredAuthentication) {
+        this.deferredAuthentication = deferredAuthentication;
+    }
+
+    @Override
+    public Authentication getAuthentication() {
+        if (overridden) {
+            return authentication;
+        }
+        return deferredAuthentication.isResolved() ? deferredAuthentication.resolve() : deferredAuthentication;
+    }
+
+    @Override
+    public void setAuthentication(Authentication authentication) {
+        this.overridden = true;
+        this.authentication = authentication;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SecurityContext)) {
+            return false;
+        }
+        return Objects.equals(getAuthentication(), ((SecurityContext) o).getAuthentication());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getAuthentication());
+    }
+
+    @Override
+    public String toString() {
+        return "DeferredJwtSecurityContext [Authentication=" + getAuthentication() + "]";
+    }
+}
@@ -0,0 +1,109 @@
+package tw.edu.ntub.imd.camping.config.crypto;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import tw.edu.ntub.imd.camping.config.exception.PasswordEncoderBusyException;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 在固定數量的執行緒中執行BCrypt，避免大量登入時所有請求執行緒都在計算雜湊
+ * 排隊加上計算超過等待時間，或佇列已滿時，拋出{@link PasswordEncoderBusyException}
+ * 已儲存密碼的cost與目前設定不同時，{@link #upgradeEncoding(String)}回傳true
+ *
+ * @since 1.5.0
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private static final Pattern BCRYPT_COST_PATTERN = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+    private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final long waitTimeoutMillis;
+
+    /**
+     * @param strength          BCrypt cost(4 ~ 31)，每加1計算時間約加倍
+     * @param poolSize          同時計算雜湊的執行緒數
+     * @param queueCapacity     等待計算的最大請求數
+     * @param waitTimeoutMillis 排隊加上計算的最長等待時間(毫秒)
+     */
+    public BoundedPasswordEncoder(int strength, int poolSize, int queueCapacity, long waitTimeoutMillis) {
+        this.bCryptPasswordEncoder = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-encoder-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> bCryptPasswordEncoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> bCryptPasswordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST_PATTERN.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new PasswordEncoderBusyException(e);
+        }
+        try {
+            return future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new PasswordEncoderBusyException(e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordEncoderBusyException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
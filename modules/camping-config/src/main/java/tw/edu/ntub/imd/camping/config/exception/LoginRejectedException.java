@@ -0,0 +1,43 @@
+package tw.edu.ntub.imd.camping.config.exception;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * 登入請求在驗證密碼前就被拒絕，由{@link tw.edu.ntub.imd.camping.config.handler.CustomAuthenticationFailHandler}
+ * 以指定的HTTP狀態碼與錯誤代碼回應
+ *
+ * @since 1.5.0
+ */
+public class LoginRejectedException extends AuthenticationServiceException {
+    public static final String TOO_MANY_ATTEMPTS_ERROR_CODE = "User - TooManyLoginAttempts";
+    private final int status;
+    private final String errorCode;
+
+    public LoginRejectedException(String message, int status, String errorCode) {
+        super(message);
+        this.status = status;
+        this.errorCode = errorCode;
+    }
+
+    public LoginRejectedException(String message, int status, String errorCode, Throwable cause) {
+        super(message, cause);
+        this.status = status;
+        this.errorCode = errorCode;
+    }
+
+    public static LoginRejectedException tooManyAttempts() {
+        return new LoginRejectedException("登入嘗試次數過多，請稍後再試", 429, TOO_MANY_ATTEMPTS_ERROR_CODE);
+    }
+
+    public static LoginRejectedException busy(PasswordEncoderBusyException cause) {
+        return new LoginRejectedException(cause.getMessage(), 503, cause.getErrorCode(), cause);
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+}
@@ -0,0 +1,26 @@
+package tw.edu.ntub.imd.camping.config.exception;
+
+import tw.edu.ntub.birc.common.exception.ProjectException;
+
+/**
+ * 密碼雜湊的執行緒都在忙碌中，且無法在等待時間內處理
+ *
+ * @see tw.edu.ntub.imd.camping.config.crypto.BoundedPasswordEncoder
+ * @since 1.5.0
+ */
+public class PasswordEncoderBusyException extends ProjectException {
+    public static final String ERROR_CODE = "Password - Busy";
+
+    public PasswordEncoderBusyException() {
+        super("系統忙碌中，請稍後再試");
+    }
+
+    public PasswordEncoderBusyException(Throwable cause) {
+        super("系統忙碌中，請稍後再試", cause);
+    }
+
+    @Override
+    public String getErrorCode() {
+        return ERROR_CODE;
+    }
+}
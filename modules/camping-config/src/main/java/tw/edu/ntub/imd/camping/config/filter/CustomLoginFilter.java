@@ -1,7 +1,8 @@
 package tw.edu.ntub.imd.camping.config.filter;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -13,10 +14,13 @@ import tw.edu.ntub.imd.camping.config.handler.CustomAuthenticationFailHandler;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.io.BufferedReader;
 import java.io.IOException;
 
 public class CustomLoginFilter extends UsernamePasswordAuthenticationFilter {
+    // ObjectReader不可變且執行緒安全，所有登入請求共用，直接從InputStream解析而不先讀成字串
+    private static final ObjectReader LOGIN_REQUEST_READER = new ObjectMapper()
+            .readerFor(LoginRequest.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
 
     public CustomLoginFilter(AuthenticationManager authenticationManager, AuthenticationSuccessHandler authenticationSuccessHandler) {
         setUsernameParameter("account");
@@ -29,13 +33,11 @@ public class CustomLoginFilter extends UsernamePasswordAuthenticationFilter {
     @Override
     public Authentication attemptAuthentication(HttpServletRequest request, HttpServletResponse response) throws AuthenticationException {
         if (request.getMethod().equalsIgnoreCase("POST")) {
-            String account = obtainUsername(request);
-            String password = obtainPassword(request);
             UsernamePasswordAuthenticationToken authentication;
             if (request.getContentType().startsWith("application/json")) {
                 authentication = resolveAuthenticationFromRequestBody(request);
             } else {
-                authentication = new UsernamePasswordAuthenticationToken(account, password);
+                authentication = new UsernamePasswordAuthenticationToken(obtainUsername(request), obtainPassword(request));
             }
             setDetails(request, authentication);
             return getAuthenticationManager().authenticate(authentication);
@@ -45,22 +47,21 @@ public class CustomLoginFilter extends UsernamePasswordAuthenticationFilter {
     }
 
     private UsernamePasswordAuthenticationToken resolveAuthenticationFromRequestBody(HttpServletRequest request) throws AuthenticationException {
-        StringBuilder stringBuilder = new StringBuilder();
-        String line;
+        LoginRequest loginRequest;
         try {
-            BufferedReader reader = request.getReader();
-            while ((line = reader.readLine()) != null) {
-                stringBuilder.append(line);
-            }
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode loginRequest = mapper.readTree(stringBuilder.toString());
-            return new UsernamePasswordAuthenticationToken(
-                    loginRequest.findValue("account").asText(),
-                    loginRequest.findValue("password").asText()
-            );
+            loginRequest = LOGIN_REQUEST_READER.readValue(request.getInputStream());
         } catch (IOException e) {
-            e.printStackTrace();
+            logger.debug("登入資料格式錯誤", e);
+            throw new AuthenticationServiceException("登入失敗");
+        }
+        if (loginRequest == null || loginRequest.account == null || loginRequest.password == null) {
             throw new AuthenticationServiceException("登入失敗");
         }
+        return new UsernamePasswordAuthenticationToken(loginRequest.account, loginRequest.password);
+    }
+
+    private static class LoginRequest {
+        public String account;
+        public String password;
     }
 }
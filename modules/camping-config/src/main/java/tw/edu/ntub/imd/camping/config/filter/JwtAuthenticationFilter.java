@@ -1,19 +1,16 @@
 package tw.edu.ntub.imd.camping.config.filter;
 
-import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.SignatureException;
-import io.jsonwebtoken.UnsupportedJwtException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.InsufficientAuthenticationException;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import tw.edu.ntub.imd.camping.config.util.JwtUtils;
+import tw.edu.ntub.imd.camping.config.context.DeferredJwtAuthentication;
+import tw.edu.ntub.imd.camping.config.context.DeferredJwtSecurityContext;
+import tw.edu.ntub.imd.camping.config.util.JwtAuthenticationCache;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -21,30 +18,27 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
+/**
+ * 請求帶有JWT時放入{@link DeferredJwtSecurityContext}，
+ * Token在權限判斷或取得登入帳號時才驗證，不需登入的請求不會驗證Token
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final Logger log = LogManager.getLogger(JwtAuthenticationFilter.class);
-    private final JwtUtils jwtUtils;
+    private final JwtAuthenticationCache jwtAuthenticationCache;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtUtils jwtUtils) {
-        this.jwtUtils = jwtUtils;
+    public JwtAuthenticationFilter(JwtAuthenticationCache jwtAuthenticationCache) {
+        this.jwtAuthenticationCache = jwtAuthenticationCache;
     }
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain chain) throws IOException, ServletException {
         if (isContainsToken(request)) {
             String token = request.getHeader("Authorization").replaceFirst("Bearer ", "");
-            try {
-                Authentication authentication = jwtUtils.getAuthentication(token);
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-            } catch (ExpiredJwtException |
-                    UnsupportedJwtException |
-                    MalformedJwtException |
-                    SignatureException |
-                    IllegalArgumentException e) {
-                log.error("JWT解析錯誤", e);
-            }
+            SecurityContextHolder.setContext(new DeferredJwtSecurityContext(
+                    new DeferredJwtAuthentication(jwtAuthenticationCache, token)
+            ));
         }
         try {
             chain.doFilter(request, response);
@@ -3,6 +3,7 @@ package tw.edu.ntub.imd.camping.config.handler;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import tw.edu.ntub.imd.camping.config.exception.LoginRejectedException;
 import tw.edu.ntub.imd.camping.config.util.ResponseUtils;
 
 import javax.servlet.ServletException;
@@ -15,6 +16,18 @@ public class CustomAuthenticationFailHandler implements AuthenticationFailureHan
     public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response, AuthenticationException exception) throws IOException, ServletException {
         exception.printStackTrace();
         ObjectMapper mapper = new ObjectMapper();
+        if (exception instanceof LoginRejectedException) {
+            LoginRejectedException loginRejectedException = (LoginRejectedException) exception;
+            ResponseUtils.response(
+                    response,
+                    loginRejectedException.getStatus(),
+                    false,
+                    loginRejectedException.getErrorCode(),
+                    exception.getMessage(),
+                    mapper.createObjectNode()
+            );
+            return;
+        }
         ResponseUtils.response(
                 response,
                 401,
@@ -0,0 +1,94 @@
+package tw.edu.ntub.imd.camping.config.limiter;
+
+import org.springframework.lang.Nullable;
+import tw.edu.ntub.imd.camping.config.exception.LoginRejectedException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 以固定時間區間限制登入嘗試，在驗證密碼前拒絕超過次數的請求：
+ * 同一帳號在區間內最多失敗maxAccountFailures次，成功登入後重新計算；
+ * 同一IP在區間內最多嘗試maxIpAttempts次，不論成功或失敗
+ *
+ * @since 1.5.0
+ */
+public class LoginAttemptLimiter {
+    // 超過此筆數時才清除已過期的區間，避免每次都掃描整個Map
+    private static final int PURGE_THRESHOLD = 10000;
+    private final int maxAccountFailures;
+    private final int maxIpAttempts;
+    private final long windowMillis;
+    private final Map<String, Window> accountFailureMap = new ConcurrentHashMap<>();
+    private final Map<String, Window> ipAttemptMap = new ConcurrentHashMap<>();
+
+    public LoginAttemptLimiter(int maxAccountFailures, int maxIpAttempts, long windowSeconds) {
+        this.maxAccountFailures = maxAccountFailures;
+        this.maxIpAttempts = maxIpAttempts;
+        this.windowMillis = TimeUnit.SECONDS.toMillis(windowSeconds);
+    }
+
+    /**
+     * 記錄一次登入嘗試，帳號或IP已超過限制時拋出例外
+     *
+     * @param account 帳號
+     * @param ip      來源IP，無法取得時為null
+     * @throws LoginRejectedException 已超過限制
+     */
+    public void acquire(String account, @Nullable String ip) throws LoginRejectedException {
+        long now = System.currentTimeMillis();
+        purgeIfNeeded(now);
+        if (getCount(accountFailureMap, account, now) >= maxAccountFailures) {
+            throw LoginRejectedException.tooManyAttempts();
+        }
+        if (ip != null && increment(ipAttemptMap, ip, now) > maxIpAttempts) {
+            throw LoginRejectedException.tooManyAttempts();
+        }
+    }
+
+    public void recordFailure(String account) {
+        increment(accountFailureMap, account, System.currentTimeMillis());
+    }
+
+    public void recordSuccess(String account) {
+        accountFailureMap.remove(account);
+    }
+
+    private int getCount(Map<String, Window> map, String key, long now) {
+        Window window = map.get(key);
+        return window != null && !window.isExpired(now, windowMillis) ? window.count : 0;
+    }
+
+    private int increment(Map<String, Window> map, String key, long now) {
+        return map.compute(key, (k, window) -> {
+            if (window == null || window.isExpired(now, windowMillis)) {
+                return new Window(now, 1);
+            }
+            return new Window(window.startTime, window.count + 1);
+        }).count;
+    }
+
+    private void purgeIfNeeded(long now) {
+        if (accountFailureMap.size() > PURGE_THRESHOLD) {
+            accountFailureMap.values().removeIf(window -> window.isExpired(now, windowMillis));
+        }
+        if (ipAttemptMap.size() > PURGE_THRESHOLD) {
+            ipAttemptMap.values().removeIf(window -> window.isExpired(now, windowMillis));
+        }
+    }
+
+    private static class Window {
+        private final long startTime;
+        private final int count;
+
+        private Window(long startTime, int count) {
+            this.startTime = startTime;
+            this.count = count;
+        }
+
+        private boolean isExpired(long now, long windowMillis) {
+            return now - startTime >= windowMillis;
+        }
+    }
+}
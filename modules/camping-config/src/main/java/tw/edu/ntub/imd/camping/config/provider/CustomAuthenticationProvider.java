@@ -1,20 +1,33 @@
 package tw.edu.ntub.imd.camping.config.provider;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.authentication.dao.AbstractUserDetailsAuthenticationProvider;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import tw.edu.ntub.imd.camping.config.exception.LoginRejectedException;
+import tw.edu.ntub.imd.camping.config.exception.PasswordEncoderBusyException;
+import tw.edu.ntub.imd.camping.config.limiter.LoginAttemptLimiter;
 
 public class CustomAuthenticationProvider extends AbstractUserDetailsAuthenticationProvider {
+    private final Logger log = LogManager.getLogger(CustomAuthenticationProvider.class);
     private final UserDetailsService userDetailsService;
     private final PasswordEncoder passwordEncoder;
+    private final LoginAttemptLimiter loginAttemptLimiter;
 
-    public CustomAuthenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder) {
+    public CustomAuthenticationProvider(
+            UserDetailsService userDetailsService,
+            PasswordEncoder passwordEncoder,
+            LoginAttemptLimiter loginAttemptLimiter) {
         this.userDetailsService = userDetailsService;
         this.passwordEncoder = passwordEncoder;
+        this.loginAttemptLimiter = loginAttemptLimiter;
         setHideUserNotFoundExceptions(false);
     }
 
@@ -32,11 +45,43 @@ public class CustomAuthenticationProvider extends AbstractUserDetailsAuthenticat
     protected UserDetails retrieveUser(String username, UsernamePasswordAuthenticationToken authentication) throws AuthenticationException {
         String account = authentication.getName();
         String password = authentication.getCredentials().toString();
-        UserDetails userDetails = userDetailsService.loadUserByUsername(account);
-        if (passwordEncoder.matches(password, userDetails.getPassword())) {
+        loginAttemptLimiter.acquire(account, getRemoteAddress(authentication));
+        UserDetails userDetails;
+        try {
+            userDetails = userDetailsService.loadUserByUsername(account);
+            if (!passwordEncoder.matches(password, userDetails.getPassword())) {
+                throw new UsernameNotFoundException("請檢查帳號密碼是否錯誤");
+            }
+        } catch (UsernameNotFoundException e) {
+            loginAttemptLimiter.recordFailure(account);
+            throw e;
+        } catch (PasswordEncoderBusyException e) {
+            throw LoginRejectedException.busy(e);
+        }
+        loginAttemptLimiter.recordSuccess(account);
+        return upgradePasswordIfNeeded(userDetails, password);
+    }
+
+    private String getRemoteAddress(UsernamePasswordAuthenticationToken authentication) {
+        Object details = authentication.getDetails();
+        return details instanceof WebAuthenticationDetails ? ((WebAuthenticationDetails) details).getRemoteAddress() : null;
+    }
+
+    // 密碼雜湊的cost調整後，在使用者下次登入成功時以新的cost重新雜湊
+    private UserDetails upgradePasswordIfNeeded(UserDetails userDetails, String password) {
+        if (!(userDetailsService instanceof UserDetailsPasswordService) ||
+                !passwordEncoder.upgradeEncoding(userDetails.getPassword())) {
+            return userDetails;
+        }
+        try {
+            return ((UserDetailsPasswordService) userDetailsService).updatePassword(
+                    userDetails,
+                    passwordEncoder.encode(password)
+            );
+        } catch (RuntimeException e) {
+            // 密碼已驗證正確，重新雜湊失敗(如雜湊忙碌、資料庫錯誤)不影響登入
+            log.warn("重新雜湊密碼失敗，下次登入時再試：" + userDetails.getUsername(), e);
             return userDetails;
-        } else {
-            throw new UsernameNotFoundException("請檢查帳號密碼是否錯誤");
         }
     }
 }
@@ -0,0 +1,137 @@
+package tw.edu.ntub.imd.camping.config.util;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已驗證過的JWT快取，以Token的SHA-256為key，同一個Token在有效期間內不需要重新驗證簽章
+ * 最多保留camping.jwt-cache.max-size筆(預設10000，設為0可停用)，
+ * 從Token簽發(iat)起算保留camping.jwt-cache.ttl-seconds秒(預設1800)，Token有exp時不會超過exp，
+ * 超過保留時間的Token每次使用都重新驗證簽章，不會因為重複使用而一直留在快取中
+ *
+ * @since 1.5.0
+ */
+@Component
+public class JwtAuthenticationCache {
+    private final JwtUtils jwtUtils;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<ByteBuffer, Entry> cacheMap = new ConcurrentHashMap<>();
+
+    public JwtAuthenticationCache(
+            JwtUtils jwtUtils,
+            @Value("${camping.jwt-cache.max-size:10000}") int maxSize,
+            @Value("${camping.jwt-cache.ttl-seconds:1800}") long ttlSeconds) {
+        this.jwtUtils = jwtUtils;
+        this.maxSize = maxSize;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+    }
+
+    /**
+     * 取得Token對應的登入資訊，快取中沒有或已過期時才驗證簽章
+     *
+     * @param token JWT
+     * @return 每次都是新的Authentication，呼叫端可以自由修改
+     * @throws io.jsonwebtoken.JwtException Token格式錯誤、簽章錯誤或已過期
+     */
+    @NonNull
+    public Authentication getAuthentication(@NonNull String token) {
+        if (maxSize <= 0) {
+            return jwtUtils.getAuthentication(token);
+        }
+        ByteBuffer key = digest(token);
+        long now = System.currentTimeMillis();
+        Entry entry = cacheMap.get(key);
+        if (entry == null || entry.expireAt <= now) {
+            Claims claims = jwtUtils.parseClaims(token);
+            entry = new Entry(jwtUtils.getAuthentication(claims), getExpireAt(claims, now));
+            if (entry.expireAt > now) {
+                put(key, entry, now);
+            } else {
+                cacheMap.remove(key);
+            }
+        }
+        return entry.newAuthentication();
+    }
+
+    // 沒有iat的Token不快取；iat在未來(時鐘誤差)時最多保留ttl
+    private long getExpireAt(Claims claims, long now) {
+        Date issuedAt = claims.getIssuedAt();
+        if (issuedAt == null) {
+            return now;
+        }
+        long expireAt = Math.min(issuedAt.getTime(), now) + ttlMillis;
+        Date expiration = claims.getExpiration();
+        return expiration != null ? Math.min(expireAt, expiration.getTime()) : expireAt;
+    }
+
+    private void put(ByteBuffer key, Entry entry, long now) {
+        if (cacheMap.size() >= maxSize) {
+            cacheMap.values().removeIf(cached -> cached.expireAt <= now);
+            Iterator<ByteBuffer> iterator = cacheMap.keySet().iterator();
+            while (cacheMap.size() >= maxSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        cacheMap.put(key, entry);
+    }
+
+    /**
+     * 移除指定Token，下次使用時會重新驗證
+     *
+     * @param token JWT
+     */
+    public void evict(@NonNull String token) {
+        cacheMap.remove(digest(token));
+    }
+
+    public void evictAll() {
+        cacheMap.clear();
+    }
+
+    public int size() {
+        return cacheMap.size();
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(messageDigest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JVM不支援SHA-256", e);
+        }
+    }
+
+    private static class Entry {
+        private final Authentication authentication;
+        private final long expireAt;
+
+        private Entry(Authentication authentication, long expireAt) {
+            this.authentication = authentication;
+            this.expireAt = expireAt;
+        }
+
+        private Authentication newAuthentication() {
+            return new UsernamePasswordAuthenticationToken(
+                    authentication.getPrincipal(),
+                    null,
+                    authentication.getAuthorities()
+            );
+        }
+    }
+}
@@ -19,8 +19,11 @@ import java.util.stream.Collectors;
 
 @Component
 public class JwtUtils {
-    @Value("spring.security.jwt.secret")
-    private String secret;
+    private final String secret;
+
+    public JwtUtils(@Value("spring.security.jwt.secret") String secret) {
+        this.secret = secret;
+    }
 
     public String getToken(UserDetails userDetails) {
         return Jwts.builder()
@@ -35,12 +38,31 @@ public class JwtUtils {
                 .compact();
     }
 
-    @SuppressWarnings("unchecked")
     public Authentication getAuthentication(String token) {
-        Claims body = Jwts.parser()
+        return getAuthentication(parseClaims(token));
+    }
+
+    /**
+     * 驗證簽章並取得Token內容
+     *
+     * @param token JWT
+     * @return Token內容
+     * @since 1.5.0
+     */
+    public Claims parseClaims(String token) {
+        return Jwts.parser()
                 .setSigningKey(secret)
                 .parseClaimsJws(token)
                 .getBody();
+    }
+
+    /**
+     * @param body 已驗證過的Token內容
+     * @return 登入資訊
+     * @since 1.5.0
+     */
+    @SuppressWarnings("unchecked")
+    public Authentication getAuthentication(Claims body) {
         List<String> roles = (List<String>) body.get("roles");
         return new UsernamePasswordAuthenticationToken(
                 body.getIssuer(),
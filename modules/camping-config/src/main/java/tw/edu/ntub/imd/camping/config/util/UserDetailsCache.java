@@ -0,0 +1,116 @@
+package tw.edu.ntub.imd.camping.config.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 登入用的使用者資料快取，以帳號為key，登入時不需要每次都查詢資料庫
+ * 最多保留camping.user-details-cache.max-size筆(預設10000，設為0可停用)，
+ * 每筆保留camping.user-details-cache.ttl-seconds秒(預設600)
+ * 使用者資料異動時需呼叫{@link #evict(String)}
+ *
+ * @since 1.5.0
+ */
+@Component
+public class UserDetailsCache {
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<String, Entry> cacheMap = new ConcurrentHashMap<>();
+    // 每次evict加1，查詢期間有evict時不放入快取，避免放入異動前的資料
+    private final AtomicLong evictCount = new AtomicLong();
+
+    public UserDetailsCache(
+            @Value("${camping.user-details-cache.max-size:10000}") int maxSize,
+            @Value("${camping.user-details-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+    }
+
+    /**
+     * 取得帳號對應的使用者資料，快取中沒有或已過期時才由loader查詢
+     *
+     * @param account 帳號
+     * @param loader  查詢使用者資料，查無此帳號時拋出{@link UsernameNotFoundException}，此結果不會被快取
+     * @return 每次都是新的UserDetails，登入後清除密碼不會影響快取
+     */
+    @NonNull
+    public UserDetails get(@NonNull String account, @NonNull Function<String, UserDetails> loader) {
+        if (maxSize <= 0) {
+            return loader.apply(account);
+        }
+        long now = System.currentTimeMillis();
+        Entry entry = cacheMap.get(account);
+        if (entry == null || entry.expireAt <= now) {
+            long evictCountBeforeLoad = evictCount.get();
+            entry = new Entry(loader.apply(account), now + ttlMillis);
+            if (evictCount.get() == evictCountBeforeLoad) {
+                put(account, entry, now);
+            }
+        }
+        return User.withUserDetails(entry.userDetails).build();
+    }
+
+    private void put(String account, Entry entry, long now) {
+        if (cacheMap.size() >= maxSize) {
+            cacheMap.values().removeIf(cached -> cached.expireAt <= now);
+            Iterator<String> iterator = cacheMap.keySet().iterator();
+            while (cacheMap.size() >= maxSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        cacheMap.put(account, entry);
+    }
+
+    /**
+     * 移除指定帳號，下次登入時重新查詢
+     * 在交易中呼叫時，交易結束後會再移除一次，避免交易提交前被其他請求以舊資料重新放入
+     *
+     * @param account 帳號
+     */
+    public void evict(@NonNull String account) {
+        evictCount.incrementAndGet();
+        cacheMap.remove(account);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictCount.incrementAndGet();
+                    cacheMap.remove(account);
+                }
+            });
+        }
+    }
+
+    public void evictAll() {
+        evictCount.incrementAndGet();
+        cacheMap.clear();
+    }
+
+    public int size() {
+        return cacheMap.size();
+    }
+
+    private static class Entry {
+        private final UserDetails userDetails;
+        private final long expireAt;
+
+        private Entry(UserDetails userDetails, long expireAt) {
+            this.userDetails = userDetails;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package tw.edu.ntub.imd.camping.databaseconfig;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.transaction.interceptor.*;
+import tw.edu.ntub.imd.camping.databaseconfig.aspect.ReadOnlySessionTransactionInterceptor;
 
+import javax.persistence.EntityManagerFactory;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -19,17 +23,59 @@ import java.util.Map;
 @EntityScan(basePackages = "tw.edu.ntub.imd.camping.databaseconfig.entity")
 public class Config {
     public static final String DATABASE_NAME = "camping";
+    /**
+     * 城市的二級快取區域，大小設定於ehcache.xml
+     *
+     * @since 1.5.0
+     */
+    public static final String CITY_CACHE_REGION = "camping.city";
+    /**
+     * 商品細項類型的二級快取區域，大小設定於ehcache.xml
+     *
+     * @since 1.5.0
+     */
+    public static final String PRODUCT_TYPE_CACHE_REGION = "camping.product-type";
+    /**
+     * 使用者權限的二級快取區域，大小設定於ehcache.xml
+     *
+     * @since 1.5.0
+     */
+    public static final String USER_ROLE_CACHE_REGION = "camping.user-role";
+    /**
+     * 對照資料(城市、商品細項類型)查詢結果的快取區域，大小設定於ehcache.xml
+     *
+     * @since 1.5.0
+     */
+    public static final String REFERENCE_QUERY_CACHE_REGION = "camping.reference-query";
+    /**
+     * 以序列產生流水編號的資料表，每次向序列取得的編號數量，需與hibernate.jdbc.batch_size相同
+     *
+     * @since 1.5.0
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
 
+    /**
+     * 依方法名稱決定交易屬性：新增、修改、刪除使用讀寫交易；find*、get*、search*使用唯讀交易，
+     * 唯讀交易的flush mode為MANUAL，Session設為唯讀，載入的實體不保留快照；其他方法不使用交易
+     * 方法上有@Transactional時以註解為準，例如由快取取得資料或只呼叫外部服務的查詢，
+     * 以SUPPORTS、NOT_SUPPORTED避免開始交易時向連線池取得連線
+     */
     @Bean
-    public TransactionInterceptor transactionInterceptor(TransactionManager transactionManager) {
+    public ReadOnlySessionTransactionInterceptor transactionInterceptor(
+            TransactionManager transactionManager,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${camping.transaction.read-only-session:true}") boolean readOnlySession) {
         NameMatchTransactionAttributeSource attributeSource = new NameMatchTransactionAttributeSource();
         RuleBasedTransactionAttribute requiredAttribute = new RuleBasedTransactionAttribute();
         RollbackRuleAttribute rollbackRuleAttribute = new RollbackRuleAttribute(RuntimeException.class);
         requiredAttribute.setRollbackRules(Collections.singletonList(rollbackRuleAttribute));
         requiredAttribute.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
         DefaultTransactionAttribute readOnlyTransactionAttributes =
-                new DefaultTransactionAttribute(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+                new DefaultTransactionAttribute(TransactionDefinition.PROPAGATION_REQUIRED);
         readOnlyTransactionAttributes.setReadOnly(true);
+        DefaultTransactionAttribute notSupportedTransactionAttributes =
+                new DefaultTransactionAttribute(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        notSupportedTransactionAttributes.setReadOnly(true);
         Map<String, TransactionAttribute> namedMap = new HashMap<>();
         namedMap.put("add*", requiredAttribute);
         namedMap.put("save*", requiredAttribute);
@@ -37,12 +83,22 @@ public class Config {
         namedMap.put("update*", requiredAttribute);
         namedMap.put("logout", requiredAttribute);
         namedMap.put("delete*", requiredAttribute);
+        namedMap.put("agree*", requiredAttribute);
+        namedMap.put("denied*", requiredAttribute);
         namedMap.put("find*", readOnlyTransactionAttributes);
         namedMap.put("get*", readOnlyTransactionAttributes);
         namedMap.put("search*", readOnlyTransactionAttributes);
         namedMap.put("getCount*", readOnlyTransactionAttributes);
-        namedMap.put("*", readOnlyTransactionAttributes);
+        namedMap.put("*", notSupportedTransactionAttributes);
         attributeSource.setNameMap(namedMap);
-        return new TransactionInterceptor(transactionManager, attributeSource);
+        return new ReadOnlySessionTransactionInterceptor(
+                transactionManager,
+                new CompositeTransactionAttributeSource(new TransactionAttributeSource[]{
+                        new AnnotationTransactionAttributeSource(),
+                        attributeSource
+                }),
+                entityManagerFactory,
+                readOnlySession
+        );
     }
 }
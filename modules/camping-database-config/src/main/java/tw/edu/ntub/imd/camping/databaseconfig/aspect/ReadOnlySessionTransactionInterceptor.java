@@ -0,0 +1,115 @@
+package tw.edu.ntub.imd.camping.databaseconfig.aspect;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.lang.NonNull;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 唯讀交易開始時將Hibernate Session設為預設唯讀，查詢載入的實體不保留快照(loaded state)，交易結束時也不做dirty checking
+ * Spring只在交易自行建立EntityManager時才會設定，Open EntityManager in View共用請求的EntityManager時由此處設定
+ * 交易開始前Session中已有實體時不設定；交易結束後清除Session，同一個請求之後的修改會重新載入可修改的實體
+ * camping.transaction.read-only-session設為false時只統計，可用於比較快照數量
+ *
+ * @since 1.5.0
+ */
+public class ReadOnlySessionTransactionInterceptor extends TransactionInterceptor {
+    private final EntityManagerFactory entityManagerFactory;
+    private final boolean enable;
+    private final LongAdder transactionCount = new LongAdder();
+    private final LongAdder snapshotEntityCount = new LongAdder();
+    private final LongAdder readOnlyEntityCount = new LongAdder();
+
+    public ReadOnlySessionTransactionInterceptor(
+            TransactionManager transactionManager,
+            TransactionAttributeSource transactionAttributeSource,
+            EntityManagerFactory entityManagerFactory,
+            boolean enable) {
+        super(transactionManager, transactionAttributeSource);
+        this.entityManagerFactory = entityManagerFactory;
+        this.enable = enable;
+    }
+
+    @Override
+    public Object invoke(@NonNull MethodInvocation invocation) throws Throwable {
+        Class<?> targetClass = invocation.getThis() != null ? AopUtils.getTargetClass(invocation.getThis()) : null;
+        TransactionAttributeSource transactionAttributeSource = getTransactionAttributeSource();
+        TransactionAttribute transactionAttribute = transactionAttributeSource != null ?
+                transactionAttributeSource.getTransactionAttribute(invocation.getMethod(), targetClass) :
+                null;
+        if (transactionAttribute == null || !transactionAttribute.isReadOnly()) {
+            return invokeWithinTransaction(invocation.getMethod(), targetClass, invocation::proceed);
+        }
+        return invokeWithinTransaction(invocation.getMethod(), targetClass, () -> proceedWithReadOnlySession(invocation));
+    }
+
+    private Object proceedWithReadOnlySession(MethodInvocation invocation) throws Throwable {
+        // 不使用交易(NOT_SUPPORTED)或加入外層交易時，由外層決定
+        if (!currentTransactionStatus().isNewTransaction()) {
+            return invocation.proceed();
+        }
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        if (entityManager == null) {
+            return invocation.proceed();
+        }
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        boolean changeDefaultReadOnly = enable &&
+                !session.isDefaultReadOnly() &&
+                session.getStatistics().getEntityCount() == 0;
+        if (changeDefaultReadOnly) {
+            session.setDefaultReadOnly(true);
+        }
+        try {
+            return invocation.proceed();
+        } finally {
+            countEntity(session);
+            if (changeDefaultReadOnly) {
+                session.setDefaultReadOnly(false);
+                session.clear();
+            }
+        }
+    }
+
+    private void countEntity(SessionImplementor session) {
+        transactionCount.increment();
+        for (Map.Entry<Object, EntityEntry> entityEntry : session.getPersistenceContext().reentrantSafeEntityEntries()) {
+            if (entityEntry.getValue().isReadOnly()) {
+                readOnlyEntityCount.increment();
+            } else {
+                snapshotEntityCount.increment();
+            }
+        }
+    }
+
+    /**
+     * @return 建立新唯讀交易的次數
+     */
+    public long getTransactionCount() {
+        return transactionCount.sum();
+    }
+
+    /**
+     * @return 唯讀交易結束時，Session中保留快照的實體數量(包含交易開始前已載入的實體)
+     */
+    public long getSnapshotEntityCount() {
+        return snapshotEntityCount.sum();
+    }
+
+    /**
+     * @return 唯讀交易結束時，Session中不保留快照的實體數量
+     */
+    public long getReadOnlyEntityCount() {
+        return readOnlyEntityCount.sum();
+    }
+}
@@ -4,6 +4,6 @@ import org.springframework.stereotype.Repository;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.view.CanBorrowProductGroup;
 
 @Repository
-public interface CanBorrowProductGroupDAO extends BaseViewDAO<CanBorrowProductGroup, Integer> {
+public interface CanBorrowProductGroupDAO extends BaseViewDAO<CanBorrowProductGroup, Integer>, CanBorrowProductGroupDAOCustom {
 
 }
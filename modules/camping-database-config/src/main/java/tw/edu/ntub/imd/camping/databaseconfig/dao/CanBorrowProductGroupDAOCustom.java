@@ -0,0 +1,49 @@
+package tw.edu.ntub.imd.camping.databaseconfig.dao;
+
+import org.springframework.transaction.annotation.Transactional;
+import tw.edu.ntub.imd.camping.databaseconfig.dto.CanBorrowProductGroupFilter;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.view.CanBorrowProductGroup;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.List;
+
+public interface CanBorrowProductGroupDAOCustom {
+    /**
+     * 依篩選條件查詢可租借商品，條件直接轉為WHERE子句，依可租借起始時間、編號排序
+     *
+     * @param filter 篩選條件
+     * @return 符合條件的可租借商品
+     * @since 1.5.0
+     */
+    @Nonnull
+    List<CanBorrowProductGroup> searchByFilter(@Nonnull CanBorrowProductGroupFilter filter);
+
+    /**
+     * 依來源資料(can_borrow_product_group_source)重新計算指定商品群組在可租借商品列表中的資料，
+     * 已不可租借的商品群組會從列表中移除
+     *
+     * @param groupIdCollection 商品群組編號
+     * @since 1.5.0
+     */
+    @Transactional
+    void refreshById(@Nonnull Collection<Integer> groupIdCollection);
+
+    /**
+     * 清空可租借商品列表，並依來源資料重新建立
+     *
+     * @return 重新建立後的筆數
+     * @since 1.5.0
+     */
+    @Transactional
+    int rebuild();
+
+    /**
+     * 直接從來源資料計算目前所有可租借商品，回傳的物件不受EntityManager管理，用於檢查列表是否與來源一致
+     *
+     * @return 來源資料計算出的可租借商品
+     * @since 1.5.0
+     */
+    @Nonnull
+    List<CanBorrowProductGroup> searchAllFromSource();
+}
@@ -1,12 +1,29 @@
 package tw.edu.ntub.imd.camping.databaseconfig.dao;
 
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tw.edu.ntub.imd.camping.databaseconfig.Config;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.City;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.CityId;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
 @Repository
 public interface CityDAO extends BaseViewDAO<City, CityId> {
+    /**
+     * 查詢結果存於{@link Config#REFERENCE_QUERY_CACHE_REGION}，城市存於{@link Config#CITY_CACHE_REGION}
+     * 不開啟交易，命中快取時不需取得資料庫連線
+     *
+     * @return 啟用中的城市
+     * @since 1.5.0
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = Config.REFERENCE_QUERY_CACHE_REGION)
+    })
     List<City> findByEnableIsTrue();
 }
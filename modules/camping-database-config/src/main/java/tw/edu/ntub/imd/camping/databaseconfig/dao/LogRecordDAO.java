@@ -4,6 +4,6 @@ import org.springframework.stereotype.Repository;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.LogRecord;
 
 @Repository
-public interface LogRecordDAO extends BaseDAO<LogRecord, Integer> {
+public interface LogRecordDAO extends BaseDAO<LogRecord, Integer>, LogRecordDAOCustom {
 
 }
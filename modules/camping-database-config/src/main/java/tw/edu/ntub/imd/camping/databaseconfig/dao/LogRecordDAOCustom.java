@@ -0,0 +1,19 @@
+package tw.edu.ntub.imd.camping.databaseconfig.dao;
+
+import org.springframework.transaction.annotation.Transactional;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.LogRecord;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+public interface LogRecordDAOCustom {
+    /**
+     * 以一次JDBC batch新增多筆操作紀錄，不經過EntityManager，新增後不會回填流水編號
+     *
+     * @param logRecordList 操作紀錄
+     * @return 新增的筆數
+     * @since 1.5.0
+     */
+    @Transactional
+    int insertAll(@Nonnull List<LogRecord> logRecordList);
+}
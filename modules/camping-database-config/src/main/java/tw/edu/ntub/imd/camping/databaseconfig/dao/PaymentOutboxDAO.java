@@ -0,0 +1,55 @@
+package tw.edu.ntub.imd.camping.databaseconfig.dao;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.PaymentOutbox;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.PaymentOutboxStatus;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.PaymentOutboxType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentOutboxDAO extends BaseDAO<PaymentOutbox, Integer> {
+    @Query("SELECT o FROM PaymentOutbox o " +
+            "WHERE o.status = :status AND o.nextAttemptDate <= :nextAttemptDate " +
+            "AND NOT EXISTS (SELECT b.id FROM PaymentOutbox b " +
+            "WHERE b.type = :waitType AND b.status = :status AND b.payeeBankAccount = o.payeeBankAccount AND b.id < o.id)")
+    List<PaymentOutbox> findByStatusAndNextAttemptDateLessThanEqualAndNotWaitFor(
+            @Param("status") PaymentOutboxStatus status,
+            @Param("nextAttemptDate") LocalDateTime nextAttemptDate,
+            @Param("waitType") PaymentOutboxType waitType,
+            Pageable pageable
+    );
+
+    /**
+     * 可送出的金流指令：等待送出且已到下次可送出的時間，
+     * 同一個收款帳號還有編號較小、等待送出的建立金融機構帳號指令時，等帳號建立後才送出
+     *
+     * @param now      目前時間
+     * @param pageable 分頁，需依編號排序
+     * @return 可送出的金流指令
+     * @since 1.5.0
+     */
+    default List<PaymentOutbox> findDispatchable(LocalDateTime now, Pageable pageable) {
+        return findByStatusAndNextAttemptDateLessThanEqualAndNotWaitFor(
+                PaymentOutboxStatus.PENDING,
+                now,
+                PaymentOutboxType.CREATE_BANK_ACCOUNT,
+                pageable
+        );
+    }
+
+    /**
+     * 查詢租借紀錄的金流指令
+     *
+     * @param rentalRecordId 租借紀錄編號
+     * @param type           指令類型
+     * @param status         狀態
+     * @return 金流指令
+     * @since 1.5.0
+     */
+    List<PaymentOutbox> findByRentalRecordIdAndTypeAndStatus(int rentalRecordId, PaymentOutboxType type, PaymentOutboxStatus status);
+}
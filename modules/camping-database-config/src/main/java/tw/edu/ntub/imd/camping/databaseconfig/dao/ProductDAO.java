@@ -6,12 +6,18 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.Product;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ProductDAO extends BaseDAO<Product, Integer> {
+public interface ProductDAO extends BaseDAO<Product, Integer>, ProductDAOCustom {
     List<Product> findByGroupId(Integer groupId);
 
+    List<Product> findByGroupIdIn(Collection<Integer> groupIdCollection);
+
+    @Query("SELECT DISTINCT p.groupId FROM Product p WHERE p.id IN :idCollection")
+    List<Integer> findGroupIdByIdIn(@Param("idCollection") Collection<Integer> idCollection);
+
     @Modifying
     @Query("UPDATE Product p SET p.enable = :enable WHERE p.groupId = :groupId")
     void updateEnableByGroupId(@Param("groupId") Integer groupId, @Param("enable") boolean enable);
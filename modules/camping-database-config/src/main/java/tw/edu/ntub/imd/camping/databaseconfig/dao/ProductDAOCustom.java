@@ -0,0 +1,21 @@
+package tw.edu.ntub.imd.camping.databaseconfig.dao;
+
+import org.springframework.transaction.annotation.Transactional;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.Product;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+public interface ProductDAOCustom {
+    /**
+     * 以一次JDBC batch更新多筆商品，只變更有值的欄位(商品類型、名稱、數量、品牌、外觀狀況、使用方式、損壞賠償、相關連結、備註)
+     * 只更新商品群組由groupCreateAccount建立的商品，不經過EntityManager，已載入的商品會被移出持久化內容
+     *
+     * @param productList        商品，欄位為null時不變更
+     * @param groupCreateAccount 商品群組建立者帳號
+     * @return 有更新的筆數，商品不存在或不屬於groupCreateAccount時不會更新
+     * @since 1.5.0
+     */
+    @Transactional
+    int patchAll(@Nonnull List<Product> productList, @Nonnull String groupCreateAccount);
+}
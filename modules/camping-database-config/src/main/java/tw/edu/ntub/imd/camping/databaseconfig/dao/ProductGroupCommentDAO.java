@@ -9,6 +9,4 @@ import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroupComment;
 public interface ProductGroupCommentDAO extends BaseDAO<ProductGroupComment, Integer> {
     @Query("SELECT NULLIF(AVG(c.comment), 0) FROM ProductGroupComment c WHERE c.groupId = :groupId GROUP BY c.groupId")
     Object getAverageCommentByGroupId(@Param("groupId") Integer groupId);
-
-    Boolean existsByGroupIdAndCommentAccount(int id, String commentAccount);
 }
@@ -0,0 +1,47 @@
+package tw.edu.ntub.imd.camping.databaseconfig.dao;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tw.edu.ntub.imd.camping.databaseconfig.Config;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroupCommentSummary;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Repository
+public interface ProductGroupCommentSummaryDAO extends BaseDAO<ProductGroupCommentSummary, Integer> {
+    /**
+     * 累加商品群組的評價數量與總和，沒有統計資料時新增一筆
+     *
+     * @param groupId 商品群組編號
+     * @param comment 評價
+     * @since 1.5.0
+     */
+    @Modifying
+    @Query(value = "INSERT INTO " + Config.DATABASE_NAME + ".product_group_comment_summary (group_id, comment_count, comment_sum) " +
+            "VALUES (:groupId, 1, :comment) " +
+            "ON DUPLICATE KEY UPDATE comment_count = comment_count + 1, comment_sum = comment_sum + :comment",
+            nativeQuery = true)
+    void addComment(@Param("groupId") Integer groupId, @Param("comment") int comment);
+
+    /**
+     * 一次查詢多個商品群組的評價平均
+     *
+     * @param groupIdCollection 商品群組編號
+     * @return key為商品群組編號，value為評價平均，沒有評價的商品群組不會出現在結果中
+     * @since 1.5.0
+     */
+    default Map<Integer, Double> getAverageCommentMapByGroupIdIn(Collection<Integer> groupIdCollection) {
+        if (groupIdCollection.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return findAllById(groupIdCollection)
+                .stream()
+                .filter(summary -> summary.getAverage() != null)
+                .collect(Collectors.toMap(ProductGroupCommentSummary::getGroupId, ProductGroupCommentSummary::getAverage));
+    }
+}
@@ -1,10 +1,18 @@
 package tw.edu.ntub.imd.camping.databaseconfig.dao;
 
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import tw.edu.ntub.imd.camping.databaseconfig.dto.ProductGroupCalendarState;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroup;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.RentalRecordStatus;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductGroupDAO extends BaseDAO<ProductGroup, Integer> {
@@ -12,5 +20,84 @@ public interface ProductGroupDAO extends BaseDAO<ProductGroup, Integer> {
     @Query("UPDATE ProductGroup p SET p.enable = :enable WHERE p.id = :id")
     void updateEnableById(@Param("id") Integer id, @Param("enable") boolean enable);
 
+    /**
+     * 更新前先寫入尚未flush的修改，更新後清除持久化內容，避免之後flush時以舊的遮罩覆蓋
+     *
+     * @since 1.5.0
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductGroup p SET p.productTypeMask = :productTypeMask WHERE p.id = :id")
+    void updateProductTypeMaskById(@Param("id") Integer id, @Param("productTypeMask") long productTypeMask);
+
+    @Query("SELECT p.id FROM ProductGroup p WHERE p.createAccount = :createAccount")
+    List<Integer> findIdByCreateAccount(@Param("createAccount") String createAccount);
+
     boolean existsByIdAndCreateAccount(Integer id, String createAccount);
+
+    /**
+     * 查詢商品群組目前的可租借日曆與版本，不鎖定資料列，用於租借前的檢查
+     *
+     * @param id 商品群組編號
+     * @return 可租借日曆與版本
+     * @since 1.5.0
+     */
+    @Query("SELECT new tw.edu.ntub.imd.camping.databaseconfig.dto.ProductGroupCalendarState(" +
+            "p.id, p.enable, p.borrowStartDate, p.borrowEndDate, p.availableDayBitmap, p.version" +
+            ") FROM ProductGroup p WHERE p.id = :id")
+    Optional<ProductGroupCalendarState> findCalendarStateById(@Param("id") Integer id);
+
+    /**
+     * 查詢並鎖定商品群組的可租借日曆，直到交易結束
+     * 鎖定讀取一定會讀到最新提交的資料，用於取消、完成租借等一定要寫入的更新
+     *
+     * @param id 商品群組編號
+     * @return 可租借日曆與版本
+     * @since 1.5.0
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new tw.edu.ntub.imd.camping.databaseconfig.dto.ProductGroupCalendarState(" +
+            "p.id, p.enable, p.borrowStartDate, p.borrowEndDate, p.availableDayBitmap, p.version" +
+            ") FROM ProductGroup p WHERE p.id = :id")
+    Optional<ProductGroupCalendarState> findCalendarStateByIdForUpdate(@Param("id") Integer id);
+
+    /**
+     * 版本與查詢時相同才更新可租借日曆，並將版本加一
+     *
+     * @param id                 商品群組編號
+     * @param version            查詢時的版本
+     * @param availableDayBitmap 可租借日曆
+     * @return 更新筆數，0代表查詢後已被他人變更
+     * @since 1.5.0
+     */
+    @Modifying
+    @Query("UPDATE ProductGroup p SET p.availableDayBitmap = :availableDayBitmap, p.version = p.version + 1 " +
+            "WHERE p.id = :id AND p.version = :version")
+    int compareAndSetAvailableDayBitmap(
+            @Param("id") Integer id,
+            @Param("version") int version,
+            @Param("availableDayBitmap") byte[] availableDayBitmap
+    );
+
+    /**
+     * 更新可租借日曆並將版本加一，不經過ProductGroupListener，背景程序(沒有登入者)也可呼叫
+     * 需先以{@link #findCalendarStateByIdForUpdate(Integer)}鎖定
+     *
+     * @param id                 商品群組編號
+     * @param availableDayBitmap 可租借日曆
+     * @since 1.5.0
+     */
+    @Modifying
+    @Query("UPDATE ProductGroup p SET p.availableDayBitmap = :availableDayBitmap, p.version = p.version + 1 WHERE p.id = :id")
+    void updateAvailableDayBitmapById(@Param("id") Integer id, @Param("availableDayBitmap") byte[] availableDayBitmap);
+
+    /**
+     * 查詢有租借紀錄佔用、但尚未建立可租借日曆的商品群組，用於1.5.0升級後補建日曆
+     *
+     * @param statusCollection 佔用商品群組的租借紀錄狀態
+     * @return 商品群組編號
+     * @since 1.5.0
+     */
+    @Query("SELECT DISTINCT p.id FROM ProductGroup p, RentalRecord r " +
+            "WHERE r.productGroupId = p.id AND p.availableDayBitmap IS NULL AND r.enable = true AND r.status IN :statusCollection")
+    List<Integer> findIdWithoutAvailableDayBitmap(@Param("statusCollection") Collection<RentalRecordStatus> statusCollection);
 }
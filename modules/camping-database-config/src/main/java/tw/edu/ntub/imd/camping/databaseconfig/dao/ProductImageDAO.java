@@ -6,12 +6,15 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductImage;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProductImageDAO extends BaseDAO<ProductImage, Integer> {
     List<ProductImage> findByProductId(int productId);
 
+    List<ProductImage> findByProductIdIn(Collection<Integer> productIdCollection);
+
     void deleteByProductIdIn(List<Integer> productIdList);
 
     @Modifying
@@ -1,11 +1,36 @@
 package tw.edu.ntub.imd.camping.databaseconfig.dao;
 
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tw.edu.ntub.imd.camping.databaseconfig.Config;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductType;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
 @Repository
 public interface ProductTypeDAO extends BaseViewDAO<ProductType, Integer> {
+    /**
+     * 查詢結果存於{@link Config#REFERENCE_QUERY_CACHE_REGION}，商品細項類型存於{@link Config#PRODUCT_TYPE_CACHE_REGION}
+     * 不開啟交易，命中快取時不需取得資料庫連線
+     *
+     * @return 啟用中的商品細項類型
+     * @since 1.5.0
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = Config.REFERENCE_QUERY_CACHE_REGION)
+    })
     List<ProductType> findByEnableIsTrue();
+
+    /**
+     * @return 最大的商品細項類型編號，沒有任何商品細項類型時為null
+     * @since 1.5.0
+     */
+    @Query("SELECT MAX(t.id) FROM ProductType t")
+    Integer getMaxId();
 }
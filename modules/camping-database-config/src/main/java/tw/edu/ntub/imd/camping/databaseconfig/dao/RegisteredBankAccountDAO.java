@@ -0,0 +1,8 @@
+package tw.edu.ntub.imd.camping.databaseconfig.dao;
+
+import org.springframework.stereotype.Repository;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.RegisteredBankAccount;
+
+@Repository
+public interface RegisteredBankAccountDAO extends BaseDAO<RegisteredBankAccount, String> {
+}
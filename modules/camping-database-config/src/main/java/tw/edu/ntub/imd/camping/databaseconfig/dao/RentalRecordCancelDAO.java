@@ -1,5 +1,6 @@
 package tw.edu.ntub.imd.camping.databaseconfig.dao;
 
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,4 +12,48 @@ import java.util.Optional;
 public interface RentalRecordCancelDAO extends BaseDAO<RentalRecordCancel, Integer> {
     @Query("SELECT c FROM RentalRecordCancel c WHERE c.recordId = :recordId AND (c.status = '0' OR c.status = '1')")
     Optional<RentalRecordCancel> findWaitResponseRecord(@Param("recordId") Integer recordId);
+
+    /**
+     * 同意取消請求，只有請求仍在等待回應，且account為被請求的一方(等待買方同意時為租借人、等待出借方同意時為出租人)時才會更新
+     * 補上尚未同意的一方的同意時間，不經過RentalRecordCancelListener
+     *
+     * @param recordId 租借紀錄編號
+     * @param account  操作者帳號
+     * @return 更新筆數，0代表沒有等待回應的取消請求，或account不是被請求的一方
+     * @since 1.5.0
+     */
+    @Modifying
+    @Query("UPDATE RentalRecordCancel c " +
+            "SET c.status = tw.edu.ntub.imd.camping.databaseconfig.enumerate.RentalRecordCancelStatus.CANCEL_SUCCESS, " +
+            "c.renterAgreeDate = COALESCE(c.renterAgreeDate, CURRENT_TIMESTAMP), " +
+            "c.productOwnerAgreeDate = COALESCE(c.productOwnerAgreeDate, CURRENT_TIMESTAMP), " +
+            "c.lastModifyAccount = :account, c.lastModifyDate = CURRENT_TIMESTAMP " +
+            "WHERE c.recordId = :recordId AND (" +
+            "(c.status = '0' AND EXISTS (SELECT r.id FROM RentalRecord r WHERE r.id = :recordId AND r.renterAccount = :account)) OR " +
+            "(c.status = '1' AND EXISTS (SELECT r.id FROM RentalRecord r, ProductGroup pg " +
+            "WHERE r.id = :recordId AND pg.id = r.productGroupId AND pg.createAccount = :account)))")
+    int updateStatusToCancelSuccess(@Param("recordId") int recordId, @Param("account") String account);
+
+    /**
+     * 拒絕取消請求，條件與{@link #updateStatusToCancelSuccess(int, String)}相同
+     *
+     * @param recordId     租借紀錄編號
+     * @param deniedDetail 拒絕原因
+     * @param account      操作者帳號
+     * @return 更新筆數，0代表沒有等待回應的取消請求，或account不是被請求的一方
+     * @since 1.5.0
+     */
+    @Modifying
+    @Query("UPDATE RentalRecordCancel c " +
+            "SET c.status = tw.edu.ntub.imd.camping.databaseconfig.enumerate.RentalRecordCancelStatus.CANCEL_DENIED, " +
+            "c.deniedDetail = :deniedDetail, c.lastModifyAccount = :account, c.lastModifyDate = CURRENT_TIMESTAMP " +
+            "WHERE c.recordId = :recordId AND (" +
+            "(c.status = '0' AND EXISTS (SELECT r.id FROM RentalRecord r WHERE r.id = :recordId AND r.renterAccount = :account)) OR " +
+            "(c.status = '1' AND EXISTS (SELECT r.id FROM RentalRecord r, ProductGroup pg " +
+            "WHERE r.id = :recordId AND pg.id = r.productGroupId AND pg.createAccount = :account)))")
+    int updateStatusToCancelDenied(
+            @Param("recordId") int recordId,
+            @Param("deniedDetail") String deniedDetail,
+            @Param("account") String account
+    );
 }
@@ -1,12 +1,16 @@
 package tw.edu.ntub.imd.camping.databaseconfig.dao;
 
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.RentalRecord;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.RentalRecordStatus;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RentalRecordDAO extends BaseDAO<RentalRecord, Integer> {
@@ -22,4 +26,99 @@ public interface RentalRecordDAO extends BaseDAO<RentalRecord, Integer> {
             "INNER JOIN ProductGroup pg ON r.productGroupId = pg.id " +
             "WHERE r.id = :id AND (r.renterAccount = :account OR pg.createAccount = :account)")
     boolean isNotRenterAndProductGroupCreator(@Param("id") int id, @Param("account") String account);
+
+    /**
+     * 查詢租借紀錄目前的狀態
+     *
+     * @param id 租借紀錄編號
+     * @return 狀態
+     * @since 1.5.0
+     */
+    @Query("SELECT r.status FROM RentalRecord r WHERE r.id = :id")
+    Optional<RentalRecordStatus> findStatusById(@Param("id") int id);
+
+    /**
+     * 將租借紀錄更新至下一個狀態，只有狀態仍為expectStatus，且account為租借人或出租人時才會更新
+     * 依原本的狀態寫入取貨、歸還或確認時間，不經過RentalRecordListener
+     *
+     * @param id           租借紀錄編號
+     * @param expectStatus 目前應有的狀態
+     * @param nextStatus   expectStatus的下一個狀態
+     * @param account      操作者帳號
+     * @return 更新筆數，0代表租借紀錄不存在、account不是租借人或出租人，或狀態已被改變
+     * @since 1.5.0
+     */
+    @Modifying
+    // 時間需在狀態之前更新，MySQL會以已更新的狀態判斷之後的欄位
+    @Query("UPDATE RentalRecord r SET " +
+            "r.pickDate = CASE WHEN r.status = tw.edu.ntub.imd.camping.databaseconfig.enumerate.RentalRecordStatus.NOT_PICK_UP " +
+            "THEN CURRENT_TIMESTAMP ELSE r.pickDate END, " +
+            "r.returnDate = CASE WHEN r.status = tw.edu.ntub.imd.camping.databaseconfig.enumerate.RentalRecordStatus.NOT_RETURN " +
+            "THEN CURRENT_TIMESTAMP ELSE r.returnDate END, " +
+            "r.checkDate = CASE WHEN r.status = tw.edu.ntub.imd.camping.databaseconfig.enumerate.RentalRecordStatus.RETRIEVE " +
+            "THEN CURRENT_TIMESTAMP ELSE r.checkDate END, " +
+            "r.status = :nextStatus, r.lastModifyAccount = :account, r.lastModifyDate = CURRENT_TIMESTAMP " +
+            "WHERE r.id = :id AND r.status = :expectStatus AND (r.renterAccount = :account OR " +
+            "r.productGroupId IN (SELECT pg.id FROM ProductGroup pg WHERE pg.createAccount = :account))")
+    int updateStatusToNext(
+            @Param("id") int id,
+            @Param("expectStatus") RentalRecordStatus expectStatus,
+            @Param("nextStatus") RentalRecordStatus nextStatus,
+            @Param("account") String account
+    );
+
+    /**
+     * 將租借紀錄改為已取消，只有狀態為statusCollection之一時才會更新，不經過RentalRecordListener
+     *
+     * @param id               租借紀錄編號
+     * @param statusCollection 可取消的狀態
+     * @param account          操作者帳號
+     * @return 更新筆數，0代表租借紀錄已不是可取消的狀態
+     * @since 1.5.0
+     */
+    @Modifying
+    @Query("UPDATE RentalRecord r " +
+            "SET r.status = tw.edu.ntub.imd.camping.databaseconfig.enumerate.RentalRecordStatus.CANCEL, " +
+            "r.cancelDate = CURRENT_TIMESTAMP, r.lastModifyAccount = :account, r.lastModifyDate = CURRENT_TIMESTAMP " +
+            "WHERE r.id = :id AND r.status IN :statusCollection")
+    int updateStatusToCancel(
+            @Param("id") int id,
+            @Param("statusCollection") Collection<RentalRecordStatus> statusCollection,
+            @Param("account") String account
+    );
+
+    /**
+     * 寫入金流服務的處理結果，只有狀態仍為expectStatus時才會更新
+     * 由背景程序呼叫，不經過RentalRecordListener(沒有登入者)
+     *
+     * @param id            租借紀錄編號
+     * @param transactionId 信用卡交易編號，交易失敗時為null
+     * @param expectStatus  目前應有的狀態
+     * @param newStatus     新狀態
+     * @return 更新筆數，0代表狀態已被改變
+     * @since 1.5.0
+     */
+    @Modifying
+    @Query("UPDATE RentalRecord r " +
+            "SET r.transactionId = :transactionId, r.status = :newStatus, r.lastModifyDate = CURRENT_TIMESTAMP " +
+            "WHERE r.id = :id AND r.status = :expectStatus")
+    int updatePaymentResult(
+            @Param("id") int id,
+            @Param("transactionId") Integer transactionId,
+            @Param("expectStatus") RentalRecordStatus expectStatus,
+            @Param("newStatus") RentalRecordStatus newStatus
+    );
+
+    /**
+     * 查詢商品群組中狀態為statusCollection之一的租借紀錄，用於重新計算可租借日曆
+     *
+     * @param productGroupId   商品群組編號
+     * @param statusCollection 租借紀錄狀態
+     * @return 租借紀錄
+     * @since 1.5.0
+     */
+    List<RentalRecord> findByProductGroupIdAndEnableIsTrueAndStatusIn(
+            Integer productGroupId,
+            Collection<RentalRecordStatus> statusCollection
+    );
 }
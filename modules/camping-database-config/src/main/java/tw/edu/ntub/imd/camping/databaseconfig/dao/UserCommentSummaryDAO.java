@@ -0,0 +1,47 @@
+package tw.edu.ntub.imd.camping.databaseconfig.dao;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tw.edu.ntub.imd.camping.databaseconfig.Config;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.UserCommentSummary;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Repository
+public interface UserCommentSummaryDAO extends BaseDAO<UserCommentSummary, String> {
+    /**
+     * 累加使用者的評價數量與總和，沒有統計資料時新增一筆
+     *
+     * @param userAccount 被評價的使用者帳號
+     * @param comment     評價
+     * @since 1.5.0
+     */
+    @Modifying
+    @Query(value = "INSERT INTO " + Config.DATABASE_NAME + ".user_comment_summary (user_account, comment_count, comment_sum) " +
+            "VALUES (:userAccount, 1, :comment) " +
+            "ON DUPLICATE KEY UPDATE comment_count = comment_count + 1, comment_sum = comment_sum + :comment",
+            nativeQuery = true)
+    void addComment(@Param("userAccount") String userAccount, @Param("comment") int comment);
+
+    /**
+     * 一次查詢多個使用者的評價平均
+     *
+     * @param userAccountCollection 使用者帳號
+     * @return key為使用者帳號，value為評價平均，沒有評價的使用者不會出現在結果中
+     * @since 1.5.0
+     */
+    default Map<String, Double> getAverageCommentMapByUserAccountIn(Collection<String> userAccountCollection) {
+        if (userAccountCollection.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return findAllById(userAccountCollection)
+                .stream()
+                .filter(summary -> summary.getAverage() != null)
+                .collect(Collectors.toMap(UserCommentSummary::getUserAccount, UserCommentSummary::getAverage));
+    }
+}
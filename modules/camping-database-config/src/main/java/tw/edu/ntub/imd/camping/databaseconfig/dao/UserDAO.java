@@ -1,9 +1,31 @@
 package tw.edu.ntub.imd.camping.databaseconfig.dao;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.User;
 
+import java.time.LocalDateTime;
+
 @Repository
 public interface UserDAO extends BaseDAO<User, String> {
 
+    /**
+     * 登入時重新雜湊密碼使用，此時尚未有登入的使用者，不經過UserListener，最後修改者記錄為本人
+     *
+     * @return 更新的筆數
+     * @since 1.5.0
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u " +
+            "SET u.password = :password, u.lastModifyAccount = :account, u.lastModifyDate = :lastModifyDate " +
+            "WHERE u.account = :account")
+    int updatePasswordByAccount(
+            @Param("account") String account,
+            @Param("password") String password,
+            @Param("lastModifyDate") LocalDateTime lastModifyDate
+    );
 }
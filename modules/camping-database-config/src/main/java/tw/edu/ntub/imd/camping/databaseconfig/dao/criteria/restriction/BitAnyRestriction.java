@@ -0,0 +1,30 @@
+package tw.edu.ntub.imd.camping.databaseconfig.dao.criteria.restriction;
+
+import javax.annotation.Nonnull;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+
+/**
+ * 欄位與遮罩有任一個相同位元為1即成立，產生的條件為：bitand(欄位, 遮罩) &lt;&gt; 0
+ *
+ * @since 1.5.0
+ */
+public class BitAnyRestriction<E> extends AbstractRestriction<E, Long> implements EmptyResultChecker {
+    private final long mask;
+
+    public BitAnyRestriction(@Nonnull ExpressionSupplier<E, Long> supplier, long mask) {
+        super(supplier);
+        this.mask = mask;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return mask == 0;
+    }
+
+    @Override
+    protected Predicate get(@Nonnull CriteriaBuilder builder, @Nonnull Expression<Long> expression) {
+        return builder.notEqual(builder.function("bitand", Long.class, expression, builder.literal(mask)), 0L);
+    }
+}
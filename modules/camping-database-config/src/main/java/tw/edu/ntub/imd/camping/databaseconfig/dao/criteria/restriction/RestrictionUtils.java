@@ -144,6 +144,10 @@ public final class RestrictionUtils {
         return new LikeRestriction<>(function, pattern);
     }
 
+    public static <E> BitAnyRestriction<E> bitAny(@Nonnull SingularAttribute<? super E, Long> attribute, long mask) {
+        return new BitAnyRestriction<>(new AttributeExpressionSupplier<>(attribute), mask);
+    }
+
     public static <E> NotRestriction<E> not(WhereRestriction<E> restriction) {
         return new NotRestriction<>(restriction);
     }
@@ -0,0 +1,125 @@
+package tw.edu.ntub.imd.camping.databaseconfig.dao.impl;
+
+import tw.edu.ntub.imd.camping.databaseconfig.Config;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.CanBorrowProductGroupDAOCustom;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.criteria.OrderType;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.criteria.QuerySelector;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.criteria.restriction.RestrictionUtils;
+import tw.edu.ntub.imd.camping.databaseconfig.dto.CanBorrowProductGroupFilter;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.view.CanBorrowProductGroup;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.view.CanBorrowProductGroup_;
+import tw.edu.ntub.imd.camping.databaseconfig.util.ProductTypeMaskUtils;
+
+import javax.annotation.Nonnull;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class CanBorrowProductGroupDAOImpl
+        extends BaseCustomDAOImpl<CanBorrowProductGroup, Integer>
+        implements CanBorrowProductGroupDAOCustom {
+    private static final String TABLE_NAME = Config.DATABASE_NAME + ".can_borrow_product_group";
+    private static final String SOURCE_VIEW_NAME = Config.DATABASE_NAME + ".can_borrow_product_group_source";
+    private static final String COLUMN_LIST = "id, name, cover_image, price, borrow_start_date, borrow_end_date, " +
+            "city, city_name, city_area_name, user_name, product_type_mask, comment, available_day_bitmap";
+
+    @Nonnull
+    @Override
+    public List<CanBorrowProductGroup> searchByFilter(@Nonnull CanBorrowProductGroupFilter filter) {
+        LocalDate today = LocalDate.now();
+        return createFilterQuerySelector(filter).getResultList()
+                .stream()
+                .filter(canBorrowProductGroup -> filter.isAvailable(canBorrowProductGroup.getAvailabilityCalendar(), today))
+                .collect(Collectors.toList());
+    }
+
+    private QuerySelector<CanBorrowProductGroup, CanBorrowProductGroup> createFilterQuerySelector(CanBorrowProductGroupFilter filter) {
+        QuerySelector<CanBorrowProductGroup, CanBorrowProductGroup> querySelector = getQuerySelector();
+        if (filter.getBorrowStartDate() != null || filter.getBorrowEndDate() != null) {
+            // 先以可租借期間需涵蓋預計租借日期縮小範圍，每一天是否可租借再由可租借日曆檢查
+            LocalDate from = filter.getBorrowStartDate() != null ? filter.getBorrowStartDate() : filter.getBorrowEndDate();
+            LocalDate to = filter.getBorrowEndDate() != null ? filter.getBorrowEndDate() : filter.getBorrowStartDate();
+            querySelector.add(RestrictionUtils.lessThan(
+                    CanBorrowProductGroup_.borrowStartDate,
+                    from.plusDays(1).atStartOfDay()
+            ));
+            querySelector.add(RestrictionUtils.greaterThanOrEqual(
+                    CanBorrowProductGroup_.borrowEndDate,
+                    to.atStartOfDay()
+            ));
+        }
+        if (filter.getCityAreaName() != null) {
+            querySelector.add(RestrictionUtils.equal(CanBorrowProductGroup_.cityAreaName, filter.getCityAreaName()));
+        }
+        if (filter.getTypeIdList() != null) {
+            querySelector.add(RestrictionUtils.bitAny(
+                    CanBorrowProductGroup_.productTypeMask,
+                    ProductTypeMaskUtils.toFilterMask(filter.getTypeIdList())
+            ));
+        }
+        if (filter.getMinPrice() != null) {
+            querySelector.add(RestrictionUtils.greaterThanOrEqual(CanBorrowProductGroup_.price, filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            querySelector.add(RestrictionUtils.lessThanOrEqual(CanBorrowProductGroup_.price, filter.getMaxPrice()));
+        }
+        querySelector.orderBy(CanBorrowProductGroup_.borrowStartDate, OrderType.ASC);
+        querySelector.orderBy(CanBorrowProductGroup_.id, OrderType.ASC);
+        return querySelector;
+    }
+
+    @Override
+    public void refreshById(@Nonnull Collection<Integer> groupIdCollection) {
+        if (groupIdCollection.isEmpty()) {
+            return;
+        }
+        getEntityManager().flush();
+        getEntityManager().createNativeQuery("DELETE FROM " + TABLE_NAME + " WHERE id IN (:idList)")
+                .setParameter("idList", groupIdCollection)
+                .executeUpdate();
+        getEntityManager().createNativeQuery(
+                "INSERT INTO " + TABLE_NAME + " (" + COLUMN_LIST + ") " +
+                        "SELECT " + COLUMN_LIST + " FROM " + SOURCE_VIEW_NAME + " WHERE id IN (:idList)"
+        ).setParameter("idList", groupIdCollection).executeUpdate();
+    }
+
+    @Override
+    public int rebuild() {
+        getEntityManager().flush();
+        getEntityManager().createNativeQuery("DELETE FROM " + TABLE_NAME).executeUpdate();
+        return getEntityManager().createNativeQuery(
+                "INSERT INTO " + TABLE_NAME + " (" + COLUMN_LIST + ") SELECT " + COLUMN_LIST + " FROM " + SOURCE_VIEW_NAME
+        ).executeUpdate();
+    }
+
+    @Nonnull
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<CanBorrowProductGroup> searchAllFromSource() {
+        List<Object[]> rowList = getEntityManager()
+                .createNativeQuery("SELECT " + COLUMN_LIST + " FROM " + SOURCE_VIEW_NAME)
+                .getResultList();
+        List<CanBorrowProductGroup> result = new ArrayList<>(rowList.size());
+        for (Object[] row : rowList) {
+            CanBorrowProductGroup canBorrowProductGroup = new CanBorrowProductGroup();
+            canBorrowProductGroup.setId(((Number) row[0]).intValue());
+            canBorrowProductGroup.setName((String) row[1]);
+            canBorrowProductGroup.setCoverImage((String) row[2]);
+            canBorrowProductGroup.setPrice(((Number) row[3]).intValue());
+            canBorrowProductGroup.setBorrowStartDate(((Timestamp) row[4]).toLocalDateTime());
+            canBorrowProductGroup.setBorrowEndDate(((Timestamp) row[5]).toLocalDateTime());
+            canBorrowProductGroup.setCity((String) row[6]);
+            canBorrowProductGroup.setCityName((String) row[7]);
+            canBorrowProductGroup.setCityAreaName((String) row[8]);
+            canBorrowProductGroup.setUserName((String) row[9]);
+            canBorrowProductGroup.setProductTypeMask(((Number) row[10]).longValue());
+            canBorrowProductGroup.setComment(((Number) row[11]).doubleValue());
+            canBorrowProductGroup.setAvailableDayBitmap((byte[]) row[12]);
+            result.add(canBorrowProductGroup);
+        }
+        return result;
+    }
+}
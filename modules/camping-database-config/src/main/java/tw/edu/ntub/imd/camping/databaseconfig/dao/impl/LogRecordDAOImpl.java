@@ -0,0 +1,49 @@
+package tw.edu.ntub.imd.camping.databaseconfig.dao.impl;
+
+import org.hibernate.Session;
+import tw.edu.ntub.imd.camping.databaseconfig.Config;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.LogRecordDAOCustom;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.LogRecord;
+
+import javax.annotation.Nonnull;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class LogRecordDAOImpl extends BaseCustomDAOImpl<LogRecord, Integer> implements LogRecordDAOCustom {
+    private static final String INSERT_SQL = "INSERT INTO " + Config.DATABASE_NAME + ".log_record " +
+            "(server_version, ip, method, url, executor, execute_date, device, device_type, device_version, " +
+            "result, error_code, message) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Override
+    public int insertAll(@Nonnull List<LogRecord> logRecordList) {
+        if (logRecordList.isEmpty()) {
+            return 0;
+        }
+        getEntityManager().unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                for (LogRecord logRecord : logRecordList) {
+                    LocalDateTime executeDate = logRecord.getExecuteDate() != null ?
+                            logRecord.getExecuteDate() :
+                            LocalDateTime.now();
+                    statement.setString(1, logRecord.getServerVersion());
+                    statement.setString(2, logRecord.getIp());
+                    statement.setString(3, logRecord.getMethod());
+                    statement.setString(4, logRecord.getUrl());
+                    statement.setString(5, logRecord.getExecutor());
+                    statement.setTimestamp(6, Timestamp.valueOf(executeDate));
+                    statement.setString(7, logRecord.getDevice().device);
+                    statement.setString(8, logRecord.getDeviceType().deviceType);
+                    statement.setString(9, logRecord.getDeviceVersion());
+                    statement.setBoolean(10, logRecord.isSuccess());
+                    statement.setString(11, logRecord.getErrorCode());
+                    statement.setString(12, logRecord.getMessage());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+        return logRecordList.size();
+    }
+}
@@ -0,0 +1,93 @@
+package tw.edu.ntub.imd.camping.databaseconfig.dao.impl;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import tw.edu.ntub.imd.camping.databaseconfig.Config;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.ProductDAOCustom;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.Product;
+
+import javax.annotation.Nonnull;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ProductDAOImpl extends BaseCustomDAOImpl<Product, Integer> implements ProductDAOCustom {
+    // 每筆商品使用相同的SQL才能放在同一個batch，以COALESCE保留null欄位原本的值
+    private static final String PATCH_SQL = "UPDATE " + Config.DATABASE_NAME + ".product SET " +
+            "type = COALESCE(?, type), " +
+            "name = COALESCE(?, name), " +
+            "count = COALESCE(?, count), " +
+            "brand = COALESCE(?, brand), " +
+            "appearance = COALESCE(?, appearance), " +
+            "use_information = COALESCE(?, use_information), " +
+            "broken_compensation = COALESCE(?, broken_compensation), " +
+            "related_link = COALESCE(?, related_link), " +
+            "memo = COALESCE(?, memo), " +
+            "last_modify_account = ?, " +
+            "last_modify_date = ? " +
+            "WHERE id = ? " +
+            "AND group_id IN (SELECT g.id FROM " + Config.DATABASE_NAME + ".product_group g WHERE g.create_account = ?)";
+
+    @Override
+    public int patchAll(@Nonnull List<Product> productList, @Nonnull String groupCreateAccount) {
+        if (productList.isEmpty()) {
+            return 0;
+        }
+        Session session = getEntityManager().unwrap(Session.class);
+        // 先寫入尚未送出的變更，避免之後flush時覆蓋此次更新
+        session.flush();
+        Timestamp lastModifyDate = Timestamp.valueOf(LocalDateTime.now());
+        int[] updateCountArray = session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(PATCH_SQL)) {
+                for (Product product : productList) {
+                    statement.setObject(1, product.getType(), Types.INTEGER);
+                    statement.setObject(2, product.getName(), Types.VARCHAR);
+                    statement.setObject(3, product.getCount(), Types.INTEGER);
+                    statement.setObject(4, product.getBrand(), Types.VARCHAR);
+                    statement.setObject(5, product.getAppearance(), Types.VARCHAR);
+                    statement.setObject(6, product.getUseInformation(), Types.VARCHAR);
+                    statement.setObject(7, product.getBrokenCompensation(), Types.VARCHAR);
+                    statement.setObject(8, product.getRelatedLink(), Types.VARCHAR);
+                    statement.setObject(9, product.getMemo(), Types.VARCHAR);
+                    statement.setString(10, groupCreateAccount);
+                    statement.setTimestamp(11, lastModifyDate);
+                    statement.setObject(12, product.getId(), Types.INTEGER);
+                    statement.setString(13, groupCreateAccount);
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+        detach(session, productList);
+        int result = 0;
+        for (int updateCount : updateCountArray) {
+            if (updateCount > 0 || updateCount == Statement.SUCCESS_NO_INFO) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    // 已載入的商品仍是更新前的內容，移出後再查詢時才會讀到更新後的內容
+    private void detach(Session session, List<Product> productList) {
+        SessionImplementor sessionImplementor = session.unwrap(SessionImplementor.class);
+        EntityPersister persister = sessionImplementor.getFactory()
+                .getMetamodel()
+                .entityPersister(Product.class);
+        for (Product product : productList) {
+            if (product.getId() == null) {
+                continue;
+            }
+            EntityKey entityKey = sessionImplementor.generateEntityKey(product.getId(), persister);
+            Object managedProduct = sessionImplementor.getPersistenceContext().getEntity(entityKey);
+            if (managedProduct != null) {
+                session.detach(managedProduct);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package tw.edu.ntub.imd.camping.databaseconfig.dialect;
+
+import org.hibernate.dialect.MySQL8Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * 補上MySQL缺少的bitand函數(H2Dialect已內建)，讓Criteria可以使用位元運算
+ *
+ * @since 1.5.0
+ */
+public class CampingMySQL8Dialect extends MySQL8Dialect {
+    public CampingMySQL8Dialect() {
+        super();
+        registerFunction("bitand", new SQLFunctionTemplate(StandardBasicTypes.LONG, "(?1 & ?2)"));
+    }
+}
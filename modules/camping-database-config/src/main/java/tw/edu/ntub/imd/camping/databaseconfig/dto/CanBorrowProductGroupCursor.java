@@ -0,0 +1,28 @@
+package tw.edu.ntub.imd.camping.databaseconfig.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.view.CanBorrowProductGroup;
+
+import java.time.LocalDateTime;
+
+/**
+ * 可租借商品列表的分頁位置，記錄上一頁最後一筆的排序欄位與編號
+ *
+ * @since 1.5.0
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class CanBorrowProductGroupCursor {
+    private final LocalDateTime borrowStartDate;
+    private final int id;
+
+    public static CanBorrowProductGroupCursor of(LocalDateTime borrowStartDate, int id) {
+        return new CanBorrowProductGroupCursor(borrowStartDate, id);
+    }
+
+    public static CanBorrowProductGroupCursor of(CanBorrowProductGroup canBorrowProductGroup) {
+        return of(canBorrowProductGroup.getBorrowStartDate(), canBorrowProductGroup.getId());
+    }
+}
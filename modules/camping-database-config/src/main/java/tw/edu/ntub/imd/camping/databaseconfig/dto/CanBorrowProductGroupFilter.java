@@ -0,0 +1,86 @@
+package tw.edu.ntub.imd.camping.databaseconfig.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import tw.edu.ntub.imd.camping.databaseconfig.util.AvailabilityCalendar;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * 可租借商品列表的篩選條件，欄位為null時代表不篩選
+ *
+ * @since 1.5.0
+ */
+@Getter
+@Builder
+public class CanBorrowProductGroupFilter {
+    /**
+     * 預計租借起始日期，borrowStartDate ~ borrowEndDate(含)的每一天都需可租借
+     * 只填其中一個時只檢查該日期，都未填時只需今天之後還有任何一天可租借
+     *
+     * @see #isAvailable(AvailabilityCalendar)
+     * @since 1.5.0
+     */
+    private final LocalDate borrowStartDate;
+    /**
+     * 預計租借結束日期(含)
+     *
+     * @see #isAvailable(AvailabilityCalendar)
+     * @since 1.5.0
+     */
+    private final LocalDate borrowEndDate;
+    /**
+     * 區名稱，如中正區、宜蘭市
+     *
+     * @since 1.5.0
+     */
+    private final String cityAreaName;
+    /**
+     * 商品類型編號，符合任一個即可
+     *
+     * @since 1.5.0
+     */
+    private final Collection<Integer> typeIdList;
+    /**
+     * 最低租借價格(含)
+     *
+     * @since 1.5.0
+     */
+    private final Integer minPrice;
+    /**
+     * 最高租借價格(含)
+     *
+     * @since 1.5.0
+     */
+    private final Integer maxPrice;
+
+    /**
+     * 依預計租借日期檢查可租借日曆
+     *
+     * @param calendar 可租借日曆
+     * @return 是否符合預計租借日期
+     * @since 1.5.0
+     */
+    public boolean isAvailable(AvailabilityCalendar calendar) {
+        return isAvailable(calendar, LocalDate.now());
+    }
+
+    /**
+     * 依預計租借日期檢查可租借日曆，逐筆檢查多個商品群組時由呼叫端先取得今天的日期
+     *
+     * @param calendar 可租借日曆
+     * @param today    今天的日期，預計租借日期都未填時只檢查此日期之後
+     * @return 是否符合預計租借日期
+     * @since 1.5.0
+     */
+    public boolean isAvailable(AvailabilityCalendar calendar, LocalDate today) {
+        if (borrowStartDate == null && borrowEndDate == null) {
+            return calendar.hasFreeDay(today);
+        }
+        return calendar.isFree(
+                borrowStartDate != null ? borrowStartDate : borrowEndDate,
+                borrowEndDate != null ? borrowEndDate : borrowStartDate
+        );
+    }
+}
@@ -0,0 +1,41 @@
+package tw.edu.ntub.imd.camping.databaseconfig.dto;
+
+import lombok.Getter;
+import tw.edu.ntub.imd.camping.databaseconfig.util.AvailabilityCalendar;
+
+import java.time.LocalDateTime;
+
+/**
+ * 商品群組目前的可租借日曆與版本
+ * 以JPQL建構式查詢取得，不經過持久化內容(Persistence Context)，每次查詢都是資料庫中的值
+ *
+ * @since 1.5.0
+ */
+@Getter
+public class ProductGroupCalendarState {
+    private final int id;
+    private final boolean enable;
+    private final LocalDateTime borrowStartDate;
+    private final LocalDateTime borrowEndDate;
+    private final byte[] availableDayBitmap;
+    private final int version;
+
+    public ProductGroupCalendarState(
+            Integer id,
+            Boolean enable,
+            LocalDateTime borrowStartDate,
+            LocalDateTime borrowEndDate,
+            byte[] availableDayBitmap,
+            Integer version) {
+        this.id = id;
+        this.enable = Boolean.TRUE.equals(enable);
+        this.borrowStartDate = borrowStartDate;
+        this.borrowEndDate = borrowEndDate;
+        this.availableDayBitmap = availableDayBitmap;
+        this.version = version;
+    }
+
+    public AvailabilityCalendar toCalendar() {
+        return AvailabilityCalendar.of(borrowStartDate, borrowEndDate, availableDayBitmap);
+    }
+}
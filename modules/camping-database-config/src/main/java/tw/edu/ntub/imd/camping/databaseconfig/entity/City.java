@@ -4,6 +4,8 @@ import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import tw.edu.ntub.imd.camping.databaseconfig.Config;
 
 import javax.persistence.*;
@@ -16,6 +18,8 @@ import javax.persistence.*;
 @Data
 @EqualsAndHashCode
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Config.CITY_CACHE_REGION)
 @Table(name = "city", schema = Config.DATABASE_NAME)
 @IdClass(CityId.class)
 public class City {
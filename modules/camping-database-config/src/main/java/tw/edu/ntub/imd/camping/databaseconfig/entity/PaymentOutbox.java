@@ -0,0 +1,115 @@
+package tw.edu.ntub.imd.camping.databaseconfig.entity;
+
+import lombok.Data;
+import tw.edu.ntub.imd.camping.databaseconfig.Config;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.listener.PaymentOutboxListener;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.PaymentOutboxStatus;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.PaymentOutboxType;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 金流指令，與租借紀錄、商品群組在同一個交易中寫入，由背景程序送至金流服務
+ *
+ * @since 1.5.0
+ */
+@Data
+@Entity
+@EntityListeners(PaymentOutboxListener.class)
+@Table(name = "payment_outbox", schema = Config.DATABASE_NAME)
+public class PaymentOutbox {
+    /**
+     * 流水編號
+     *
+     * @since 1.5.0
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false, columnDefinition = "UNSIGNED")
+    private Integer id;
+
+    /**
+     * 指令類型(0: 建立交易/ 1: 建立金融機構帳號)
+     *
+     * @see PaymentOutboxType
+     * @since 1.5.0
+     */
+    @Enumerated
+    @Column(name = "type", length = 1, nullable = false)
+    private PaymentOutboxType type;
+
+    /**
+     * 租借紀錄編號，建立交易時才有值
+     *
+     * @since 1.5.0
+     */
+    @Column(name = "rental_record_id", columnDefinition = "UNSIGNED")
+    private Integer rentalRecordId;
+
+    /**
+     * 收款的金融機構帳號，同一個帳號的交易需等待建立金融機構帳號的指令完成後才送出
+     *
+     * @since 1.5.0
+     */
+    @Column(name = "payee_bank_account", length = 16, nullable = false)
+    private String payeeBankAccount;
+
+    /**
+     * 送至金流服務的資料(JSON)，不包含信用卡資料，完成、失敗或結果未知後清除
+     *
+     * @since 1.5.0
+     */
+    @Column(name = "payload", length = 4000)
+    private String payload;
+
+    /**
+     * 狀態(0: 等待送出/ 1: 已完成/ 2: 失敗/ 3: 結果未知)
+     *
+     * @see PaymentOutboxStatus
+     * @since 1.5.0
+     */
+    @Enumerated
+    @Column(name = "status", length = 1, nullable = false)
+    private PaymentOutboxStatus status;
+
+    /**
+     * 已送出次數
+     *
+     * @since 1.5.0
+     */
+    @Column(name = "attempt_count", nullable = false)
+    private Integer attemptCount;
+
+    /**
+     * 下次可送出的時間
+     *
+     * @since 1.5.0
+     */
+    @Column(name = "next_attempt_date", nullable = false)
+    private LocalDateTime nextAttemptDate;
+
+    /**
+     * 最後一次失敗的原因
+     *
+     * @since 1.5.0
+     */
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    /**
+     * 建立時間
+     *
+     * @since 1.5.0
+     */
+    @Column(name = "create_date", nullable = false)
+    private LocalDateTime createDate;
+
+    /**
+     * 最後更新時間
+     *
+     * @since 1.5.0
+     */
+    @Column(name = "last_modify_date", nullable = false)
+    private LocalDateTime lastModifyDate;
+}
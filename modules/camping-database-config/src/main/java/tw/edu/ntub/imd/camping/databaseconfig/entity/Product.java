@@ -31,7 +31,8 @@ public class Product {
      * @since 1.0.0
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", schema = Config.DATABASE_NAME, sequenceName = "product_seq", allocationSize = Config.ID_ALLOCATION_SIZE)
     @Column(name = "id", nullable = false, columnDefinition = "UNSIGNED")
     private Integer id;
 
@@ -6,6 +6,7 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import tw.edu.ntub.imd.camping.databaseconfig.Config;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.listener.ProductGroupListener;
+import tw.edu.ntub.imd.camping.databaseconfig.util.AvailabilityCalendar;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -109,6 +110,37 @@ public class ProductGroup {
     @Column(name = "borrow_end_date", nullable = false)
     private LocalDateTime borrowEndDate;
 
+    /**
+     * 商品類型遮罩，第n個位元為1代表群組內有編號n的啟用中商品
+     *
+     * @see tw.edu.ntub.imd.camping.databaseconfig.util.ProductTypeMaskUtils
+     * @since 1.5.0
+     */
+    @Column(name = "product_type_mask", nullable = false)
+    private Long productTypeMask;
+
+    /**
+     * 可租借日曆，第n個位元代表可租借起始日期後第n天是否可租借，null代表尚未有任何租借
+     * 只由租借、取消、完成租借的流程以{@link tw.edu.ntub.imd.camping.databaseconfig.dao.ProductGroupDAO#compareAndSetAvailableDayBitmap(Integer, int, byte[])}、
+     * {@link tw.edu.ntub.imd.camping.databaseconfig.dao.ProductGroupDAO#updateAvailableDayBitmapById(Integer, byte[])}更新，
+     * 儲存商品群組時不會覆蓋此欄位
+     *
+     * @see AvailabilityCalendar
+     * @since 1.5.0
+     */
+    @Column(name = "available_day_bitmap", length = AvailabilityCalendar.MAX_BYTE_LENGTH, insertable = false, updatable = false)
+    private byte[] availableDayBitmap;
+
+    /**
+     * 可租借日曆的版本，每次更新可租借日曆時加一，租借時只有版本未被他人變更才會寫入
+     * 與可租借日曆相同，儲存商品群組時不會覆蓋此欄位
+     *
+     * @see tw.edu.ntub.imd.camping.databaseconfig.dao.ProductGroupDAO#compareAndSetAvailableDayBitmap(Integer, int, byte[])
+     * @since 1.5.0
+     */
+    @Column(name = "version", nullable = false, updatable = false)
+    private Integer version;
+
     /**
      * 商品上架者帳號
      *
@@ -20,8 +20,29 @@ import java.time.LocalDateTime;
 })
 @Entity
 @EntityListeners(ProductGroupCommentListener.class)
-@Table(name = "product_group_comment", schema = Config.DATABASE_NAME)
+@Table(
+        name = "product_group_comment",
+        schema = Config.DATABASE_NAME,
+        uniqueConstraints = @UniqueConstraint(
+                name = ProductGroupComment.UNIQUE_GROUP_ID_COMMENT_ACCOUNT,
+                columnNames = {"group_id", "comment_account"}
+        )
+)
 public class ProductGroupComment {
+    /**
+     * 同一個使用者對同一個商品群組只能評價一次
+     *
+     * @since 1.5.0
+     */
+    public static final String UNIQUE_GROUP_ID_COMMENT_ACCOUNT = "product_group_comment_group_id_comment_account_uindex";
+
+    /**
+     * 評價的商品群組需存在
+     *
+     * @since 1.5.0
+     */
+    public static final String FK_GROUP_ID = "fk_product_group_comment_group_id";
+
     /**
      * 流水編號
      *
@@ -71,7 +92,15 @@ public class ProductGroupComment {
      * @since 1.0.0
      */
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "group_id", referencedColumnName = "id", nullable = false, columnDefinition = "UNSIGNED", insertable = false, updatable = false)
+    @JoinColumn(
+            name = "group_id",
+            referencedColumnName = "id",
+            nullable = false,
+            columnDefinition = "UNSIGNED",
+            insertable = false,
+            updatable = false,
+            foreignKey = @ForeignKey(name = ProductGroupComment.FK_GROUP_ID)
+    )
     private ProductGroup productGroupByGroupId;
 
     /**
@@ -0,0 +1,64 @@
+package tw.edu.ntub.imd.camping.databaseconfig.entity;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import tw.edu.ntub.imd.camping.databaseconfig.Config;
+
+import javax.persistence.*;
+
+/**
+ * 商品群組評價統計，新增評價時與評價在同一個交易中累加
+ *
+ * @since 1.5.0
+ */
+@Data
+@EqualsAndHashCode(exclude = "productGroupByGroupId")
+@Entity
+@Table(name = "product_group_comment_summary", schema = Config.DATABASE_NAME)
+public class ProductGroupCommentSummary {
+    /**
+     * 商品群組編號
+     *
+     * @since 1.5.0
+     */
+    @Id
+    @Column(name = "group_id", nullable = false, columnDefinition = "UNSIGNED")
+    private Integer groupId;
+
+    /**
+     * 評價數量
+     *
+     * @since 1.5.0
+     */
+    @Column(name = "comment_count", nullable = false)
+    private Integer commentCount;
+
+    /**
+     * 評價總和
+     *
+     * @since 1.5.0
+     */
+    @Column(name = "comment_sum", nullable = false)
+    private Integer commentSum;
+
+    /**
+     * 商品群組
+     *
+     * @see ProductGroup
+     * @since 1.5.0
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "group_id", referencedColumnName = "id", nullable = false, columnDefinition = "UNSIGNED", insertable = false, updatable = false)
+    private ProductGroup productGroupByGroupId;
+
+    /**
+     * 評價平均，沒有評價時為null
+     *
+     * @return 評價平均
+     * @since 1.5.0
+     */
+    @Transient
+    public Double getAverage() {
+        return commentCount == null || commentCount == 0 ? null : (double) commentSum / commentCount;
+    }
+}
@@ -27,7 +27,8 @@ public class ProductImage {
      * @since 1.0.0
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_image_seq")
+    @SequenceGenerator(name = "product_image_seq", schema = Config.DATABASE_NAME, sequenceName = "product_image_seq", allocationSize = Config.ID_ALLOCATION_SIZE)
     @Column(name = "id", nullable = false, columnDefinition = "UNSIGNED")
     private Integer id;
 
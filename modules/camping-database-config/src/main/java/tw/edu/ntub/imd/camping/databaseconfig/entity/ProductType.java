@@ -4,6 +4,8 @@ import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import tw.edu.ntub.imd.camping.databaseconfig.Config;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.listener.ProductTypeListener;
 
@@ -17,6 +19,8 @@ import javax.persistence.*;
 @Data
 @EqualsAndHashCode
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Config.PRODUCT_TYPE_CACHE_REGION)
 @EntityListeners(ProductTypeListener.class)
 @Table(name = "product_type", schema = Config.DATABASE_NAME)
 public class ProductType {
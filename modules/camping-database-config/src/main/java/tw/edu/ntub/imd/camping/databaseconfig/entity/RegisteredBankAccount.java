@@ -0,0 +1,55 @@
+package tw.edu.ntub.imd.camping.databaseconfig.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tw.edu.ntub.imd.camping.databaseconfig.Config;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 已在金流服務建立的金融機構帳號，同一帳號再次刊登商品群組時不需要再呼叫金流服務
+ *
+ * @since 1.5.0
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "registered_bank_account", schema = Config.DATABASE_NAME)
+public class RegisteredBankAccount implements Persistable<String> {
+    @Transient
+    private boolean save;
+
+    /**
+     * 金融機構帳號
+     *
+     * @since 1.5.0
+     */
+    @Id
+    @Column(name = "account", length = 16, nullable = false)
+    private String account;
+
+    /**
+     * 在金流服務建立完成的時間
+     *
+     * @since 1.5.0
+     */
+    @Column(name = "create_date", nullable = false)
+    private LocalDateTime createDate;
+
+    public RegisteredBankAccount(String account) {
+        this.save = true;
+        this.account = account;
+        this.createDate = LocalDateTime.now();
+    }
+
+    @Override
+    public String getId() {
+        return account;
+    }
+
+    @Override
+    public boolean isNew() {
+        return save;
+    }
+}
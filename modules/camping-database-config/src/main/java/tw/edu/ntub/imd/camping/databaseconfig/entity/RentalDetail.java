@@ -30,7 +30,8 @@ public class RentalDetail {
      * @since 1.0.0
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rental_detail_seq")
+    @SequenceGenerator(name = "rental_detail_seq", schema = Config.DATABASE_NAME, sequenceName = "rental_detail_seq", allocationSize = Config.ID_ALLOCATION_SIZE)
     @Column(name = "id", nullable = false, columnDefinition = "UNSIGNED")
     private Integer id;
 
@@ -46,7 +46,7 @@ public class RentalRecord {
     private Boolean enable;
 
     /**
-     * 狀態(0:取消/ 1: 未取貨/ 2:未歸還/ 3:已歸還/ 4: 已檢查)
+     * 狀態(0:取消/ 1: 未取貨/ 2:未歸還/ 3:已歸還/ 4: 已檢查/ 5: 等待付款/ 6: 付款失敗)
      *
      * @see RentalRecordStatus
      * @since 1.0.0
@@ -56,11 +56,11 @@ public class RentalRecord {
     private RentalRecordStatus status;
 
     /**
-     * 信用卡交易編號
+     * 信用卡交易編號，自1.5.0起在金流服務建立交易前為null
      *
      * @since 1.4.0
      */
-    @Column(name = "transaction_id", nullable = false)
+    @Column(name = "transaction_id")
     private Integer transactionId;
 
     /**
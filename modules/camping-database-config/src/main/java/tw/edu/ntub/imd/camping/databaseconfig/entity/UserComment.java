@@ -20,8 +20,22 @@ import java.time.LocalDateTime;
 })
 @Entity
 @EntityListeners(UserCommentListener.class)
-@Table(name = "user_comment", schema = Config.DATABASE_NAME)
+@Table(
+        name = "user_comment",
+        schema = Config.DATABASE_NAME,
+        uniqueConstraints = @UniqueConstraint(
+                name = UserComment.UNIQUE_USER_ACCOUNT_COMMENT_ACCOUNT,
+                columnNames = {"user_account", "comment_account"}
+        )
+)
 public class UserComment {
+    /**
+     * 同一個使用者對同一個使用者只能評價一次
+     *
+     * @since 1.5.0
+     */
+    public static final String UNIQUE_USER_ACCOUNT_COMMENT_ACCOUNT = "user_comment_user_account_comment_account_uindex";
+
     /**
      * 流水編號
      *
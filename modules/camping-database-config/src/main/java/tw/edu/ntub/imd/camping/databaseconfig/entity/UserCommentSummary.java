@@ -0,0 +1,64 @@
+package tw.edu.ntub.imd.camping.databaseconfig.entity;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import tw.edu.ntub.imd.camping.databaseconfig.Config;
+
+import javax.persistence.*;
+
+/**
+ * 使用者評價統計，新增評價時與評價在同一個交易中累加
+ *
+ * @since 1.5.0
+ */
+@Data
+@EqualsAndHashCode(exclude = "userByUserAccount")
+@Entity
+@Table(name = "user_comment_summary", schema = Config.DATABASE_NAME)
+public class UserCommentSummary {
+    /**
+     * 被評價的使用者帳號
+     *
+     * @since 1.5.0
+     */
+    @Id
+    @Column(name = "user_account", length = 100, nullable = false)
+    private String userAccount;
+
+    /**
+     * 評價數量
+     *
+     * @since 1.5.0
+     */
+    @Column(name = "comment_count", nullable = false)
+    private Integer commentCount;
+
+    /**
+     * 評價總和
+     *
+     * @since 1.5.0
+     */
+    @Column(name = "comment_sum", nullable = false)
+    private Integer commentSum;
+
+    /**
+     * 被評價的使用者
+     *
+     * @see User
+     * @since 1.5.0
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_account", referencedColumnName = "account", nullable = false, insertable = false, updatable = false)
+    private User userByUserAccount;
+
+    /**
+     * 評價平均，沒有評價時為null
+     *
+     * @return 評價平均
+     * @since 1.5.0
+     */
+    @Transient
+    public Double getAverage() {
+        return commentCount == null || commentCount == 0 ? null : (double) commentSum / commentCount;
+    }
+}
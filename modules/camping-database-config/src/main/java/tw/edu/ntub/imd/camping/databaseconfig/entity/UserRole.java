@@ -2,6 +2,8 @@ package tw.edu.ntub.imd.camping.databaseconfig.entity;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import tw.edu.ntub.imd.camping.databaseconfig.Config;
 
 import javax.persistence.*;
@@ -14,6 +16,8 @@ import javax.persistence.*;
 @Data
 @EqualsAndHashCode
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Config.USER_ROLE_CACHE_REGION)
 @Table(name = "user_role", schema = Config.DATABASE_NAME)
 public class UserRole {
     /**
@@ -0,0 +1,36 @@
+package tw.edu.ntub.imd.camping.databaseconfig.entity.listener;
+
+import tw.edu.ntub.imd.camping.databaseconfig.entity.PaymentOutbox;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.PaymentOutboxStatus;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import java.time.LocalDateTime;
+
+public class PaymentOutboxListener {
+
+    @PrePersist
+    public void preSave(PaymentOutbox paymentOutbox) {
+        LocalDateTime now = LocalDateTime.now();
+        if (paymentOutbox.getStatus() == null) {
+            paymentOutbox.setStatus(PaymentOutboxStatus.PENDING);
+        }
+        if (paymentOutbox.getAttemptCount() == null) {
+            paymentOutbox.setAttemptCount(0);
+        }
+        if (paymentOutbox.getNextAttemptDate() == null) {
+            paymentOutbox.setNextAttemptDate(now);
+        }
+        if (paymentOutbox.getCreateDate() == null) {
+            paymentOutbox.setCreateDate(now);
+        }
+        if (paymentOutbox.getLastModifyDate() == null) {
+            paymentOutbox.setLastModifyDate(now);
+        }
+    }
+
+    @PreUpdate
+    public void preUpdate(PaymentOutbox paymentOutbox) {
+        paymentOutbox.setLastModifyDate(LocalDateTime.now());
+    }
+}
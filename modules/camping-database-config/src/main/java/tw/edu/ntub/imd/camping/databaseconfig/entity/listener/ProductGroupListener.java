@@ -14,6 +14,12 @@ public class ProductGroupListener {
         if (productGroup.isEnable() == null) {
             productGroup.setEnable(true);
         }
+        if (productGroup.getProductTypeMask() == null) {
+            productGroup.setProductTypeMask(0L);
+        }
+        if (productGroup.getVersion() == null) {
+            productGroup.setVersion(0);
+        }
         if (productGroup.getCreateAccount() == null) {
             productGroup.setCreateAccount(SecurityUtils.getLoginUserAccount());
         }
@@ -1,15 +1,30 @@
 package tw.edu.ntub.imd.camping.databaseconfig.entity.listener;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import tw.edu.ntub.imd.camping.config.util.SecurityUtils;
+import tw.edu.ntub.imd.camping.config.util.UserDetailsCache;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.User;
 import tw.edu.ntub.imd.camping.databaseconfig.enumerate.UserRoleEnum;
 
 import javax.annotation.Nonnull;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
 import java.time.LocalDateTime;
 
 public class UserListener {
+    private UserDetailsCache userDetailsCache;
+
+    /**
+     * 由Hibernate的SpringBeanContainer注入，不在Spring中建立(如DAO測試沒有載入快取)時為null
+     *
+     * @since 1.5.0
+     */
+    @Autowired(required = false)
+    public void setUserDetailsCache(UserDetailsCache userDetailsCache) {
+        this.userDetailsCache = userDetailsCache;
+    }
 
     @PrePersist
     public void beforeSave(@Nonnull User user) {
@@ -32,4 +47,12 @@ public class UserListener {
         user.setLastModifyAccount(SecurityUtils.getLoginUserAccount());
         user.setLastModifyDate(LocalDateTime.now());
     }
+
+    @PostUpdate
+    @PostRemove
+    public void afterChange(@Nonnull User user) {
+        if (userDetailsCache != null) {
+            userDetailsCache.evict(user.getAccount());
+        }
+    }
 }
@@ -5,12 +5,14 @@ import lombok.EqualsAndHashCode;
 import org.hibernate.annotations.Immutable;
 import tw.edu.ntub.imd.camping.databaseconfig.Config;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroup;
+import tw.edu.ntub.imd.camping.databaseconfig.util.AvailabilityCalendar;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
 
 /**
  * 可租借商品列表
+ * 自1.5.0起為實體資料表，由商品群組、租借紀錄、評價的寫入流程依can_borrow_product_group_source重新計算
  *
  * @since 1.0.0
  */
@@ -106,12 +108,22 @@ public class CanBorrowProductGroup {
     private String userName;
 
     /**
-     * 商品類型陣列
+     * 商品類型遮罩，第n個位元為1代表包含編號n的商品類型
      *
+     * @see tw.edu.ntub.imd.camping.databaseconfig.util.ProductTypeMaskUtils
      * @since 1.5.0
      */
-    @Column(name = "product_type")
-    private String productType;
+    @Column(name = "product_type_mask", nullable = false)
+    private Long productTypeMask;
+
+    /**
+     * 可租借日曆，null代表整段期間皆可租借
+     *
+     * @see AvailabilityCalendar
+     * @since 1.5.0
+     */
+    @Column(name = "available_day_bitmap", length = AvailabilityCalendar.MAX_BYTE_LENGTH)
+    private byte[] availableDayBitmap;
 
     /**
      * 商品群組評價平均
@@ -130,4 +142,15 @@ public class CanBorrowProductGroup {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id", referencedColumnName = "id", nullable = false, columnDefinition = "UNSIGNED", insertable = false, updatable = false)
     private ProductGroup productGroupById;
+
+    /**
+     * 可租借日曆，每次呼叫都會重新建立
+     *
+     * @return 可租借日曆
+     * @since 1.5.0
+     */
+    @Transient
+    public AvailabilityCalendar getAvailabilityCalendar() {
+        return AvailabilityCalendar.of(borrowStartDate, borrowEndDate, availableDayBitmap);
+    }
 }
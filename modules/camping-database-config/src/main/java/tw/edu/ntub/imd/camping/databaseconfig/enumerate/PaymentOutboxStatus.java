@@ -0,0 +1,33 @@
+package tw.edu.ntub.imd.camping.databaseconfig.enumerate;
+
+/**
+ * 金流指令狀態(0: 等待送出/ 1: 已完成/ 2: 失敗/ 3: 結果未知)
+ *
+ * @since 1.5.0
+ */
+public enum PaymentOutboxStatus {
+    /**
+     * 等待送出，包含等待重試
+     *
+     * @since 1.5.0
+     */
+    PENDING,
+    /**
+     * 金流服務已完成
+     *
+     * @since 1.5.0
+     */
+    SENT,
+    /**
+     * 金流服務拒絕或超過重試次數
+     *
+     * @since 1.5.0
+     */
+    FAILED,
+    /**
+     * 建立交易已送出但無法確定金流服務是否完成(逾時、無法連線、5xx等)，不自動重試以免重複扣款，需人工確認
+     *
+     * @since 1.5.0
+     */
+    UNKNOWN
+}
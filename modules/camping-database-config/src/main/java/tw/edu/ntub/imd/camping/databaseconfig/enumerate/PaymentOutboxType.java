@@ -0,0 +1,21 @@
+package tw.edu.ntub.imd.camping.databaseconfig.enumerate;
+
+/**
+ * 金流指令類型(0: 建立交易/ 1: 建立金融機構帳號)
+ *
+ * @since 1.5.0
+ */
+public enum PaymentOutboxType {
+    /**
+     * 建立交易，成功後將交易編號寫回租借紀錄
+     *
+     * @since 1.5.0
+     */
+    CREATE_TRANSACTION,
+    /**
+     * 建立金融機構帳號
+     *
+     * @since 1.5.0
+     */
+    CREATE_BANK_ACCOUNT
+}
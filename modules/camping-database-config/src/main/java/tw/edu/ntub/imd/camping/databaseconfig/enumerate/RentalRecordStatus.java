@@ -5,7 +5,19 @@ public enum RentalRecordStatus {
     NOT_PICK_UP,
     NOT_RETURN,
     RETRIEVE,
-    CHECKED;
+    CHECKED,
+    /**
+     * 等待金流服務建立交易，交易建立後改為{@link #NOT_PICK_UP}
+     *
+     * @since 1.5.0
+     */
+    PAYMENT_PENDING,
+    /**
+     * 金流服務拒絕交易，商品群組可再被租借
+     *
+     * @since 1.5.0
+     */
+    PAYMENT_FAILED;
 
     public RentalRecordStatus next() {
         switch (this) {
@@ -17,6 +29,8 @@ public enum RentalRecordStatus {
                 return CHECKED;
             case CANCEL:
             case CHECKED:
+            case PAYMENT_PENDING:
+            case PAYMENT_FAILED:
             default:
                 return null;
         }
@@ -31,6 +45,27 @@ public enum RentalRecordStatus {
             case CANCEL:
                 return true;
             case CHECKED:
+            case PAYMENT_PENDING:
+            case PAYMENT_FAILED:
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return 此狀態的租借紀錄是否佔用商品群組的可租借日期
+     * @since 1.5.0
+     */
+    public boolean isOccupyProductGroup() {
+        switch (this) {
+            case PAYMENT_PENDING:
+            case NOT_PICK_UP:
+            case NOT_RETURN:
+            case RETRIEVE:
+                return true;
+            case CANCEL:
+            case CHECKED:
+            case PAYMENT_FAILED:
             default:
                 return false;
         }
@@ -0,0 +1,150 @@
+package tw.edu.ntub.imd.camping.databaseconfig.util;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+
+/**
+ * 商品群組的可租借日曆，第n個位元代表可租借起始日期後第n天，1為可租借、0為已被租借
+ * 以{@link #toByteArray()}存於product_group.available_day_bitmap，null代表尚未有任何租借，整段期間皆可租借
+ * 最多記錄{@link #MAX_DAY_COUNT}天，超出的日期視為不可租借
+ *
+ * @since 1.5.0
+ */
+public final class AvailabilityCalendar {
+    public static final int MAX_BYTE_LENGTH = 512;
+    public static final int MAX_DAY_COUNT = MAX_BYTE_LENGTH * Byte.SIZE;
+    private final long startEpochDay;
+    private final int dayCount;
+    private final BitSet freeDays;
+
+    private AvailabilityCalendar(long startEpochDay, int dayCount, BitSet freeDays) {
+        this.startEpochDay = startEpochDay;
+        this.dayCount = dayCount;
+        this.freeDays = freeDays;
+    }
+
+    /**
+     * @param borrowStartDate 商品群組可租借起始時間
+     * @param borrowEndDate   商品群組可租借結束時間
+     * @param bitmap          available_day_bitmap，null代表整段期間皆可租借
+     * @return 可租借日曆
+     */
+    @Nonnull
+    public static AvailabilityCalendar of(
+            @Nonnull LocalDateTime borrowStartDate,
+            @Nonnull LocalDateTime borrowEndDate,
+            @Nullable byte[] bitmap) {
+        long startEpochDay = borrowStartDate.toLocalDate().toEpochDay();
+        long endEpochDay = borrowEndDate.toLocalDate().toEpochDay();
+        int dayCount = (int) Math.max(0, Math.min(endEpochDay - startEpochDay + 1, MAX_DAY_COUNT));
+        BitSet freeDays;
+        if (bitmap == null) {
+            freeDays = new BitSet(dayCount);
+            freeDays.set(0, dayCount);
+        } else {
+            freeDays = BitSet.valueOf(bitmap);
+            freeDays.clear(dayCount, Math.max(dayCount, freeDays.length()));
+        }
+        return new AvailabilityCalendar(startEpochDay, dayCount, freeDays);
+    }
+
+    private int indexOf(LocalDate date) {
+        long index = date.toEpochDay() - startEpochDay;
+        return index < 0 ? -1 : (int) Math.min(index, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param date 日期
+     * @return 此日期是否可租借
+     */
+    public boolean isFree(@Nonnull LocalDate date) {
+        int index = indexOf(date);
+        return index >= 0 && index < dayCount && freeDays.get(index);
+    }
+
+    /**
+     * 檢查from ~ to(含)的每一天是否皆可租借，只需檢查一次下一個不可租借的位元
+     *
+     * @param from 起始日期
+     * @param to   結束日期(含)
+     * @return 是否整段期間皆可租借，from在to之後時為false
+     */
+    public boolean isFree(@Nonnull LocalDate from, @Nonnull LocalDate to) {
+        int fromIndex = indexOf(from);
+        int toIndex = indexOf(to);
+        if (fromIndex < 0 || toIndex >= dayCount || fromIndex > toIndex) {
+            return false;
+        }
+        return freeDays.nextClearBit(fromIndex) > toIndex;
+    }
+
+    /**
+     * 只檢查from(含)之後的日期，已過去的日期即使未被租借也不算可租借
+     *
+     * @param from 起始日期，通常為今天
+     * @return from之後是否還有任何一天可租借
+     */
+    public boolean hasFreeDay(@Nonnull LocalDate from) {
+        int fromIndex = Math.max(indexOf(from), 0);
+        if (fromIndex >= dayCount) {
+            return false;
+        }
+        int freeIndex = freeDays.nextSetBit(fromIndex);
+        return freeIndex >= 0 && freeIndex < dayCount;
+    }
+
+    /**
+     * 將from ~ to(含)標記為已被租借
+     *
+     * @param from 起始日期
+     * @param to   結束日期(含)
+     * @return 是否成功，期間內有任何一天不可租借時不做任何變更並回傳false
+     */
+    public boolean book(@Nonnull LocalDate from, @Nonnull LocalDate to) {
+        if (!isFree(from, to)) {
+            return false;
+        }
+        occupy(from, to);
+        return true;
+    }
+
+    /**
+     * 不檢查是否可租借，直接將from ~ to(含)標記為已被租借，超出可租借期間的日期會被忽略
+     *
+     * @param from 起始日期
+     * @param to   結束日期(含)
+     */
+    public void occupy(@Nonnull LocalDate from, @Nonnull LocalDate to) {
+        set(from, to, false);
+    }
+
+    /**
+     * 將from ~ to(含)標記為可租借，超出可租借期間的日期會被忽略
+     *
+     * @param from 起始日期
+     * @param to   結束日期(含)
+     */
+    public void release(@Nonnull LocalDate from, @Nonnull LocalDate to) {
+        set(from, to, true);
+    }
+
+    private void set(LocalDate from, LocalDate to, boolean free) {
+        int fromIndex = Math.max(indexOf(from), 0);
+        int toIndex = indexOf(to);
+        if (toIndex < 0 || fromIndex >= dayCount || fromIndex > toIndex) {
+            return;
+        }
+        freeDays.set(fromIndex, Math.min(toIndex, dayCount - 1) + 1, free);
+    }
+
+    /**
+     * @return 存於available_day_bitmap的內容
+     */
+    @Nonnull
+    public byte[] toByteArray() {
+        return freeDays.toByteArray();
+    }
+}
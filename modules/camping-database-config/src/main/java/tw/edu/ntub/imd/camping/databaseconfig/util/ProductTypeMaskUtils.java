@@ -0,0 +1,58 @@
+package tw.edu.ntub.imd.camping.databaseconfig.util;
+
+import java.util.Collection;
+import java.util.stream.IntStream;
+
+/**
+ * 商品類型遮罩，第n個位元為1代表包含編號n的商品類型，商品類型編號需介於0 ~ 62
+ * 新增商品時以ProductBean的驗證拒絕超出範圍的編號，啟動時由ProductTypeMaskChecker檢查現有的商品類型
+ *
+ * @since 1.5.0
+ */
+public final class ProductTypeMaskUtils {
+    public static final int MAX_TYPE_ID = Long.SIZE - 2;
+
+    private ProductTypeMaskUtils() {
+
+    }
+
+    public static long toMask(int typeId) {
+        if (typeId < 0 || typeId > MAX_TYPE_ID) {
+            throw new IllegalArgumentException("商品類型編號超出遮罩範圍：" + typeId);
+        }
+        return 1L << typeId;
+    }
+
+    public static long toMask(int... typeIdArray) {
+        long mask = 0;
+        for (int typeId : typeIdArray) {
+            mask |= toMask(typeId);
+        }
+        return mask;
+    }
+
+    public static long toMask(Collection<Integer> typeIdCollection) {
+        return toMask(typeIdCollection.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * 與toMask不同，超出範圍的商品類型編號不可能存在於遮罩中，直接忽略
+     */
+    public static long toFilterMask(Collection<Integer> typeIdCollection) {
+        return toMask(typeIdCollection.stream()
+                .mapToInt(Integer::intValue)
+                .filter(typeId -> typeId >= 0 && typeId <= MAX_TYPE_ID)
+                .toArray()
+        );
+    }
+
+    public static boolean isContainsAny(long mask, long filterMask) {
+        return (mask & filterMask) != 0;
+    }
+
+    public static int[] toTypeIdArray(long mask) {
+        return IntStream.rangeClosed(0, MAX_TYPE_ID)
+                .filter(typeId -> (mask & (1L << typeId)) != 0)
+                .toArray();
+    }
+}
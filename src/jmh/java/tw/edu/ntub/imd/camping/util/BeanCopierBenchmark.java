@@ -0,0 +1,69 @@
+package tw.edu.ntub.imd.camping.util;
+
+import org.openjdk.jmh.annotations.*;
+import tw.edu.ntub.birc.common.util.JavaBeanUtils;
+import tw.edu.ntub.imd.camping.bean.ProductBean;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.Product;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductType;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比較JavaBeanUtils.copy與BeanCopier.copy，實體轉為Bean(含AliasName)及以Bean更新實體的處理時間
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BeanCopierBenchmark {
+    private Product product;
+    private ProductBean patchBean;
+
+    @Setup
+    public void setUp() {
+        ProductType productType = new ProductType();
+        productType.setId(1);
+        productType.setName("帳篷");
+        product = new Product();
+        product.setId(1);
+        product.setGroupId(1);
+        product.setType(1);
+        product.setProductTypeByType(productType);
+        product.setName("四人帳");
+        product.setCount(1);
+        product.setBrand("Coleman");
+        product.setAppearance("良好");
+        product.setUseInformation("附說明書");
+        product.setBrokenCompensation("照價賠償");
+        product.setRelatedLink("https://example.com");
+        product.setMemo("無");
+        product.setLastModifyAccount("benchmark");
+        product.setLastModifyDate(LocalDateTime.of(2020, 10, 1, 10, 0));
+        patchBean = new ProductBean();
+        patchBean.setName("六人帳");
+        patchBean.setCount(2);
+    }
+
+    @Benchmark
+    public ProductBean reflectiveEntityToBean() {
+        return JavaBeanUtils.copy(product, new ProductBean());
+    }
+
+    @Benchmark
+    public ProductBean generatedEntityToBean() {
+        return BeanCopier.copy(product, new ProductBean());
+    }
+
+    @Benchmark
+    public Product reflectivePatch() {
+        return JavaBeanUtils.copy(patchBean, new Product());
+    }
+
+    @Benchmark
+    public Product generatedPatch() {
+        return BeanCopier.copy(patchBean, new Product());
+    }
+}
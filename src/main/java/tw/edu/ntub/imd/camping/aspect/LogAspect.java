@@ -8,29 +8,38 @@ import org.aspectj.lang.reflect.CodeSignature;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import tw.edu.ntub.imd.camping.config.util.ResponseUtils;
-import tw.edu.ntub.imd.camping.config.util.SecurityUtils;
-import tw.edu.ntub.imd.camping.databaseconfig.dao.LogRecordDAO;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.LogRecord;
+import tw.edu.ntub.imd.camping.log.LogRecordWriter;
 import tw.edu.ntub.imd.camping.util.http.RequestUtils;
-import tw.edu.ntub.imd.camping.util.json.object.ObjectData;
+import tw.edu.ntub.imd.camping.util.http.ResponseEntityBuilder;
+import tw.edu.ntub.imd.camping.util.http.ResponseResult;
 import tw.edu.ntub.imd.camping.wrapper.RequestWrapper;
+import tw.edu.ntub.imd.camping.wrapper.UserAgentInfoCache;
 
 import javax.servlet.http.HttpServletRequest;
+import java.time.LocalDateTime;
 
 @Aspect
 @Component
 @SuppressWarnings("unused")
 public class LogAspect {
     private final BuildProperties buildProperties;
-    private final LogRecordDAO logRecordDAO;
+    private final LogRecordWriter logRecordWriter;
+    private final UserAgentInfoCache userAgentInfoCache;
 
     @Autowired
-    public LogAspect(BuildProperties buildProperties, LogRecordDAO logRecordDAO) {
+    public LogAspect(
+            BuildProperties buildProperties,
+            LogRecordWriter logRecordWriter,
+            UserAgentInfoCache userAgentInfoCache) {
         this.buildProperties = buildProperties;
-        this.logRecordDAO = logRecordDAO;
+        this.logRecordWriter = logRecordWriter;
+        this.userAgentInfoCache = userAgentInfoCache;
     }
 
     @Pointcut(
@@ -61,30 +70,35 @@ public class LogAspect {
     }
 
     @AfterReturning(pointcut = "controllerPointcut()", returning = "result")
-    public void afterControllerReturn(JoinPoint joinPoint, ResponseEntity<String> result) {
-        ObjectData resultData = new ObjectData(result.getBody());
-        Boolean isSuccess = resultData.getBoolean("result");
-        String errorCode = resultData.getString("errorCode");
-        String message = resultData.getString("message");
-        log(isSuccess, errorCode, message);
+    public void afterControllerReturn(JoinPoint joinPoint, ResponseEntity<?> result) {
+        HttpServletRequest request = RequestUtils.getRequest();
+        Object responseResult = request.getAttribute(ResponseEntityBuilder.RESPONSE_RESULT_ATTRIBUTE);
+        if (responseResult instanceof ResponseResult) {
+            ResponseResult builderResult = (ResponseResult) responseResult;
+            log(builderResult.isSuccess(), builderResult.getErrorCode(), builderResult.getMessage());
+        } else {
+            log(result.getStatusCode().is2xxSuccessful(), "", "");
+        }
     }
 
     private void log(Boolean isSuccess, String errorCode, String message) {
         HttpServletRequest request = RequestUtils.getRequest();
-        RequestWrapper requestWrapper = new RequestWrapper(request);
+        RequestWrapper requestWrapper = new RequestWrapper(request, userAgentInfoCache);
         LogRecord record = new LogRecord();
         record.setServerVersion(buildProperties.getVersion());
         record.setIp(requestWrapper.getIpv4());
         record.setMethod(request.getMethod());
         record.setUrl(getFullUrl(request));
-        record.setExecutor(SecurityUtils.getLoginUserAccount());
         record.setDevice(requestWrapper.getDevice());
         record.setDeviceType(requestWrapper.getDeviceType());
         record.setDeviceVersion(requestWrapper.getDeviceVersion());
         record.setSuccess(isSuccess);
         record.setErrorCode(errorCode);
         record.setMessage(message);
-        logRecordDAO.saveAndFlush(record);
+        record.setExecuteDate(LocalDateTime.now());
+        // 執行者在背景寫入時才取得，帶有JWT的請求不會為了紀錄而驗證Token
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        logRecordWriter.write(record, authentication::getName);
     }
 
     private String getFullUrl(HttpServletRequest request) {
@@ -0,0 +1,39 @@
+package tw.edu.ntub.imd.camping.aspect;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import tw.edu.ntub.imd.camping.databaseconfig.aspect.ReadOnlySessionTransactionInterceptor;
+
+/**
+ * 唯讀交易(find*、get*、search*)載入的實體數量，依是否保留快照分開統計
+ * 每次交易的平均快照數 = camping.read-only-transaction.entity{snapshot=true} / camping.read-only-transaction，
+ * 將camping.transaction.read-only-session設為false可取得改為唯讀Session前的數量
+ *
+ * @since 1.5.0
+ */
+@Component
+public class ReadOnlySessionMetrics implements MeterBinder {
+    private final ReadOnlySessionTransactionInterceptor transactionInterceptor;
+
+    public ReadOnlySessionMetrics(ReadOnlySessionTransactionInterceptor transactionInterceptor) {
+        this.transactionInterceptor = transactionInterceptor;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("camping.read-only-transaction", transactionInterceptor, ReadOnlySessionTransactionInterceptor::getTransactionCount)
+                .description("建立新唯讀交易的次數")
+                .register(registry);
+        FunctionCounter.builder("camping.read-only-transaction.entity", transactionInterceptor, ReadOnlySessionTransactionInterceptor::getSnapshotEntityCount)
+                .tag("snapshot", "true")
+                .description("唯讀交易中保留快照的實體數量")
+                .register(registry);
+        FunctionCounter.builder("camping.read-only-transaction.entity", transactionInterceptor, ReadOnlySessionTransactionInterceptor::getReadOnlyEntityCount)
+                .tag("snapshot", "false")
+                .description("唯讀交易中不保留快照的實體數量")
+                .register(registry);
+    }
+}
@@ -6,12 +6,14 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import org.hibernate.validator.constraints.URL;
 import tw.edu.ntub.birc.common.annotation.AliasName;
+import tw.edu.ntub.imd.camping.databaseconfig.util.ProductTypeMaskUtils;
 import tw.edu.ntub.imd.camping.validation.CreateProduct;
 import tw.edu.ntub.imd.camping.validation.CreateProductGroup;
 import tw.edu.ntub.imd.camping.validation.UpdateProduct;
 import tw.edu.ntub.imd.camping.validation.UpdateProductGroup;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
@@ -31,6 +33,11 @@ public class ProductBean {
     @Schema(description = "商品類型", example = "1")
     @NotNull(groups = {CreateProductGroup.class, CreateProduct.class}, message = "商品類型 - 未填寫")
     @Positive(groups = {CreateProductGroup.class, CreateProduct.class, UpdateProductGroup.class, UpdateProduct.class}, message = "商品類型 - 應為大於0的正數")
+    @Max(
+            groups = {CreateProductGroup.class, CreateProduct.class, UpdateProductGroup.class, UpdateProduct.class},
+            value = ProductTypeMaskUtils.MAX_TYPE_ID,
+            message = "商品類型 - 不存在的商品類型"
+    )
     private Integer type;
 
     @Hidden
@@ -3,12 +3,16 @@ package tw.edu.ntub.imd.camping.bean;
 import io.swagger.v3.oas.annotations.Hidden;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
-import tw.edu.ntub.birc.common.util.ArrayUtils;
 import tw.edu.ntub.birc.common.util.StringUtils;
+import tw.edu.ntub.imd.camping.databaseconfig.dto.CanBorrowProductGroupFilter;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.view.CanBorrowProductGroup;
+import tw.edu.ntub.imd.camping.databaseconfig.util.AvailabilityCalendar;
+import tw.edu.ntub.imd.camping.databaseconfig.util.ProductTypeMaskUtils;
 import tw.edu.ntub.imd.camping.enumerate.ProductGroupPriceRange;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.stream.Collectors;
 
 @Hidden
 @Data
@@ -20,31 +24,53 @@ public class ProductGroupFilterDataBean {
     private int[] typeArray;
     private ProductGroupPriceRange priceRange;
 
-    public boolean isBorrowStartDateNullOrBefore(LocalDate borrowStartDate) {
-        return this.borrowStartDate == null || this.borrowStartDate.isBefore(borrowStartDate) || this.borrowStartDate.isEqual(borrowStartDate);
-    }
-
-    public boolean isBorrowEndDateNullOrAfter(LocalDate borrowEndDate) {
-        return this.borrowEndDate == null || this.borrowEndDate.isAfter(borrowEndDate) || this.borrowEndDate.isEqual(borrowEndDate);
+    /**
+     * 預計租借日期都未填時只需今天之後還有任何一天可租借，只填其中一個時只檢查該日期
+     *
+     * @param calendar 可租借日曆
+     * @return 預計租借期間的每一天是否皆可租借
+     * @since 1.5.0
+     */
+    public boolean isBorrowDateNullOrAvailable(AvailabilityCalendar calendar) {
+        if (borrowStartDate == null && borrowEndDate == null) {
+            return calendar.hasFreeDay(LocalDate.now());
+        }
+        return calendar.isFree(
+                borrowStartDate != null ? borrowStartDate : borrowEndDate,
+                borrowEndDate != null ? borrowEndDate : borrowStartDate
+        );
     }
 
     public boolean isCityAreaNameNullOrEquals(String cityAreaName) {
         return this.cityAreaName == null || StringUtils.isEquals(this.cityAreaName, cityAreaName);
     }
 
-    public boolean isTypeArrayNullOrAllMatchContains(String type) {
-        if (this.typeArray == null) {
-            return true;
-        } else {
-            return Arrays.stream(type.split(","))
-                    .mapToInt(Integer::parseInt)
-                    .filter(id -> ArrayUtils.contains(typeArray, id))
-                    .findAny()
-                    .isPresent();
-        }
+    public boolean isTypeArrayNullOrAnyMatch(long productTypeMask) {
+        return typeArray == null || ProductTypeMaskUtils.isContainsAny(
+                productTypeMask,
+                ProductTypeMaskUtils.toFilterMask(Arrays.stream(typeArray).boxed().collect(Collectors.toList()))
+        );
     }
 
     public boolean isPriceNullOrBetween(int price) {
         return priceRange == null || priceRange.isInRange(price);
     }
+
+    public boolean isMatch(CanBorrowProductGroup canBorrowProductGroup) {
+        return isBorrowDateNullOrAvailable(canBorrowProductGroup.getAvailabilityCalendar()) &&
+                isCityAreaNameNullOrEquals(canBorrowProductGroup.getCityAreaName()) &&
+                isTypeArrayNullOrAnyMatch(canBorrowProductGroup.getProductTypeMask()) &&
+                isPriceNullOrBetween(canBorrowProductGroup.getPrice());
+    }
+
+    public CanBorrowProductGroupFilter toFilter() {
+        return CanBorrowProductGroupFilter.builder()
+                .borrowStartDate(borrowStartDate)
+                .borrowEndDate(borrowEndDate)
+                .cityAreaName(cityAreaName)
+                .typeIdList(typeArray != null ? Arrays.stream(typeArray).boxed().collect(Collectors.toList()) : null)
+                .minPrice(priceRange != null ? priceRange.start : null)
+                .maxPrice(priceRange != null ? priceRange.end : null)
+                .build();
+    }
 }
@@ -0,0 +1,82 @@
+package tw.edu.ntub.imd.camping.catalog;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.CanBorrowProductGroupDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.dto.CanBorrowProductGroupCursor;
+import tw.edu.ntub.imd.camping.databaseconfig.dto.CanBorrowProductGroupFilter;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.view.CanBorrowProductGroup;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 常駐記憶體的可租借商品列表
+ * 第一次查詢時從資料庫載入全部資料，之後只在收到{@link CanBorrowProductGroupChangeEvent}時，
+ * 於下一次查詢前重新載入有異動的商品群組
+ *
+ * @since 1.5.0
+ */
+@Log4j2
+@Component
+public class CanBorrowProductGroupCatalog {
+    private final CanBorrowProductGroupDAO canBorrowProductGroupDAO;
+    private final Set<Integer> dirtyGroupIdSet = ConcurrentHashMap.newKeySet();
+    private volatile CanBorrowProductGroupSnapshot snapshot;
+
+    public CanBorrowProductGroupCatalog(CanBorrowProductGroupDAO canBorrowProductGroupDAO) {
+        this.canBorrowProductGroupDAO = canBorrowProductGroupDAO;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(CanBorrowProductGroupChangeEvent event) {
+        dirtyGroupIdSet.addAll(event.getGroupIdList());
+    }
+
+    @Nonnull
+    public List<CanBorrowProductGroup> search(
+            @Nonnull CanBorrowProductGroupFilter filter,
+            @Nullable CanBorrowProductGroupCursor after,
+            int limit) {
+        return getSnapshot().search(filter, after, limit);
+    }
+
+    public CanBorrowProductGroupSnapshot getSnapshot() {
+        CanBorrowProductGroupSnapshot current = snapshot;
+        if (current == null || !dirtyGroupIdSet.isEmpty()) {
+            return refresh();
+        }
+        return current;
+    }
+
+    /**
+     * 捨棄目前快照，下一次查詢時從資料庫重新載入全部資料
+     */
+    public void reset() {
+        snapshot = null;
+    }
+
+    private synchronized CanBorrowProductGroupSnapshot refresh() {
+        if (snapshot == null) {
+            dirtyGroupIdSet.clear();
+            snapshot = CanBorrowProductGroupSnapshot.of(canBorrowProductGroupDAO.findAll());
+            log.info("載入可租借商品列表，共{}筆", snapshot.size());
+        } else if (!dirtyGroupIdSet.isEmpty()) {
+            List<Integer> changedIdList = new ArrayList<>(dirtyGroupIdSet);
+            dirtyGroupIdSet.removeAll(changedIdList);
+            try {
+                snapshot = snapshot.merge(changedIdList, canBorrowProductGroupDAO.findAllById(changedIdList));
+            } catch (RuntimeException e) {
+                dirtyGroupIdSet.addAll(changedIdList);
+                throw e;
+            }
+            log.debug("重新載入可租借商品群組：{}", changedIdList);
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,27 @@
+package tw.edu.ntub.imd.camping.catalog;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 商品群組、商品、租借紀錄、評價或使用者暱稱異動後發布，讓可租借商品列表只重新計算、載入受影響的商品群組
+ *
+ * @since 1.5.0
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class CanBorrowProductGroupChangeEvent {
+    private final List<Integer> groupIdList;
+
+    public static CanBorrowProductGroupChangeEvent of(Integer... groupIdArray) {
+        return new CanBorrowProductGroupChangeEvent(List.of(groupIdArray));
+    }
+
+    public static CanBorrowProductGroupChangeEvent of(Collection<Integer> groupIdCollection) {
+        return new CanBorrowProductGroupChangeEvent(List.copyOf(groupIdCollection));
+    }
+}
@@ -0,0 +1,62 @@
+package tw.edu.ntub.imd.camping.catalog;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.CanBorrowProductGroupDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.view.CanBorrowProductGroup;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 定期比對can_borrow_product_group資料表與來源資料，有差異時記錄差異的商品群組並重建資料表
+ * 執行時間由camping.can-borrow-product-group.check-cron設定，預設每天04:30，設為"-"可停用
+ *
+ * @since 1.5.0
+ */
+@Log4j2
+@Component
+public class CanBorrowProductGroupConsistencyChecker {
+    private final CanBorrowProductGroupDAO canBorrowProductGroupDAO;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CanBorrowProductGroupConsistencyChecker(
+            CanBorrowProductGroupDAO canBorrowProductGroupDAO,
+            ApplicationEventPublisher eventPublisher) {
+        this.canBorrowProductGroupDAO = canBorrowProductGroupDAO;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Scheduled(cron = "${camping.can-borrow-product-group.check-cron:0 30 4 * * *}")
+    @Transactional
+    public void check() {
+        Set<Integer> driftGroupIdSet = findDriftGroupIdSet();
+        if (driftGroupIdSet.isEmpty()) {
+            log.info("可租借商品列表與來源資料一致");
+            return;
+        }
+        log.warn("可租借商品列表與來源資料不一致，共{}筆：{}", driftGroupIdSet.size(), driftGroupIdSet);
+        int size = canBorrowProductGroupDAO.rebuild();
+        log.warn("已重建可租借商品列表，共{}筆", size);
+        eventPublisher.publishEvent(CanBorrowProductGroupChangeEvent.of(driftGroupIdSet));
+    }
+
+    private Set<Integer> findDriftGroupIdSet() {
+        Map<Integer, CanBorrowProductGroup> tableMap = canBorrowProductGroupDAO.findAll()
+                .stream()
+                .collect(Collectors.toMap(CanBorrowProductGroup::getId, Function.identity()));
+        Set<Integer> result = new TreeSet<>();
+        for (CanBorrowProductGroup source : canBorrowProductGroupDAO.searchAllFromSource()) {
+            CanBorrowProductGroup table = tableMap.remove(source.getId());
+            if (!Objects.equals(source, table)) {
+                result.add(source.getId());
+            }
+        }
+        result.addAll(tableMap.keySet());
+        return result;
+    }
+}
@@ -0,0 +1,146 @@
+package tw.edu.ntub.imd.camping.catalog;
+
+import tw.edu.ntub.imd.camping.databaseconfig.dto.CanBorrowProductGroupCursor;
+import tw.edu.ntub.imd.camping.databaseconfig.dto.CanBorrowProductGroupFilter;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.view.CanBorrowProductGroup;
+import tw.edu.ntub.imd.camping.databaseconfig.util.AvailabilityCalendar;
+import tw.edu.ntub.imd.camping.databaseconfig.util.ProductTypeMaskUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * 可租借商品列表的唯讀快照
+ * 資料依(可租借起始時間, 編號)排序後拆成基本型別的欄位陣列，
+ * 區域與商品類型另外建立BitSet索引，查詢時先以BitSet做AND，再掃描價格欄位與可租借日曆
+ *
+ * @since 1.5.0
+ */
+public final class CanBorrowProductGroupSnapshot {
+    private static final Comparator<CanBorrowProductGroup> ORDER = Comparator
+            .comparing(CanBorrowProductGroup::getBorrowStartDate)
+            .thenComparing(CanBorrowProductGroup::getId);
+
+    private final CanBorrowProductGroup[] rows;
+    private final int[] price;
+    private final AvailabilityCalendar[] calendar;
+    private final Map<String, BitSet> cityAreaBitmap = new HashMap<>();
+    private final Map<Integer, BitSet> typeBitmap = new HashMap<>();
+
+    private CanBorrowProductGroupSnapshot(Collection<CanBorrowProductGroup> canBorrowProductGroups) {
+        rows = canBorrowProductGroups.toArray(new CanBorrowProductGroup[0]);
+        Arrays.sort(rows, ORDER);
+        price = new int[rows.length];
+        calendar = new AvailabilityCalendar[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            CanBorrowProductGroup row = rows[i];
+            price[i] = row.getPrice();
+            calendar[i] = row.getAvailabilityCalendar();
+            cityAreaBitmap.computeIfAbsent(row.getCityAreaName(), key -> new BitSet(rows.length)).set(i);
+            for (int typeId : ProductTypeMaskUtils.toTypeIdArray(row.getProductTypeMask())) {
+                typeBitmap.computeIfAbsent(typeId, key -> new BitSet(rows.length)).set(i);
+            }
+        }
+    }
+
+    public static CanBorrowProductGroupSnapshot of(Collection<CanBorrowProductGroup> canBorrowProductGroups) {
+        return new CanBorrowProductGroupSnapshot(canBorrowProductGroups);
+    }
+
+    /**
+     * 以目前快照為基礎，將指定的商品群組替換成最新資料，不在最新資料中的視為已不可租借
+     *
+     * @param changedIdCollection 有異動的商品群組編號
+     * @param reloadList          有異動且仍可租借的商品群組
+     * @return 新的快照
+     */
+    public CanBorrowProductGroupSnapshot merge(Collection<Integer> changedIdCollection, Collection<CanBorrowProductGroup> reloadList) {
+        Set<Integer> changedIdSet = new HashSet<>(changedIdCollection);
+        List<CanBorrowProductGroup> mergeList = new ArrayList<>(rows.length + reloadList.size());
+        for (CanBorrowProductGroup row : rows) {
+            if (!changedIdSet.contains(row.getId())) {
+                mergeList.add(row);
+            }
+        }
+        mergeList.addAll(reloadList);
+        return new CanBorrowProductGroupSnapshot(mergeList);
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * 查詢結果與{@link tw.edu.ntub.imd.camping.databaseconfig.dao.CanBorrowProductGroupDAOCustom}相同，
+     * 依(可租借起始時間, 編號)排序
+     *
+     * @param filter 篩選條件
+     * @param after  上一頁最後一筆的位置，null代表第一頁
+     * @param limit  最多回傳筆數
+     * @return 符合條件的可租借商品
+     */
+    @Nonnull
+    public List<CanBorrowProductGroup> search(
+            @Nonnull CanBorrowProductGroupFilter filter,
+            @Nullable CanBorrowProductGroupCursor after,
+            int limit) {
+        BitSet candidate = null;
+        if (filter.getCityAreaName() != null) {
+            BitSet cityArea = cityAreaBitmap.get(filter.getCityAreaName());
+            if (cityArea == null) {
+                return Collections.emptyList();
+            }
+            candidate = (BitSet) cityArea.clone();
+        }
+        if (filter.getTypeIdList() != null) {
+            BitSet anyType = new BitSet(rows.length);
+            for (Integer typeId : filter.getTypeIdList()) {
+                BitSet type = typeBitmap.get(typeId);
+                if (type != null) {
+                    anyType.or(type);
+                }
+            }
+            if (candidate == null) {
+                candidate = anyType;
+            } else {
+                candidate.and(anyType);
+            }
+        }
+        int minPrice = filter.getMinPrice() != null ? filter.getMinPrice() : Integer.MIN_VALUE;
+        int maxPrice = filter.getMaxPrice() != null ? filter.getMaxPrice() : Integer.MAX_VALUE;
+
+        LocalDate today = LocalDate.now();
+        List<CanBorrowProductGroup> result = new ArrayList<>(Math.min(limit, rows.length));
+        int i = after != null ? indexAfter(after) : 0;
+        if (candidate != null) {
+            i = candidate.nextSetBit(i);
+        }
+        while (i >= 0 && i < rows.length && result.size() < limit) {
+            if (price[i] >= minPrice &&
+                    price[i] <= maxPrice &&
+                    filter.isAvailable(calendar[i], today)) {
+                result.add(rows[i]);
+            }
+            i = candidate != null ? candidate.nextSetBit(i + 1) : i + 1;
+        }
+        return result;
+    }
+
+    private int indexAfter(CanBorrowProductGroupCursor after) {
+        int low = 0;
+        int high = rows.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            CanBorrowProductGroup row = rows[middle];
+            int compare = row.getBorrowStartDate().compareTo(after.getBorrowStartDate());
+            if (compare < 0 || (compare == 0 && row.getId() <= after.getId())) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,26 @@
+package tw.edu.ntub.imd.camping.catalog;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.CanBorrowProductGroupDAO;
+
+/**
+ * 收到{@link CanBorrowProductGroupChangeEvent}時，在同一個交易提交前重新計算can_borrow_product_group資料表中受影響的商品群組，
+ * 讓資料表與來源資料一起提交
+ *
+ * @since 1.5.0
+ */
+@Component
+public class CanBorrowProductGroupTableUpdater {
+    private final CanBorrowProductGroupDAO canBorrowProductGroupDAO;
+
+    public CanBorrowProductGroupTableUpdater(CanBorrowProductGroupDAO canBorrowProductGroupDAO) {
+        this.canBorrowProductGroupDAO = canBorrowProductGroupDAO;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onChange(CanBorrowProductGroupChangeEvent event) {
+        canBorrowProductGroupDAO.refreshById(event.getGroupIdList());
+    }
+}
@@ -0,0 +1,131 @@
+package tw.edu.ntub.imd.camping.catalog;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.ProductGroupDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.RentalRecordDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.dto.ProductGroupCalendarState;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroup;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.RentalRecord;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.RentalRecordStatus;
+import tw.edu.ntub.imd.camping.databaseconfig.util.AvailabilityCalendar;
+import tw.edu.ntub.imd.camping.exception.CouldNotBorrowException;
+import tw.edu.ntub.imd.camping.exception.ProductGroupAlreadyRentedException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 維護商品群組的可租借日曆(product_group.available_day_bitmap)
+ * 租借時不鎖定商品群組，讀取日曆與版本後以版本比對(compare-and-set)寫入，同時租借的人只有一人會成功，其他人收到{@link ProductGroupAlreadyRentedException}
+ * 取消、完成租借一定要寫入，改以鎖定讀取(只鎖定該商品群組一列)讀到最新的日曆後更新，並同樣將版本加一
+ *
+ * @since 1.5.0
+ */
+@Log4j2
+@Component
+public class ProductGroupCalendarManager {
+    /**
+     * 佔用商品群組可租借日期的租借紀錄狀態
+     *
+     * @see RentalRecordStatus#isOccupyProductGroup()
+     */
+    public static final Set<RentalRecordStatus> OCCUPY_STATUS_SET = Collections.unmodifiableSet(Arrays.stream(RentalRecordStatus.values())
+            .filter(RentalRecordStatus::isOccupyProductGroup)
+            .collect(Collectors.toCollection(() -> EnumSet.noneOf(RentalRecordStatus.class))));
+
+    private final ProductGroupDAO groupDAO;
+    private final RentalRecordDAO recordDAO;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductGroupCalendarManager(
+            ProductGroupDAO groupDAO,
+            RentalRecordDAO recordDAO,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher) {
+        this.groupDAO = groupDAO;
+        this.recordDAO = recordDAO;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * 將租借期間標記為已被租借
+     * 版本不同代表查詢後有其他人變更了日曆，MySQL預設的REPEATABLE READ下同一交易重新查詢仍會讀到相同的快照，
+     * 因此不重試，直接視為租借失敗，由使用者重新查詢後再租借
+     *
+     * @param rentalRecord 租借紀錄，需有商品群組編號與租借期間
+     * @return 商品群組
+     * @throws CouldNotBorrowException            商品群組不存在或未啟用
+     * @throws ProductGroupAlreadyRentedException 租借期間內有任何一天不可租借，或同時有其他人租借同一個商品群組
+     */
+    public ProductGroup book(RentalRecord rentalRecord) {
+        int groupId = rentalRecord.getProductGroupId();
+        ProductGroupCalendarState state = groupDAO.findCalendarStateById(groupId)
+                .filter(ProductGroupCalendarState::isEnable)
+                .orElseThrow(CouldNotBorrowException::new);
+        AvailabilityCalendar calendar = state.toCalendar();
+        if (!calendar.book(rentalRecord.getBorrowStartDate().toLocalDate(), rentalRecord.getBorrowEndDate().toLocalDate())) {
+            throw new ProductGroupAlreadyRentedException();
+        }
+        if (groupDAO.compareAndSetAvailableDayBitmap(groupId, state.getVersion(), calendar.toByteArray()) == 0) {
+            throw new ProductGroupAlreadyRentedException();
+        }
+        return groupDAO.findById(groupId).orElseThrow(CouldNotBorrowException::new);
+    }
+
+    /**
+     * 租借紀錄取消、付款失敗或完成後，將租借期間標記為可租借
+     *
+     * @param rentalRecord 租借紀錄
+     */
+    public void release(RentalRecord rentalRecord) {
+        groupDAO.findCalendarStateByIdForUpdate(rentalRecord.getProductGroupId()).ifPresent(state -> {
+            AvailabilityCalendar calendar = state.toCalendar();
+            calendar.release(rentalRecord.getBorrowStartDate().toLocalDate(), rentalRecord.getBorrowEndDate().toLocalDate());
+            groupDAO.updateAvailableDayBitmapById(state.getId(), calendar.toByteArray());
+        });
+    }
+
+    /**
+     * 依佔用中的租借紀錄重新計算可租借日曆，用於商品群組的可租借期間變更後
+     *
+     * @param groupId 商品群組編號
+     */
+    public void rebuild(int groupId) {
+        groupDAO.findCalendarStateByIdForUpdate(groupId).ifPresent(state -> {
+            AvailabilityCalendar calendar = AvailabilityCalendar.of(state.getBorrowStartDate(), state.getBorrowEndDate(), null);
+            List<RentalRecord> occupyRecordList = recordDAO.findByProductGroupIdAndEnableIsTrueAndStatusIn(groupId, OCCUPY_STATUS_SET);
+            for (RentalRecord rentalRecord : occupyRecordList) {
+                calendar.occupy(rentalRecord.getBorrowStartDate().toLocalDate(), rentalRecord.getBorrowEndDate().toLocalDate());
+            }
+            groupDAO.updateAvailableDayBitmapById(groupId, calendar.toByteArray());
+        });
+    }
+
+    /**
+     * 1.5.0之前的租借紀錄沒有可租借日曆，啟動時為有佔用中租借紀錄的商品群組補建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildMissing() {
+        List<Integer> groupIdList = groupDAO.findIdWithoutAvailableDayBitmap(OCCUPY_STATUS_SET);
+        for (Integer groupId : groupIdList) {
+            transactionTemplate.executeWithoutResult(status -> {
+                rebuild(groupId);
+                eventPublisher.publishEvent(CanBorrowProductGroupChangeEvent.of(groupId));
+            });
+        }
+        if (!groupIdList.isEmpty()) {
+            log.info("補建可租借日曆，共{}筆", groupIdList.size());
+        }
+    }
+}
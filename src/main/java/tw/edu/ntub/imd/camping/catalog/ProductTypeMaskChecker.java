@@ -0,0 +1,32 @@
+package tw.edu.ntub.imd.camping.catalog;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.ProductTypeDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.util.ProductTypeMaskUtils;
+
+/**
+ * 商品類型遮罩只能表示編號0 ~ 62的商品類型，啟動時檢查商品細項類型的最大編號，超出範圍時停止啟動
+ * 需新增更多商品類型時，需將product_type_mask改為更大的型態
+ *
+ * @since 1.5.0
+ */
+@Component
+public class ProductTypeMaskChecker {
+    private final ProductTypeDAO typeDAO;
+
+    public ProductTypeMaskChecker(ProductTypeDAO typeDAO) {
+        this.typeDAO = typeDAO;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        Integer maxId = typeDAO.getMaxId();
+        if (maxId != null && maxId > ProductTypeMaskUtils.MAX_TYPE_ID) {
+            throw new IllegalStateException(
+                    "商品細項類型編號" + maxId + "超出商品類型遮罩的範圍(0 ~ " + ProductTypeMaskUtils.MAX_TYPE_ID + ")"
+            );
+        }
+    }
+}
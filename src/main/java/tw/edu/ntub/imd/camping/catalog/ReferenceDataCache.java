@@ -0,0 +1,136 @@
+package tw.edu.ntub.imd.camping.catalog;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import tw.edu.ntub.imd.camping.databaseconfig.Config;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.City;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductType;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.UserRole;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * 對照資料(城市、商品細項類型、使用者權限)的Hibernate二級快取，區域大小設定於ehcache.xml
+ * 經由JPA的新增、修改會自動更新快取；直接修改資料表(如以SQL新增城市)後需呼叫對應的evict方法，否則會繼續讀到舊的資料
+ *
+ * @since 1.5.0
+ */
+@Log4j2
+@Component
+public class ReferenceDataCache implements MeterBinder {
+    private static final List<String> ENTITY_REGION_LIST = List.of(
+            Config.CITY_CACHE_REGION,
+            Config.PRODUCT_TYPE_CACHE_REGION,
+            Config.USER_ROLE_CACHE_REGION
+    );
+    private final Cache cache;
+    private final Statistics statistics;
+
+    public ReferenceDataCache(EntityManagerFactory entityManagerFactory) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.cache = sessionFactory.getCache();
+        this.statistics = sessionFactory.getStatistics();
+    }
+
+    /**
+     * 清除所有城市與啟用中城市的查詢結果
+     */
+    public void evictCity() {
+        cache.evictEntityData(City.class);
+        cache.evictQueryRegion(Config.REFERENCE_QUERY_CACHE_REGION);
+        log.info("清除城市快取");
+    }
+
+    /**
+     * 清除所有商品細項類型與啟用中商品細項類型的查詢結果
+     */
+    public void evictProductType() {
+        cache.evictEntityData(ProductType.class);
+        cache.evictQueryRegion(Config.REFERENCE_QUERY_CACHE_REGION);
+        log.info("清除商品細項類型快取");
+    }
+
+    /**
+     * 清除所有使用者權限
+     */
+    public void evictUserRole() {
+        cache.evictEntityData(UserRole.class);
+        log.info("清除使用者權限快取");
+    }
+
+    /**
+     * 清除所有對照資料與查詢結果
+     */
+    public void evictAll() {
+        cache.evictEntityData(City.class);
+        cache.evictEntityData(ProductType.class);
+        cache.evictEntityData(UserRole.class);
+        cache.evictQueryRegion(Config.REFERENCE_QUERY_CACHE_REGION);
+        log.info("清除所有對照資料快取");
+    }
+
+    /**
+     * @param region 快取區域，{@link Config}中的*_CACHE_REGION
+     * @return 命中次數，未開啟hibernate.generate_statistics時為0
+     */
+    public long getHitCount(String region) {
+        return getCount(region, CacheRegionStatistics::getHitCount);
+    }
+
+    /**
+     * @param region 快取區域，{@link Config}中的*_CACHE_REGION
+     * @return 未命中次數，未開啟hibernate.generate_statistics時為0
+     */
+    public long getMissCount(String region) {
+        return getCount(region, CacheRegionStatistics::getMissCount);
+    }
+
+    /**
+     * @param region 快取區域，{@link Config}中的*_CACHE_REGION
+     * @return 放入快取的次數，未開啟hibernate.generate_statistics時為0
+     */
+    public long getPutCount(String region) {
+        return getCount(region, CacheRegionStatistics::getPutCount);
+    }
+
+    // 查詢快取區域在第一次查詢時才建立，建立前沒有統計資料
+    private long getCount(String region, ToLongFunction<CacheRegionStatistics> getter) {
+        CacheRegionStatistics regionStatistics = ENTITY_REGION_LIST.contains(region) ?
+                statistics.getDomainDataRegionStatistics(region) :
+                statistics.getQueryRegionStatistics(region);
+        return regionStatistics != null ? getter.applyAsLong(regionStatistics) : 0;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        for (String region : ENTITY_REGION_LIST) {
+            bindRegion(registry, region);
+        }
+        bindRegion(registry, Config.REFERENCE_QUERY_CACHE_REGION);
+    }
+
+    private void bindRegion(MeterRegistry registry, String region) {
+        FunctionCounter.builder("camping.reference-data-cache.hit", this, referenceDataCache -> referenceDataCache.getHitCount(region))
+                .tag("region", region)
+                .description("對照資料直接由二級快取取得的次數")
+                .register(registry);
+        FunctionCounter.builder("camping.reference-data-cache.miss", this, referenceDataCache -> referenceDataCache.getMissCount(region))
+                .tag("region", region)
+                .description("對照資料不在二級快取中的次數")
+                .register(registry);
+        FunctionCounter.builder("camping.reference-data-cache.put", this, referenceDataCache -> referenceDataCache.getPutCount(region))
+                .tag("region", region)
+                .description("對照資料放入二級快取的次數")
+                .register(registry);
+    }
+}
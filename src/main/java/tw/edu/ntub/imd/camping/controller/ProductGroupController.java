@@ -19,9 +19,13 @@ import org.springframework.web.bind.annotation.*;
 import tw.edu.ntub.birc.common.util.MathUtils;
 import tw.edu.ntub.birc.common.wrapper.date.DateTimePattern;
 import tw.edu.ntub.imd.camping.bean.*;
+import tw.edu.ntub.imd.camping.databaseconfig.dto.CanBorrowProductGroupCursor;
+import tw.edu.ntub.imd.camping.exception.InvalidPageLimitException;
 import tw.edu.ntub.imd.camping.service.CityService;
 import tw.edu.ntub.imd.camping.service.ProductGroupService;
+import tw.edu.ntub.imd.camping.util.CursorUtils;
 import tw.edu.ntub.imd.camping.util.http.BindingResultUtils;
+import tw.edu.ntub.imd.camping.util.http.JsonResponseBody;
 import tw.edu.ntub.imd.camping.util.http.ResponseEntityBuilder;
 import tw.edu.ntub.imd.camping.util.json.array.ArrayData;
 import tw.edu.ntub.imd.camping.util.json.object.CollectionObjectData;
@@ -46,6 +50,7 @@ import java.util.stream.Collectors;
 @RestController
 @RequestMapping(path = "/product-group")
 public class ProductGroupController {
+    private static final int MAX_PAGE_LIMIT = 100;
     private final DecimalFormat priceFormat = new DecimalFormat("$ #,###");
     private final ProductGroupService productGroupService;
     private final CityService cityService;
@@ -148,19 +153,21 @@ public class ProductGroupController {
             summary = "查詢商品群組列表",
             description = "查詢商品群組列表",
             parameters = {
-                    @Parameter(name = "borrowStartDate", description = "可租借起始時間", example = "2020/08/14"),
-                    @Parameter(name = "borrowEndDate", description = "可租借結束時間", example = "2020/08/20"),
+                    @Parameter(name = "borrowStartDate", description = "預計租借起始日期，此日期至預計租借結束日期的每一天都需可租借", example = "2020/08/14"),
+                    @Parameter(name = "borrowEndDate", description = "預計租借結束日期", example = "2020/08/20"),
                     @Parameter(name = "cityAreaName", description = "城市區域名稱", example = "中正區"),
                     @Parameter(
                             name = "typeArray",
                             description = "商品類型陣列",
                             example = "[1, 2, 3]"
                     ),
-                    @Parameter(name = "priceRange", description = "價格範圍(0: 0 ~ 2,000/ 1: 2,001 ~ 4,000)", example = "0")
+                    @Parameter(name = "priceRange", description = "價格範圍(0: 0 ~ 2,000/ 1: 2,001 ~ 4,000)", example = "0"),
+                    @Parameter(name = "limit", description = "每頁筆數(1 ~ 100)，未傳入時回傳全部", example = "20"),
+                    @Parameter(name = "next", description = "上一頁回應的X-Next-Cursor標頭，未傳入時為第一頁")
             },
             responses = @ApiResponse(
                     responseCode = "200",
-                    description = "查詢成功",
+                    description = "查詢成功，若還有下一頁，X-Next-Cursor標頭為下一頁的next參數",
                     content = @Content(
                             mediaType = MediaType.APPLICATION_JSON_VALUE,
                             schema = @Schema(implementation = CanBorrowProductGroupBean.class)
@@ -168,9 +175,32 @@ public class ProductGroupController {
             )
     )
     @GetMapping(path = "")
-    public ResponseEntity<String> searchCanBorrowProductGroup(ProductGroupFilterDataBean filterData) {
-        return ResponseEntityBuilder.success("查詢成功")
-                .data(productGroupService.searchCanBorrowProductGroup(filterData), (data, canBorrowProductGroup) -> {
+    public ResponseEntity<JsonResponseBody> searchCanBorrowProductGroup(
+            ProductGroupFilterDataBean filterData,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "next", required = false) String next
+    ) {
+        ResponseEntityBuilder builder = ResponseEntityBuilder.success("查詢成功");
+        List<CanBorrowProductGroupBean> canBorrowProductGroupList;
+        if (limit != null) {
+            if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+                throw new InvalidPageLimitException(limit, MAX_PAGE_LIMIT);
+            }
+            canBorrowProductGroupList = productGroupService.searchCanBorrowProductGroup(
+                    filterData,
+                    next != null ? CursorUtils.decodeCanBorrowProductGroupCursor(next) : null,
+                    limit
+            );
+            if (!canBorrowProductGroupList.isEmpty() && canBorrowProductGroupList.size() == limit) {
+                CanBorrowProductGroupBean last = canBorrowProductGroupList.get(canBorrowProductGroupList.size() - 1);
+                builder.addHeader("X-Next-Cursor", CursorUtils.encode(
+                        CanBorrowProductGroupCursor.of(last.getBorrowStartDate(), last.getId())
+                ));
+            }
+        } else {
+            canBorrowProductGroupList = productGroupService.searchCanBorrowProductGroup(filterData);
+        }
+        return builder.data(canBorrowProductGroupList, (data, canBorrowProductGroup) -> {
                     data.add("id", canBorrowProductGroup.getId());
                     data.add("name", canBorrowProductGroup.getName());
                     data.add("coverImage", canBorrowProductGroup.getCoverImage());
@@ -182,7 +212,7 @@ public class ProductGroupController {
                     data.addStringArray("productTypeArray", canBorrowProductGroup.getProductTypeArray());
                     data.add("comment", MathUtils.round(canBorrowProductGroup.getComment(), 2));
                 })
-                .build();
+                .buildStream();
     }
 
     @Operation(
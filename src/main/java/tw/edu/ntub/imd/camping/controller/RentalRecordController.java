@@ -13,11 +13,15 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import tw.edu.ntub.birc.common.util.MathUtils;
 import tw.edu.ntub.birc.common.wrapper.date.DateTimePattern;
 import tw.edu.ntub.imd.camping.bean.*;
 import tw.edu.ntub.imd.camping.config.util.SecurityUtils;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.RentalRecordStatus;
+import tw.edu.ntub.imd.camping.exception.UnknownRentalRecordStatusException;
 import tw.edu.ntub.imd.camping.service.RentalRecordService;
 import tw.edu.ntub.imd.camping.util.http.BindingResultUtils;
+import tw.edu.ntub.imd.camping.util.http.JsonResponseBody;
 import tw.edu.ntub.imd.camping.util.http.ResponseEntityBuilder;
 import tw.edu.ntub.imd.camping.util.json.object.CollectionObjectData;
 import tw.edu.ntub.imd.camping.util.json.object.ObjectData;
@@ -76,13 +80,13 @@ public class RentalRecordController {
             )
     )
     @GetMapping(path = "")
-    public ResponseEntity<String> searchAll() {
+    public ResponseEntity<JsonResponseBody> searchAll() {
         return ResponseEntityBuilder.success("查詢成功")
                 .data(
                         rentalRecordService.searchByRenterAccount(SecurityUtils.getLoginUserAccount()),
                         this::addRentalRecordToData
                 )
-                .build();
+                .buildStream();
     }
 
     private void addRentalRecordToData(ObjectData rentalRecordData, RentalRecordBean rentalRecord) {
@@ -139,13 +143,13 @@ public class RentalRecordController {
             )
     )
     @GetMapping(path = "/borrow")
-    public ResponseEntity<String> searchAllBorrowRecord() {
+    public ResponseEntity<JsonResponseBody> searchAllBorrowRecord() {
         return ResponseEntityBuilder.success("查詢成功")
                 .data(
                         rentalRecordService.searchByProductGroupCreateAccount(SecurityUtils.getLoginUserAccount()),
                         this::addRentalRecordToData
                 )
-                .build();
+                .buildStream();
     }
 
     @Operation(
@@ -153,18 +157,36 @@ public class RentalRecordController {
             method = "PATCH",
             summary = "更新租借紀錄狀態",
             description = "更新租借紀錄狀態至下一階段",
-            parameters = @Parameter(name = "id", description = "紀錄編號", required = true, example = "1"),
+            parameters = {
+                    @Parameter(name = "id", description = "紀錄編號", required = true, example = "1"),
+                    @Parameter(
+                            name = "status",
+                            description = "畫面上顯示的目前狀態，與實際狀態不同時(如對方已先更新)更新失敗；未傳入時以查詢到的狀態為準",
+                            example = "1"
+                    )
+            },
             responses = @ApiResponse(
                     responseCode = "200",
                     description = "更新成功"
             )
     )
     @PatchMapping(path = "/{id}/status/next")
-    public ResponseEntity<String> updateStatusToNext(@PathVariable @Positive(message = "id - 應大於0") int id) {
-        rentalRecordService.updateStatusToNext(id);
+    public ResponseEntity<String> updateStatusToNext(
+            @PathVariable @Positive(message = "id - 應大於0") int id,
+            @RequestParam(name = "status", required = false) Integer status
+    ) {
+        rentalRecordService.updateStatusToNext(id, status != null ? toRentalRecordStatus(status) : null);
         return ResponseEntityBuilder.buildSuccessMessage("更新成功");
     }
 
+    private RentalRecordStatus toRentalRecordStatus(int ordinal) {
+        RentalRecordStatus[] allStatus = RentalRecordStatus.values();
+        if (MathUtils.isInRangeExcludeEnd(ordinal, 0, allStatus.length)) {
+            return allStatus[ordinal];
+        }
+        throw new UnknownRentalRecordStatusException(ordinal);
+    }
+
     @Operation(
             tags = "Rental",
             method = "POST",
@@ -231,7 +253,7 @@ public class RentalRecordController {
     private static class SearchRentalRecordResult {
         @Schema(description = "編號", minimum = "1", example = "1")
         private Integer id;
-        @Schema(description = "狀態(0:取消/ 1: 未取貨/ 2:未歸還/ 3:已歸還/ 4: 已檢查)", minimum = "0", maximum = "4", example = "4")
+        @Schema(description = "狀態(0:取消/ 1: 未取貨/ 2:未歸還/ 3:已歸還/ 4: 已檢查/ 5: 等待付款/ 6: 付款失敗)", minimum = "0", maximum = "6", example = "4")
         private Integer status;
         @Schema(description = "租借期間", example = "2020/12/10-12/13")
         private String borrowRange;
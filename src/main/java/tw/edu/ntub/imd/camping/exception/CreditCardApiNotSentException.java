@@ -0,0 +1,13 @@
+package tw.edu.ntub.imd.camping.exception;
+
+/**
+ * 同時請求數已滿或斷路器開啟，請求沒有送至金流服務，即使是建立交易也可以安全地重試
+ *
+ * @since 1.5.0
+ */
+public class CreditCardApiNotSentException extends CreditCardApiUnavailableException {
+
+    public CreditCardApiNotSentException(String message) {
+        super(message);
+    }
+}
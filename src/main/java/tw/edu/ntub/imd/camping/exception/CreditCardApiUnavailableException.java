@@ -0,0 +1,22 @@
+package tw.edu.ntub.imd.camping.exception;
+
+/**
+ * 金流服務逾時、無法連線、同時請求數已滿或斷路器開啟，交易並未完成
+ *
+ * @since 1.5.0
+ */
+public class CreditCardApiUnavailableException extends CreditCardTransactionException {
+
+    public CreditCardApiUnavailableException(String message) {
+        super(message);
+    }
+
+    public CreditCardApiUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "CreditCardTransaction - Unavailable";
+    }
+}
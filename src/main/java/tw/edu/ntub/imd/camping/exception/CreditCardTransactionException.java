@@ -16,6 +16,10 @@ public class CreditCardTransactionException extends ProjectException {
         this.responseErrorCode = responseErrorCode;
     }
 
+    public CreditCardTransactionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
     public CreditCardTransactionException(Throwable cause) {
         super("信用卡交易失敗", cause);
     }
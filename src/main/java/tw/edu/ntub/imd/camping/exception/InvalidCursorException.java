@@ -0,0 +1,14 @@
+package tw.edu.ntub.imd.camping.exception;
+
+import tw.edu.ntub.birc.common.exception.ProjectException;
+
+public class InvalidCursorException extends ProjectException {
+    public InvalidCursorException(String cursor, Throwable cause) {
+        super("無效的分頁位置：" + cursor, cause);
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "Cursor - Invalid";
+    }
+}
@@ -0,0 +1,14 @@
+package tw.edu.ntub.imd.camping.exception;
+
+import tw.edu.ntub.birc.common.exception.ProjectException;
+
+public class InvalidPageLimitException extends ProjectException {
+    public InvalidPageLimitException(int limit, int maxLimit) {
+        super("每頁筆數應為1 <= 每頁筆數 <= " + maxLimit + "：" + limit);
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "PageLimit - InvalidRange";
+    }
+}
@@ -0,0 +1,19 @@
+package tw.edu.ntub.imd.camping.exception;
+
+import tw.edu.ntub.birc.common.exception.ProjectException;
+
+/**
+ * 租借期間內有任何一天已被租借，或同時有其他人正在租借同一個商品群組
+ *
+ * @since 1.5.0
+ */
+public class ProductGroupAlreadyRentedException extends ProjectException {
+    public ProductGroupAlreadyRentedException() {
+        super("租借失敗，該商品於此期間已被租借，請重新查詢後再試");
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "Rental - ProductGroupAlreadyRented";
+    }
+}
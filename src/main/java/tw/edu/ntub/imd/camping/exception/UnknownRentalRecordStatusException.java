@@ -0,0 +1,14 @@
+package tw.edu.ntub.imd.camping.exception;
+
+import tw.edu.ntub.birc.common.exception.ProjectException;
+
+public class UnknownRentalRecordStatusException extends ProjectException {
+    public UnknownRentalRecordStatusException(int ordinal) {
+        super("不存在的租借紀錄狀態：" + ordinal);
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "RentalRecordStatus - Unknown";
+    }
+}
@@ -0,0 +1,214 @@
+package tw.edu.ntub.imd.camping.log;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.LogRecordDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.LogRecord;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 操作紀錄先放入有上限的佇列，由背景執行緒每camping.log-record.flush-interval毫秒(預設1000)
+ * 或累積camping.log-record.batch-size筆(預設200)時，以一次JDBC batch寫入資料庫
+ * 佇列已滿時依camping.log-record.full-policy處理：
+ * DROP(預設)直接捨棄，BLOCK最多等待camping.log-record.block-timeout毫秒(預設100)後捨棄
+ *
+ * @since 1.5.0
+ */
+@Log4j2
+@Component
+public class LogRecordWriter {
+    private final LogRecordDAO logRecordDAO;
+    private final BlockingQueue<PendingLogRecord> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final FullPolicy fullPolicy;
+    private final long blockTimeoutMillis;
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Counter failedCounter;
+    private final Thread writerThread;
+    private volatile boolean running;
+
+    public LogRecordWriter(
+            LogRecordDAO logRecordDAO,
+            MeterRegistry meterRegistry,
+            @Value("${camping.log-record.queue-capacity:10000}") int queueCapacity,
+            @Value("${camping.log-record.batch-size:200}") int batchSize,
+            @Value("${camping.log-record.flush-interval:1000}") long flushIntervalMillis,
+            @Value("${camping.log-record.full-policy:DROP}") FullPolicy fullPolicy,
+            @Value("${camping.log-record.block-timeout:100}") long blockTimeoutMillis) {
+        this.logRecordDAO = logRecordDAO;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.fullPolicy = fullPolicy;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+        Gauge.builder("camping.log-record.queue.size", queue, BlockingQueue::size)
+                .description("等待寫入的操作紀錄筆數")
+                .register(meterRegistry);
+        Gauge.builder("camping.log-record.queue.remaining-capacity", queue, BlockingQueue::remainingCapacity)
+                .description("操作紀錄佇列剩餘容量")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("camping.log-record.written")
+                .description("已寫入的操作紀錄筆數")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("camping.log-record.dropped")
+                .description("因佇列已滿而捨棄的操作紀錄筆數")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("camping.log-record.failed")
+                .description("寫入失敗的操作紀錄筆數")
+                .register(meterRegistry);
+        this.writerThread = new Thread(this::runWriter, "log-record-writer");
+        this.writerThread.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writerThread.interrupt();
+        writerThread.join(flushIntervalMillis);
+        while (flush() > 0) {
+            // 關閉前寫入剩餘的操作紀錄
+        }
+    }
+
+    /**
+     * 將操作紀錄放入佇列，不會等待寫入資料庫
+     *
+     * @param logRecord 操作紀錄
+     * @return 是否成功放入佇列，佇列已滿而被捨棄時為false
+     */
+    public boolean write(LogRecord logRecord) {
+        return write(logRecord, null);
+    }
+
+    /**
+     * 將操作紀錄放入佇列，執行者帳號在寫入資料庫前才由executorSupplier取得，
+     * 讓請求本身不需要為了紀錄而驗證JWT
+     *
+     * @param logRecord        操作紀錄
+     * @param executorSupplier 取得執行者帳號，null代表使用logRecord中的執行者
+     * @return 是否成功放入佇列，佇列已滿而被捨棄時為false
+     */
+    public boolean write(LogRecord logRecord, @Nullable Supplier<String> executorSupplier) {
+        PendingLogRecord pendingLogRecord = new PendingLogRecord(logRecord, executorSupplier);
+        boolean accepted;
+        if (fullPolicy == FullPolicy.BLOCK) {
+            try {
+                accepted = queue.offer(pendingLogRecord, blockTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+        } else {
+            accepted = queue.offer(pendingLogRecord);
+        }
+        if (!accepted) {
+            droppedCounter.increment();
+        }
+        return accepted;
+    }
+
+    private void runWriter() {
+        while (running) {
+            insert(awaitBatch());
+        }
+    }
+
+    // 等到累積batch-size筆或超過flush-interval，被中斷時回傳已取出的紀錄，避免遺失
+    private List<PendingLogRecord> awaitBatch() {
+        List<PendingLogRecord> batch = new ArrayList<>(batchSize);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        long remainingNanos = deadline - System.nanoTime();
+        try {
+            while (batch.size() < batchSize && remainingNanos > 0) {
+                PendingLogRecord pendingLogRecord = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                if (pendingLogRecord == null) {
+                    break;
+                }
+                batch.add(pendingLogRecord);
+                queue.drainTo(batch, batchSize - batch.size());
+                remainingNanos = deadline - System.nanoTime();
+            }
+        } catch (InterruptedException e) {
+            if (running) {
+                log.warn("操作紀錄寫入執行緒被中斷", e);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * 立即寫入佇列中最多batch-size筆操作紀錄
+     *
+     * @return 從佇列取出的筆數
+     */
+    int flush() {
+        List<PendingLogRecord> batch = new ArrayList<>(batchSize);
+        queue.drainTo(batch, batchSize);
+        insert(batch);
+        return batch.size();
+    }
+
+    private void insert(List<PendingLogRecord> batch) {
+        List<LogRecord> logRecordList = new ArrayList<>(batch.size());
+        for (PendingLogRecord pendingLogRecord : batch) {
+            try {
+                logRecordList.add(pendingLogRecord.toLogRecord());
+            } catch (RuntimeException e) {
+                failedCounter.increment();
+                log.error("無法取得操作紀錄的執行者", e);
+            }
+        }
+        if (logRecordList.isEmpty()) {
+            return;
+        }
+        try {
+            writtenCounter.increment(logRecordDAO.insertAll(logRecordList));
+        } catch (RuntimeException e) {
+            failedCounter.increment(logRecordList.size());
+            log.error("寫入{}筆操作紀錄失敗", logRecordList.size(), e);
+        }
+    }
+
+    private static class PendingLogRecord {
+        private final LogRecord logRecord;
+        private final Supplier<String> executorSupplier;
+
+        private PendingLogRecord(LogRecord logRecord, Supplier<String> executorSupplier) {
+            this.logRecord = logRecord;
+            this.executorSupplier = executorSupplier;
+        }
+
+        private LogRecord toLogRecord() {
+            if (executorSupplier != null) {
+                logRecord.setExecutor(executorSupplier.get());
+            }
+            return logRecord;
+        }
+    }
+
+    public enum FullPolicy {
+        DROP,
+        BLOCK
+    }
+}
@@ -0,0 +1,144 @@
+package tw.edu.ntub.imd.camping.payment;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import tw.edu.ntub.imd.camping.dto.Bank;
+import tw.edu.ntub.imd.camping.exception.CreditCardTransactionException;
+import tw.edu.ntub.imd.camping.util.TransactionUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 金融機構清單快取，清單幾乎不會變動，不需要每次都呼叫金流服務
+ * 超過camping.bank-list-cache.refresh-after-seconds秒(預設600)時仍回傳目前的清單，同時在背景重新查詢；
+ * 超過camping.bank-list-cache.expire-after-seconds秒(預設86400)時才等待重新查詢，查詢失敗時仍回傳舊的清單
+ *
+ * @since 1.5.0
+ */
+@Log4j2
+@Component
+public class BankListCache implements MeterBinder {
+    private final TransactionUtils transactionUtils;
+    private final long refreshAfterNanos;
+    private final long expireAfterNanos;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong loadCount = new AtomicLong();
+    private final AtomicLong loadFailureCount = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public BankListCache(
+            TransactionUtils transactionUtils,
+            @Value("${camping.bank-list-cache.refresh-after-seconds:600}") long refreshAfterSeconds,
+            @Value("${camping.bank-list-cache.expire-after-seconds:86400}") long expireAfterSeconds) {
+        this.transactionUtils = transactionUtils;
+        this.refreshAfterNanos = TimeUnit.SECONDS.toNanos(refreshAfterSeconds);
+        this.expireAfterNanos = TimeUnit.SECONDS.toNanos(expireAfterSeconds);
+    }
+
+    /**
+     * @return 金融機構清單，不可修改
+     * @throws CreditCardTransactionException 沒有任何快取且查詢失敗
+     */
+    @NonNull
+    public List<Bank> get() {
+        Snapshot current = snapshot;
+        long now = System.nanoTime();
+        if (current == null || now - current.loadedAt >= expireAfterNanos) {
+            return load(current);
+        }
+        hitCount.incrementAndGet();
+        if (now - current.loadedAt >= refreshAfterNanos) {
+            refreshAsync();
+        }
+        return current.bankList;
+    }
+
+    // 同時只有一個請求等待查詢，其他請求等待後直接使用查詢結果
+    private synchronized List<Bank> load(Snapshot expired) {
+        Snapshot current = snapshot;
+        if (current != expired) {
+            hitCount.incrementAndGet();
+            return current.bankList;
+        }
+        loadCount.incrementAndGet();
+        try {
+            return update(transactionUtils.searchBank()).bankList;
+        } catch (CreditCardTransactionException e) {
+            loadFailureCount.incrementAndGet();
+            if (expired == null) {
+                throw e;
+            }
+            log.warn("查詢金融機構清單失敗，使用舊的清單：{}", e.getMessage());
+            return expired.bankList;
+        }
+    }
+
+    private void refreshAsync() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        loadCount.incrementAndGet();
+        transactionUtils.searchBankAsync().whenComplete((bankList, throwable) -> {
+            try {
+                if (throwable == null) {
+                    update(bankList);
+                } else {
+                    loadFailureCount.incrementAndGet();
+                    log.warn("背景更新金融機構清單失敗：{}", throwable.getMessage());
+                }
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    private Snapshot update(List<Bank> bankList) {
+        Snapshot result = new Snapshot(List.copyOf(bankList), System.nanoTime());
+        snapshot = result;
+        return result;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getLoadCount() {
+        return loadCount.get();
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount.get();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("camping.bank-list-cache.hit", this, BankListCache::getHitCount)
+                .description("金融機構清單直接由快取回傳的次數")
+                .register(registry);
+        FunctionCounter.builder("camping.bank-list-cache.load", this, BankListCache::getLoadCount)
+                .description("金融機構清單向金流服務查詢的次數")
+                .register(registry);
+        FunctionCounter.builder("camping.bank-list-cache.load-failure", this, BankListCache::getLoadFailureCount)
+                .description("金融機構清單查詢失敗的次數")
+                .register(registry);
+    }
+
+    private static class Snapshot {
+        private final List<Bank> bankList;
+        private final long loadedAt;
+
+        private Snapshot(List<Bank> bankList, long loadedAt) {
+            this.bankList = bankList;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package tw.edu.ntub.imd.camping.payment;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import tw.edu.ntub.imd.camping.catalog.CanBorrowProductGroupChangeEvent;
+import tw.edu.ntub.imd.camping.catalog.ProductGroupCalendarManager;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.PaymentOutboxDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.RegisteredBankAccountDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.RentalRecordDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.PaymentOutbox;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.PaymentOutbox_;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.RegisteredBankAccount;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.PaymentOutboxStatus;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.PaymentOutboxType;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.RentalRecordStatus;
+import tw.edu.ntub.imd.camping.dto.BankAccount;
+import tw.edu.ntub.imd.camping.dto.CreditCard;
+import tw.edu.ntub.imd.camping.exception.CreditCardApiNotSentException;
+import tw.edu.ntub.imd.camping.exception.CreditCardTransactionException;
+import tw.edu.ntub.imd.camping.util.TransactionUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 每camping.payment-outbox.dispatch-interval毫秒(預設1000)取出最多camping.payment-outbox.batch-size筆(預設50)
+ * 等待送出的金流指令，同時送至金流服務後逐筆以獨立的交易寫回結果，收款帳號還在建立中的交易等帳號建立後才送出：
+ * 建立交易成功時將交易編號寫回租借紀錄並改為未取貨，金流服務拒絕時改為付款失敗並釋放租借期間，
+ * 信用卡資料只保存在記憶體中，應用程式重新啟動後遺失時同樣改為付款失敗；
+ * 建立金融機構帳號成功時記錄於registered_bank_account；
+ * 請求沒有送出(同時請求數已滿、斷路器開啟)以及建立金融機構帳號逾時、無法連線等錯誤，
+ * 以camping.payment-outbox.retry-backoff毫秒(預設5000)為基準指數延後重試，最多送出camping.payment-outbox.max-attempts次(預設10)；
+ * 建立交易沒有冪等鍵，送出後逾時、無法連線、5xx時金流服務可能已扣款，不重試而改為結果未知，租借紀錄維持等待付款，需人工確認；
+ * 金流服務已完成但租借紀錄已取消或無法寫回結果時，同樣改為結果未知，並在last_error記錄交易編號
+ * 只適用單一應用程式執行個體，多個執行個體需改為以資料庫鎖定分配指令
+ *
+ * @since 1.5.0
+ */
+@Log4j2
+@Component
+public class PaymentOutboxDispatcher {
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 3_600_000;
+    private final PaymentOutboxDAO outboxDAO;
+    private final RentalRecordDAO recordDAO;
+    private final RegisteredBankAccountDAO registeredBankAccountDAO;
+    private final ProductGroupCalendarManager calendarManager;
+    private final PendingCreditCardStore creditCardStore;
+    private final TransactionUtils transactionUtils;
+    private final ObjectMapper mapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Counter unknownCounter;
+
+    public PaymentOutboxDispatcher(
+            PaymentOutboxDAO outboxDAO,
+            RentalRecordDAO recordDAO,
+            RegisteredBankAccountDAO registeredBankAccountDAO,
+            ProductGroupCalendarManager calendarManager,
+            PendingCreditCardStore creditCardStore,
+            TransactionUtils transactionUtils,
+            ObjectMapper mapper,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${camping.payment-outbox.batch-size:50}") int batchSize,
+            @Value("${camping.payment-outbox.max-attempts:10}") int maxAttempts,
+            @Value("${camping.payment-outbox.retry-backoff:5000}") long retryBackoffMillis) {
+        this.outboxDAO = outboxDAO;
+        this.recordDAO = recordDAO;
+        this.registeredBankAccountDAO = registeredBankAccountDAO;
+        this.calendarManager = calendarManager;
+        this.creditCardStore = creditCardStore;
+        this.transactionUtils = transactionUtils;
+        this.mapper = mapper;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.sentCounter = Counter.builder("camping.payment-outbox.sent")
+                .description("金流服務已完成的指令數")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("camping.payment-outbox.retried")
+                .description("延後重試的指令數")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("camping.payment-outbox.failed")
+                .description("金流服務拒絕或超過重試次數的指令數")
+                .register(meterRegistry);
+        this.unknownCounter = Counter.builder("camping.payment-outbox.unknown")
+                .description("送出後結果未知，需人工確認的指令數")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${camping.payment-outbox.dispatch-interval:1000}")
+    public void run() {
+        try {
+            while (dispatch() >= batchSize) {
+                // 還有等待送出的指令時繼續處理下一批
+            }
+        } catch (RuntimeException e) {
+            log.error("送出金流指令失敗", e);
+        }
+    }
+
+    /**
+     * 送出一批等待中的金流指令並寫回結果
+     *
+     * @return 這一批的指令數
+     */
+    public int dispatch() {
+        // 收款帳號的建立金融機構帳號指令還沒完成時，該帳號的交易留到之後的批次，不會與建立帳號同時送出
+        List<PaymentOutbox> outboxList = transactionTemplate.execute(status -> outboxDAO.findDispatchable(
+                LocalDateTime.now(),
+                PageRequest.of(0, batchSize, Sort.by(PaymentOutbox_.ID))
+        ));
+        if (outboxList == null || outboxList.isEmpty()) {
+            return 0;
+        }
+        // 先全部送出再逐筆等待結果，同時送出的數量由TransactionUtils限制
+        List<CompletableFuture<Integer>> futureList = new ArrayList<>(outboxList.size());
+        for (PaymentOutbox outbox : outboxList) {
+            futureList.add(send(outbox));
+        }
+        for (int i = 0; i < outboxList.size(); i++) {
+            PaymentOutbox outbox = outboxList.get(i);
+            Integer transactionId;
+            try {
+                transactionId = TransactionUtils.await(futureList.get(i));
+            } catch (RuntimeException e) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> onError(outbox, e));
+                } catch (RuntimeException saveException) {
+                    // 無法確定是否需要重試，移除信用卡資料避免重複扣款，下次送出時改為付款失敗
+                    creditCardStore.remove(outbox.getId());
+                    log.error("金流指令{}無法寫回失敗結果", outbox.getId(), saveException);
+                    continue;
+                }
+                // 只有等待重試的指令保留信用卡資料
+                if (outbox.getStatus() != PaymentOutboxStatus.PENDING) {
+                    creditCardStore.remove(outbox.getId());
+                }
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> onSent(outbox, transactionId));
+            } catch (RuntimeException e) {
+                // 金流服務已完成，不論結果是否寫回都不可再送出，先移除信用卡資料
+                creditCardStore.remove(outbox.getId());
+                try {
+                    transactionTemplate.executeWithoutResult(status -> onSentNotSaved(outbox, transactionId, e));
+                } catch (RuntimeException unknownException) {
+                    // 指令維持等待送出，下次送出時已沒有信用卡資料而失敗，不會重複扣款
+                    log.error("金流指令{}已完成(交易編號：{})但無法寫回結果", outbox.getId(), transactionId, unknownException);
+                }
+                continue;
+            }
+            creditCardStore.remove(outbox.getId());
+        }
+        return outboxList.size();
+    }
+
+    private CompletableFuture<Integer> send(PaymentOutbox outbox) {
+        try {
+            switch (outbox.getType()) {
+                case CREATE_TRANSACTION:
+                    TransactionCommand command = readPayload(outbox, TransactionCommand.class);
+                    CreditCard creditCard = creditCardStore.get(outbox.getId())
+                            .orElseThrow(() -> new CreditCardTransactionException(
+                                    "信用卡資料已失效，請重新租借",
+                                    "PaymentOutbox - CreditCardExpired"
+                            ));
+                    return transactionUtils.createTransactionAsync(
+                            creditCard,
+                            command.getPayeeBankAccount(),
+                            command.getMoney()
+                    );
+                case CREATE_BANK_ACCOUNT:
+                    BankAccount bankAccount = readPayload(outbox, BankAccount.class);
+                    return transactionUtils.createBankAccountAsync(bankAccount).thenApply(result -> null);
+                default:
+                    throw new IllegalStateException("未知的金流指令類型：" + outbox.getType());
+            }
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> T readPayload(PaymentOutbox outbox, Class<T> payloadClass) {
+        try {
+            return mapper.readValue(outbox.getPayload(), payloadClass);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("金流指令內容格式錯誤：" + outbox.getId(), e);
+        }
+    }
+
+    private void onSent(PaymentOutbox outbox, Integer transactionId) {
+        outbox.setAttemptCount(outbox.getAttemptCount() + 1);
+        if (outbox.getType() == PaymentOutboxType.CREATE_BANK_ACCOUNT) {
+            String account = readPayload(outbox, BankAccount.class).getAccount();
+            if (!registeredBankAccountDAO.existsById(account)) {
+                registeredBankAccountDAO.save(new RegisteredBankAccount(account));
+            }
+        } else if (outbox.getType() == PaymentOutboxType.CREATE_TRANSACTION && recordDAO.updatePaymentResult(
+                outbox.getRentalRecordId(),
+                transactionId,
+                RentalRecordStatus.PAYMENT_PENDING,
+                RentalRecordStatus.NOT_PICK_UP
+        ) == 0) {
+            // 送出期間租借已取消，已扣款需人工退款
+            markUnknown(outbox, "租借紀錄已不是等待付款，需退款，交易編號：" + transactionId);
+            return;
+        }
+        outbox.setStatus(PaymentOutboxStatus.SENT);
+        outbox.setPayload(null);
+        outbox.setLastError(null);
+        outboxDAO.save(outbox);
+        sentCounter.increment();
+    }
+
+    // 寫回結果失敗時，onSent的交易已回滾，另外以新的交易記錄交易編號
+    private void onSentNotSaved(PaymentOutbox outbox, Integer transactionId, RuntimeException e) {
+        markUnknown(outbox, "金流服務已完成但無法寫回結果，交易編號：" + transactionId + "，" + e.getMessage());
+    }
+
+    private void markUnknown(PaymentOutbox outbox, String message) {
+        outbox.setStatus(PaymentOutboxStatus.UNKNOWN);
+        outbox.setPayload(null);
+        outbox.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+        outboxDAO.save(outbox);
+        unknownCounter.increment();
+        log.error("金流指令{}(租借紀錄{})需人工確認：{}", outbox.getId(), outbox.getRentalRecordId(), message);
+    }
+
+    private void onError(PaymentOutbox outbox, RuntimeException e) {
+        int attemptCount = outbox.getAttemptCount() + 1;
+        outbox.setAttemptCount(attemptCount);
+        outbox.setLastError(getErrorMessage(e));
+        if (isRetryable(outbox, e) && attemptCount < maxAttempts) {
+            long backoffMillis = Math.min(retryBackoffMillis << Math.min(attemptCount - 1, 20), MAX_RETRY_BACKOFF_MILLIS);
+            outbox.setNextAttemptDate(LocalDateTime.now().plusNanos(backoffMillis * 1_000_000));
+            outboxDAO.save(outbox);
+            retriedCounter.increment();
+            log.warn("金流指令{}第{}次送出失敗，稍後重試：{}", outbox.getId(), attemptCount, e.getMessage());
+            return;
+        }
+        if (outbox.getType() == PaymentOutboxType.CREATE_TRANSACTION && isUnknownResult(e)) {
+            outbox.setStatus(PaymentOutboxStatus.UNKNOWN);
+            outbox.setPayload(null);
+            outboxDAO.save(outbox);
+            unknownCounter.increment();
+            log.error("金流指令{}(租借紀錄{})已送出但結果未知，需人工向金流服務確認：{}", outbox.getId(), outbox.getRentalRecordId(), e.getMessage());
+            return;
+        }
+        outbox.setStatus(PaymentOutboxStatus.FAILED);
+        outbox.setPayload(null);
+        outboxDAO.save(outbox);
+        if (outbox.getType() == PaymentOutboxType.CREATE_TRANSACTION) {
+            int updateCount = recordDAO.updatePaymentResult(
+                    outbox.getRentalRecordId(),
+                    null,
+                    RentalRecordStatus.PAYMENT_PENDING,
+                    RentalRecordStatus.PAYMENT_FAILED
+            );
+            if (updateCount > 0) {
+                recordDAO.findById(outbox.getRentalRecordId()).ifPresent(rentalRecord -> {
+                    calendarManager.release(rentalRecord);
+                    eventPublisher.publishEvent(CanBorrowProductGroupChangeEvent.of(rentalRecord.getProductGroupId()));
+                });
+            }
+        }
+        failedCounter.increment();
+        log.error("金流指令{}失敗：{}", outbox.getId(), e.getMessage());
+    }
+
+    // 沒有送出的請求都可以重試；建立金融機構帳號重複建立也視為成功，結果未知時也可以重試
+    private boolean isRetryable(PaymentOutbox outbox, RuntimeException e) {
+        return e instanceof CreditCardApiNotSentException ||
+                (outbox.getType() == PaymentOutboxType.CREATE_BANK_ACCOUNT && isUnknownResult(e));
+    }
+
+    // 金流服務回傳錯誤代碼代表已明確拒絕；已送出但沒有錯誤代碼(逾時、無法連線、5xx等)代表結果未知
+    private boolean isUnknownResult(RuntimeException e) {
+        return e instanceof CreditCardTransactionException &&
+                !(e instanceof CreditCardApiNotSentException) &&
+                ((CreditCardTransactionException) e).getResponseErrorCode() == null;
+    }
+
+    private String getErrorMessage(RuntimeException e) {
+        String message = String.valueOf(e.getMessage());
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
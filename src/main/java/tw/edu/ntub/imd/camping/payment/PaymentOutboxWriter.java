@@ -0,0 +1,102 @@
+package tw.edu.ntub.imd.camping.payment;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.PaymentOutboxDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.RegisteredBankAccountDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.PaymentOutbox;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.PaymentOutboxStatus;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.PaymentOutboxType;
+import tw.edu.ntub.imd.camping.dto.BankAccount;
+import tw.edu.ntub.imd.camping.dto.CreditCard;
+import tw.edu.ntub.imd.camping.exception.CreditCardTransactionException;
+
+/**
+ * 寫入金流指令，需在呼叫端的交易中執行，讓指令與租借紀錄、商品群組一起提交或回滾
+ * 實際呼叫金流服務由{@link PaymentOutboxDispatcher}處理
+ *
+ * @since 1.5.0
+ */
+@Component
+public class PaymentOutboxWriter {
+    private final PaymentOutboxDAO outboxDAO;
+    private final RegisteredBankAccountDAO registeredBankAccountDAO;
+    private final PendingCreditCardStore creditCardStore;
+    private final ObjectMapper mapper;
+
+    public PaymentOutboxWriter(
+            PaymentOutboxDAO outboxDAO,
+            RegisteredBankAccountDAO registeredBankAccountDAO,
+            PendingCreditCardStore creditCardStore,
+            ObjectMapper mapper) {
+        this.outboxDAO = outboxDAO;
+        this.registeredBankAccountDAO = registeredBankAccountDAO;
+        this.creditCardStore = creditCardStore;
+        this.mapper = mapper;
+    }
+
+    /**
+     * 新增建立交易的指令，交易建立後將交易編號寫回租借紀錄
+     * 信用卡資料只保存在記憶體中，不寫入資料庫
+     *
+     * @param rentalRecordId   租借紀錄編號
+     * @param creditCard       付款的信用卡
+     * @param payeeBankAccount 收款帳號
+     * @param money            金額
+     */
+    public void addTransaction(int rentalRecordId, CreditCard creditCard, String payeeBankAccount, int money) {
+        PaymentOutbox outbox = new PaymentOutbox();
+        outbox.setType(PaymentOutboxType.CREATE_TRANSACTION);
+        outbox.setRentalRecordId(rentalRecordId);
+        outbox.setPayeeBankAccount(payeeBankAccount);
+        outbox.setPayload(toJson(new TransactionCommand(payeeBankAccount, money)));
+        PaymentOutbox saveResult = outboxDAO.save(outbox);
+        creditCardStore.put(saveResult.getId(), creditCard);
+    }
+
+    /**
+     * 取消租借紀錄還沒送出的建立交易指令，改為失敗並移除信用卡資料(交易提交後)
+     * 已由{@link PaymentOutboxDispatcher}取出的指令，送出時已沒有信用卡資料而失敗；
+     * 已送出的指令，寫回結果時租借紀錄已不是等待付款，改為結果未知由人工退款
+     *
+     * @param rentalRecordId 租借紀錄編號
+     */
+    public void cancelTransaction(int rentalRecordId) {
+        for (PaymentOutbox outbox : outboxDAO.findByRentalRecordIdAndTypeAndStatus(
+                rentalRecordId,
+                PaymentOutboxType.CREATE_TRANSACTION,
+                PaymentOutboxStatus.PENDING
+        )) {
+            outbox.setStatus(PaymentOutboxStatus.FAILED);
+            outbox.setPayload(null);
+            outbox.setLastError("租借已取消");
+            outboxDAO.save(outbox);
+            creditCardStore.remove(outbox.getId());
+        }
+    }
+
+    /**
+     * 新增建立金融機構帳號的指令，已在金流服務建立過的帳號不會再新增
+     *
+     * @param bankAccount 金融機構帳號
+     */
+    public void addBankAccount(BankAccount bankAccount) {
+        if (registeredBankAccountDAO.existsById(bankAccount.getAccount())) {
+            return;
+        }
+        PaymentOutbox outbox = new PaymentOutbox();
+        outbox.setType(PaymentOutboxType.CREATE_BANK_ACCOUNT);
+        outbox.setPayeeBankAccount(bankAccount.getAccount());
+        outbox.setPayload(toJson(bankAccount));
+        outboxDAO.save(outbox);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return mapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new CreditCardTransactionException(e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package tw.edu.ntub.imd.camping.payment;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tw.edu.ntub.imd.camping.dto.CreditCard;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 等待送出的建立交易指令所使用的信用卡資料，以金流指令編號對應，只保存在記憶體中，不寫入payment_outbox
+ * 寫入指令的交易回滾或租借取消時移除；應用程式重新啟動後遺失的信用卡資料，由{@link PaymentOutboxDispatcher}將指令改為失敗
+ *
+ * @since 1.5.0
+ */
+@Component
+public class PendingCreditCardStore {
+    private final Map<Integer, CreditCard> creditCardMap = new ConcurrentHashMap<>();
+
+    /**
+     * 保存信用卡資料，在交易中呼叫時，交易沒有提交就移除
+     *
+     * @param outboxId   金流指令編號
+     * @param creditCard 付款的信用卡
+     */
+    public void put(int outboxId, CreditCard creditCard) {
+        creditCardMap.put(outboxId, creditCard);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        creditCardMap.remove(outboxId);
+                    }
+                }
+            });
+        }
+    }
+
+    public Optional<CreditCard> get(int outboxId) {
+        return Optional.ofNullable(creditCardMap.get(outboxId));
+    }
+
+    /**
+     * 指令完成、失敗或結果未知後移除，不再保留信用卡資料，在交易中呼叫時，交易提交後才移除
+     *
+     * @param outboxId 金流指令編號
+     */
+    public void remove(int outboxId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    creditCardMap.remove(outboxId);
+                }
+            });
+        } else {
+            creditCardMap.remove(outboxId);
+        }
+    }
+
+    public int size() {
+        return creditCardMap.size();
+    }
+}
@@ -0,0 +1,19 @@
+package tw.edu.ntub.imd.camping.payment;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 建立交易指令的內容，以JSON存於payment_outbox.payload
+ * 信用卡資料不寫入資料庫，由{@link PendingCreditCardStore}保存
+ *
+ * @since 1.5.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionCommand {
+    private String payeeBankAccount;
+    private int money;
+}
@@ -1,7 +1,9 @@
 package tw.edu.ntub.imd.camping.service;
 
 import tw.edu.ntub.imd.camping.bean.*;
+import tw.edu.ntub.imd.camping.databaseconfig.dto.CanBorrowProductGroupCursor;
 
+import javax.annotation.Nullable;
 import java.util.List;
 
 public interface ProductGroupService extends BaseService<ProductGroupBean, Integer> {
@@ -9,6 +11,12 @@ public interface ProductGroupService extends BaseService<ProductGroupBean, Integ
 
     List<CanBorrowProductGroupBean> searchCanBorrowProductGroup(ProductGroupFilterDataBean filterData);
 
+    List<CanBorrowProductGroupBean> searchCanBorrowProductGroup(
+            ProductGroupFilterDataBean filterData,
+            @Nullable CanBorrowProductGroupCursor after,
+            int limit
+    );
+
     void updateProduct(List<ProductBean> productBeanList);
 
     void deleteProduct(Integer productId);
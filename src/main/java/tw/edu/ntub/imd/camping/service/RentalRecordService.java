@@ -1,6 +1,8 @@
 package tw.edu.ntub.imd.camping.service;
 
+import org.springframework.lang.Nullable;
 import tw.edu.ntub.imd.camping.bean.RentalRecordBean;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.RentalRecordStatus;
 
 import java.util.List;
 
@@ -9,7 +11,14 @@ public interface RentalRecordService extends BaseService<RentalRecordBean, Integ
 
     List<RentalRecordBean> searchByProductGroupCreateAccount(String productGroupCreateAccount);
 
-    void updateStatusToNext(int id);
+    /**
+     * 將租借紀錄更新至下一個狀態
+     *
+     * @param id            租借紀錄編號
+     * @param currentStatus 呼叫端看到的目前狀態，與實際狀態不同時更新失敗；null時先查詢目前狀態
+     * @since 1.5.0
+     */
+    void updateStatusToNext(int id, @Nullable RentalRecordStatus currentStatus);
 
     Integer requestCancelRecord(int id, String cancelDetail);
 
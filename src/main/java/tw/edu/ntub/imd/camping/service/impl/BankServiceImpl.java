@@ -1,22 +1,26 @@
 package tw.edu.ntub.imd.camping.service.impl;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import tw.edu.ntub.imd.camping.dto.Bank;
+import tw.edu.ntub.imd.camping.payment.BankListCache;
 import tw.edu.ntub.imd.camping.service.BankService;
-import tw.edu.ntub.imd.camping.util.TransactionUtils;
 
 import java.util.List;
 
 @Service
 public class BankServiceImpl implements BankService {
-    private final TransactionUtils transactionUtils;
+    private final BankListCache bankListCache;
 
-    public BankServiceImpl(TransactionUtils transactionUtils) {
-        this.transactionUtils = transactionUtils;
+    public BankServiceImpl(BankListCache bankListCache) {
+        this.bankListCache = bankListCache;
     }
 
+    // 只呼叫金流服務，不使用資料庫
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<Bank> searchAll() {
-        return transactionUtils.searchBank();
+        return bankListCache.get();
     }
 }
@@ -1,10 +1,10 @@
 package tw.edu.ntub.imd.camping.service.impl;
 
 import org.springframework.transaction.annotation.Transactional;
-import tw.edu.ntub.birc.common.util.JavaBeanUtils;
 import tw.edu.ntub.imd.camping.databaseconfig.dao.BaseDAO;
 import tw.edu.ntub.imd.camping.service.BaseService;
 import tw.edu.ntub.imd.camping.service.transformer.BeanEntityTransformer;
+import tw.edu.ntub.imd.camping.util.BeanCopier;
 
 import java.io.Serializable;
 import java.util.Optional;
@@ -24,7 +24,7 @@ public abstract class BaseServiceImpl<B, E, ID extends Serializable> extends Bas
             Optional<E> optional = baseDAO.findById(id);
             if (optional.isPresent()) {
                 E entity = optional.get();
-                JavaBeanUtils.copy(b, entity);
+                BeanCopier.copy(b, entity);
                 baseDAO.save(entity);
             } else {
                 throw new Exception("找不到資料, id = " + id);
@@ -1,6 +1,8 @@
 package tw.edu.ntub.imd.camping.service.impl;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import tw.edu.ntub.imd.camping.bean.CityBean;
 import tw.edu.ntub.imd.camping.databaseconfig.dao.CityDAO;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.City;
@@ -24,7 +26,9 @@ public class CityServiceImpl extends BaseViewServiceImpl<CityBean, City, CityId>
         this.transformer = transformer;
     }
 
+    // 結果由查詢快取取得，命中時不需要連線
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Map<String, List<String>> searchAllEnableCity() {
         return cityDAO.findByEnableIsTrue()
                 .stream()
@@ -1,28 +1,38 @@
 package tw.edu.ntub.imd.camping.service.impl;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import tw.edu.ntub.birc.common.util.CollectionUtils;
-import tw.edu.ntub.birc.common.util.JavaBeanUtils;
 import tw.edu.ntub.birc.common.util.MathUtils;
 import tw.edu.ntub.imd.camping.bean.*;
+import tw.edu.ntub.imd.camping.catalog.CanBorrowProductGroupCatalog;
+import tw.edu.ntub.imd.camping.catalog.CanBorrowProductGroupChangeEvent;
+import tw.edu.ntub.imd.camping.catalog.ProductGroupCalendarManager;
 import tw.edu.ntub.imd.camping.config.util.SecurityUtils;
 import tw.edu.ntub.imd.camping.databaseconfig.dao.*;
+import tw.edu.ntub.imd.camping.databaseconfig.dto.CanBorrowProductGroupCursor;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.Product;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroup;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroupComment;
-import tw.edu.ntub.imd.camping.databaseconfig.entity.view.CanBorrowProductGroup;
+import tw.edu.ntub.imd.camping.databaseconfig.util.ProductTypeMaskUtils;
 import tw.edu.ntub.imd.camping.dto.BankAccount;
 import tw.edu.ntub.imd.camping.exception.DuplicateCommentException;
 import tw.edu.ntub.imd.camping.exception.InvalidCommentRangeException;
 import tw.edu.ntub.imd.camping.exception.NotFoundException;
+import tw.edu.ntub.imd.camping.payment.PaymentOutboxWriter;
 import tw.edu.ntub.imd.camping.service.ProductGroupService;
 import tw.edu.ntub.imd.camping.service.transformer.*;
+import tw.edu.ntub.imd.camping.util.ConstraintViolationUtils;
 import tw.edu.ntub.imd.camping.util.OwnerChecker;
-import tw.edu.ntub.imd.camping.util.TransactionUtils;
 
+import javax.annotation.Nullable;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.function.Predicate;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,10 +45,13 @@ public class ProductGroupServiceImpl extends BaseServiceImpl<ProductGroupBean, P
     private final ProductTypeTransformer typeTransformer;
     private final ProductImageDAO imageDAO;
     private final ProductImageTransformer imageTransformer;
-    private final CanBorrowProductGroupDAO canBorrowProductGroupDAO;
     private final CanBorrowProductGroupBeanTransformer canBorrowProductGroupBeanTransformer;
-    private final TransactionUtils transactionUtils;
+    private final PaymentOutboxWriter paymentOutboxWriter;
     private final ProductGroupCommentDAO commentDAO;
+    private final ProductGroupCommentSummaryDAO commentSummaryDAO;
+    private final CanBorrowProductGroupCatalog canBorrowProductGroupCatalog;
+    private final ProductGroupCalendarManager calendarManager;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ProductGroupServiceImpl(
             ProductGroupDAO groupDAO,
@@ -49,10 +62,13 @@ public class ProductGroupServiceImpl extends BaseServiceImpl<ProductGroupBean, P
             ProductTypeTransformer typeTransformer,
             ProductImageDAO imageDAO,
             ProductImageTransformer imageTransformer,
-            CanBorrowProductGroupDAO canBorrowProductGroupDAO,
             CanBorrowProductGroupBeanTransformer canBorrowProductGroupBeanTransformer,
-            TransactionUtils transactionUtils,
-            ProductGroupCommentDAO commentDAO) {
+            PaymentOutboxWriter paymentOutboxWriter,
+            ProductGroupCommentDAO commentDAO,
+            ProductGroupCommentSummaryDAO commentSummaryDAO,
+            CanBorrowProductGroupCatalog canBorrowProductGroupCatalog,
+            ProductGroupCalendarManager calendarManager,
+            ApplicationEventPublisher eventPublisher) {
         super(groupDAO, transformer);
         this.groupDAO = groupDAO;
         this.transformer = transformer;
@@ -62,20 +78,27 @@ public class ProductGroupServiceImpl extends BaseServiceImpl<ProductGroupBean, P
         this.typeTransformer = typeTransformer;
         this.imageDAO = imageDAO;
         this.imageTransformer = imageTransformer;
-        this.canBorrowProductGroupDAO = canBorrowProductGroupDAO;
         this.canBorrowProductGroupBeanTransformer = canBorrowProductGroupBeanTransformer;
-        this.transactionUtils = transactionUtils;
+        this.paymentOutboxWriter = paymentOutboxWriter;
         this.commentDAO = commentDAO;
+        this.commentSummaryDAO = commentSummaryDAO;
+        this.canBorrowProductGroupCatalog = canBorrowProductGroupCatalog;
+        this.calendarManager = calendarManager;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public ProductGroupBean save(ProductGroupBean productGroupBean) {
         ProductGroup productGroup = transformer.transferToEntity(productGroupBean);
-        transactionUtils.createBankAccount(new BankAccount(productGroup.getBankAccount()));
         ProductGroup saveResult = groupDAO.saveAndFlush(productGroup);
+        // 金流帳號由PaymentOutboxDispatcher在背景建立，之後租借此商品群組的交易會等帳號建立後才送出
+        paymentOutboxWriter.addBankAccount(new BankAccount(productGroup.getBankAccount()));
         if (CollectionUtils.isNotEmpty(productGroupBean.getProductArray())) {
             saveProduct(saveResult.getId(), productGroupBean.getProductArray());
+            // 更新遮罩後saveResult已不在持久化內容中，只更新回傳的內容
+            saveResult.setProductTypeMask(updateProductTypeMask(saveResult.getId()));
         }
+        eventPublisher.publishEvent(CanBorrowProductGroupChangeEvent.of(saveResult.getId()));
         return transformer.transferToBean(saveResult);
     }
 
@@ -112,22 +135,45 @@ public class ProductGroupServiceImpl extends BaseServiceImpl<ProductGroupBean, P
     public void update(Integer id, ProductGroupBean productGroupBean) {
         OwnerChecker.checkIsProductGroupOwner(groupDAO, id);
         super.update(id, productGroupBean);
+        if (productGroupBean.getBorrowStartDate() != null || productGroupBean.getBorrowEndDate() != null) {
+            // 可租借期間變更後日曆的位元位置會改變，依佔用中的租借紀錄重新計算
+            calendarManager.rebuild(id);
+        }
         updateProduct(productGroupBean.getProductArray());
+        eventPublisher.publishEvent(CanBorrowProductGroupChangeEvent.of(id));
     }
 
     @Override
     public void updateProduct(List<ProductBean> productBeanList) {
         if (CollectionUtils.isNotEmpty(productBeanList)) {
-            List<Integer> idList = productBeanList.stream()
-                    .map(ProductBean::getId)
-                    .collect(Collectors.toList());
-            OwnerChecker.checkIsAllProductOwner(productDAO, idList);
-            List<Product> productList = productDAO.findAllById(idList);
-            List<Product> newProductList = JavaBeanUtils.copy(productBeanList, productList);
-            productDAO.saveAll(newProductList);
+            // 只寫入有值的欄位，擁有者檢查在同一個UPDATE的條件中，N筆商品只需一次batch
+            List<Product> productList = productTransformer.transferToEntityList(productBeanList);
+            if (productDAO.patchAll(productList, SecurityUtils.getLoginUserAccount()) != productList.size()) {
+                throw new NotFoundException("找不到部份商品");
+            }
+            // 可租借商品列表只與商品類型有關，未變更商品類型時不需重新計算
+            if (productList.stream().anyMatch(product -> product.getType() != null)) {
+                Set<Integer> groupIdSet = new HashSet<>(productDAO.findGroupIdByIdIn(productList.stream()
+                        .map(Product::getId)
+                        .collect(Collectors.toList())
+                ));
+                groupIdSet.forEach(this::updateProductTypeMask);
+                eventPublisher.publishEvent(CanBorrowProductGroupChangeEvent.of(groupIdSet));
+            }
         }
     }
 
+    private long updateProductTypeMask(int groupId) {
+        long productTypeMask = ProductTypeMaskUtils.toMask(productDAO.findByGroupId(groupId)
+                .stream()
+                .filter(Product::isEnable)
+                .map(Product::getType)
+                .collect(Collectors.toList())
+        );
+        groupDAO.updateProductTypeMaskById(groupId, productTypeMask);
+        return productTypeMask;
+    }
+
     @Override
     public void delete(Integer id) {
         OwnerChecker.checkIsProductGroupOwner(groupDAO, id);
@@ -136,9 +182,12 @@ public class ProductGroupServiceImpl extends BaseServiceImpl<ProductGroupBean, P
         imageDAO.updateEnableByProductIdList(productIdList, false);
         productDAO.updateEnableByGroupId(id, false);
         groupDAO.updateEnableById(id, false);
+        eventPublisher.publishEvent(CanBorrowProductGroupChangeEvent.of(id));
     }
 
+    // 結果由查詢快取取得，命中時不需要連線
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<ProductTypeBean> searchAllProductType() {
         return typeTransformer.transferToBeanList(typeDAO.findByEnableIsTrue());
     }
@@ -146,20 +195,18 @@ public class ProductGroupServiceImpl extends BaseServiceImpl<ProductGroupBean, P
     @Override
     public List<CanBorrowProductGroupBean> searchCanBorrowProductGroup(ProductGroupFilterDataBean filterData) {
         return canBorrowProductGroupBeanTransformer.transferToBeanList(
-                canBorrowProductGroupDAO.findAll()
-                        .stream()
-                        .filter(filterCanBorrowProductGroup(filterData))
-                        .collect(Collectors.toList())
+                canBorrowProductGroupCatalog.search(filterData.toFilter(), null, Integer.MAX_VALUE)
         );
     }
 
-    private Predicate<CanBorrowProductGroup> filterCanBorrowProductGroup(ProductGroupFilterDataBean filterData) {
-        return canBorrowProductGroup ->
-                filterData.isBorrowStartDateNullOrBefore(canBorrowProductGroup.getBorrowStartDate().toLocalDate()) &&
-                        filterData.isBorrowEndDateNullOrAfter(canBorrowProductGroup.getBorrowEndDate().toLocalDate()) &&
-                        filterData.isCityAreaNameNullOrEquals(canBorrowProductGroup.getCityAreaName()) &&
-                        filterData.isTypeArrayNullOrAllMatchContains(canBorrowProductGroup.getProductType()) &&
-                        filterData.isPriceNullOrBetween(canBorrowProductGroup.getPrice());
+    @Override
+    public List<CanBorrowProductGroupBean> searchCanBorrowProductGroup(
+            ProductGroupFilterDataBean filterData,
+            @Nullable CanBorrowProductGroupCursor after,
+            int limit) {
+        return canBorrowProductGroupBeanTransformer.transferToBeanList(
+                canBorrowProductGroupCatalog.search(filterData.toFilter(), after, limit)
+        );
     }
 
     @Override
@@ -167,6 +214,12 @@ public class ProductGroupServiceImpl extends BaseServiceImpl<ProductGroupBean, P
         OwnerChecker.checkIsAllProductOwner(productDAO, Collections.singletonList(productId));
         productDAO.updateEnableById(productId, false);
         imageDAO.updateEnableByProductIdList(Collections.singletonList(productId), false);
+        productDAO.findById(productId)
+                .map(Product::getGroupId)
+                .ifPresent(groupId -> {
+                    updateProductTypeMask(groupId);
+                    eventPublisher.publishEvent(CanBorrowProductGroupChangeEvent.of(groupId));
+                });
     }
 
     @Override
@@ -178,18 +231,21 @@ public class ProductGroupServiceImpl extends BaseServiceImpl<ProductGroupBean, P
     @Override
     public void createComment(int id, byte comment) {
         if (MathUtils.isInRange(comment, 1, 5)) {
-            if (groupDAO.existsById(id)) {
-                if (commentDAO.existsByGroupIdAndCommentAccount(id, SecurityUtils.getLoginUserAccount())) {
+            try {
+                ProductGroupComment productGroupComment = new ProductGroupComment();
+                productGroupComment.setGroupId(id);
+                productGroupComment.setComment(comment);
+                commentDAO.saveAndFlush(productGroupComment);
+            } catch (DataIntegrityViolationException e) {
+                if (ConstraintViolationUtils.isViolated(e, ProductGroupComment.UNIQUE_GROUP_ID_COMMENT_ACCOUNT)) {
                     throw new DuplicateCommentException();
-                } else {
-                    ProductGroupComment productGroupComment = new ProductGroupComment();
-                    productGroupComment.setGroupId(id);
-                    productGroupComment.setComment(comment);
-                    commentDAO.save(productGroupComment);
+                } else if (ConstraintViolationUtils.isViolated(e, ProductGroupComment.FK_GROUP_ID)) {
+                    throw new NotFoundException("無此商品群組");
                 }
-            } else {
-                throw new NotFoundException("無此商品群組");
+                throw e;
             }
+            commentSummaryDAO.addComment(id, comment);
+            eventPublisher.publishEvent(CanBorrowProductGroupChangeEvent.of(id));
         } else {
             throw new InvalidCommentRangeException(comment);
         }
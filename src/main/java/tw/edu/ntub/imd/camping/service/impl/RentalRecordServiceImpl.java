@@ -1,10 +1,14 @@
 package tw.edu.ntub.imd.camping.service.impl;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tw.edu.ntub.birc.common.exception.ProjectException;
 import tw.edu.ntub.birc.common.util.StringUtils;
 import tw.edu.ntub.imd.camping.bean.RentalRecordBean;
+import tw.edu.ntub.imd.camping.catalog.CanBorrowProductGroupChangeEvent;
+import tw.edu.ntub.imd.camping.catalog.ProductGroupCalendarManager;
 import tw.edu.ntub.imd.camping.config.util.SecurityUtils;
 import tw.edu.ntub.imd.camping.databaseconfig.dao.*;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroup;
@@ -17,11 +21,11 @@ import tw.edu.ntub.imd.camping.exception.CanceledRentalRecordException;
 import tw.edu.ntub.imd.camping.exception.LastRentalRecordStatusException;
 import tw.edu.ntub.imd.camping.exception.NotFoundException;
 import tw.edu.ntub.imd.camping.exception.NotRentalRecordOwnerException;
+import tw.edu.ntub.imd.camping.exception.RentalRecordStatusChangeException;
+import tw.edu.ntub.imd.camping.payment.PaymentOutboxWriter;
 import tw.edu.ntub.imd.camping.service.RentalRecordService;
 import tw.edu.ntub.imd.camping.service.transformer.RentalDetailTransformer;
 import tw.edu.ntub.imd.camping.service.transformer.RentalRecordTransformer;
-import tw.edu.ntub.imd.camping.util.OwnerChecker;
-import tw.edu.ntub.imd.camping.util.TransactionUtils;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -34,46 +38,52 @@ public class RentalRecordServiceImpl extends BaseServiceImpl<RentalRecordBean, R
     private final RentalRecordTransformer transformer;
     private final RentalDetailDAO detailDAO;
     private final RentalDetailTransformer detailTransformer;
-    private final ProductGroupDAO productGroupDAO;
     private final ProductDAO productDAO;
-    private final CanBorrowProductGroupDAO canBorrowProductGroupDAO;
-    private final TransactionUtils transactionUtils;
+    private final ProductGroupCalendarManager calendarManager;
+    private final PaymentOutboxWriter paymentOutboxWriter;
     private final RentalRecordCancelDAO cancelDAO;
+    private final ApplicationEventPublisher eventPublisher;
 
     public RentalRecordServiceImpl(
             RentalRecordDAO recordDAO,
             RentalRecordTransformer transformer,
             RentalDetailDAO detailDAO,
             RentalDetailTransformer detailTransformer,
-            ProductGroupDAO productGroupDAO,
             ProductDAO productDAO,
-            CanBorrowProductGroupDAO canBorrowProductGroupDAO,
-            TransactionUtils transactionUtils,
-            RentalRecordCancelDAO cancelDAO) {
+            ProductGroupCalendarManager calendarManager,
+            PaymentOutboxWriter paymentOutboxWriter,
+            RentalRecordCancelDAO cancelDAO,
+            ApplicationEventPublisher eventPublisher) {
         super(recordDAO, transformer);
         this.recordDAO = recordDAO;
         this.transformer = transformer;
         this.detailDAO = detailDAO;
         this.detailTransformer = detailTransformer;
-        this.productGroupDAO = productGroupDAO;
         this.productDAO = productDAO;
-        this.canBorrowProductGroupDAO = canBorrowProductGroupDAO;
-        this.transactionUtils = transactionUtils;
+        this.calendarManager = calendarManager;
+        this.paymentOutboxWriter = paymentOutboxWriter;
         this.cancelDAO = cancelDAO;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public RentalRecordBean save(RentalRecordBean rentalRecordBean) {
-        OwnerChecker.checkCanBorrowProductGroup(canBorrowProductGroupDAO, rentalRecordBean.getProductGroupId());
-
         RentalRecord rentalRecord = transformer.transferToEntity(rentalRecordBean);
-        ProductGroup productGroup = productGroupDAO.findById(rentalRecordBean.getProductGroupId()).orElseThrow();
-        int transactionId = transactionUtils.createTransaction(rentalRecordBean.getRenterCreditCard(), productGroup.getBankAccount(), productGroup.getPrice());
-        rentalRecord.setTransactionId(transactionId);
+        // 以版本比對標記租借期間，與其他租借重疊或同時租借失敗時拋出ProductGroupAlreadyRentedException
+        ProductGroup productGroup = calendarManager.book(rentalRecord);
+        // 交易由PaymentOutboxDispatcher在背景建立，建立後改為未取貨
+        rentalRecord.setStatus(RentalRecordStatus.PAYMENT_PENDING);
         String creditCardId = rentalRecord.getRenterCreditCardId();
         rentalRecord.setRenterCreditCardId("*".repeat(12).concat(StringUtils.mid(creditCardId, -4)));
         RentalRecord saveResult = recordDAO.saveAndFlush(rentalRecord);
         saveDetail(saveResult.getId(), saveResult.getProductGroupId());
+        paymentOutboxWriter.addTransaction(
+                saveResult.getId(),
+                rentalRecordBean.getRenterCreditCard(),
+                productGroup.getBankAccount(),
+                productGroup.getPrice()
+        );
+        eventPublisher.publishEvent(CanBorrowProductGroupChangeEvent.of(saveResult.getProductGroupId()));
         return transformer.transferToBean(saveResult);
     }
 
@@ -97,28 +107,40 @@ public class RentalRecordServiceImpl extends BaseServiceImpl<RentalRecordBean, R
     }
 
     @Override
-    public void updateStatusToNext(int id) {
-        RentalRecord rentalRecord = getUpdateRentalRecord(id);
-        RentalRecordStatus status = rentalRecord.getStatus();
-        if (status == RentalRecordStatus.CHECKED) {
-            throw new LastRentalRecordStatusException();
-        } else {
-            rentalRecord.setStatus(status.next());
-            recordDAO.save(rentalRecord);
+    public void updateStatusToNext(int id, RentalRecordStatus currentStatus) {
+        String account = SecurityUtils.getLoginUserAccount();
+        RentalRecordStatus expectStatus = currentStatus != null ?
+                currentStatus :
+                recordDAO.findStatusById(id).orElseThrow(() -> new NotFoundException("無此紀錄：" + id));
+        RentalRecordStatus nextStatus = expectStatus.next();
+        if (nextStatus == null || recordDAO.updateStatusToNext(id, expectStatus, nextStatus, account) == 0) {
+            throw getUpdateStatusException(id, expectStatus, account);
+        }
+        // 可租借商品列表只與可租借日曆有關，佔用中的狀態之間轉換不需要更新
+        if (!nextStatus.isOccupyProductGroup()) {
+            RentalRecord rentalRecord = recordDAO.findById(id).orElseThrow(() -> new NotFoundException("無此紀錄：" + id));
+            calendarManager.release(rentalRecord);
+            eventPublisher.publishEvent(CanBorrowProductGroupChangeEvent.of(rentalRecord.getProductGroupId()));
         }
     }
 
-    private RentalRecord getUpdateRentalRecord(int id) {
+    // 更新失敗時才查詢租借紀錄，判斷失敗的原因
+    private ProjectException getUpdateStatusException(int id, RentalRecordStatus expectStatus, String account) {
         Optional<RentalRecord> optionalRentalRecord = recordDAO.findById(id);
-        RentalRecord rentalRecord = optionalRentalRecord.orElseThrow(() -> new NotFoundException("無此紀錄：" + id));
-        if (recordDAO.isNotRenterAndProductGroupCreator(id, SecurityUtils.getLoginUserAccount())) {
-            throw new NotRentalRecordOwnerException(id, SecurityUtils.getLoginUserAccount());
+        if (optionalRentalRecord.isEmpty()) {
+            return new NotFoundException("無此紀錄：" + id);
+        } else if (recordDAO.isNotRenterAndProductGroupCreator(id, account)) {
+            return new NotRentalRecordOwnerException(id, account);
         }
-        RentalRecordStatus status = rentalRecord.getStatus();
+        RentalRecordStatus status = optionalRentalRecord.get().getStatus();
         if (status == RentalRecordStatus.CANCEL) {
-            throw new CanceledRentalRecordException(id);
+            return new CanceledRentalRecordException(id);
+        } else if (status == RentalRecordStatus.CHECKED) {
+            return new LastRentalRecordStatusException();
+        } else {
+            RentalRecordStatus nextStatus = expectStatus.next();
+            return new RentalRecordStatusChangeException(status, nextStatus != null ? nextStatus : RentalRecordStatus.NOT_RETURN);
         }
-        return rentalRecord;
     }
 
     @Override
@@ -142,29 +164,37 @@ public class RentalRecordServiceImpl extends BaseServiceImpl<RentalRecordBean, R
     }
 
     @Override
+    @Transactional
     public void agreeCancel(int id) {
-        Optional<RentalRecordCancel> optionalRentalRecordCancel = cancelDAO.findWaitResponseRecord(id);
-        optionalRentalRecordCancel.ifPresent(rentalRecordCancel -> {
-            rentalRecordCancel.setStatus(RentalRecordCancelStatus.CANCEL_SUCCESS);
-            if (rentalRecordCancel.getRenterAgreeDate() == null) {
-                rentalRecordCancel.setProductOwnerAgreeDate(LocalDateTime.now());
-            } else {
-                rentalRecordCancel.setRenterAgreeDate(LocalDateTime.now());
-            }
-            cancelDAO.save(rentalRecordCancel);
-            RentalRecord rentalRecord = rentalRecordCancel.getRentalRecord();
-            rentalRecord.setStatus(RentalRecordStatus.CANCEL);
-            recordDAO.save(rentalRecord);
-        });
+        String account = SecurityUtils.getLoginUserAccount();
+        if (cancelDAO.updateStatusToCancelSuccess(id, account) == 0) {
+            throw getRespondCancelException(id, account);
+        }
+        if (recordDAO.updateStatusToCancel(id, ProductGroupCalendarManager.OCCUPY_STATUS_SET, account) == 0) {
+            RentalRecordStatus status = recordDAO.findStatusById(id).orElseThrow(() -> new NotFoundException("無此紀錄：" + id));
+            throw new RentalRecordStatusChangeException(status, RentalRecordStatus.CANCEL);
+        }
+        // 還在等待付款時，不再送出建立交易的指令
+        paymentOutboxWriter.cancelTransaction(id);
+        RentalRecord rentalRecord = recordDAO.findById(id).orElseThrow(() -> new NotFoundException("無此紀錄：" + id));
+        calendarManager.release(rentalRecord);
+        eventPublisher.publishEvent(CanBorrowProductGroupChangeEvent.of(rentalRecord.getProductGroupId()));
     }
 
     @Override
+    @Transactional
     public void deniedCancel(int id, String deniedDetail) {
-        Optional<RentalRecordCancel> optionalRentalRecordCancel = cancelDAO.findWaitResponseRecord(id);
-        optionalRentalRecordCancel.ifPresent(rentalRecordCancel -> {
-            rentalRecordCancel.setStatus(RentalRecordCancelStatus.CANCEL_DENIED);
-            rentalRecordCancel.setDeniedDetail(deniedDetail);
-            cancelDAO.save(rentalRecordCancel);
-        });
+        String account = SecurityUtils.getLoginUserAccount();
+        if (cancelDAO.updateStatusToCancelDenied(id, deniedDetail, account) == 0) {
+            throw getRespondCancelException(id, account);
+        }
+    }
+
+    // 回應取消請求失敗時才查詢，判斷是沒有等待回應的請求，還是操作者不是被請求的一方
+    private ProjectException getRespondCancelException(int id, String account) {
+        if (cancelDAO.findWaitResponseRecord(id).isEmpty()) {
+            return new NotFoundException("此紀錄沒有等待回應的取消請求：" + id);
+        }
+        return new NotRentalRecordOwnerException(id, account);
     }
 }
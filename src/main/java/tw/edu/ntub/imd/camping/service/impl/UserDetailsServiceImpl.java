@@ -2,26 +2,35 @@ package tw.edu.ntub.imd.camping.service.impl;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import tw.edu.ntub.birc.common.util.BooleanUtils;
+import tw.edu.ntub.imd.camping.config.util.UserDetailsCache;
 import tw.edu.ntub.imd.camping.databaseconfig.dao.UserDAO;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.User;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     private final UserDAO userDAO;
+    private final UserDetailsCache userDetailsCache;
 
     @Autowired
-    public UserDetailsServiceImpl(UserDAO userDAO) {
+    public UserDetailsServiceImpl(UserDAO userDAO, UserDetailsCache userDetailsCache) {
         this.userDAO = userDAO;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return userDetailsCache.get(username, this::findUserDetails);
+    }
+
+    private UserDetails findUserDetails(String username) throws UsernameNotFoundException {
         Optional<User> optionalUser = userDAO.findById(username);
 
         if (optionalUser.isPresent()) {
@@ -39,4 +48,18 @@ public class UserDetailsServiceImpl implements UserDetailsService {
             throw new UsernameNotFoundException("請檢查帳號密碼是否錯誤");
         }
     }
+
+    /**
+     * 登入成功且密碼雜湊的cost已調整時，由{@link tw.edu.ntub.imd.camping.config.provider.CustomAuthenticationProvider}呼叫
+     *
+     * @since 1.5.0
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        userDAO.updatePasswordByAccount(userDetails.getUsername(), newPassword, LocalDateTime.now());
+        userDetailsCache.evict(userDetails.getUsername());
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails)
+                .password(newPassword)
+                .build();
+    }
 }
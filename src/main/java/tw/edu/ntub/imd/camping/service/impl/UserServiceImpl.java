@@ -1,21 +1,28 @@
 package tw.edu.ntub.imd.camping.service.impl;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import tw.edu.ntub.birc.common.util.MathUtils;
 import tw.edu.ntub.birc.common.util.StringUtils;
 import tw.edu.ntub.imd.camping.bean.UserBean;
+import tw.edu.ntub.imd.camping.catalog.CanBorrowProductGroupChangeEvent;
 import tw.edu.ntub.imd.camping.config.util.SecurityUtils;
+import tw.edu.ntub.imd.camping.config.util.UserDetailsCache;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.ProductGroupDAO;
 import tw.edu.ntub.imd.camping.databaseconfig.dao.UserCommentDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.UserCommentSummaryDAO;
 import tw.edu.ntub.imd.camping.databaseconfig.dao.UserDAO;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.User;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.UserComment;
 import tw.edu.ntub.imd.camping.exception.*;
 import tw.edu.ntub.imd.camping.service.UserService;
 import tw.edu.ntub.imd.camping.service.transformer.UserTransformer;
+import tw.edu.ntub.imd.camping.util.ConstraintViolationUtils;
 
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -24,18 +31,30 @@ public class UserServiceImpl extends BaseServiceImpl<UserBean, User, String> imp
     private final UserTransformer transformer;
     private final PasswordEncoder passwordEncoder;
     private final UserCommentDAO commentDAO;
+    private final UserCommentSummaryDAO commentSummaryDAO;
+    private final ProductGroupDAO productGroupDAO;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserDetailsCache userDetailsCache;
 
     @Autowired
     public UserServiceImpl(
             UserDAO userDAO,
             UserTransformer transformer,
             PasswordEncoder passwordEncoder,
-            UserCommentDAO commentDAO) {
+            UserCommentDAO commentDAO,
+            UserCommentSummaryDAO commentSummaryDAO,
+            ProductGroupDAO productGroupDAO,
+            ApplicationEventPublisher eventPublisher,
+            UserDetailsCache userDetailsCache) {
         super(userDAO, transformer);
         this.userDAO = userDAO;
         this.transformer = transformer;
         this.passwordEncoder = passwordEncoder;
         this.commentDAO = commentDAO;
+        this.commentSummaryDAO = commentSummaryDAO;
+        this.productGroupDAO = productGroupDAO;
+        this.eventPublisher = eventPublisher;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @Override
@@ -56,6 +75,11 @@ public class UserServiceImpl extends BaseServiceImpl<UserBean, User, String> imp
             throw new NotAccountOwnerException();
         } else {
             super.update(account, userBean);
+            userDetailsCache.evict(account);
+            List<Integer> groupIdList = productGroupDAO.findIdByCreateAccount(account);
+            if (!groupIdList.isEmpty()) {
+                eventPublisher.publishEvent(CanBorrowProductGroupChangeEvent.of(groupIdList));
+            }
         }
     }
 
@@ -67,6 +91,7 @@ public class UserServiceImpl extends BaseServiceImpl<UserBean, User, String> imp
         if (passwordEncoder.matches(oldPassword, user.getPassword())) {
             user.setPassword(passwordEncoder.encode(newPassword));
             userDAO.save(user);
+            userDetailsCache.evict(account);
         } else {
             throw new InvalidOldPasswordException();
         }
@@ -75,18 +100,18 @@ public class UserServiceImpl extends BaseServiceImpl<UserBean, User, String> imp
     @Override
     public void createComment(String account, byte comment) {
         if (MathUtils.isInRange(comment, 1, 5)) {
-            if (userDAO.existsById(account)) {
-                if (commentDAO.existsByUserAccountAndCommentAccount(account, SecurityUtils.getLoginUserAccount())) {
+            try {
+                UserComment userComment = new UserComment();
+                userComment.setUserAccount(account);
+                userComment.setComment(comment);
+                commentDAO.saveAndFlush(userComment);
+            } catch (DataIntegrityViolationException e) {
+                if (ConstraintViolationUtils.isViolated(e, UserComment.UNIQUE_USER_ACCOUNT_COMMENT_ACCOUNT)) {
                     throw new DuplicateCommentException();
-                } else {
-                    UserComment productGroupComment = new UserComment();
-                    productGroupComment.setUserAccount(account);
-                    productGroupComment.setComment(comment);
-                    commentDAO.save(productGroupComment);
                 }
-            } else {
                 throw new NotFoundException("無此使用者");
             }
+            commentSummaryDAO.addComment(account, comment);
         } else {
             throw new InvalidCommentRangeException(comment);
         }
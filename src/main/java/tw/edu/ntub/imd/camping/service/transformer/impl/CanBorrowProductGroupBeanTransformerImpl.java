@@ -1,26 +1,31 @@
 package tw.edu.ntub.imd.camping.service.transformer.impl;
 
 import org.springframework.stereotype.Component;
-import tw.edu.ntub.birc.common.util.JavaBeanUtils;
 import tw.edu.ntub.imd.camping.bean.CanBorrowProductGroupBean;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.view.CanBorrowProductGroup;
+import tw.edu.ntub.imd.camping.databaseconfig.util.ProductTypeMaskUtils;
 import tw.edu.ntub.imd.camping.service.transformer.CanBorrowProductGroupBeanTransformer;
+import tw.edu.ntub.imd.camping.util.BeanCopier;
 
 import javax.annotation.Nonnull;
+import java.util.Arrays;
 
 @Component
 public class CanBorrowProductGroupBeanTransformerImpl implements CanBorrowProductGroupBeanTransformer {
     @Nonnull
     @Override
     public CanBorrowProductGroup transferToEntity(@Nonnull CanBorrowProductGroupBean canBorrowProductGroupBean) {
-        return JavaBeanUtils.copy(canBorrowProductGroupBean, new CanBorrowProductGroup());
+        return BeanCopier.copy(canBorrowProductGroupBean, new CanBorrowProductGroup());
     }
 
     @Nonnull
     @Override
     public CanBorrowProductGroupBean transferToBean(@Nonnull CanBorrowProductGroup canBorrowProductGroup) {
-        CanBorrowProductGroupBean result = JavaBeanUtils.copy(canBorrowProductGroup, new CanBorrowProductGroupBean());
-        result.setProductTypeArray(canBorrowProductGroup.getProductType().split(","));
+        CanBorrowProductGroupBean result = BeanCopier.copy(canBorrowProductGroup, new CanBorrowProductGroupBean());
+        result.setProductTypeArray(Arrays.stream(ProductTypeMaskUtils.toTypeIdArray(canBorrowProductGroup.getProductTypeMask()))
+                .mapToObj(String::valueOf)
+                .toArray(String[]::new)
+        );
         return result;
     }
 }
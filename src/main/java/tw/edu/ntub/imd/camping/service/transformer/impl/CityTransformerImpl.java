@@ -1,10 +1,10 @@
 package tw.edu.ntub.imd.camping.service.transformer.impl;
 
 import org.springframework.stereotype.Component;
-import tw.edu.ntub.birc.common.util.JavaBeanUtils;
 import tw.edu.ntub.imd.camping.bean.CityBean;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.City;
 import tw.edu.ntub.imd.camping.service.transformer.CityTransformer;
+import tw.edu.ntub.imd.camping.util.BeanCopier;
 
 import javax.annotation.Nonnull;
 
@@ -13,12 +13,12 @@ public class CityTransformerImpl implements CityTransformer {
     @Nonnull
     @Override
     public City transferToEntity(@Nonnull CityBean cityBean) {
-        return JavaBeanUtils.copy(cityBean, new City());
+        return BeanCopier.copy(cityBean, new City());
     }
 
     @Nonnull
     @Override
     public CityBean transferToBean(@Nonnull City city) {
-        return JavaBeanUtils.copy(city, new CityBean());
+        return BeanCopier.copy(city, new CityBean());
     }
 }
@@ -3,43 +3,103 @@ package tw.edu.ntub.imd.camping.service.transformer.impl;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Component;
 import tw.edu.ntub.birc.common.util.CollectionUtils;
-import tw.edu.ntub.birc.common.util.JavaBeanUtils;
+import tw.edu.ntub.imd.camping.bean.ProductBean;
 import tw.edu.ntub.imd.camping.bean.ProductGroupBean;
+import tw.edu.ntub.imd.camping.bean.UserBean;
 import tw.edu.ntub.imd.camping.databaseconfig.dao.ProductDAO;
-import tw.edu.ntub.imd.camping.databaseconfig.dao.ProductGroupCommentDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.ProductGroupCommentSummaryDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.UserDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.Product;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroup;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.User;
 import tw.edu.ntub.imd.camping.service.transformer.ProductGroupTransformer;
 import tw.edu.ntub.imd.camping.service.transformer.ProductTransformer;
 import tw.edu.ntub.imd.camping.service.transformer.UserTransformer;
+import tw.edu.ntub.imd.camping.util.BeanCopier;
 
 import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @AllArgsConstructor
 @Component
 public class ProductGroupTransformerImpl implements ProductGroupTransformer {
     private final ProductDAO productDAO;
     private final ProductTransformer productTransformer;
+    private final UserDAO userDAO;
     private final UserTransformer userTransformer;
-    private final ProductGroupCommentDAO commentDAO;
+    private final ProductGroupCommentSummaryDAO commentSummaryDAO;
 
     @Nonnull
     @Override
     public ProductGroup transferToEntity(@Nonnull ProductGroupBean productGroupBean) {
-        return JavaBeanUtils.copy(productGroupBean, new ProductGroup());
+        return BeanCopier.copy(productGroupBean, new ProductGroup());
     }
 
     @Nonnull
     @Override
     public ProductGroupBean transferToBean(@Nonnull ProductGroup productGroup) {
-        ProductGroupBean result = JavaBeanUtils.copy(productGroup, new ProductGroupBean());
-        if (productGroup.getUserByCreateAccount() != null) {
-            result.setCreateUser(userTransformer.transferToBean(productGroup.getUserByCreateAccount()));
+        return transferToBeanList(List.of(productGroup)).get(0);
+    }
+
+    @Nonnull
+    @Override
+    public List<ProductGroupBean> transferToBeanList(@Nonnull List<ProductGroup> productGroupList) {
+        List<ProductGroup> entityList = productGroupList.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        List<ProductGroupBean> result = entityList.stream()
+                .map(productGroup -> BeanCopier.copy(productGroup, new ProductGroupBean()))
+                .collect(Collectors.toList());
+        Set<Integer> loadProductGroupIdSet = new HashSet<>();
+        for (int i = 0; i < entityList.size(); i++) {
+            Integer groupId = entityList.get(i).getId();
+            if (groupId != null && CollectionUtils.isEmpty(result.get(i).getProductArray())) {
+                loadProductGroupIdSet.add(groupId);
+            }
+        }
+        Map<String, UserBean> createUserMap = findCreateUserMap(entityList);
+        Map<Integer, List<ProductBean>> productMap = findProductMap(loadProductGroupIdSet);
+        Map<Integer, Double> commentMap = commentSummaryDAO.getAverageCommentMapByGroupIdIn(loadProductGroupIdSet);
+        for (int i = 0; i < entityList.size(); i++) {
+            ProductGroup productGroup = entityList.get(i);
+            ProductGroupBean productGroupBean = result.get(i);
+            if (productGroup.getUserByCreateAccount() != null) {
+                productGroupBean.setCreateUser(createUserMap.get(productGroup.getCreateAccount()));
+            }
+            if (loadProductGroupIdSet.contains(productGroup.getId())) {
+                productGroupBean.setProductArray(productMap.getOrDefault(productGroup.getId(), new ArrayList<>()));
+                productGroupBean.setComment(commentMap.get(productGroup.getId()));
+            }
+        }
+        return result;
+    }
+
+    private Map<String, UserBean> findCreateUserMap(List<ProductGroup> productGroupList) {
+        Set<String> createAccountSet = productGroupList.stream()
+                .filter(productGroup -> productGroup.getUserByCreateAccount() != null)
+                .map(ProductGroup::getCreateAccount)
+                .collect(Collectors.toSet());
+        if (createAccountSet.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<User> userList = userDAO.findAllById(createAccountSet);
+        List<UserBean> userBeanList = userTransformer.transferToBeanList(userList);
+        Map<String, UserBean> result = new HashMap<>();
+        for (int i = 0; i < userList.size(); i++) {
+            result.put(userList.get(i).getAccount(), userBeanList.get(i));
+        }
+        return result;
+    }
+
+    private Map<Integer, List<ProductBean>> findProductMap(Set<Integer> groupIdSet) {
+        if (groupIdSet.isEmpty()) {
+            return Collections.emptyMap();
         }
-        if (productGroup.getId() != null && CollectionUtils.isEmpty(result.getProductArray())) {
-            result.setProductArray(productTransformer.transferToBeanList(
-                    productDAO.findByGroupId(productGroup.getId())
-            ));
-            result.setComment((Double) commentDAO.getAverageCommentByGroupId(productGroup.getId()));
+        List<Product> productList = productDAO.findByGroupIdIn(groupIdSet);
+        List<ProductBean> productBeanList = productTransformer.transferToBeanList(productList);
+        Map<Integer, List<ProductBean>> result = new HashMap<>();
+        for (int i = 0; i < productList.size(); i++) {
+            result.computeIfAbsent(productList.get(i).getGroupId(), groupId -> new ArrayList<>())
+                    .add(productBeanList.get(i));
         }
         return result;
     }
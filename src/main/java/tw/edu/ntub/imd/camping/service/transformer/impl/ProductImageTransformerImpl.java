@@ -1,10 +1,10 @@
 package tw.edu.ntub.imd.camping.service.transformer.impl;
 
 import org.springframework.stereotype.Component;
-import tw.edu.ntub.birc.common.util.JavaBeanUtils;
 import tw.edu.ntub.imd.camping.bean.ProductImageBean;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductImage;
 import tw.edu.ntub.imd.camping.service.transformer.ProductImageTransformer;
+import tw.edu.ntub.imd.camping.util.BeanCopier;
 
 import javax.annotation.Nonnull;
 
@@ -13,12 +13,12 @@ public class ProductImageTransformerImpl implements ProductImageTransformer {
     @Nonnull
     @Override
     public ProductImage transferToEntity(@Nonnull ProductImageBean productImageBean) {
-        return JavaBeanUtils.copy(productImageBean, new ProductImage());
+        return BeanCopier.copy(productImageBean, new ProductImage());
     }
 
     @Nonnull
     @Override
     public ProductImageBean transferToBean(@Nonnull ProductImage productImage) {
-        return JavaBeanUtils.copy(productImage, new ProductImageBean());
+        return BeanCopier.copy(productImage, new ProductImageBean());
     }
 }
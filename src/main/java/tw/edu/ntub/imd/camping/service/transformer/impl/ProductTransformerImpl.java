@@ -3,14 +3,18 @@ package tw.edu.ntub.imd.camping.service.transformer.impl;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Component;
 import tw.edu.ntub.birc.common.util.CollectionUtils;
-import tw.edu.ntub.birc.common.util.JavaBeanUtils;
 import tw.edu.ntub.imd.camping.bean.ProductBean;
+import tw.edu.ntub.imd.camping.bean.ProductImageBean;
 import tw.edu.ntub.imd.camping.databaseconfig.dao.ProductImageDAO;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.Product;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductImage;
 import tw.edu.ntub.imd.camping.service.transformer.ProductImageTransformer;
 import tw.edu.ntub.imd.camping.service.transformer.ProductTransformer;
+import tw.edu.ntub.imd.camping.util.BeanCopier;
 
 import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @AllArgsConstructor
 @Component
@@ -21,20 +25,50 @@ public class ProductTransformerImpl implements ProductTransformer {
     @Nonnull
     @Override
     public Product transferToEntity(@Nonnull ProductBean productBean) {
-        return JavaBeanUtils.copy(productBean, new Product());
+        return BeanCopier.copy(productBean, new Product());
     }
 
     @Nonnull
     @Override
     public ProductBean transferToBean(@Nonnull Product product) {
-        ProductBean result = JavaBeanUtils.copy(product, new ProductBean());
-        if (product.getId() != null) {
-            if (CollectionUtils.isEmpty(result.getImageArray())) {
-                result.setImageArray(imageTransformer.transferToBeanList(
-                        imageDAO.findByProductId(product.getId())
-                ));
+        return transferToBeanList(List.of(product)).get(0);
+    }
+
+    @Nonnull
+    @Override
+    public List<ProductBean> transferToBeanList(@Nonnull List<Product> productList) {
+        List<Product> entityList = productList.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        List<ProductBean> result = entityList.stream()
+                .map(product -> BeanCopier.copy(product, new ProductBean()))
+                .collect(Collectors.toList());
+        Set<Integer> loadImageProductIdSet = new HashSet<>();
+        for (int i = 0; i < entityList.size(); i++) {
+            Integer productId = entityList.get(i).getId();
+            if (productId != null && CollectionUtils.isEmpty(result.get(i).getImageArray())) {
+                loadImageProductIdSet.add(productId);
+            }
+        }
+        Map<Integer, List<ProductImageBean>> imageMap = findImageMap(loadImageProductIdSet);
+        for (int i = 0; i < entityList.size(); i++) {
+            Integer productId = entityList.get(i).getId();
+            if (loadImageProductIdSet.contains(productId)) {
+                result.get(i).setImageArray(imageMap.getOrDefault(productId, new ArrayList<>()));
             }
         }
         return result;
     }
+
+    private Map<Integer, List<ProductImageBean>> findImageMap(Set<Integer> productIdSet) {
+        if (productIdSet.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<ProductImage> imageList = imageDAO.findByProductIdIn(productIdSet);
+        List<ProductImageBean> imageBeanList = imageTransformer.transferToBeanList(imageList);
+        Map<Integer, List<ProductImageBean>> result = new HashMap<>();
+        for (int i = 0; i < imageList.size(); i++) {
+            result.computeIfAbsent(imageList.get(i).getProductId(), productId -> new ArrayList<>())
+                    .add(imageBeanList.get(i));
+        }
+        return result;
+    }
 }
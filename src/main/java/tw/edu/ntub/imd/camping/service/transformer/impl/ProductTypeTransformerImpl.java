@@ -1,10 +1,10 @@
 package tw.edu.ntub.imd.camping.service.transformer.impl;
 
 import org.springframework.stereotype.Component;
-import tw.edu.ntub.birc.common.util.JavaBeanUtils;
 import tw.edu.ntub.imd.camping.bean.ProductTypeBean;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductType;
 import tw.edu.ntub.imd.camping.service.transformer.ProductTypeTransformer;
+import tw.edu.ntub.imd.camping.util.BeanCopier;
 
 import javax.annotation.Nonnull;
 
@@ -13,12 +13,12 @@ public class ProductTypeTransformerImpl implements ProductTypeTransformer {
     @Nonnull
     @Override
     public ProductType transferToEntity(@Nonnull ProductTypeBean productTypeBean) {
-        return JavaBeanUtils.copy(productTypeBean, new ProductType());
+        return BeanCopier.copy(productTypeBean, new ProductType());
     }
 
     @Nonnull
     @Override
     public ProductTypeBean transferToBean(@Nonnull ProductType productType) {
-        return JavaBeanUtils.copy(productType, new ProductTypeBean());
+        return BeanCopier.copy(productType, new ProductTypeBean());
     }
 }
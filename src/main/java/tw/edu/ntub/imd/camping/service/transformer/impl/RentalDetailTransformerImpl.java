@@ -1,35 +1,70 @@
 package tw.edu.ntub.imd.camping.service.transformer.impl;
 
 import org.springframework.stereotype.Component;
-import tw.edu.ntub.birc.common.util.JavaBeanUtils;
+import tw.edu.ntub.imd.camping.bean.ProductBean;
 import tw.edu.ntub.imd.camping.bean.RentalDetailBean;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.ProductDAO;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.Product;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.RentalDetail;
 import tw.edu.ntub.imd.camping.service.transformer.ProductTransformer;
 import tw.edu.ntub.imd.camping.service.transformer.RentalDetailTransformer;
+import tw.edu.ntub.imd.camping.util.BeanCopier;
 
 import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Component
 public class RentalDetailTransformerImpl implements RentalDetailTransformer {
+    private final ProductDAO productDAO;
     private final ProductTransformer productTransformer;
 
-    public RentalDetailTransformerImpl(ProductTransformer productTransformer) {
+    public RentalDetailTransformerImpl(ProductDAO productDAO, ProductTransformer productTransformer) {
+        this.productDAO = productDAO;
         this.productTransformer = productTransformer;
     }
 
     @Nonnull
     @Override
     public RentalDetail transferToEntity(@Nonnull RentalDetailBean rentalDetailBean) {
-        return JavaBeanUtils.copy(rentalDetailBean, new RentalDetail());
+        return BeanCopier.copy(rentalDetailBean, new RentalDetail());
     }
 
     @Nonnull
     @Override
     public RentalDetailBean transferToBean(@Nonnull RentalDetail rentalDetail) {
-        RentalDetailBean result = JavaBeanUtils.copy(rentalDetail, new RentalDetailBean());
-        if (rentalDetail.getProductByProductId() != null) {
-            result.setProduct(productTransformer.transferToBean(rentalDetail.getProductByProductId()));
+        return transferToBeanList(List.of(rentalDetail)).get(0);
+    }
+
+    @Nonnull
+    @Override
+    public List<RentalDetailBean> transferToBeanList(@Nonnull List<RentalDetail> rentalDetailList) {
+        List<RentalDetail> entityList = rentalDetailList.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        Set<Integer> productIdSet = entityList.stream()
+                .filter(rentalDetail -> rentalDetail.getProductByProductId() != null)
+                .map(RentalDetail::getProductId)
+                .collect(Collectors.toSet());
+        Map<Integer, ProductBean> productMap = findProductMap(productIdSet);
+        return entityList.stream()
+                .map(rentalDetail -> {
+                    RentalDetailBean result = BeanCopier.copy(rentalDetail, new RentalDetailBean());
+                    if (rentalDetail.getProductByProductId() != null) {
+                        result.setProduct(productMap.get(rentalDetail.getProductId()));
+                    }
+                    return result;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private Map<Integer, ProductBean> findProductMap(Set<Integer> productIdSet) {
+        if (productIdSet.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Product> productList = productDAO.findAllById(productIdSet);
+        List<ProductBean> productBeanList = productTransformer.transferToBeanList(productList);
+        Map<Integer, ProductBean> result = new HashMap<>();
+        for (int i = 0; i < productList.size(); i++) {
+            result.put(productList.get(i).getId(), productBeanList.get(i));
         }
         return result;
     }
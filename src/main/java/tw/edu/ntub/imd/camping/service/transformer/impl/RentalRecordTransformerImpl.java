@@ -1,37 +1,47 @@
 package tw.edu.ntub.imd.camping.service.transformer.impl;
 
 import org.springframework.stereotype.Component;
-import tw.edu.ntub.birc.common.util.JavaBeanUtils;
+import tw.edu.ntub.imd.camping.bean.ProductGroupBean;
+import tw.edu.ntub.imd.camping.bean.RentalDetailBean;
 import tw.edu.ntub.imd.camping.bean.RentalRecordBean;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.ProductGroupDAO;
 import tw.edu.ntub.imd.camping.databaseconfig.dao.RentalDetailDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroup;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.RentalDetail;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.RentalRecord;
 import tw.edu.ntub.imd.camping.dto.CreditCard;
 import tw.edu.ntub.imd.camping.service.transformer.ProductGroupTransformer;
 import tw.edu.ntub.imd.camping.service.transformer.RentalDetailTransformer;
 import tw.edu.ntub.imd.camping.service.transformer.RentalRecordTransformer;
+import tw.edu.ntub.imd.camping.util.BeanCopier;
 
 import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Component
 public class RentalRecordTransformerImpl implements RentalRecordTransformer {
     private final RentalDetailDAO detailDAO;
     private final RentalDetailTransformer detailTransformer;
+    private final ProductGroupDAO productGroupDAO;
     private final ProductGroupTransformer productGroupTransformer;
 
     public RentalRecordTransformerImpl(
             RentalDetailDAO detailDAO,
             RentalDetailTransformer detailTransformer,
+            ProductGroupDAO productGroupDAO,
             ProductGroupTransformer productGroupTransformer
     ) {
         this.detailDAO = detailDAO;
         this.detailTransformer = detailTransformer;
+        this.productGroupDAO = productGroupDAO;
         this.productGroupTransformer = productGroupTransformer;
     }
 
     @Nonnull
     @Override
     public RentalRecord transferToEntity(@Nonnull RentalRecordBean rentalRecordBean) {
-        RentalRecord result = JavaBeanUtils.copy(rentalRecordBean, new RentalRecord());
+        RentalRecord result = BeanCopier.copy(rentalRecordBean, new RentalRecord());
         if (rentalRecordBean.getRenterCreditCard() != null) {
             CreditCard renterCreditCard = rentalRecordBean.getRenterCreditCard();
             result.setRenterCreditCardId(renterCreditCard.getCardId());
@@ -42,16 +52,62 @@ public class RentalRecordTransformerImpl implements RentalRecordTransformer {
     @Nonnull
     @Override
     public RentalRecordBean transferToBean(@Nonnull RentalRecord rentalRecord) {
-        RentalRecordBean result = JavaBeanUtils.copy(rentalRecord, new RentalRecordBean());
-        if (rentalRecord.getProductGroupByProductGroupId() != null) {
-            result.setProductGroup(productGroupTransformer.transferToBean(rentalRecord.getProductGroupByProductGroupId()));
+        return transferToBeanList(List.of(rentalRecord)).get(0);
+    }
+
+    @Nonnull
+    @Override
+    public List<RentalRecordBean> transferToBeanList(@Nonnull List<RentalRecord> rentalRecordList) {
+        List<RentalRecord> entityList = rentalRecordList.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        Set<Integer> productGroupIdSet = entityList.stream()
+                .filter(rentalRecord -> rentalRecord.getProductGroupByProductGroupId() != null)
+                .map(RentalRecord::getProductGroupId)
+                .collect(Collectors.toSet());
+        Set<Integer> recordIdSet = entityList.stream()
+                .map(RentalRecord::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Integer, ProductGroupBean> productGroupMap = findProductGroupMap(productGroupIdSet);
+        Map<Integer, List<RentalDetailBean>> detailMap = findDetailMap(recordIdSet);
+        return entityList.stream()
+                .map(rentalRecord -> {
+                    RentalRecordBean result = BeanCopier.copy(rentalRecord, new RentalRecordBean());
+                    if (rentalRecord.getProductGroupByProductGroupId() != null) {
+                        result.setProductGroup(productGroupMap.get(rentalRecord.getProductGroupId()));
+                    }
+                    result.setDetailBeanList(detailMap.getOrDefault(rentalRecord.getId(), new ArrayList<>()));
+                    CreditCard creditCard = new CreditCard();
+                    creditCard.setCardId(rentalRecord.getRenterCreditCardId());
+                    result.setRenterCreditCard(creditCard);
+                    return result;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private Map<Integer, ProductGroupBean> findProductGroupMap(Set<Integer> productGroupIdSet) {
+        if (productGroupIdSet.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<ProductGroup> productGroupList = productGroupDAO.findAllById(productGroupIdSet);
+        List<ProductGroupBean> productGroupBeanList = productGroupTransformer.transferToBeanList(productGroupList);
+        Map<Integer, ProductGroupBean> result = new HashMap<>();
+        for (int i = 0; i < productGroupList.size(); i++) {
+            result.put(productGroupList.get(i).getId(), productGroupBeanList.get(i));
+        }
+        return result;
+    }
+
+    private Map<Integer, List<RentalDetailBean>> findDetailMap(Set<Integer> recordIdSet) {
+        if (recordIdSet.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<RentalDetail> detailList = detailDAO.findByRecordIdIn(recordIdSet);
+        List<RentalDetailBean> detailBeanList = detailTransformer.transferToBeanList(detailList);
+        Map<Integer, List<RentalDetailBean>> result = new HashMap<>();
+        for (int i = 0; i < detailList.size(); i++) {
+            result.computeIfAbsent(detailList.get(i).getRecordId(), recordId -> new ArrayList<>())
+                    .add(detailBeanList.get(i));
         }
-        result.setDetailBeanList(detailTransformer.transferToBeanList(
-                detailDAO.findByRecordId(rentalRecord.getId())
-        ));
-        CreditCard creditCard = new CreditCard();
-        creditCard.setCardId(rentalRecord.getRenterCreditCardId());
-        result.setRenterCreditCard(creditCard);
         return result;
     }
 }
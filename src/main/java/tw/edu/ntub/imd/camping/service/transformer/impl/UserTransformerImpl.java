@@ -2,33 +2,54 @@ package tw.edu.ntub.imd.camping.service.transformer.impl;
 
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Component;
-import tw.edu.ntub.birc.common.util.JavaBeanUtils;
 import tw.edu.ntub.birc.common.util.StringUtils;
 import tw.edu.ntub.imd.camping.bean.UserBean;
-import tw.edu.ntub.imd.camping.databaseconfig.dao.UserCommentDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.UserCommentSummaryDAO;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.User;
 import tw.edu.ntub.imd.camping.service.transformer.UserTransformer;
+import tw.edu.ntub.imd.camping.util.BeanCopier;
 
 import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @AllArgsConstructor
 @Component
 public class UserTransformerImpl implements UserTransformer {
-    private final UserCommentDAO commentDAO;
+    private final UserCommentSummaryDAO commentSummaryDAO;
 
     @Nonnull
     @Override
     public User transferToEntity(@Nonnull UserBean userBean) {
-        return JavaBeanUtils.copy(userBean, new User());
+        return BeanCopier.copy(userBean, new User());
     }
 
     @Nonnull
     @Override
     public UserBean transferToBean(@Nonnull User user) {
-        UserBean result = JavaBeanUtils.copy(user, new UserBean());
-        if (StringUtils.isNotBlank(user.getAccount())) {
-            result.setComment((Double) commentDAO.getAverageCommentByUserAccount(user.getAccount()));
-        }
-        return result;
+        return transferToBeanList(List.of(user)).get(0);
+    }
+
+    @Nonnull
+    @Override
+    public List<UserBean> transferToBeanList(@Nonnull List<User> userList) {
+        List<User> entityList = userList.stream().filter(Objects::nonNull).collect(Collectors.toList());
+        Set<String> accountSet = entityList.stream()
+                .map(User::getAccount)
+                .filter(StringUtils::isNotBlank)
+                .collect(Collectors.toSet());
+        Map<String, Double> commentMap = commentSummaryDAO.getAverageCommentMapByUserAccountIn(accountSet);
+        return entityList.stream()
+                .map(user -> {
+                    UserBean result = BeanCopier.copy(user, new UserBean());
+                    if (StringUtils.isNotBlank(user.getAccount())) {
+                        result.setComment(commentMap.get(user.getAccount()));
+                    }
+                    return result;
+                })
+                .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,257 @@
+package tw.edu.ntub.imd.camping.util;
+
+import org.hibernate.proxy.HibernateProxy;
+import tw.edu.ntub.birc.common.annotation.AliasName;
+
+import java.beans.Introspector;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 取代JavaBeanUtils.copy，複製名稱相同且型別相容的屬性，目標欄位有{@link AliasName}時改由來源的屬性路徑(如productTypeByType.name)取值
+ * 每組(來源類別, 目標類別)只在第一次複製時解析屬性，並以LambdaMetafactory產生getter、setter，之後的複製不再使用反射
+ *
+ * @since 1.5.0
+ */
+public final class BeanCopier {
+    private static final ClassValue<ClassValue<BeanCopier>> COPIER_CACHE = new ClassValue<>() {
+        @Override
+        protected ClassValue<BeanCopier> computeValue(Class<?> sourceClass) {
+            return new ClassValue<>() {
+                @Override
+                protected BeanCopier computeValue(Class<?> targetClass) {
+                    return new BeanCopier(sourceClass, targetClass);
+                }
+            };
+        }
+    };
+    private final PropertyCopier[] propertyCopierArray;
+
+    private BeanCopier(Class<?> sourceClass, Class<?> targetClass) {
+        Map<String, Method> getterMap = findGetterMap(sourceClass);
+        Map<String, String> aliasMap = findAliasMap(targetClass);
+        List<PropertyCopier> propertyCopierList = new ArrayList<>();
+        for (Map.Entry<String, Method> setterEntry : findSetterMap(targetClass).entrySet()) {
+            Method setter = setterEntry.getValue();
+            String aliasName = aliasMap.get(setterEntry.getKey());
+            List<Method> getterPath = aliasName != null ?
+                    findGetterPath(sourceClass, aliasName) :
+                    getterMap.containsKey(setterEntry.getKey()) ? List.of(getterMap.get(setterEntry.getKey())) : List.of();
+            if (getterPath.isEmpty()) {
+                continue;
+            }
+            Class<?> valueType = getterPath.get(getterPath.size() - 1).getReturnType();
+            if (wrap(setter.getParameterTypes()[0]).isAssignableFrom(wrap(valueType))) {
+                propertyCopierList.add(new PropertyCopier(toGetter(getterPath), toSetter(setter), setter.getParameterTypes()[0].isPrimitive()));
+            }
+        }
+        this.propertyCopierArray = propertyCopierList.toArray(new PropertyCopier[0]);
+    }
+
+    /**
+     * 略過值為null的屬性，與JavaBeanUtils.copy相同，可用於只更新有值欄位的情況
+     *
+     * @param source 來源
+     * @param target 目標
+     * @param <T>    目標類別
+     * @return target
+     */
+    public static <T> T copy(Object source, T target) {
+        return copy(source, target, true);
+    }
+
+    /**
+     * @param source     來源
+     * @param target     目標
+     * @param ignoreNull 是否略過值為null的屬性，目標屬性為基本型別時一律略過
+     * @param <T>        目標類別
+     * @return target
+     */
+    public static <T> T copy(Object source, T target, boolean ignoreNull) {
+        COPIER_CACHE.get(getUserClass(source)).get(getUserClass(target)).copyProperties(source, target, ignoreNull);
+        return target;
+    }
+
+    private void copyProperties(Object source, Object target, boolean ignoreNull) {
+        for (PropertyCopier propertyCopier : propertyCopierArray) {
+            Object value = propertyCopier.getter.apply(source);
+            if (value != null || !(ignoreNull || propertyCopier.primitive)) {
+                propertyCopier.setter.accept(target, value);
+            }
+        }
+    }
+
+    // 延遲載入的實體為Hibernate產生的子類別，以實體類別解析屬性，避免每個代理類別各建立一組複製器
+    private static Class<?> getUserClass(Object object) {
+        if (object instanceof HibernateProxy) {
+            return ((HibernateProxy) object).getHibernateLazyInitializer().getPersistentClass();
+        }
+        return object.getClass();
+    }
+
+    private static Map<String, Method> findGetterMap(Class<?> type) {
+        Map<String, Method> result = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) ||
+                    method.isBridge() ||
+                    method.getParameterCount() != 0 ||
+                    method.getReturnType() == void.class ||
+                    method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            String name = method.getName();
+            if (name.startsWith("get") && name.length() > 3) {
+                result.put(Introspector.decapitalize(name.substring(3)), method);
+            } else if (name.startsWith("is") && name.length() > 2 &&
+                    (method.getReturnType() == boolean.class || method.getReturnType() == Boolean.class)) {
+                result.putIfAbsent(Introspector.decapitalize(name.substring(2)), method);
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Method> findSetterMap(Class<?> type) {
+        Map<String, Method> result = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            String name = method.getName();
+            if (!Modifier.isStatic(method.getModifiers()) &&
+                    !method.isBridge() &&
+                    method.getParameterCount() == 1 &&
+                    name.startsWith("set") &&
+                    name.length() > 3) {
+                result.put(Introspector.decapitalize(name.substring(3)), method);
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, String> findAliasMap(Class<?> type) {
+        Map<String, String> result = new HashMap<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                AliasName aliasName = field.getAnnotation(AliasName.class);
+                if (aliasName != null) {
+                    result.putIfAbsent(field.getName(), aliasName.value());
+                }
+            }
+        }
+        return result;
+    }
+
+    private static List<Method> findGetterPath(Class<?> sourceClass, String aliasName) {
+        List<Method> result = new ArrayList<>();
+        Class<?> currentClass = sourceClass;
+        for (String propertyName : aliasName.split("\\.")) {
+            Method getter = findGetterMap(currentClass).get(propertyName);
+            if (getter == null) {
+                return List.of();
+            }
+            result.add(getter);
+            currentClass = getter.getReturnType();
+        }
+        return result;
+    }
+
+    // 屬性路徑中任一層為null時回傳null
+    private static Function<Object, Object> toGetter(List<Method> getterPath) {
+        Function<Object, Object> result = toGetter(getterPath.get(0));
+        for (Method getter : getterPath.subList(1, getterPath.size())) {
+            Function<Object, Object> parent = result;
+            Function<Object, Object> child = toGetter(getter);
+            result = source -> {
+                Object value = parent.apply(source);
+                return value != null ? child.apply(value) : null;
+            };
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> toGetter(Method getter) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(getter.getDeclaringClass(), MethodHandles.lookup());
+            MethodHandle handle = lookup.unreflect(getter);
+            CallSite callSite = LambdaMetafactory.metafactory(
+                    lookup,
+                    "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(wrap(getter.getReturnType()), getter.getDeclaringClass())
+            );
+            return (Function<Object, Object>) callSite.getTarget().invoke();
+        } catch (Throwable e) {
+            // 無法產生lambda時(如類別無法存取)改直接呼叫MethodHandle
+            MethodHandle handle = unreflect(getter).asType(MethodType.methodType(Object.class, Object.class));
+            return source -> {
+                try {
+                    return handle.invokeExact(source);
+                } catch (Throwable throwable) {
+                    throw new IllegalStateException("無法取得屬性值：" + getter, throwable);
+                }
+            };
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> toSetter(Method setter) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(setter.getDeclaringClass(), MethodHandles.lookup());
+            MethodHandle handle = lookup.unreflect(setter);
+            CallSite callSite = LambdaMetafactory.metafactory(
+                    lookup,
+                    "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(void.class, setter.getDeclaringClass(), wrap(setter.getParameterTypes()[0]))
+            );
+            return (BiConsumer<Object, Object>) callSite.getTarget().invoke();
+        } catch (Throwable e) {
+            MethodHandle handle = unreflect(setter).asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (target, value) -> {
+                try {
+                    handle.invokeExact(target, value);
+                } catch (Throwable throwable) {
+                    throw new IllegalStateException("無法設定屬性值：" + setter, throwable);
+                }
+            };
+        }
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            return MethodHandles.publicLookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("無法存取方法：" + method, e);
+        }
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    private static class PropertyCopier {
+        private final Function<Object, Object> getter;
+        private final BiConsumer<Object, Object> setter;
+        private final boolean primitive;
+
+        private PropertyCopier(Function<Object, Object> getter, BiConsumer<Object, Object> setter, boolean primitive) {
+            this.getter = getter;
+            this.setter = setter;
+            this.primitive = primitive;
+        }
+    }
+}
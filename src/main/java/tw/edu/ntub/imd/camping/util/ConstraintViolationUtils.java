@@ -0,0 +1,28 @@
+package tw.edu.ntub.imd.camping.util;
+
+import lombok.experimental.UtilityClass;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * 由資料庫限制判斷寫入失敗的原因，讓重複資料等檢查交給INSERT本身，不必事先查詢
+ *
+ * @since 1.5.0
+ */
+@UtilityClass
+public class ConstraintViolationUtils {
+
+    /**
+     * @param e              寫入時發生的例外
+     * @param constraintName 限制名稱
+     * @return 是否為違反指定限制造成的例外
+     */
+    public boolean isViolated(DataIntegrityViolationException e, String constraintName) {
+        Throwable cause = e.getCause();
+        if (cause instanceof ConstraintViolationException) {
+            String violatedConstraintName = ((ConstraintViolationException) cause).getConstraintName();
+            return violatedConstraintName != null && violatedConstraintName.contains(constraintName);
+        }
+        return false;
+    }
+}
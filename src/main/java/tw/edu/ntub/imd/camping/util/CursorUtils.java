@@ -0,0 +1,37 @@
+package tw.edu.ntub.imd.camping.util;
+
+import lombok.experimental.UtilityClass;
+import tw.edu.ntub.imd.camping.databaseconfig.dto.CanBorrowProductGroupCursor;
+import tw.edu.ntub.imd.camping.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 分頁位置與前端使用的不透明字串互轉，前端不應解析其內容
+ *
+ * @since 1.5.0
+ */
+@UtilityClass
+public class CursorUtils {
+    private final String SEPARATOR = "|";
+
+    public String encode(CanBorrowProductGroupCursor cursor) {
+        String plain = cursor.getBorrowStartDate() + SEPARATOR + cursor.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public CanBorrowProductGroupCursor decodeCanBorrowProductGroupCursor(String cursor) {
+        try {
+            String plain = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = plain.lastIndexOf(SEPARATOR);
+            return CanBorrowProductGroupCursor.of(
+                    LocalDateTime.parse(plain.substring(0, separatorIndex)),
+                    Integer.parseInt(plain.substring(separatorIndex + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(cursor, e);
+        }
+    }
+}
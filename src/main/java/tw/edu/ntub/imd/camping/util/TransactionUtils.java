@@ -4,6 +4,9 @@ import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,7 +18,10 @@ import tw.edu.ntub.birc.common.util.StringUtils;
 import tw.edu.ntub.imd.camping.dto.Bank;
 import tw.edu.ntub.imd.camping.dto.BankAccount;
 import tw.edu.ntub.imd.camping.dto.CreditCard;
+import tw.edu.ntub.imd.camping.exception.CreditCardApiNotSentException;
+import tw.edu.ntub.imd.camping.exception.CreditCardApiUnavailableException;
 import tw.edu.ntub.imd.camping.exception.CreditCardTransactionException;
+import tw.edu.ntub.imd.camping.util.http.CircuitBreaker;
 import tw.edu.ntub.imd.camping.util.json.object.ObjectData;
 
 import javax.validation.Valid;
@@ -24,131 +30,318 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.time.Duration;
 import java.time.format.DateTimeFormatter;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.*;
 
+/**
+ * 呼叫金流服務，所有請求都以非同步方式送出：
+ * 每次呼叫最多等待camping.credit-card-api.deadline毫秒(預設5000，包含重試)；
+ * 同時最多camping.credit-card-api.max-concurrent個請求(預設20)，超過時直接拒絕；
+ * 可重複執行的請求(查詢金融機構、建立帳號)在連線失敗、逾時或5xx時，
+ * 最多重試camping.credit-card-api.max-retries次(預設2)，間隔以retry-backoff毫秒(預設200)為基準指數增加並加上隨機值；
+ * 連續失敗camping.credit-card-api.circuit-breaker.failure-threshold次(預設5)後，
+ * camping.credit-card-api.circuit-breaker.open-duration毫秒內(預設30000)直接拒絕
+ * 無法完成時拋出{@link CreditCardApiUnavailableException}
+ */
 @Validated
 @Component
 public class TransactionUtils {
-    private final static HttpClient CLIENT = HttpClient.newBuilder()
-            .version(HttpClient.Version.HTTP_1_1)
-            .proxy(HttpClient.Builder.NO_PROXY)
-            .connectTimeout(Duration.ofSeconds(10))
-            .build();
+    private static final String REQUEST_METRIC_NAME = "camping.credit-card-api.request";
+    private final HttpClient client;
     private final String searchBankUrl;
     private final String createBankAccountUrl;
     private final String createTransactionUrl;
     private final String transactionDebitUrl;
     private final ObjectMapper mapper;
+    private final MeterRegistry meterRegistry;
+    private final long deadlineMillis;
+    private final int maxRetries;
+    private final long retryBackoffMillis;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
 
     public TransactionUtils(
-            @Value("${camping.credit-card-api.base-url}/bank")
-                    String searchBankUrl,
-            @Value("${camping.credit-card-api.base-url}/bank-account")
-                    String createBankAccountUrl,
-            @Value("${camping.credit-card-api.base-url}/transaction")
-                    String createTransactionUrl,
-            @Value("${camping.credit-card-api.base-url}/transaction/{id}/debit")
-                    String transactionDebitUrl,
-            ObjectMapper mapper
+            @Value("${camping.credit-card-api.base-url}") String baseUrl,
+            ObjectMapper mapper,
+            MeterRegistry meterRegistry,
+            @Value("${camping.credit-card-api.connect-timeout:2000}") long connectTimeoutMillis,
+            @Value("${camping.credit-card-api.deadline:5000}") long deadlineMillis,
+            @Value("${camping.credit-card-api.max-concurrent:20}") int maxConcurrent,
+            @Value("${camping.credit-card-api.max-retries:2}") int maxRetries,
+            @Value("${camping.credit-card-api.retry-backoff:200}") long retryBackoffMillis,
+            @Value("${camping.credit-card-api.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${camping.credit-card-api.circuit-breaker.open-duration:30000}") long openDurationMillis
     ) {
-        this.searchBankUrl = searchBankUrl;
-        this.createBankAccountUrl = createBankAccountUrl;
-        this.createTransactionUrl = createTransactionUrl;
-        this.transactionDebitUrl = transactionDebitUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .proxy(HttpClient.Builder.NO_PROXY)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build();
+        this.searchBankUrl = baseUrl + "/bank";
+        this.createBankAccountUrl = baseUrl + "/bank-account";
+        this.createTransactionUrl = baseUrl + "/transaction";
+        this.transactionDebitUrl = baseUrl + "/transaction/{id}/debit";
         this.mapper = mapper;
+        this.meterRegistry = meterRegistry;
+        this.deadlineMillis = deadlineMillis;
+        this.maxRetries = maxRetries;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDurationMillis);
+        Gauge.builder("camping.credit-card-api.available-permits", bulkhead, Semaphore::availablePermits)
+                .description("金流服務剩餘可同時送出的請求數")
+                .register(meterRegistry);
+        Gauge.builder("camping.credit-card-api.circuit-breaker.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("金流服務斷路器狀態(0: 關閉/ 1: 開啟/ 2: 半開)")
+                .register(meterRegistry);
     }
 
     public List<Bank> searchBank() {
-        return sendGetRequest(searchBankUrl, new TypeReference<>() {
+        return await(searchBankAsync());
+    }
+
+    public CompletableFuture<List<Bank>> searchBankAsync() {
+        return sendGetRequest(Operation.BANK_SEARCH, searchBankUrl, new TypeReference<>() {
         });
     }
 
     public void createBankAccount(@Valid BankAccount bankAccount) {
-        try {
-            ObjectData body = new ObjectData();
-            body.add("account", bankAccount.getAccount());
-            body.add("bankId", bankAccount.getBankId());
-            if (bankAccount.getBankType() != null) {
-                body.add("bankType", bankAccount.getBankType().ordinal());
-            }
-            body.add("bankName", bankAccount.getBankName());
-            body.add("money", bankAccount.getMoney() != null ? bankAccount.getMoney() : 10_000);
-            sendPostRequest(createBankAccountUrl, body, new TypeReference<>() {
-            });
-        } catch (CreditCardTransactionException e) {
-            if (StringUtils.isNotEquals(e.getResponseErrorCode(), "Create - Duplicate")) {
-                throw e;
+        await(createBankAccountAsync(bankAccount));
+    }
+
+    public CompletableFuture<Void> createBankAccountAsync(@Valid BankAccount bankAccount) {
+        ObjectData body = new ObjectData();
+        body.add("account", bankAccount.getAccount());
+        body.add("bankId", bankAccount.getBankId());
+        if (bankAccount.getBankType() != null) {
+            body.add("bankType", bankAccount.getBankType().ordinal());
+        }
+        body.add("bankName", bankAccount.getBankName());
+        body.add("money", bankAccount.getMoney() != null ? bankAccount.getMoney() : 10_000);
+        CompletableFuture<Object> future = sendPostRequest(Operation.BANK_ACCOUNT_CREATE, createBankAccountUrl, body, new TypeReference<>() {
+        });
+        return future.handle((data, throwable) -> {
+            if (throwable != null) {
+                RuntimeException exception = unwrap(throwable);
+                if (!(exception instanceof CreditCardTransactionException) ||
+                        StringUtils.isNotEquals(((CreditCardTransactionException) exception).getResponseErrorCode(), "Create - Duplicate")) {
+                    throw exception;
+                }
             }
+            return null;
+        });
+    }
+
+    public int createTransaction(@Valid CreditCard creditCard, String payeeBankAccount, int money) {
+        return await(createTransactionAsync(creditCard, payeeBankAccount, money));
+    }
+
+    public CompletableFuture<Integer> createTransactionAsync(@Valid CreditCard creditCard, String payeeBankAccount, int money) {
+        ObjectData body;
+        try {
+            body = new ObjectData(mapper.writeValueAsString(creditCard));
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new CreditCardTransactionException(e));
         }
+        String expireDate;
+        if (creditCard.getExpireDate() != null) {
+            expireDate = creditCard.getExpireDate().format(DateTimeFormatter.ofPattern("MM/yy"));
+        } else {
+            expireDate = String.format("%2d/%2d", creditCard.getExpireYear(), creditCard.getExpireMonth());
+        }
+        body.add("expireDate", expireDate);
+        body.add("payeeBankAccount", payeeBankAccount);
+        body.add("money", money);
+        CompletableFuture<TransactionId> future = sendPostRequest(Operation.TRANSACTION_CREATE, createTransactionUrl, body, new TypeReference<>() {
+        });
+        return future.thenApply(TransactionId::getId);
+    }
+
+    public void transactionDebit(int transactionId) {
+        await(transactionDebitAsync(transactionId));
+    }
+
+    public CompletableFuture<Void> transactionDebitAsync(int transactionId) {
+        CompletableFuture<Object> future = sendPostRequest(
+                Operation.TRANSACTION_DEBIT,
+                transactionDebitUrl.replace("{id}", String.valueOf(transactionId)),
+                new ObjectData(),
+                new TypeReference<>() {
+                }
+        );
+        return future.thenApply(data -> null);
     }
 
-    private <T> T sendPostRequest(String url, ObjectData body, TypeReference<ResponseBody<T>> typeReference) {
+    private <T> CompletableFuture<T> sendGetRequest(Operation operation, String url, TypeReference<ResponseBody<T>> typeReference) {
+        return sendRequest(operation, HttpRequest.newBuilder(URI.create(url)).GET(), typeReference);
+    }
+
+    private <T> CompletableFuture<T> sendPostRequest(Operation operation, String url, ObjectData body, TypeReference<ResponseBody<T>> typeReference) {
         return sendRequest(
-                url, "POST",
-                HttpRequest.BodyPublishers.ofString(body.toString()),
-                Collections.singletonMap("Content-Type", MediaType.APPLICATION_JSON_VALUE),
+                operation,
+                HttpRequest.newBuilder(URI.create(url))
+                        .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                        .header("Content-Type", MediaType.APPLICATION_JSON_VALUE),
                 typeReference
         );
     }
 
-    private <T> T sendRequest(String url, String method, HttpRequest.BodyPublisher body, Map<String, String> headerMap, TypeReference<ResponseBody<T>> typeReference) {
-        try {
-            HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(URI.create(url))
-                    .method(method, body)
-                    .version(HttpClient.Version.HTTP_1_1);
-            headerMap.forEach(requestBuilder::header);
-            HttpRequest request = requestBuilder.build();
-            HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
-            if (MathUtils.isInRange(response.statusCode(), 200, 299)) {
-                ResponseBody<T> responseBody = mapper.readValue(response.body(), typeReference);
-                if (responseBody.isSuccess()) {
-                    return responseBody.data;
-                } else {
-                    throw new CreditCardTransactionException("金流交易失敗：" + responseBody.getMessage(), responseBody.getErrorCode());
+    private <T> CompletableFuture<T> sendRequest(Operation operation, HttpRequest.Builder requestBuilder, TypeReference<ResponseBody<T>> typeReference) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        if (!bulkhead.tryAcquire()) {
+            sample.stop(getRequestTimer(operation, "rejected"));
+            return CompletableFuture.failedFuture(new CreditCardApiNotSentException("金流服務忙碌中，請稍後再試"));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // 超過期限時不論還在等待回應或等待重試都直接結束
+        result.orTimeout(deadlineMillis, TimeUnit.MILLISECONDS);
+        attempt(operation, requestBuilder, typeReference, deadline, 0, result);
+        return result.handle((data, throwable) -> {
+            bulkhead.release();
+            if (throwable == null) {
+                sample.stop(getRequestTimer(operation, "success"));
+                return data;
+            }
+            RuntimeException exception = unwrap(throwable);
+            sample.stop(getRequestTimer(operation, exception instanceof CreditCardApiUnavailableException ? "unavailable" : "fail"));
+            throw exception;
+        });
+    }
+
+    private <T> void attempt(
+            Operation operation,
+            HttpRequest.Builder requestBuilder,
+            TypeReference<ResponseBody<T>> typeReference,
+            long deadline,
+            int retryCount,
+            CompletableFuture<T> result
+    ) {
+        long remainingNanos = deadline - System.nanoTime();
+        if (result.isDone() || remainingNanos <= 0) {
+            result.completeExceptionally(new TimeoutException());
+            return;
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            // 第一次就被斷路器擋下時請求沒有送出；重試時之前的請求可能已送達
+            result.completeExceptionally(retryCount == 0 ?
+                    new CreditCardApiNotSentException("金流服務暫時無法使用，請稍後再試") :
+                    new CreditCardApiUnavailableException("金流服務暫時無法使用，請稍後再試"));
+            return;
+        }
+        HttpRequest request = requestBuilder.copy()
+                .version(HttpClient.Version.HTTP_1_1)
+                .timeout(Duration.ofNanos(remainingNanos))
+                .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, throwable) -> {
+            if (throwable == null && response.statusCode() < 500) {
+                // 4xx或金流服務回傳交易失敗代表服務本身正常，不計入斷路器的失敗次數
+                circuitBreaker.onSuccess();
+                try {
+                    result.complete(resolveResponse(response, typeReference));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
                 }
+                return;
+            }
+            circuitBreaker.onFailure();
+            long backoffMillis = getBackoffMillis(retryCount);
+            boolean canRetry = operation.idempotent &&
+                    retryCount < maxRetries &&
+                    deadline - System.nanoTime() > TimeUnit.MILLISECONDS.toNanos(backoffMillis);
+            if (canRetry) {
+                CompletableFuture.delayedExecutor(backoffMillis, TimeUnit.MILLISECONDS).execute(
+                        () -> attempt(operation, requestBuilder, typeReference, deadline, retryCount + 1, result)
+                );
+            } else if (throwable != null) {
+                result.completeExceptionally(throwable);
             } else {
-                throw new CreditCardTransactionException("金流交易失敗，Http狀態為：" + response.statusCode());
+                result.completeExceptionally(new CreditCardTransactionException("金流交易失敗，Http狀態為：" + response.statusCode()));
             }
-        } catch (IOException | InterruptedException e) {
-            throw new CreditCardTransactionException(e);
-        }
+        });
     }
 
-    private <T> T sendGetRequest(String url, TypeReference<ResponseBody<T>> typeReference) {
-        return sendRequest(url, "GET", HttpRequest.BodyPublishers.noBody(), Collections.emptyMap(), typeReference);
+    // 指數退避加上隨機值，避免多個請求同時重試
+    private long getBackoffMillis(int retryCount) {
+        long backoffMillis = retryBackoffMillis << Math.min(retryCount, 10);
+        return backoffMillis / 2 + ThreadLocalRandom.current().nextLong(backoffMillis / 2 + 1);
     }
 
-    public int createTransaction(@Valid CreditCard creditCard, String payeeBankAccount, int money) {
-        try {
-            ObjectData body = new ObjectData(mapper.writeValueAsString(creditCard));
-            String expireDate;
-            if (creditCard.getExpireDate() != null) {
-                expireDate = creditCard.getExpireDate().format(DateTimeFormatter.ofPattern("MM/yy"));
+    private <T> T resolveResponse(HttpResponse<String> response, TypeReference<ResponseBody<T>> typeReference) {
+        if (MathUtils.isInRange(response.statusCode(), 200, 299)) {
+            ResponseBody<T> responseBody;
+            try {
+                responseBody = mapper.readValue(response.body(), typeReference);
+            } catch (IOException e) {
+                throw new CreditCardTransactionException(e);
+            }
+            if (responseBody.isSuccess()) {
+                return responseBody.data;
             } else {
-                expireDate = String.format("%2d/%2d", creditCard.getExpireYear(), creditCard.getExpireMonth());
+                throw new CreditCardTransactionException("金流交易失敗：" + responseBody.getMessage(), responseBody.getErrorCode());
             }
-            body.add("expireDate", expireDate);
-            body.add("payeeBankAccount", payeeBankAccount);
-            body.add("money", money);
-            TransactionId id = sendPostRequest(createTransactionUrl, body, new TypeReference<>() {
-            });
-            return id.getId();
-        } catch (JsonProcessingException e) {
-            throw new CreditCardTransactionException(e);
+        } else {
+            throw new CreditCardTransactionException("金流交易失敗，Http狀態為：" + response.statusCode());
         }
     }
 
-    public void transactionDebit(int transactionId) {
-        sendPostRequest(
-                transactionDebitUrl.replace("{id}", String.valueOf(transactionId)),
-                new ObjectData(),
-                new TypeReference<>() {
-                }
-        );
+    private Timer getRequestTimer(Operation operation, String outcome) {
+        return Timer.builder(REQUEST_METRIC_NAME)
+                .description("金流服務請求時間(包含重試)")
+                .tag("operation", operation.tagName)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static RuntimeException unwrap(Throwable throwable) {
+        while ((throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        if (throwable instanceof CreditCardTransactionException) {
+            return (CreditCardTransactionException) throwable;
+        } else if (throwable instanceof TimeoutException || throwable instanceof HttpTimeoutException) {
+            return new CreditCardApiUnavailableException("金流服務逾時，請稍後再試", throwable);
+        } else if (throwable instanceof IOException) {
+            return new CreditCardApiUnavailableException("無法連線至金流服務，請稍後再試", throwable);
+        } else if (throwable instanceof RuntimeException) {
+            return (RuntimeException) throwable;
+        }
+        return new CreditCardTransactionException(throwable);
+    }
+
+    /**
+     * 等待非同步呼叫的結果，最多等待到該次呼叫的期限
+     *
+     * @param future 非同步呼叫的結果
+     * @param <T>    結果類型
+     * @return 結果
+     * @throws CreditCardTransactionException 金流交易失敗
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private enum Operation {
+        BANK_SEARCH("bank-search", true),
+        // 重複建立時金流服務回傳Create - Duplicate，視為成功
+        BANK_ACCOUNT_CREATE("bank-account-create", true),
+        TRANSACTION_CREATE("transaction-create", false),
+        TRANSACTION_DEBIT("transaction-debit", false);
+
+        private final String tagName;
+        private final boolean idempotent;
+
+        Operation(String tagName, boolean idempotent) {
+            this.tagName = tagName;
+            this.idempotent = idempotent;
+        }
     }
 
     @Data
@@ -0,0 +1,73 @@
+package tw.edu.ntub.imd.camping.util.http;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 連續失敗failureThreshold次後開啟，開啟期間直接拒絕請求；
+ * 經過openDuration後進入半開，只放行一個請求試探，成功則關閉，失敗則重新開啟
+ * 每次{@link #tryAcquire()}回傳true後，都必須呼叫{@link #onSuccess()}或{@link #onFailure()}
+ *
+ * @since 1.5.0
+ */
+public class CircuitBreaker {
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probing;
+
+    public CircuitBreaker(int failureThreshold, long openDurationMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+    }
+
+    /**
+     * @return 是否可以送出請求
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openDurationNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probing = true;
+                return true;
+            case HALF_OPEN:
+            default:
+                if (probing) {
+                    return false;
+                }
+                probing = true;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probing = false;
+    }
+
+    public synchronized void onFailure() {
+        probing = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+}
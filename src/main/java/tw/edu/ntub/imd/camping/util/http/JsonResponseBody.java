@@ -0,0 +1,77 @@
+package tw.edu.ntub.imd.camping.util.http;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import tw.edu.ntub.birc.common.exception.UnknownException;
+import tw.edu.ntub.imd.camping.util.json.JacksonJsonUtils;
+import tw.edu.ntub.imd.camping.util.json.ResponseData;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+
+/**
+ * 標準格式的回應內容，由{@link JsonResponseBodyHttpMessageConverter}直接寫入回應的OutputStream
+ *
+ * @see ResponseEntityBuilder#buildStream()
+ * @since 1.5.0
+ */
+public class JsonResponseBody {
+    private final boolean success;
+    private final String errorCode;
+    private final String message;
+    private final ResponseData responseData;
+
+    JsonResponseBody(boolean success, String errorCode, String message, @Nullable ResponseData responseData) {
+        this.success = success;
+        this.errorCode = errorCode;
+        this.message = message;
+        this.responseData = responseData;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void writeTo(OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = JacksonJsonUtils.createMapper().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            writeTo(generator);
+        }
+    }
+
+    public void writeTo(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeBooleanField("result", success);
+        generator.writeStringField("errorCode", errorCode);
+        generator.writeStringField("message", message);
+        generator.writeFieldName("data");
+        if (responseData != null) {
+            responseData.writeTo(generator);
+        } else {
+            generator.writeStartObject();
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+    }
+
+    @Override
+    public String toString() {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = JacksonJsonUtils.createMapper().getFactory().createGenerator(writer)) {
+            writeTo(generator);
+        } catch (IOException e) {
+            throw new UnknownException(e);
+        }
+        return writer.toString();
+    }
+}
@@ -0,0 +1,48 @@
+package tw.edu.ntub.imd.camping.util.http;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 將{@link JsonResponseBody}邊產生邊寫入回應，不先轉為完整的JSON字串
+ *
+ * @since 1.5.0
+ */
+@Component
+public class JsonResponseBodyHttpMessageConverter extends AbstractHttpMessageConverter<JsonResponseBody> {
+
+    public JsonResponseBodyHttpMessageConverter() {
+        super(StandardCharsets.UTF_8, MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(@Nonnull Class<?> clazz) {
+        return JsonResponseBody.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(@Nonnull Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Nonnull
+    @Override
+    protected JsonResponseBody readInternal(
+            @Nonnull Class<? extends JsonResponseBody> clazz,
+            @Nonnull HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("不支援讀取回應格式", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(@Nonnull JsonResponseBody body, @Nonnull HttpOutputMessage outputMessage) throws IOException {
+        body.writeTo(outputMessage.getBody());
+    }
+}
@@ -2,6 +2,8 @@ package tw.edu.ntub.imd.camping.util.http;
 
 import lombok.extern.log4j.Log4j2;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import tw.edu.ntub.birc.common.exception.ProjectException;
 import tw.edu.ntub.imd.camping.dto.CodeEntry;
 import tw.edu.ntub.imd.camping.util.function.AddObjectDataConsumer;
@@ -9,13 +11,15 @@ import tw.edu.ntub.imd.camping.util.function.AddObjectDataMapConsumer;
 import tw.edu.ntub.imd.camping.util.function.TripleConsumer;
 import tw.edu.ntub.imd.camping.util.json.ResponseData;
 import tw.edu.ntub.imd.camping.util.json.array.ArrayData;
-import tw.edu.ntub.imd.camping.util.json.array.CollectionArrayData;
+import tw.edu.ntub.imd.camping.util.json.array.CollectionStreamArrayData;
 import tw.edu.ntub.imd.camping.util.json.array.MapArrayData;
 import tw.edu.ntub.imd.camping.util.json.object.ObjectData;
 
 import javax.annotation.Nonnull;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 
 /**
@@ -26,9 +30,20 @@ import java.util.function.BiConsumer;
  * "message": String,
  * "data": Object/Array
  * }
+ * 開啟此類別的debug log後，每camping.response-log.sample-rate(系統屬性，預設100)筆回應會記錄一筆完整內容
  */
 @Log4j2
 public class ResponseEntityBuilder {
+    /**
+     * 存放{@link ResponseResult}的request attribute名稱
+     *
+     * @since 1.5.0
+     */
+    public static final String RESPONSE_RESULT_ATTRIBUTE = ResponseEntityBuilder.class.getName() + ".RESULT";
+    private static final int LOG_SAMPLE_RATE = Math.max(1, Integer.getInteger("camping.response-log.sample-rate", 100));
+    private static final AtomicLong RESPONSE_COUNT = new AtomicLong();
+    // 只放程式中固定的成功訊息，如"更新成功"，避免每次重新產生相同的JSON
+    private static final Map<String, String> SUCCESS_MESSAGE_BODY_MAP = new ConcurrentHashMap<>();
     private final ResponseEntity.BodyBuilder bodyBuilder = ResponseEntity.ok();
     private boolean success;
     private ProjectException ProjectException;
@@ -45,8 +60,18 @@ public class ResponseEntityBuilder {
         this.success = success;
     }
 
+    /**
+     * @param message 固定的成功訊息，相同訊息的回應內容只會產生一次
+     * @return 沒有資料的成功回應
+     */
     public static ResponseEntity<String> buildSuccessMessage(String message) {
-        return success(message).build();
+        String body = SUCCESS_MESSAGE_BODY_MAP.computeIfAbsent(
+                message,
+                key -> success(key).toResponseBody().toString()
+        );
+        exposeResult(new ResponseResult(true, "", message));
+        logSampled(body);
+        return ResponseEntity.ok(body);
     }
 
     public static ResponseEntityBuilder success(String message) {
@@ -85,15 +110,18 @@ public class ResponseEntityBuilder {
     }
 
     public ResponseEntityBuilder data(Collection<? extends CodeEntry> resource) {
-        return data(new CollectionArrayData(resource));
+        return data(resource, (objectData, codeEntry) -> {
+            objectData.add("code", codeEntry.getCode());
+            objectData.add("value", codeEntry.getValue());
+        });
     }
 
     public <T> ResponseEntityBuilder data(Collection<T> resource, BiConsumer<ObjectData, T> addObjectDataConsumer) {
-        return data(new CollectionArrayData(resource, addObjectDataConsumer));
+        return data(new CollectionStreamArrayData<>(resource, addObjectDataConsumer));
     }
 
     public <T> ResponseEntityBuilder data(Collection<T> resource, AddObjectDataConsumer<T> addObjectDataConsumer) {
-        return data(new CollectionArrayData(resource, addObjectDataConsumer));
+        return data(new CollectionStreamArrayData<>(resource, addObjectDataConsumer));
     }
 
     public ResponseEntityBuilder data(Map<String, String> resource) {
@@ -122,18 +150,46 @@ public class ResponseEntityBuilder {
         return bodyBuilder.body(buildJSONString());
     }
 
+    /**
+     * 回應內容在寫入時才逐筆產生，適合資料量大的列表
+     *
+     * @return 由{@link JsonResponseBodyHttpMessageConverter}寫入的回應
+     * @since 1.5.0
+     */
+    public ResponseEntity<JsonResponseBody> buildStream() {
+        JsonResponseBody body = toResponseBody();
+        if (isLogSampled()) {
+            log.debug("Response JSON = {}", body);
+        }
+        return bodyBuilder.body(body);
+    }
+
     public String buildJSONString() {
-        ObjectData result = new ObjectData()
-                .add("result", success)
-                .add("errorCode", ProjectException != null ? ProjectException.getErrorCode() : "")
-                .add("message", message)
-                .replace("data",
-                        responseData != null ?
-                                responseData.getData() :
-                                new ObjectData().getData()
-                );
-        String body = result.toString();
-        System.out.println("Response JSON = " + body);
+        String body = toResponseBody().toString();
+        logSampled(body);
         return body;
     }
+
+    private JsonResponseBody toResponseBody() {
+        String errorCode = ProjectException != null ? ProjectException.getErrorCode() : "";
+        exposeResult(new ResponseResult(success, errorCode, message));
+        return new JsonResponseBody(success, errorCode, message, responseData);
+    }
+
+    private static void exposeResult(ResponseResult result) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(RESPONSE_RESULT_ATTRIBUTE, result, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private static boolean isLogSampled() {
+        return log.isDebugEnabled() && RESPONSE_COUNT.getAndIncrement() % LOG_SAMPLE_RATE == 0;
+    }
+
+    private static void logSampled(String body) {
+        if (isLogSampled()) {
+            log.debug("Response JSON = {}", body);
+        }
+    }
 }
@@ -0,0 +1,17 @@
+package tw.edu.ntub.imd.camping.util.http;
+
+import lombok.Value;
+
+/**
+ * 回應中的result、errorCode、message，由{@link ResponseEntityBuilder}放在request attribute中，
+ * 讓紀錄操作時不需要重新解析回應內容
+ *
+ * @see ResponseEntityBuilder#RESPONSE_RESULT_ATTRIBUTE
+ * @since 1.5.0
+ */
+@Value
+public class ResponseResult {
+    boolean success;
+    String errorCode;
+    String message;
+}
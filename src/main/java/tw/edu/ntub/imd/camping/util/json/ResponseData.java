@@ -1,8 +1,22 @@
 package tw.edu.ntub.imd.camping.util.json;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 
+import java.io.IOException;
+
 @FunctionalInterface
 public interface ResponseData {
     JsonNode getData();
+
+    /**
+     * 將資料寫入generator，預設會先建立完整的JsonNode，可逐筆產生資料的實作應覆寫此方法
+     *
+     * @param generator 回應內容的JsonGenerator
+     * @throws IOException 寫入失敗
+     * @since 1.5.0
+     */
+    default void writeTo(JsonGenerator generator) throws IOException {
+        generator.writeTree(getData());
+    }
 }
@@ -0,0 +1,60 @@
+package tw.edu.ntub.imd.camping.util.json.array;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import tw.edu.ntub.imd.camping.util.function.AddObjectDataConsumer;
+import tw.edu.ntub.imd.camping.util.json.ResponseData;
+import tw.edu.ntub.imd.camping.util.json.object.ObjectData;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.BiConsumer;
+
+/**
+ * 與{@link CollectionArrayData}輸出相同的陣列，但在寫入回應時才逐筆呼叫addObjectDataConsumer，
+ * 同一時間只會有一筆資料的{@link ObjectData}在記憶體中
+ *
+ * @param <T> 集合內的資料類型
+ * @since 1.5.0
+ */
+public class CollectionStreamArrayData<T> implements ResponseData {
+    private final Collection<T> resourceList;
+    private final AddObjectDataConsumer<T> addObjectDataConsumer;
+
+    public CollectionStreamArrayData(Collection<T> resourceList, BiConsumer<ObjectData, T> addObjectDataConsumer) {
+        this(
+                resourceList,
+                addObjectDataConsumer != null ?
+                        (AddObjectDataConsumer<T>) (objectData, index, t) -> addObjectDataConsumer.accept(objectData, t) :
+                        null
+        );
+    }
+
+    public CollectionStreamArrayData(Collection<T> resourceList, AddObjectDataConsumer<T> addObjectDataConsumer) {
+        this.resourceList = resourceList != null && addObjectDataConsumer != null ? resourceList : Collections.emptyList();
+        this.addObjectDataConsumer = addObjectDataConsumer;
+    }
+
+    @Override
+    public void writeTo(JsonGenerator generator) throws IOException {
+        generator.writeStartArray();
+        int index = 0;
+        for (T t : resourceList) {
+            ObjectData objectData = new ObjectData();
+            addObjectDataConsumer.addObject(objectData, index++, t);
+            generator.writeTree(objectData.getData());
+        }
+        generator.writeEndArray();
+    }
+
+    @Override
+    public JsonNode getData() {
+        return new CollectionArrayData(resourceList, addObjectDataConsumer).getData();
+    }
+
+    @Override
+    public String toString() {
+        return getData().toString();
+    }
+}
@@ -0,0 +1,80 @@
+package tw.edu.ntub.imd.camping.wrapper;
+
+import eu.bitwalker.useragentutils.Browser;
+import eu.bitwalker.useragentutils.Version;
+import lombok.Value;
+import org.springframework.lang.Nullable;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.LogRecordDevice;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.LogRecordDeviceType;
+
+/**
+ * 由User-Agent解析出的設備、設備類型與版本
+ *
+ * @see UserAgentInfoCache
+ * @since 1.5.0
+ */
+@Value
+public class UserAgentInfo {
+    public static final UserAgentInfo UNKNOWN = new UserAgentInfo(
+            LogRecordDevice.UNKNOWN,
+            LogRecordDeviceType.UNKNOWN,
+            "Unknown"
+    );
+    LogRecordDevice device;
+    LogRecordDeviceType deviceType;
+    String deviceVersion;
+
+    public static UserAgentInfo parse(@Nullable String originUserAgent) {
+        if (originUserAgent == null) {
+            return UNKNOWN;
+        } else if (originUserAgent.startsWith("Postman")) {
+            return new UserAgentInfo(
+                    LogRecordDevice.POSTMAN,
+                    LogRecordDeviceType.POSTMAN,
+                    originUserAgent.split("/")[1]
+            );
+        }
+        Browser browser = Browser.parseUserAgentString(originUserAgent);
+        return new UserAgentInfo(getDevice(browser), getDeviceType(browser), getDeviceVersion(browser, originUserAgent));
+    }
+
+    private static LogRecordDevice getDevice(Browser browser) {
+        switch (browser.getBrowserType()) {
+            case WEB_BROWSER:
+                return LogRecordDevice.BROWSER;
+            case MOBILE_BROWSER:
+                return LogRecordDevice.APP_BROWSER;
+            case APP:
+                return LogRecordDevice.APP;
+            default:
+                return LogRecordDevice.UNKNOWN;
+        }
+    }
+
+    private static LogRecordDeviceType getDeviceType(Browser browser) {
+        switch (browser.getGroup()) {
+            case IE:
+                return LogRecordDeviceType.IE;
+            case EDGE:
+                return LogRecordDeviceType.EDGE;
+            case CHROME:
+                return LogRecordDeviceType.CHROME;
+            case FIREFOX:
+                return LogRecordDeviceType.FIRE_FOX;
+            case SAFARI:
+                return LogRecordDeviceType.SAFARI;
+            case OPERA:
+                return LogRecordDeviceType.OPERA;
+            default:
+                return LogRecordDeviceType.UNKNOWN;
+        }
+    }
+
+    private static String getDeviceVersion(Browser browser, String originUserAgent) {
+        Version browserVersion = browser.getVersion(originUserAgent);
+        if (browserVersion == null) {
+            return "Unknown";
+        }
+        return browserVersion.getVersion();
+    }
+}
@@ -0,0 +1,85 @@
+package tw.edu.ntub.imd.camping.wrapper;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 以原始User-Agent為key的LRU快取，同一種User-Agent只解析一次
+ * 最多保留camping.user-agent-cache.max-size筆(預設1000)，超過時移除最久未使用的User-Agent
+ *
+ * @since 1.5.0
+ */
+@Component
+public class UserAgentInfoCache implements MeterBinder {
+    private final Map<String, UserAgentInfo> cacheMap;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public UserAgentInfoCache(@Value("${camping.user-agent-cache.max-size:1000}") int maxSize) {
+        this.cacheMap = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UserAgentInfo> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @NonNull
+    public UserAgentInfo get(@Nullable String originUserAgent) {
+        if (originUserAgent == null) {
+            return UserAgentInfo.UNKNOWN;
+        }
+        UserAgentInfo result;
+        synchronized (cacheMap) {
+            result = cacheMap.get(originUserAgent);
+        }
+        if (result != null) {
+            hitCount.incrementAndGet();
+            return result;
+        }
+        missCount.incrementAndGet();
+        // 在鎖外解析，同一User-Agent同時第一次出現時可能重複解析，但結果相同
+        result = UserAgentInfo.parse(originUserAgent);
+        synchronized (cacheMap) {
+            cacheMap.put(originUserAgent, result);
+        }
+        return result;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public int size() {
+        synchronized (cacheMap) {
+            return cacheMap.size();
+        }
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("camping.user-agent-cache.hit", this, UserAgentInfoCache::getHitCount)
+                .description("User-Agent快取命中次數")
+                .register(registry);
+        FunctionCounter.builder("camping.user-agent-cache.miss", this, UserAgentInfoCache::getMissCount)
+                .description("User-Agent快取未命中次數")
+                .register(registry);
+        Gauge.builder("camping.user-agent-cache.size", this, UserAgentInfoCache::size)
+                .description("User-Agent快取筆數")
+                .register(registry);
+    }
+}
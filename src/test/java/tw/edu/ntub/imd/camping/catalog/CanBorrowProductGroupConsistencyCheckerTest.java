@@ -0,0 +1,132 @@
+package tw.edu.ntub.imd.camping.catalog;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tw.edu.ntub.imd.camping.annotation.DAOTest;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.CanBorrowProductGroupDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroup;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.view.CanBorrowProductGroup;
+import tw.edu.ntub.imd.camping.util.CanBorrowProductGroupSourceUtils;
+import tw.edu.ntub.imd.camping.util.FixtureUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@DAOTest
+@Import({
+        CanBorrowProductGroupConsistencyChecker.class,
+        CanBorrowProductGroupConsistencyCheckerTest.ChangeEventRecorder.class
+})
+@DisplayName("測試CanBorrowProductGroupConsistencyChecker")
+public class CanBorrowProductGroupConsistencyCheckerTest {
+    private static final String OWNER_ACCOUNT = "owner";
+    @Autowired
+    private CanBorrowProductGroupConsistencyChecker checker;
+    @Autowired
+    private ChangeEventRecorder changeEventRecorder;
+    @Autowired
+    private CanBorrowProductGroupDAO canBorrowProductGroupDAO;
+    @Autowired
+    private TestEntityManager testEntityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private int firstGroupId;
+    private int secondGroupId;
+
+    public static class ChangeEventRecorder {
+        private final List<CanBorrowProductGroupChangeEvent> eventList = new ArrayList<>();
+
+        @EventListener
+        public void onChange(CanBorrowProductGroupChangeEvent event) {
+            eventList.add(event);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        // 只需要來源檢視表用到的使用者，不建立城市
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        CanBorrowProductGroupSourceUtils.createView(jdbcTemplate);
+        testEntityManager.persist(FixtureUtils.createUser(OWNER_ACCOUNT));
+        firstGroupId = testEntityManager.persistAndGetId(createGroup("商品群組1"), Integer.class);
+        secondGroupId = testEntityManager.persistAndGetId(createGroup("商品群組2"), Integer.class);
+        testEntityManager.flush();
+        testEntityManager.clear();
+        canBorrowProductGroupDAO.rebuild();
+        changeEventRecorder.eventList.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+    }
+
+    private ProductGroup createGroup(String name) {
+        ProductGroup productGroup = FixtureUtils.createProductGroup(OWNER_ACCOUNT);
+        productGroup.setName(name);
+        return productGroup;
+    }
+
+    private List<CanBorrowProductGroup> findAllTable() {
+        testEntityManager.clear();
+        return canBorrowProductGroupDAO.findAll()
+                .stream()
+                .sorted(Comparator.comparing(CanBorrowProductGroup::getId))
+                .collect(Collectors.toList());
+    }
+
+    private List<CanBorrowProductGroup> findAllSource() {
+        return canBorrowProductGroupDAO.searchAllFromSource()
+                .stream()
+                .sorted(Comparator.comparing(CanBorrowProductGroup::getId))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("資料表與來源一致時不重建")
+    void testCheckWithoutDrift() {
+        checker.check();
+
+        Assertions.assertTrue(changeEventRecorder.eventList.isEmpty());
+        Assertions.assertEquals(findAllSource(), findAllTable());
+    }
+
+    @Test
+    @DisplayName("資料表內容過期、缺少或多出商品群組時，重建資料表並發布差異的商品群組")
+    void testCheckWithDrift() {
+        int removedGroupId = secondGroupId + 1;
+        jdbcTemplate.update("UPDATE camping.can_borrow_product_group SET name = '過期的名稱' WHERE id = ?", firstGroupId);
+        jdbcTemplate.update("DELETE FROM camping.can_borrow_product_group WHERE id = ?", secondGroupId);
+        jdbcTemplate.update(
+                "INSERT INTO camping.can_borrow_product_group (id, name, cover_image, price, borrow_start_date, " +
+                        "borrow_end_date, city, city_name, city_area_name, user_name, product_type_mask, comment) " +
+                        "SELECT ?, name, cover_image, price, borrow_start_date, borrow_end_date, city, city_name, " +
+                        "city_area_name, user_name, product_type_mask, comment " +
+                        "FROM camping.can_borrow_product_group_source WHERE id = ?",
+                removedGroupId,
+                firstGroupId
+        );
+        testEntityManager.clear();
+
+        checker.check();
+
+        List<CanBorrowProductGroup> table = findAllTable();
+        Assertions.assertEquals(2, table.size());
+        Assertions.assertEquals(findAllSource(), table);
+        Assertions.assertEquals(1, changeEventRecorder.eventList.size());
+        Assertions.assertEquals(
+                List.of(firstGroupId, secondGroupId, removedGroupId),
+                changeEventRecorder.eventList.get(0).getGroupIdList()
+        );
+    }
+}
@@ -0,0 +1,130 @@
+package tw.edu.ntub.imd.camping.catalog;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import tw.edu.ntub.imd.camping.bean.ProductGroupFilterDataBean;
+import tw.edu.ntub.imd.camping.databaseconfig.dto.CanBorrowProductGroupCursor;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.view.CanBorrowProductGroup;
+import tw.edu.ntub.imd.camping.databaseconfig.util.AvailabilityCalendar;
+import tw.edu.ntub.imd.camping.util.CanBorrowProductGroupFixtureUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@DisplayName("測試CanBorrowProductGroupSnapshot")
+public class CanBorrowProductGroupSnapshotTest {
+    private static final List<CanBorrowProductGroup> ROW_LIST = CanBorrowProductGroupFixtureUtils.createRowList();
+
+    @ParameterizedTest
+    @MethodSource("tw.edu.ntub.imd.camping.util.CanBorrowProductGroupFixtureUtils#filterDataStream")
+    @DisplayName("測試search與記憶體內篩選結果相同")
+    void testSearch(ProductGroupFilterDataBean filterData) throws Exception {
+        List<Integer> expected = ROW_LIST.stream()
+                .filter(filterData::isMatch)
+                .sorted(Comparator.comparing(CanBorrowProductGroup::getBorrowStartDate).thenComparing(CanBorrowProductGroup::getId))
+                .map(CanBorrowProductGroup::getId)
+                .collect(Collectors.toList());
+        List<Integer> actual = CanBorrowProductGroupSnapshot.of(ROW_LIST)
+                .search(filterData.toFilter(), null, Integer.MAX_VALUE)
+                .stream()
+                .map(CanBorrowProductGroup::getId)
+                .collect(Collectors.toList());
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @ParameterizedTest
+    @MethodSource("tw.edu.ntub.imd.camping.util.CanBorrowProductGroupFixtureUtils#filterDataStream")
+    @DisplayName("測試search逐頁查詢結果與不分頁相同")
+    void testSearchWithCursor(ProductGroupFilterDataBean filterData) throws Exception {
+        CanBorrowProductGroupSnapshot snapshot = CanBorrowProductGroupSnapshot.of(ROW_LIST);
+        List<CanBorrowProductGroup> expected = snapshot.search(filterData.toFilter(), null, Integer.MAX_VALUE);
+        List<CanBorrowProductGroup> actual = new ArrayList<>();
+        CanBorrowProductGroupCursor cursor = null;
+        List<CanBorrowProductGroup> page;
+        do {
+            page = snapshot.search(filterData.toFilter(), cursor, 4);
+            actual.addAll(page);
+            if (!page.isEmpty()) {
+                cursor = CanBorrowProductGroupCursor.of(page.get(page.size() - 1));
+            }
+        } while (page.size() == 4);
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    @DisplayName("測試merge只替換有異動的商品群組")
+    void testMerge() throws Exception {
+        CanBorrowProductGroup changedRow = CanBorrowProductGroupFixtureUtils.createRow(1);
+        changedRow.setPrice(9999);
+        CanBorrowProductGroupSnapshot snapshot = CanBorrowProductGroupSnapshot.of(ROW_LIST)
+                .merge(List.of(1, 2), List.of(changedRow));
+        List<CanBorrowProductGroup> result = snapshot.search(new ProductGroupFilterDataBean().toFilter(), null, Integer.MAX_VALUE);
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(ROW_LIST.size() - 1, snapshot.size()),
+                () -> Assertions.assertTrue(result.stream().noneMatch(row -> row.getId() == 2)),
+                () -> Assertions.assertTrue(result.stream().anyMatch(row -> row.getId() == 1 && row.getPrice() == 9999))
+        );
+    }
+
+    @Test
+    @DisplayName("測試預計租借日期只回傳該期間每一天皆可租借的商品群組，未填時只回傳今天之後還有可租借日期的商品群組")
+    void testSearchByAvailabilityCalendar() throws Exception {
+        LocalDate baseDate = CanBorrowProductGroupFixtureUtils.BASE_DATE;
+        CanBorrowProductGroup partlyBooked = CanBorrowProductGroupFixtureUtils.createRow(100);
+        partlyBooked.setBorrowStartDate(LocalDateTime.of(baseDate, LocalTime.of(10, 0)));
+        partlyBooked.setBorrowEndDate(LocalDateTime.of(baseDate.plusDays(30), LocalTime.of(18, 0)));
+        AvailabilityCalendar calendar = partlyBooked.getAvailabilityCalendar();
+        calendar.book(baseDate.plusDays(9), baseDate.plusDays(10));
+        partlyBooked.setAvailableDayBitmap(calendar.toByteArray());
+        CanBorrowProductGroup fullyBooked = CanBorrowProductGroupFixtureUtils.createRow(101);
+        calendar = fullyBooked.getAvailabilityCalendar();
+        calendar.book(fullyBooked.getBorrowStartDate().toLocalDate(), fullyBooked.getBorrowEndDate().toLocalDate());
+        fullyBooked.setAvailableDayBitmap(calendar.toByteArray());
+        // 只剩今天之前的日期未被租借
+        CanBorrowProductGroup freeOnlyInPast = CanBorrowProductGroupFixtureUtils.createRow(102);
+        freeOnlyInPast.setBorrowStartDate(LocalDateTime.of(baseDate, LocalTime.of(10, 0)));
+        freeOnlyInPast.setBorrowEndDate(LocalDateTime.of(baseDate.plusDays(10), LocalTime.of(18, 0)));
+        calendar = freeOnlyInPast.getAvailabilityCalendar();
+        calendar.book(LocalDate.now(), baseDate.plusDays(10));
+        freeOnlyInPast.setAvailableDayBitmap(calendar.toByteArray());
+        CanBorrowProductGroup expired = CanBorrowProductGroupFixtureUtils.createRow(103);
+        expired.setBorrowStartDate(LocalDateTime.of(baseDate.minusDays(10), LocalTime.of(10, 0)));
+        expired.setBorrowEndDate(LocalDateTime.of(baseDate.minusDays(5), LocalTime.of(18, 0)));
+        CanBorrowProductGroupSnapshot snapshot = CanBorrowProductGroupSnapshot.of(
+                List.of(partlyBooked, fullyBooked, freeOnlyInPast, expired)
+        );
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(
+                        List.of(partlyBooked),
+                        snapshot.search(CanBorrowProductGroupFixtureUtils.createFilterData(null, null, null, null, null).toFilter(), null, Integer.MAX_VALUE)
+                ),
+                () -> Assertions.assertEquals(
+                        List.of(partlyBooked),
+                        snapshot.search(CanBorrowProductGroupFixtureUtils.createFilterData(
+                                baseDate.plusDays(11), baseDate.plusDays(19), null, null, null
+                        ).toFilter(), null, Integer.MAX_VALUE)
+                ),
+                () -> Assertions.assertEquals(
+                        List.of(),
+                        snapshot.search(CanBorrowProductGroupFixtureUtils.createFilterData(
+                                baseDate.plusDays(8), baseDate.plusDays(9), null, null, null
+                        ).toFilter(), null, Integer.MAX_VALUE)
+                ),
+                () -> Assertions.assertEquals(
+                        List.of(),
+                        snapshot.search(CanBorrowProductGroupFixtureUtils.createFilterData(
+                                baseDate.plusDays(10), null, null, null, null
+                        ).toFilter(), null, Integer.MAX_VALUE)
+                )
+        );
+    }
+}
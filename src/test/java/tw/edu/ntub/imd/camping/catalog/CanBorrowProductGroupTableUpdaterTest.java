@@ -0,0 +1,111 @@
+package tw.edu.ntub.imd.camping.catalog;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tw.edu.ntub.imd.camping.annotation.DAOTest;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.CanBorrowProductGroupDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.ProductGroupDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.UserDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroup;
+import tw.edu.ntub.imd.camping.util.CanBorrowProductGroupSourceUtils;
+import tw.edu.ntub.imd.camping.util.FixtureUtils;
+
+@DAOTest
+@Import(CanBorrowProductGroupTableUpdater.class)
+// 需由交易提交觸發，測試本身不包在交易內，且需使用具名的資料庫讓連線池中的所有連線共用
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:can-borrow-product-group;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false;INIT=CREATE SCHEMA IF NOT EXISTS camping")
+@DisplayName("測試CanBorrowProductGroupTableUpdater")
+public class CanBorrowProductGroupTableUpdaterTest {
+    private static final String OWNER_ACCOUNT = "owner";
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private CanBorrowProductGroupDAO canBorrowProductGroupDAO;
+    @Autowired
+    private ProductGroupDAO groupDAO;
+    @Autowired
+    private UserDAO userDAO;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private int groupId;
+
+    @BeforeEach
+    void setUp() {
+        // 只需要來源檢視表用到的使用者，不建立城市
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        CanBorrowProductGroupSourceUtils.createView(jdbcTemplate);
+        userDAO.save(FixtureUtils.createUser(OWNER_ACCOUNT));
+        ProductGroup productGroup = FixtureUtils.createProductGroup(OWNER_ACCOUNT);
+        groupId = groupDAO.saveAndFlush(productGroup).getId();
+        canBorrowProductGroupDAO.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM camping.can_borrow_product_group");
+        jdbcTemplate.update("DELETE FROM camping.product_group");
+        jdbcTemplate.update("DELETE FROM camping.user");
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+    }
+
+    private void rename(String name) {
+        jdbcTemplate.update("UPDATE camping.product_group SET name = ? WHERE id = ?", name, groupId);
+    }
+
+    private String findTableName() {
+        return jdbcTemplate.queryForObject(
+                "SELECT name FROM camping.can_borrow_product_group WHERE id = ?",
+                String.class,
+                groupId
+        );
+    }
+
+    @Test
+    @DisplayName("交易提交前重新計算，與來源資料一起提交")
+    void testOnChangeBeforeCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            rename("修改後的名稱");
+            eventPublisher.publishEvent(CanBorrowProductGroupChangeEvent.of(groupId));
+            // 提交前尚未重新計算
+            Assertions.assertEquals("商品群組", findTableName());
+        });
+
+        Assertions.assertEquals("修改後的名稱", findTableName());
+    }
+
+    @Test
+    @DisplayName("交易回滾時不重新計算")
+    void testOnChangeRollback() {
+        transactionTemplate.executeWithoutResult(status -> {
+            rename("修改後的名稱");
+            eventPublisher.publishEvent(CanBorrowProductGroupChangeEvent.of(groupId));
+            status.setRollbackOnly();
+        });
+
+        Assertions.assertEquals("商品群組", findTableName());
+    }
+
+    @Test
+    @DisplayName("沒有交易時立即重新計算")
+    void testOnChangeWithoutTransaction() {
+        rename("修改後的名稱");
+
+        eventPublisher.publishEvent(CanBorrowProductGroupChangeEvent.of(groupId));
+
+        Assertions.assertEquals("修改後的名稱", findTableName());
+    }
+}
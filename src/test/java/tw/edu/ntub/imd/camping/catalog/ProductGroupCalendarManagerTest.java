@@ -0,0 +1,143 @@
+package tw.edu.ntub.imd.camping.catalog;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tw.edu.ntub.imd.camping.annotation.DAOTest;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.ProductGroupDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.dto.ProductGroupCalendarState;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroup;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.RentalRecord;
+import tw.edu.ntub.imd.camping.databaseconfig.util.AvailabilityCalendar;
+import tw.edu.ntub.imd.camping.exception.ProductGroupAlreadyRentedException;
+import tw.edu.ntub.imd.camping.util.FixtureUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@DAOTest
+@Import(ProductGroupCalendarManager.class)
+// 每個租借在各自的執行緒與交易中執行，測試本身不包在交易內，且需使用具名的資料庫讓連線池中的所有連線共用
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:calendar;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false;INIT=CREATE SCHEMA IF NOT EXISTS camping")
+@DisplayName("測試ProductGroupCalendarManager")
+public class ProductGroupCalendarManagerTest {
+    private static final int RENTER_COUNT = 300;
+    private static final int THREAD_COUNT = 32;
+    @Autowired
+    private ProductGroupCalendarManager calendarManager;
+    @Autowired
+    private ProductGroupDAO groupDAO;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private int groupId;
+
+    @BeforeEach
+    void setUp() {
+        // 只測試可租借日曆，不建立使用者、城市
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        ProductGroup productGroup = FixtureUtils.createProductGroup("account");
+        groupId = groupDAO.saveAndFlush(productGroup).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        groupDAO.deleteById(groupId);
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+    }
+
+    private void book(LocalDate from, LocalDate to) {
+        RentalRecord rentalRecord = new RentalRecord();
+        rentalRecord.setProductGroupId(groupId);
+        rentalRecord.setBorrowStartDate(LocalDateTime.of(from, LocalTime.of(10, 0)));
+        rentalRecord.setBorrowEndDate(LocalDateTime.of(to, LocalTime.of(18, 0)));
+        transactionTemplate.executeWithoutResult(status -> calendarManager.book(rentalRecord));
+    }
+
+    private ProductGroupCalendarState findState() {
+        return groupDAO.findCalendarStateById(groupId).orElseThrow();
+    }
+
+    @Test
+    @DisplayName("測試重疊的租借失敗，不重疊的租借皆成功")
+    void testBook() {
+        book(LocalDate.of(2020, 10, 3), LocalDate.of(2020, 10, 4));
+        book(LocalDate.of(2020, 10, 5), LocalDate.of(2020, 10, 6));
+        Assertions.assertThrows(
+                ProductGroupAlreadyRentedException.class,
+                () -> book(LocalDate.of(2020, 10, 4), LocalDate.of(2020, 10, 5))
+        );
+
+        ProductGroupCalendarState state = findState();
+        AvailabilityCalendar calendar = state.toCalendar();
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(2, state.getVersion()),
+                () -> Assertions.assertFalse(calendar.isFree(LocalDate.of(2020, 10, 3))),
+                () -> Assertions.assertFalse(calendar.isFree(LocalDate.of(2020, 10, 6))),
+                () -> Assertions.assertTrue(calendar.isFree(LocalDate.of(2020, 10, 7), LocalDate.of(2020, 10, 31)))
+        );
+    }
+
+    @Test
+    @DisplayName("測試多人同時租借同一期間只有一人成功")
+    void testConcurrentBook() throws Exception {
+        LocalDate from = LocalDate.of(2020, 10, 10);
+        LocalDate to = LocalDate.of(2020, 10, 12);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            List<Future<Boolean>> futureList = new ArrayList<>(RENTER_COUNT);
+            for (int i = 0; i < RENTER_COUNT; i++) {
+                futureList.add(executorService.submit(() -> {
+                    startLatch.await();
+                    try {
+                        book(from, to);
+                        return true;
+                    } catch (ProductGroupAlreadyRentedException e) {
+                        return false;
+                    }
+                }));
+            }
+            startLatch.countDown();
+
+            int successCount = 0;
+            for (Future<Boolean> future : futureList) {
+                // 其他例外(如鎖定逾時)會在此拋出使測試失敗
+                if (future.get(30, TimeUnit.SECONDS)) {
+                    successCount++;
+                }
+            }
+            Assertions.assertEquals(1, successCount);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        ProductGroupCalendarState state = findState();
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(1, state.getVersion()),
+                () -> Assertions.assertFalse(state.toCalendar().isFree(from)),
+                () -> Assertions.assertFalse(state.toCalendar().isFree(to)),
+                () -> Assertions.assertTrue(state.toCalendar().isFree(from.minusDays(1))),
+                () -> Assertions.assertTrue(state.toCalendar().isFree(to.plusDays(1)))
+        );
+    }
+}
@@ -0,0 +1,86 @@
+package tw.edu.ntub.imd.camping.catalog;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tw.edu.ntub.imd.camping.annotation.DAOTest;
+import tw.edu.ntub.imd.camping.databaseconfig.Config;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.CityDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.ProductTypeDAO;
+
+import javax.persistence.EntityManagerFactory;
+
+@DAOTest
+@Import(ReferenceDataCache.class)
+// 與正式環境相同不在交易中查詢，需使用具名的資料庫讓連線池中的所有連線共用
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:reference;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false;INIT=CREATE SCHEMA IF NOT EXISTS camping")
+@DisplayName("測試ReferenceDataCache")
+public class ReferenceDataCacheTest {
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    @Autowired
+    private CityDAO cityDAO;
+    @Autowired
+    private ProductTypeDAO typeDAO;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // 直接寫入資料表，不經過Hibernate，快取不會自動更新
+        jdbcTemplate.update("INSERT INTO camping.city (name, area_name, enable) VALUES ('臺北市', '中正區', TRUE)");
+        jdbcTemplate.update("INSERT INTO camping.city (name, area_name, enable) VALUES ('臺北市', '大安區', TRUE)");
+        jdbcTemplate.update("INSERT INTO camping.city (name, area_name, enable) VALUES ('宜蘭縣', '宜蘭市', FALSE)");
+        jdbcTemplate.update("INSERT INTO camping.product_type (name, enable) VALUES ('帳篷', TRUE)");
+        referenceDataCache.evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM camping.city");
+        jdbcTemplate.update("DELETE FROM camping.product_type");
+        referenceDataCache.evictAll();
+    }
+
+    @Test
+    @DisplayName("第二次查詢由快取取得，不執行任何SQL")
+    void testHit() {
+        Assertions.assertEquals(2, cityDAO.findByEnableIsTrue().size());
+        Assertions.assertEquals(1, typeDAO.findByEnableIsTrue().size());
+        long hitCount = referenceDataCache.getHitCount(Config.REFERENCE_QUERY_CACHE_REGION);
+        long statementCount = statistics.getPrepareStatementCount();
+
+        Assertions.assertEquals(2, cityDAO.findByEnableIsTrue().size());
+        Assertions.assertEquals(1, typeDAO.findByEnableIsTrue().size());
+
+        Assertions.assertEquals(statementCount, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(hitCount + 2, referenceDataCache.getHitCount(Config.REFERENCE_QUERY_CACHE_REGION));
+    }
+
+    @Test
+    @DisplayName("直接修改資料表後，清除快取才會讀到新的資料")
+    void testEvict() {
+        Assertions.assertEquals(2, cityDAO.findByEnableIsTrue().size());
+        jdbcTemplate.update("UPDATE camping.city SET enable = TRUE WHERE name = '宜蘭縣'");
+
+        Assertions.assertEquals(2, cityDAO.findByEnableIsTrue().size());
+
+        referenceDataCache.evictCity();
+        Assertions.assertEquals(3, cityDAO.findByEnableIsTrue().size());
+    }
+}
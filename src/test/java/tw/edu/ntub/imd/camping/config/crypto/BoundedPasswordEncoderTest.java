@@ -0,0 +1,54 @@
+package tw.edu.ntub.imd.camping.config.crypto;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import tw.edu.ntub.imd.camping.config.exception.PasswordEncoderBusyException;
+
+@DisplayName("測試BoundedPasswordEncoder")
+public class BoundedPasswordEncoderTest {
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @AfterEach
+    public void tearDown() {
+        passwordEncoder.shutdown();
+    }
+
+    @Test
+    @DisplayName("雜湊結果與BCryptPasswordEncoder相容")
+    public void testCompatibleWithBCrypt() {
+        passwordEncoder = new BoundedPasswordEncoder(4, 1, 1, 5000);
+
+        String encoded = passwordEncoder.encode("password");
+
+        Assertions.assertTrue(passwordEncoder.matches("password", encoded));
+        Assertions.assertFalse(passwordEncoder.matches("wrong", encoded));
+        Assertions.assertTrue(new BCryptPasswordEncoder(4).matches("password", encoded));
+        Assertions.assertTrue(passwordEncoder.matches("password", new BCryptPasswordEncoder(5).encode("password")));
+    }
+
+    @Test
+    @DisplayName("cost不同時需要重新雜湊")
+    public void testUpgradeEncoding() {
+        passwordEncoder = new BoundedPasswordEncoder(5, 1, 1, 5000);
+
+        Assertions.assertFalse(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("password")));
+        Assertions.assertTrue(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password")));
+        Assertions.assertTrue(passwordEncoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("password")));
+        Assertions.assertFalse(passwordEncoder.upgradeEncoding(null));
+    }
+
+    @Test
+    @DisplayName("超過等待時間時拋出PasswordEncoderBusyException")
+    public void testWaitTimeout() {
+        passwordEncoder = new BoundedPasswordEncoder(12, 1, 1, 1);
+
+        PasswordEncoderBusyException exception = Assertions.assertThrows(
+                PasswordEncoderBusyException.class,
+                () -> passwordEncoder.encode("password")
+        );
+        Assertions.assertEquals(PasswordEncoderBusyException.ERROR_CODE, exception.getErrorCode());
+    }
+}
@@ -0,0 +1,54 @@
+package tw.edu.ntub.imd.camping.config.limiter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tw.edu.ntub.imd.camping.config.exception.LoginRejectedException;
+
+@DisplayName("測試LoginAttemptLimiter")
+public class LoginAttemptLimiterTest {
+
+    @Test
+    @DisplayName("同一帳號失敗超過次數後拒絕，成功登入後重新計算")
+    public void testAccountFailures() {
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(3, 100, 300);
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("test", "127.0.0.1");
+            limiter.recordFailure("test");
+        }
+
+        LoginRejectedException exception = Assertions.assertThrows(
+                LoginRejectedException.class,
+                () -> limiter.acquire("test", "127.0.0.2")
+        );
+        Assertions.assertEquals(429, exception.getStatus());
+        Assertions.assertEquals(LoginRejectedException.TOO_MANY_ATTEMPTS_ERROR_CODE, exception.getErrorCode());
+        Assertions.assertDoesNotThrow(() -> limiter.acquire("other", "127.0.0.1"));
+
+        limiter.recordSuccess("test");
+        Assertions.assertDoesNotThrow(() -> limiter.acquire("test", "127.0.0.1"));
+    }
+
+    @Test
+    @DisplayName("同一IP嘗試超過次數後拒絕")
+    public void testIpAttempts() {
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(100, 3, 300);
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("account" + i, "127.0.0.1");
+        }
+
+        Assertions.assertThrows(LoginRejectedException.class, () -> limiter.acquire("account", "127.0.0.1"));
+        Assertions.assertDoesNotThrow(() -> limiter.acquire("account", "127.0.0.2"));
+        Assertions.assertDoesNotThrow(() -> limiter.acquire("account", null));
+    }
+
+    @Test
+    @DisplayName("超過區間後重新計算")
+    public void testWindowExpired() {
+        LoginAttemptLimiter limiter = new LoginAttemptLimiter(1, 100, 0);
+        limiter.acquire("test", "127.0.0.1");
+        limiter.recordFailure("test");
+
+        Assertions.assertDoesNotThrow(() -> limiter.acquire("test", "127.0.0.1"));
+    }
+}
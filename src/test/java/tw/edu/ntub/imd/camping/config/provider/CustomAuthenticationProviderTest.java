@@ -0,0 +1,80 @@
+package tw.edu.ntub.imd.camping.config.provider;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import tw.edu.ntub.imd.camping.config.limiter.LoginAttemptLimiter;
+
+@DisplayName("測試CustomAuthenticationProvider")
+public class CustomAuthenticationProviderTest {
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(5);
+    private String oldCostPassword;
+    private String updatedPassword;
+    private boolean updateFailed;
+    private CustomAuthenticationProvider provider;
+
+    private class UserDetailsServiceStub implements UserDetailsService, UserDetailsPasswordService {
+
+        @Override
+        public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+            return User.withUsername(username)
+                    .password(oldCostPassword)
+                    .roles("USER")
+                    .build();
+        }
+
+        @Override
+        public UserDetails updatePassword(UserDetails user, String newPassword) {
+            if (updateFailed) {
+                throw new IllegalStateException("資料庫錯誤");
+            }
+            updatedPassword = newPassword;
+            return User.withUserDetails(user).password(newPassword).build();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        // 調整cost前(4)產生的雜湊
+        oldCostPassword = new BCryptPasswordEncoder(4).encode("password");
+        updatedPassword = null;
+        updateFailed = false;
+        provider = new CustomAuthenticationProvider(
+                new UserDetailsServiceStub(),
+                passwordEncoder,
+                new LoginAttemptLimiter(5, 100, 300)
+        );
+    }
+
+    @Test
+    @DisplayName("以舊cost的雜湊登入成功後，以新的cost重新雜湊")
+    void testUpgradePassword() {
+        Authentication result = provider.authenticate(new UsernamePasswordAuthenticationToken("test", "password"));
+
+        Assertions.assertTrue(result.isAuthenticated());
+        Assertions.assertNotNull(updatedPassword);
+        Assertions.assertFalse(passwordEncoder.upgradeEncoding(updatedPassword));
+        Assertions.assertTrue(passwordEncoder.matches("password", updatedPassword));
+        Assertions.assertEquals(updatedPassword, ((UserDetails) result.getPrincipal()).getPassword());
+    }
+
+    @Test
+    @DisplayName("重新雜湊失敗時仍可登入，保留原本的雜湊")
+    void testUpgradePasswordFailed() {
+        updateFailed = true;
+
+        Authentication result = provider.authenticate(new UsernamePasswordAuthenticationToken("test", "password"));
+
+        Assertions.assertTrue(result.isAuthenticated());
+        Assertions.assertEquals(oldCostPassword, ((UserDetails) result.getPrincipal()).getPassword());
+    }
+}
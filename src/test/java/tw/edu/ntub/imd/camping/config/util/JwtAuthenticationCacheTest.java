@@ -0,0 +1,127 @@
+package tw.edu.ntub.imd.camping.config.util;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.security.core.Authentication;
+
+import java.util.Date;
+import java.util.List;
+
+@DisplayName("測試JwtAuthenticationCache")
+public class JwtAuthenticationCacheTest {
+    private static final String SECRET = "secret";
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    public void setUp() {
+        jwtUtils = Mockito.spy(new JwtUtils(SECRET));
+    }
+
+    private String createToken(String account, Date issuedAt, Date expiration) {
+        return Jwts.builder()
+                .setSubject("Login")
+                .setIssuer(account)
+                .setIssuedAt(issuedAt)
+                .setExpiration(expiration)
+                .claim("roles", List.of("ROLE_USER"))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+    }
+
+    private String createToken(String account) {
+        return createToken(account, new Date(), null);
+    }
+
+    private void assertParseCount(int expected) {
+        Mockito.verify(jwtUtils, Mockito.times(expected)).parseClaims(ArgumentMatchers.anyString());
+    }
+
+    @Test
+    @DisplayName("相同Token只驗證一次簽章，每次回傳新的Authentication")
+    public void testHit() {
+        JwtAuthenticationCache cache = new JwtAuthenticationCache(jwtUtils, 10, 1800);
+        String token = createToken("test");
+
+        Authentication first = cache.getAuthentication(token);
+        Authentication second = cache.getAuthentication(token);
+
+        assertParseCount(1);
+        Assertions.assertNotSame(first, second);
+        Assertions.assertEquals("test", second.getName());
+        Assertions.assertTrue(second.isAuthenticated());
+    }
+
+    @Test
+    @DisplayName("超過保留時間後重新驗證簽章")
+    public void testTtlExpired() {
+        JwtAuthenticationCache cache = new JwtAuthenticationCache(jwtUtils, 10, 0);
+        String token = createToken("test");
+
+        cache.getAuthentication(token);
+        cache.getAuthentication(token);
+
+        assertParseCount(2);
+    }
+
+    @Test
+    @DisplayName("保留時間未到但Token已超過exp時，重新驗證並拒絕")
+    public void testTokenExpired() throws InterruptedException {
+        JwtAuthenticationCache cache = new JwtAuthenticationCache(jwtUtils, 10, 1800);
+        Date expiration = new Date(System.currentTimeMillis() + 1000);
+        String token = createToken("test", new Date(), expiration);
+        cache.getAuthentication(token);
+
+        while (System.currentTimeMillis() <= expiration.getTime()) {
+            Thread.sleep(50);
+        }
+
+        Assertions.assertThrows(ExpiredJwtException.class, () -> cache.getAuthentication(token));
+        assertParseCount(2);
+    }
+
+    @Test
+    @DisplayName("保留時間從簽發時間起算，簽發超過保留時間的Token不快取")
+    public void testIssuedBeforeTtl() {
+        JwtAuthenticationCache cache = new JwtAuthenticationCache(jwtUtils, 10, 1800);
+        String token = createToken("test", new Date(System.currentTimeMillis() - 3_600_000), null);
+
+        cache.getAuthentication(token);
+        cache.getAuthentication(token);
+
+        Assertions.assertEquals(0, cache.size());
+        assertParseCount(2);
+    }
+
+    @Test
+    @DisplayName("超過最大筆數時移除舊的Token，不超過上限")
+    public void testMaxSize() {
+        JwtAuthenticationCache cache = new JwtAuthenticationCache(jwtUtils, 2, 1800);
+
+        for (int i = 0; i < 5; i++) {
+            cache.getAuthentication(createToken("test" + i));
+            Assertions.assertTrue(cache.size() <= 2);
+        }
+
+        Assertions.assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("最大筆數為0時停用快取，每次都驗證簽章")
+    public void testDisabled() {
+        JwtAuthenticationCache cache = new JwtAuthenticationCache(jwtUtils, 0, 1800);
+        String token = createToken("test");
+
+        cache.getAuthentication(token);
+        cache.getAuthentication(token);
+
+        Assertions.assertEquals(0, cache.size());
+        assertParseCount(2);
+    }
+}
@@ -0,0 +1,82 @@
+package tw.edu.ntub.imd.camping.config.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+@DisplayName("測試UserDetailsCache")
+public class UserDetailsCacheTest {
+    private final AtomicInteger loadCount = new AtomicInteger();
+    private final Function<String, UserDetails> loader = account -> {
+        loadCount.incrementAndGet();
+        if ("notFound".equals(account)) {
+            throw new UsernameNotFoundException("請檢查帳號密碼是否錯誤");
+        }
+        return User.builder()
+                .username(account)
+                .password("encoded" + loadCount.get())
+                .authorities("ROLE_USER")
+                .build();
+    };
+
+    @Test
+    @DisplayName("相同帳號只查詢一次，清除密碼不影響快取")
+    public void testHit() {
+        UserDetailsCache cache = new UserDetailsCache(10, 600);
+
+        UserDetails first = cache.get("test", loader);
+        ((CredentialsContainer) first).eraseCredentials();
+        UserDetails second = cache.get("test", loader);
+
+        Assertions.assertEquals(1, loadCount.get());
+        Assertions.assertNotSame(first, second);
+        Assertions.assertEquals("encoded1", second.getPassword());
+    }
+
+    @Test
+    @DisplayName("evict後重新查詢")
+    public void testEvict() {
+        UserDetailsCache cache = new UserDetailsCache(10, 600);
+
+        cache.get("test", loader);
+        cache.evict("test");
+        UserDetails reloaded = cache.get("test", loader);
+
+        Assertions.assertEquals(2, loadCount.get());
+        Assertions.assertEquals("encoded2", reloaded.getPassword());
+    }
+
+    @Test
+    @DisplayName("查無此帳號不快取")
+    public void testNotFound() {
+        UserDetailsCache cache = new UserDetailsCache(10, 600);
+
+        Assertions.assertThrows(UsernameNotFoundException.class, () -> cache.get("notFound", loader));
+        Assertions.assertThrows(UsernameNotFoundException.class, () -> cache.get("notFound", loader));
+        Assertions.assertEquals(2, loadCount.get());
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("超過上限時移除舊資料，max-size為0時停用")
+    public void testMaxSize() {
+        UserDetailsCache cache = new UserDetailsCache(2, 600);
+        cache.get("a", loader);
+        cache.get("b", loader);
+        cache.get("c", loader);
+        Assertions.assertEquals(2, cache.size());
+
+        UserDetailsCache disabledCache = new UserDetailsCache(0, 600);
+        disabledCache.get("a", loader);
+        disabledCache.get("a", loader);
+        Assertions.assertEquals(0, disabledCache.size());
+        Assertions.assertEquals(5, loadCount.get());
+    }
+}
@@ -0,0 +1,137 @@
+package tw.edu.ntub.imd.camping.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import tw.edu.ntub.imd.camping.TestApplication;
+import tw.edu.ntub.imd.camping.config.properties.FileProperties;
+import tw.edu.ntub.imd.camping.config.util.JwtAuthenticationCache;
+import tw.edu.ntub.imd.camping.config.util.JwtUtils;
+import tw.edu.ntub.imd.camping.enumerate.ContentType;
+import tw.edu.ntub.imd.camping.enumerate.HttpMethod;
+import tw.edu.ntub.imd.camping.request.SpringMockRequestFactory;
+import tw.edu.ntub.imd.camping.request.Status;
+import tw.edu.ntub.imd.camping.service.CityService;
+import tw.edu.ntub.imd.camping.service.ProductGroupService;
+import tw.edu.ntub.imd.camping.service.RentalRecordService;
+
+import java.util.List;
+
+@WebMvcTest(controllers = {RentalRecordController.class, ProductGroupController.class})
+@ContextConfiguration(classes = TestApplication.class)
+@Import({FileProperties.class, JwtUtils.class, JwtAuthenticationCache.class})
+@DisplayName("測試JWT延遲驗證")
+public class JwtAuthenticationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtAuthenticationCache jwtAuthenticationCache;
+    @SpyBean
+    private JwtUtils jwtUtils;
+    @MockBean
+    private UserDetailsService userDetailsService;
+    @MockBean
+    private RentalRecordService rentalRecordService;
+    @MockBean
+    private ProductGroupService productGroupService;
+    @MockBean
+    private CityService cityService;
+
+    @BeforeEach
+    public void setUp() {
+        jwtAuthenticationCache.evictAll();
+    }
+
+    private String createToken() {
+        return "Bearer " + jwtUtils.getToken(new User("test", "", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    @Test
+    @DisplayName("需要登入的請求沒有Token時回傳401")
+    public void testProtectedWithoutToken() throws Exception {
+        SpringMockRequestFactory.getInstance(mockMvc)
+                .create("/rental", HttpMethod.GET)
+                .send()
+                .assertStatusEquals(Status.UNAUTHORIZED)
+                .assertContentTypeEquals(ContentType.JSON)
+                .assertBodyValueEquals("$.result", false)
+                .assertBodyValueEquals("$.errorCode", "User - NotLogin");
+        Mockito.verify(rentalRecordService, Mockito.never()).searchByRenterAccount(Mockito.anyString());
+    }
+
+    @Test
+    @DisplayName("需要登入的請求Token無效時回傳401")
+    public void testProtectedWithInvalidToken() throws Exception {
+        SpringMockRequestFactory.getInstance(mockMvc)
+                .create("/rental", HttpMethod.GET)
+                .addHeader("Authorization", "Bearer invalid.token.value")
+                .send()
+                .assertStatusEquals(Status.UNAUTHORIZED)
+                .assertContentTypeEquals(ContentType.JSON)
+                .assertBodyValueEquals("$.result", false)
+                .assertBodyValueEquals("$.errorCode", "User - NotLogin");
+        Mockito.verify(rentalRecordService, Mockito.never()).searchByRenterAccount(Mockito.anyString());
+    }
+
+    @Test
+    @DisplayName("需要登入的請求Token有效時使用Token中的帳號")
+    public void testProtectedWithValidToken() throws Exception {
+        String token = createToken();
+        SpringMockRequestFactory.getInstance(mockMvc)
+                .create("/rental", HttpMethod.GET)
+                .addHeader("Authorization", token)
+                .send()
+                .assertStatusEquals(Status.OK)
+                .assertBodyValueEquals("$.result", true);
+        Mockito.verify(rentalRecordService).searchByRenterAccount("test");
+        Mockito.verify(jwtUtils, Mockito.times(1)).parseClaims(Mockito.anyString());
+    }
+
+    @Test
+    @DisplayName("不需登入且不使用帳號的請求不驗證Token")
+    public void testPermitAllNotVerifyToken() throws Exception {
+        String token = createToken();
+        SpringMockRequestFactory.getInstance(mockMvc)
+                .create("/product-group", HttpMethod.GET)
+                .addHeader("Authorization", token)
+                .send()
+                .assertStatusEquals(Status.OK)
+                .assertBodyValueEquals("$.result", true);
+        Mockito.verify(jwtUtils, Mockito.never()).parseClaims(Mockito.anyString());
+    }
+
+    @Test
+    @DisplayName("不需登入的請求取得帳號時才驗證Token")
+    public void testPermitAllVerifyTokenWhenAccountUsed() throws Exception {
+        String token = createToken();
+        SpringMockRequestFactory.getInstance(mockMvc)
+                .create("/rental/borrow", HttpMethod.GET)
+                .addHeader("Authorization", token)
+                .send()
+                .assertStatusEquals(Status.OK);
+        Mockito.verify(rentalRecordService).searchByProductGroupCreateAccount("test");
+        Mockito.verify(jwtUtils, Mockito.times(1)).parseClaims(Mockito.anyString());
+    }
+
+    @Test
+    @DisplayName("不需登入的請求Token無效時視為匿名使用者")
+    public void testPermitAllWithInvalidToken() throws Exception {
+        SpringMockRequestFactory.getInstance(mockMvc)
+                .create("/rental/borrow", HttpMethod.GET)
+                .addHeader("Authorization", "Bearer invalid.token.value")
+                .send()
+                .assertStatusEquals(Status.OK);
+        Mockito.verify(rentalRecordService).searchByProductGroupCreateAccount("anonymousUser");
+    }
+}
@@ -19,6 +19,7 @@ import tw.edu.ntub.birc.common.wrapper.date.DateWrapperImpl;
 import tw.edu.ntub.imd.camping.TestApplication;
 import tw.edu.ntub.imd.camping.bean.UserBean;
 import tw.edu.ntub.imd.camping.config.properties.FileProperties;
+import tw.edu.ntub.imd.camping.config.util.JwtAuthenticationCache;
 import tw.edu.ntub.imd.camping.config.util.JwtUtils;
 import tw.edu.ntub.imd.camping.databaseconfig.enumerate.Experience;
 import tw.edu.ntub.imd.camping.databaseconfig.enumerate.Gender;
@@ -45,6 +46,8 @@ public class UserControllerTest {
     private UserDetailsService userDetailsService;
     @MockBean
     private JwtUtils jwtUtils;
+    @MockBean
+    private JwtAuthenticationCache jwtAuthenticationCache;
 
     @Test
     @DisplayName("測試符合表單驗證的新增")
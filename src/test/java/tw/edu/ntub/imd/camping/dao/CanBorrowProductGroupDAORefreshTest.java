@@ -0,0 +1,144 @@
+package tw.edu.ntub.imd.camping.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import tw.edu.ntub.imd.camping.annotation.DAOTest;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.CanBorrowProductGroupDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroup;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.view.CanBorrowProductGroup;
+import tw.edu.ntub.imd.camping.util.CanBorrowProductGroupSourceUtils;
+import tw.edu.ntub.imd.camping.util.FixtureUtils;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@DAOTest
+@DisplayName("測試CanBorrowProductGroupDAO依來源資料重新計算")
+public class CanBorrowProductGroupDAORefreshTest {
+    private static final String OWNER_ACCOUNT = "owner";
+    @Autowired
+    private CanBorrowProductGroupDAO canBorrowProductGroupDAO;
+    @Autowired
+    private TestEntityManager testEntityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private int firstGroupId;
+    private int secondGroupId;
+
+    @BeforeEach
+    void setUp() {
+        // 只需要來源檢視表用到的使用者，不建立城市
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        CanBorrowProductGroupSourceUtils.createView(jdbcTemplate);
+        testEntityManager.persist(FixtureUtils.createUser(OWNER_ACCOUNT));
+        firstGroupId = testEntityManager.persistAndGetId(createGroup("商品群組1"), Integer.class);
+        secondGroupId = testEntityManager.persistAndGetId(createGroup("商品群組2"), Integer.class);
+        testEntityManager.flush();
+        testEntityManager.clear();
+        canBorrowProductGroupDAO.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+    }
+
+    private ProductGroup createGroup(String name) {
+        ProductGroup productGroup = FixtureUtils.createProductGroup(OWNER_ACCOUNT);
+        productGroup.setName(name);
+        return productGroup;
+    }
+
+    private CanBorrowProductGroup findTable(int groupId) {
+        testEntityManager.clear();
+        return canBorrowProductGroupDAO.findById(groupId).orElse(null);
+    }
+
+    private List<CanBorrowProductGroup> findAllTable() {
+        testEntityManager.clear();
+        return canBorrowProductGroupDAO.findAll()
+                .stream()
+                .sorted(Comparator.comparing(CanBorrowProductGroup::getId))
+                .collect(Collectors.toList());
+    }
+
+    private List<CanBorrowProductGroup> findAllSource() {
+        return canBorrowProductGroupDAO.searchAllFromSource()
+                .stream()
+                .sorted(Comparator.comparing(CanBorrowProductGroup::getId))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("rebuild後資料表與來源檢視表相同")
+    void testRebuild() {
+        Assertions.assertEquals(2, findAllTable().size());
+        Assertions.assertEquals(findAllSource(), findAllTable());
+    }
+
+    @Test
+    @WithMockUser(username = OWNER_ACCOUNT)
+    @DisplayName("修改商品群組後尚未flush也會重新計算，且只重新計算指定的商品群組")
+    void testRefreshByIdAfterGroupChange() {
+        testEntityManager.find(ProductGroup.class, firstGroupId).setName("修改後的名稱1");
+        testEntityManager.find(ProductGroup.class, secondGroupId).setName("修改後的名稱2");
+
+        canBorrowProductGroupDAO.refreshById(List.of(firstGroupId));
+
+        Assertions.assertEquals("修改後的名稱1", findTable(firstGroupId).getName());
+        Assertions.assertEquals("商品群組2", findTable(secondGroupId).getName());
+    }
+
+    @Test
+    @DisplayName("新增商品使商品類型遮罩改變後，重新計算遮罩")
+    void testRefreshByIdAfterProductChange() {
+        jdbcTemplate.update("UPDATE camping.product_group SET product_type_mask = ? WHERE id = ?", 0b110L, firstGroupId);
+
+        canBorrowProductGroupDAO.refreshById(List.of(firstGroupId));
+
+        Assertions.assertEquals(0b110L, findTable(firstGroupId).getProductTypeMask());
+    }
+
+    @Test
+    @DisplayName("租借使可租借日曆改變後，重新計算可租借日曆")
+    void testRefreshByIdAfterRentalChange() {
+        byte[] availableDayBitmap = {(byte) 0b11110011};
+        jdbcTemplate.update("UPDATE camping.product_group SET available_day_bitmap = ? WHERE id = ?", availableDayBitmap, firstGroupId);
+
+        canBorrowProductGroupDAO.refreshById(List.of(firstGroupId));
+
+        Assertions.assertArrayEquals(availableDayBitmap, findTable(firstGroupId).getAvailableDayBitmap());
+        Assertions.assertNull(findTable(secondGroupId).getAvailableDayBitmap());
+    }
+
+    @Test
+    @DisplayName("已不在來源檢視表的商品群組，重新計算時從資料表移除")
+    void testRefreshByIdRemoveDisabledGroup() {
+        jdbcTemplate.update("UPDATE camping.product_group SET enable = FALSE WHERE id = ?", firstGroupId);
+
+        canBorrowProductGroupDAO.refreshById(List.of(firstGroupId, secondGroupId));
+
+        Assertions.assertNull(findTable(firstGroupId));
+        Assertions.assertNotNull(findTable(secondGroupId));
+        Assertions.assertEquals(findAllSource(), findAllTable());
+    }
+
+    @Test
+    @DisplayName("沒有指定商品群組時不修改資料表")
+    void testRefreshByEmptyId() {
+        jdbcTemplate.update("UPDATE camping.product_group SET name = '修改後的名稱'");
+
+        canBorrowProductGroupDAO.refreshById(List.of());
+
+        Assertions.assertEquals("商品群組1", findTable(firstGroupId).getName());
+        Assertions.assertEquals("商品群組2", findTable(secondGroupId).getName());
+    }
+}
@@ -0,0 +1,59 @@
+package tw.edu.ntub.imd.camping.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import tw.edu.ntub.imd.camping.annotation.DAOTest;
+import tw.edu.ntub.imd.camping.bean.ProductGroupFilterDataBean;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.CanBorrowProductGroupDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.view.CanBorrowProductGroup;
+import tw.edu.ntub.imd.camping.util.CanBorrowProductGroupFixtureUtils;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@DAOTest
+@DisplayName("測試CanBorrowProductGroupDAO")
+public class CanBorrowProductGroupDAOTest {
+    @Autowired
+    private CanBorrowProductGroupDAO canBorrowProductGroupDAO;
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @BeforeEach
+    void setUp() {
+        // 測試只針對View的查詢，不建立商品群組等關聯資料
+        testEntityManager.getEntityManager().createNativeQuery("SET REFERENTIAL_INTEGRITY FALSE").executeUpdate();
+        CanBorrowProductGroupFixtureUtils.createRowList().forEach(testEntityManager::persist);
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        testEntityManager.getEntityManager().createNativeQuery("SET REFERENTIAL_INTEGRITY TRUE").executeUpdate();
+    }
+
+    @ParameterizedTest
+    @MethodSource("tw.edu.ntub.imd.camping.util.CanBorrowProductGroupFixtureUtils#filterDataStream")
+    @DisplayName("測試searchByFilter(CanBorrowProductGroupFilter)與記憶體內篩選結果相同")
+    void testSearchByFilter(ProductGroupFilterDataBean filterData) throws Exception {
+        List<Integer> expected = canBorrowProductGroupDAO.findAll()
+                .stream()
+                .filter(filterData::isMatch)
+                .map(CanBorrowProductGroup::getId)
+                .sorted()
+                .collect(Collectors.toList());
+        List<Integer> actual = canBorrowProductGroupDAO.searchByFilter(filterData.toFilter())
+                .stream()
+                .map(CanBorrowProductGroup::getId)
+                .sorted()
+                .collect(Collectors.toList());
+        Assertions.assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,91 @@
+package tw.edu.ntub.imd.camping.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import tw.edu.ntub.imd.camping.annotation.DAOTest;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.PaymentOutboxDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.PaymentOutbox;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.PaymentOutbox_;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.PaymentOutboxStatus;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.PaymentOutboxType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@DAOTest
+@DisplayName("測試PaymentOutboxDAO")
+public class PaymentOutboxDAOTest {
+    private static final String PAYEE_BANK_ACCOUNT = "1234567891234567";
+    private static final String REGISTERED_BANK_ACCOUNT = "9876543219876543";
+    @Autowired
+    private PaymentOutboxDAO outboxDAO;
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @BeforeEach
+    void setUp() {
+        // 只測試送出順序，不建立租借紀錄
+        testEntityManager.getEntityManager().createNativeQuery("SET REFERENTIAL_INTEGRITY FALSE").executeUpdate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        testEntityManager.getEntityManager().createNativeQuery("SET REFERENTIAL_INTEGRITY TRUE").executeUpdate();
+    }
+
+    private int persist(PaymentOutboxType type, String payeeBankAccount, PaymentOutboxStatus status) {
+        PaymentOutbox outbox = new PaymentOutbox();
+        outbox.setType(type);
+        outbox.setPayeeBankAccount(payeeBankAccount);
+        if (type == PaymentOutboxType.CREATE_TRANSACTION) {
+            outbox.setRentalRecordId(1);
+        }
+        outbox.setPayload("{}");
+        outbox.setStatus(status);
+        int id = testEntityManager.persistAndGetId(outbox, Integer.class);
+        testEntityManager.flush();
+        return id;
+    }
+
+    private List<Integer> findDispatchableId() {
+        testEntityManager.clear();
+        return outboxDAO.findDispatchable(LocalDateTime.now().plusMinutes(1), PageRequest.of(0, 50, Sort.by(PaymentOutbox_.ID)))
+                .stream()
+                .map(PaymentOutbox::getId)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("收款帳號還在建立中時，該帳號的交易先不送出")
+    void testWaitForBankAccount() {
+        int bankAccountId = persist(PaymentOutboxType.CREATE_BANK_ACCOUNT, PAYEE_BANK_ACCOUNT, PaymentOutboxStatus.PENDING);
+        int transactionId = persist(PaymentOutboxType.CREATE_TRANSACTION, PAYEE_BANK_ACCOUNT, PaymentOutboxStatus.PENDING);
+        int otherTransactionId = persist(PaymentOutboxType.CREATE_TRANSACTION, REGISTERED_BANK_ACCOUNT, PaymentOutboxStatus.PENDING);
+
+        Assertions.assertEquals(List.of(bankAccountId, otherTransactionId), findDispatchableId());
+
+        PaymentOutbox bankAccount = testEntityManager.find(PaymentOutbox.class, bankAccountId);
+        bankAccount.setStatus(PaymentOutboxStatus.SENT);
+        testEntityManager.flush();
+
+        Assertions.assertEquals(List.of(transactionId, otherTransactionId), findDispatchableId());
+    }
+
+    @Test
+    @DisplayName("只等待編號較小的建立帳號指令，已完成或失敗的指令不會擋住交易")
+    void testOnlyWaitForEarlierPendingBankAccount() {
+        persist(PaymentOutboxType.CREATE_BANK_ACCOUNT, PAYEE_BANK_ACCOUNT, PaymentOutboxStatus.FAILED);
+        int transactionId = persist(PaymentOutboxType.CREATE_TRANSACTION, PAYEE_BANK_ACCOUNT, PaymentOutboxStatus.PENDING);
+        int bankAccountId = persist(PaymentOutboxType.CREATE_BANK_ACCOUNT, PAYEE_BANK_ACCOUNT, PaymentOutboxStatus.PENDING);
+
+        Assertions.assertEquals(List.of(transactionId, bankAccountId), findDispatchableId());
+    }
+}
@@ -0,0 +1,137 @@
+package tw.edu.ntub.imd.camping.dao;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import tw.edu.ntub.imd.camping.annotation.DAOTest;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.ProductDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.ProductImageDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.Product;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroup;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductImage;
+import tw.edu.ntub.imd.camping.util.FixtureUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@DAOTest
+@DisplayName("測試ProductDAO")
+public class ProductDAOTest {
+    private static final int PRODUCT_COUNT = 10;
+    private static final int IMAGE_COUNT_PER_PRODUCT = 4;
+    @Autowired
+    private ProductDAO productDAO;
+    @Autowired
+    private ProductImageDAO imageDAO;
+    @Autowired
+    private TestEntityManager testEntityManager;
+    private Statistics statistics;
+    private int groupId;
+
+    @BeforeEach
+    void setUp() {
+        // 只測試新增商品與圖片，不建立使用者、城市、商品類型
+        testEntityManager.getEntityManager().createNativeQuery("SET REFERENTIAL_INTEGRITY FALSE").executeUpdate();
+        statistics = testEntityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        ProductGroup productGroup = FixtureUtils.createProductGroup("owner");
+        groupId = testEntityManager.persistAndGetId(productGroup, Integer.class);
+        testEntityManager.flush();
+    }
+
+    @AfterEach
+    void tearDown() {
+        testEntityManager.getEntityManager().createNativeQuery("SET REFERENTIAL_INTEGRITY TRUE").executeUpdate();
+    }
+
+    private Product createProduct(int index) {
+        Product product = new Product();
+        product.setGroupId(groupId);
+        product.setType(1);
+        product.setName("帳篷" + index);
+        product.setCount(1);
+        product.setAppearance("良好");
+        product.setBrokenCompensation("照價賠償");
+        product.setLastModifyAccount("owner");
+        return product;
+    }
+
+    private ProductImage createImage(int productId, int index) {
+        ProductImage productImage = new ProductImage();
+        productImage.setProductId(productId);
+        productImage.setUrl("image" + index + ".png");
+        return productImage;
+    }
+
+    @Test
+    @DisplayName("新增商品群組的商品與圖片時，每種資料表只取得一次編號並以一次batch新增")
+    void testSaveAllWithBatch() {
+        long statementCount = statistics.getPrepareStatementCount();
+        long insertCount = statistics.getEntityInsertCount();
+
+        // 與ProductGroupServiceImpl.save相同：先新增所有商品，再逐一新增各商品的圖片
+        List<Product> productList = new ArrayList<>();
+        for (int i = 0; i < PRODUCT_COUNT; i++) {
+            productList.add(createProduct(i));
+        }
+        List<Product> saveResultList = productDAO.saveAll(productList);
+        for (Product saveResult : saveResultList) {
+            List<ProductImage> imageList = new ArrayList<>();
+            for (int i = 0; i < IMAGE_COUNT_PER_PRODUCT; i++) {
+                imageList.add(createImage(saveResult.getId(), i));
+            }
+            imageDAO.saveAll(imageList);
+        }
+        testEntityManager.flush();
+
+        // 商品、圖片各一次取得編號 + 各一次batch INSERT
+        Assertions.assertEquals(4, statistics.getPrepareStatementCount() - statementCount);
+        Assertions.assertEquals(
+                PRODUCT_COUNT + PRODUCT_COUNT * IMAGE_COUNT_PER_PRODUCT,
+                statistics.getEntityInsertCount() - insertCount
+        );
+
+        testEntityManager.clear();
+        List<Integer> productIdList = saveResultList.stream().map(Product::getId).collect(Collectors.toList());
+        Assertions.assertEquals(PRODUCT_COUNT, productDAO.findAllById(productIdList).size());
+        Assertions.assertEquals(PRODUCT_COUNT, productDAO.findByGroupId(groupId).size());
+    }
+
+    @Test
+    @DisplayName("只更新有值的欄位，且不更新其他人的商品")
+    void testPatchAll() {
+        List<Product> saveResultList = productDAO.saveAll(List.of(createProduct(0), createProduct(1)));
+        testEntityManager.flush();
+        int firstId = saveResultList.get(0).getId();
+        int secondId = saveResultList.get(1).getId();
+        Product renamed = new Product();
+        renamed.setId(firstId);
+        renamed.setName("炊事帳");
+        Product recounted = new Product();
+        recounted.setId(secondId);
+        recounted.setCount(3);
+
+        Assertions.assertEquals(0, productDAO.patchAll(List.of(renamed, recounted), "other"));
+        Assertions.assertEquals(2, productDAO.patchAll(List.of(renamed, recounted), "owner"));
+
+        // 更新前已載入的商品會被移出，不需clear即可讀到更新後的內容
+        Product first = productDAO.findById(firstId).orElseThrow();
+        Product second = productDAO.findById(secondId).orElseThrow();
+        Assertions.assertAll(
+                () -> Assertions.assertEquals("炊事帳", first.getName()),
+                () -> Assertions.assertEquals(1, first.getCount()),
+                () -> Assertions.assertEquals("帳篷1", second.getName()),
+                () -> Assertions.assertEquals(3, second.getCount()),
+                () -> Assertions.assertEquals("照價賠償", second.getBrokenCompensation())
+        );
+    }
+}
@@ -0,0 +1,81 @@
+package tw.edu.ntub.imd.camping.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import tw.edu.ntub.imd.camping.annotation.DAOTest;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.ProductGroupCommentDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroupComment;
+import tw.edu.ntub.imd.camping.util.ConstraintViolationUtils;
+import tw.edu.ntub.imd.camping.util.FixtureUtils;
+
+@DAOTest
+@DisplayName("測試ProductGroupCommentDAO")
+public class ProductGroupCommentDAOTest {
+    @Autowired
+    private ProductGroupCommentDAO commentDAO;
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @BeforeEach
+    void setUp() {
+        // 只測試評價本身的唯一限制，不建立商品群組、使用者
+        testEntityManager.getEntityManager().createNativeQuery("SET REFERENTIAL_INTEGRITY FALSE").executeUpdate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        testEntityManager.getEntityManager().createNativeQuery("SET REFERENTIAL_INTEGRITY TRUE").executeUpdate();
+    }
+
+    private ProductGroupComment createComment(int groupId, String commentAccount) {
+        ProductGroupComment result = new ProductGroupComment();
+        result.setGroupId(groupId);
+        result.setComment((byte) 5);
+        result.setCommentAccount(commentAccount);
+        return result;
+    }
+
+    @Test
+    @DisplayName("測試不同使用者可評價同一個商品群組")
+    void testSaveDifferentCommentAccount() {
+        commentDAO.saveAndFlush(createComment(1, "account1"));
+        Assertions.assertDoesNotThrow(() -> commentDAO.saveAndFlush(createComment(1, "account2")));
+    }
+
+    @Test
+    @DisplayName("測試同一個使用者重複評價同一個商品群組時由唯一限制擋下")
+    void testSaveDuplicateComment() {
+        commentDAO.saveAndFlush(createComment(1, "account1"));
+        DataIntegrityViolationException exception = Assertions.assertThrows(
+                DataIntegrityViolationException.class,
+                () -> commentDAO.saveAndFlush(createComment(1, "account1"))
+        );
+        Assertions.assertTrue(ConstraintViolationUtils.isViolated(
+                exception,
+                ProductGroupComment.UNIQUE_GROUP_ID_COMMENT_ACCOUNT
+        ));
+    }
+
+    @Test
+    @DisplayName("測試評價不存在的商品群組時由外鍵限制擋下")
+    void testSaveCommentWithoutGroup() {
+        testEntityManager.persistAndFlush(FixtureUtils.createUser("account1"));
+        testEntityManager.getEntityManager().createNativeQuery("SET REFERENTIAL_INTEGRITY TRUE").executeUpdate();
+
+        DataIntegrityViolationException exception = Assertions.assertThrows(
+                DataIntegrityViolationException.class,
+                () -> commentDAO.saveAndFlush(createComment(1, "account1"))
+        );
+        Assertions.assertTrue(ConstraintViolationUtils.isViolated(exception, ProductGroupComment.FK_GROUP_ID));
+        Assertions.assertFalse(ConstraintViolationUtils.isViolated(
+                exception,
+                ProductGroupComment.UNIQUE_GROUP_ID_COMMENT_ACCOUNT
+        ));
+    }
+}
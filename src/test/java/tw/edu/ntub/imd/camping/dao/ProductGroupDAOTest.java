@@ -0,0 +1,55 @@
+package tw.edu.ntub.imd.camping.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.security.test.context.support.WithMockUser;
+import tw.edu.ntub.imd.camping.annotation.DAOTest;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.ProductGroupDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroup;
+import tw.edu.ntub.imd.camping.util.FixtureUtils;
+
+@DAOTest
+@DisplayName("測試ProductGroupDAO")
+public class ProductGroupDAOTest {
+    @Autowired
+    private ProductGroupDAO groupDAO;
+    @Autowired
+    private TestEntityManager testEntityManager;
+    private int groupId;
+
+    @BeforeEach
+    void setUp() {
+        // 只測試商品類型遮罩，不建立使用者、城市
+        testEntityManager.getEntityManager().createNativeQuery("SET REFERENTIAL_INTEGRITY FALSE").executeUpdate();
+        ProductGroup productGroup = FixtureUtils.createProductGroup("owner");
+        groupId = testEntityManager.persistAndGetId(productGroup, Integer.class);
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        testEntityManager.getEntityManager().createNativeQuery("SET REFERENTIAL_INTEGRITY TRUE").executeUpdate();
+    }
+
+    @Test
+    @WithMockUser(username = "owner")
+    @DisplayName("更新遮罩前已載入並修改的商品群組，之後flush時不會以舊的遮罩覆蓋")
+    void testUpdateProductTypeMaskWithLoadedGroup() {
+        ProductGroup productGroup = groupDAO.findById(groupId).orElseThrow();
+        productGroup.setName("修改後的名稱");
+
+        groupDAO.updateProductTypeMaskById(groupId, 0b110L);
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        ProductGroup result = testEntityManager.find(ProductGroup.class, groupId);
+        Assertions.assertEquals(0b110L, result.getProductTypeMask());
+        Assertions.assertEquals("修改後的名稱", result.getName());
+    }
+}
@@ -0,0 +1,83 @@
+package tw.edu.ntub.imd.camping.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import tw.edu.ntub.imd.camping.annotation.DAOTest;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.RentalRecordCancelDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroup;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.RentalRecord;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.RentalRecordCancel;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.RentalRecordCancelStatus;
+import tw.edu.ntub.imd.camping.util.FixtureUtils;
+
+import java.time.LocalDateTime;
+
+@DAOTest
+@DisplayName("測試RentalRecordCancelDAO")
+public class RentalRecordCancelDAOTest {
+    private static final String RENTER_ACCOUNT = "renter";
+    private static final String OWNER_ACCOUNT = "owner";
+    @Autowired
+    private RentalRecordCancelDAO cancelDAO;
+    @Autowired
+    private TestEntityManager testEntityManager;
+    private int recordId;
+    private int cancelId;
+
+    @BeforeEach
+    void setUp() {
+        // 只測試取消請求的回應，不建立使用者、城市
+        testEntityManager.getEntityManager().createNativeQuery("SET REFERENTIAL_INTEGRITY FALSE").executeUpdate();
+        ProductGroup productGroup = FixtureUtils.createProductGroup(OWNER_ACCOUNT);
+        testEntityManager.persist(productGroup);
+        RentalRecord rentalRecord = FixtureUtils.createRentalRecord(productGroup.getId(), RENTER_ACCOUNT);
+        recordId = testEntityManager.persistAndGetId(rentalRecord, Integer.class);
+        // 出租人提出取消，等待租借人同意
+        RentalRecordCancel rentalRecordCancel = new RentalRecordCancel();
+        rentalRecordCancel.setRecordId(recordId);
+        rentalRecordCancel.setStatus(RentalRecordCancelStatus.WAIT_RENTER_AGREE);
+        rentalRecordCancel.setCancelDetail("無法出借");
+        rentalRecordCancel.setProductOwnerAgreeDate(LocalDateTime.now());
+        rentalRecordCancel.setRenterAgreeDate(LocalDateTime.now());
+        rentalRecordCancel.setCreateAccount(OWNER_ACCOUNT);
+        rentalRecordCancel.setLastModifyAccount(OWNER_ACCOUNT);
+        cancelId = testEntityManager.persistAndGetId(rentalRecordCancel, Integer.class);
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        testEntityManager.getEntityManager().createNativeQuery("SET REFERENTIAL_INTEGRITY TRUE").executeUpdate();
+    }
+
+    private RentalRecordCancelStatus findStatus() {
+        testEntityManager.clear();
+        return testEntityManager.find(RentalRecordCancel.class, cancelId).getStatus();
+    }
+
+    @Test
+    @DisplayName("測試只有被請求的一方可同意取消")
+    void testUpdateStatusToCancelSuccess() {
+        Assertions.assertEquals(0, cancelDAO.updateStatusToCancelSuccess(recordId, OWNER_ACCOUNT));
+        Assertions.assertEquals(0, cancelDAO.updateStatusToCancelSuccess(recordId, "other"));
+        Assertions.assertEquals(RentalRecordCancelStatus.WAIT_RENTER_AGREE, findStatus());
+
+        Assertions.assertEquals(1, cancelDAO.updateStatusToCancelSuccess(recordId, RENTER_ACCOUNT));
+        Assertions.assertEquals(RentalRecordCancelStatus.CANCEL_SUCCESS, findStatus());
+    }
+
+    @Test
+    @DisplayName("測試已回應的取消請求不能再拒絕")
+    void testUpdateStatusToCancelDenied() {
+        Assertions.assertEquals(1, cancelDAO.updateStatusToCancelDenied(recordId, "已取貨", RENTER_ACCOUNT));
+        Assertions.assertEquals(0, cancelDAO.updateStatusToCancelDenied(recordId, "已取貨", RENTER_ACCOUNT));
+        Assertions.assertEquals(0, cancelDAO.updateStatusToCancelSuccess(recordId, RENTER_ACCOUNT));
+        Assertions.assertEquals(RentalRecordCancelStatus.CANCEL_DENIED, findStatus());
+    }
+}
@@ -0,0 +1,93 @@
+package tw.edu.ntub.imd.camping.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import tw.edu.ntub.imd.camping.annotation.DAOTest;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.RentalRecordDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroup;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.RentalRecord;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.RentalRecordStatus;
+import tw.edu.ntub.imd.camping.util.FixtureUtils;
+
+@DAOTest
+@DisplayName("測試RentalRecordDAO")
+public class RentalRecordDAOTest {
+    private static final String RENTER_ACCOUNT = "renter";
+    private static final String OWNER_ACCOUNT = "owner";
+    @Autowired
+    private RentalRecordDAO recordDAO;
+    @Autowired
+    private TestEntityManager testEntityManager;
+    private int recordId;
+
+    @BeforeEach
+    void setUp() {
+        // 只測試租借紀錄的狀態轉換，不建立使用者、城市
+        testEntityManager.getEntityManager().createNativeQuery("SET REFERENTIAL_INTEGRITY FALSE").executeUpdate();
+        ProductGroup productGroup = FixtureUtils.createProductGroup(OWNER_ACCOUNT);
+        testEntityManager.persist(productGroup);
+        RentalRecord rentalRecord = FixtureUtils.createRentalRecord(productGroup.getId(), RENTER_ACCOUNT);
+        recordId = testEntityManager.persistAndGetId(rentalRecord, Integer.class);
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        testEntityManager.getEntityManager().createNativeQuery("SET REFERENTIAL_INTEGRITY TRUE").executeUpdate();
+    }
+
+    private RentalRecord findRecord() {
+        testEntityManager.clear();
+        return testEntityManager.find(RentalRecord.class, recordId);
+    }
+
+    @Test
+    @DisplayName("測試租借人與出租人都可更新至下一個狀態，並寫入對應的時間")
+    void testUpdateStatusToNext() {
+        Assertions.assertEquals(1, recordDAO.updateStatusToNext(
+                recordId, RentalRecordStatus.NOT_PICK_UP, RentalRecordStatus.NOT_RETURN, RENTER_ACCOUNT
+        ));
+        RentalRecord pickedUp = findRecord();
+        Assertions.assertEquals(1, recordDAO.updateStatusToNext(
+                recordId, RentalRecordStatus.NOT_RETURN, RentalRecordStatus.RETRIEVE, OWNER_ACCOUNT
+        ));
+        RentalRecord returned = findRecord();
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(RentalRecordStatus.NOT_RETURN, pickedUp.getStatus()),
+                () -> Assertions.assertNotNull(pickedUp.getPickDate()),
+                () -> Assertions.assertNull(pickedUp.getReturnDate()),
+                () -> Assertions.assertEquals(RentalRecordStatus.RETRIEVE, returned.getStatus()),
+                () -> Assertions.assertEquals(pickedUp.getPickDate(), returned.getPickDate()),
+                () -> Assertions.assertNotNull(returned.getReturnDate()),
+                () -> Assertions.assertNull(returned.getCheckDate()),
+                () -> Assertions.assertEquals(OWNER_ACCOUNT, returned.getLastModifyAccount())
+        );
+    }
+
+    @Test
+    @DisplayName("測試狀態已被改變時不更新，重複送出只會前進一個狀態")
+    void testUpdateStatusToNextWithChangedStatus() {
+        recordDAO.updateStatusToNext(recordId, RentalRecordStatus.NOT_PICK_UP, RentalRecordStatus.NOT_RETURN, RENTER_ACCOUNT);
+
+        Assertions.assertEquals(0, recordDAO.updateStatusToNext(
+                recordId, RentalRecordStatus.NOT_PICK_UP, RentalRecordStatus.NOT_RETURN, OWNER_ACCOUNT
+        ));
+        Assertions.assertEquals(RentalRecordStatus.NOT_RETURN, findRecord().getStatus());
+    }
+
+    @Test
+    @DisplayName("測試不是租借人或出租人時不更新")
+    void testUpdateStatusToNextWithOtherAccount() {
+        Assertions.assertEquals(0, recordDAO.updateStatusToNext(
+                recordId, RentalRecordStatus.NOT_PICK_UP, RentalRecordStatus.NOT_RETURN, "other"
+        ));
+        Assertions.assertEquals(RentalRecordStatus.NOT_PICK_UP, findRecord().getStatus());
+    }
+}
@@ -4,6 +4,8 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.security.core.context.SecurityContextHolder;
 import tw.edu.ntub.imd.camping.annotation.DAOTest;
 import tw.edu.ntub.imd.camping.databaseconfig.dao.UserDAO;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.User;
@@ -11,12 +13,15 @@ import tw.edu.ntub.imd.camping.databaseconfig.enumerate.Experience;
 import tw.edu.ntub.imd.camping.databaseconfig.enumerate.Gender;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @DAOTest
 @DisplayName("測試UserDAO")
 public class UserDAOTest {
     @Autowired
     private UserDAO userDAO;
+    @Autowired
+    private TestEntityManager testEntityManager;
 
     @Test
     @DisplayName("測試save(User)")
@@ -35,4 +40,33 @@ public class UserDAOTest {
                 .build();
         Assertions.assertDoesNotThrow(() -> userDAO.save(user));
     }
+
+    @Test
+    @DisplayName("登入時重新雜湊密碼，沒有登入的使用者也能更新")
+    void testUpdatePasswordByAccount() {
+        User user = User.builder()
+                .account("account")
+                .password("old password")
+                .birthday(LocalDate.now())
+                .lastName("姓")
+                .firstName("名")
+                .nickName("暱稱")
+                .email("10646000@ntub.edu.tw")
+                .address("地址")
+                .gender(Gender.MALE)
+                .experience(Experience.ROOKIE)
+                .lastModifyAccount("account")
+                .build();
+        userDAO.save(user);
+        testEntityManager.flush();
+        testEntityManager.clear();
+        SecurityContextHolder.clearContext();
+
+        Assertions.assertEquals(1, userDAO.updatePasswordByAccount("account", "new password", LocalDateTime.now()));
+
+        testEntityManager.clear();
+        User result = userDAO.findById("account").orElseThrow();
+        Assertions.assertEquals("new password", result.getPassword());
+        Assertions.assertEquals("account", result.getLastModifyAccount());
+    }
 }
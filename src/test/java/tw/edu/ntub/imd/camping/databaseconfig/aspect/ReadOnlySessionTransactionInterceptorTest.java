@@ -0,0 +1,137 @@
+package tw.edu.ntub.imd.camping.databaseconfig.aspect;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tw.edu.ntub.imd.camping.annotation.DAOTest;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.CityDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.City;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.function.Consumer;
+
+@DAOTest
+// 與正式環境相同由交易攔截器開啟交易，需使用具名的資料庫讓連線池中的所有連線共用
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:read-only-session;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false;INIT=CREATE SCHEMA IF NOT EXISTS camping")
+@DisplayName("測試ReadOnlySessionTransactionInterceptor")
+public class ReadOnlySessionTransactionInterceptorTest {
+    @Autowired
+    private ReadOnlySessionTransactionInterceptor transactionInterceptor;
+    @Autowired
+    private CityDAO cityDAO;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager requestEntityManager;
+    private CityService cityService;
+
+    public interface CityService {
+        List<City> searchAll(Consumer<List<City>> inTransaction);
+
+        void updateEnable(boolean enable);
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO camping.city (name, area_name, enable) VALUES ('臺北市', '中正區', TRUE)");
+        jdbcTemplate.update("INSERT INTO camping.city (name, area_name, enable) VALUES ('臺北市', '大安區', TRUE)");
+        jdbcTemplate.update("INSERT INTO camping.city (name, area_name, enable) VALUES ('宜蘭縣', '宜蘭市', FALSE)");
+        entityManagerFactory.getCache().evictAll();
+        // 與Open EntityManager in View相同，整個請求共用同一個EntityManager
+        requestEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(requestEntityManager));
+        ProxyFactory proxyFactory = new ProxyFactory(new CityService() {
+            @Override
+            public List<City> searchAll(Consumer<List<City>> inTransaction) {
+                List<City> cityList = cityDAO.findAll();
+                inTransaction.accept(cityList);
+                return cityList;
+            }
+
+            @Override
+            public void updateEnable(boolean enable) {
+                cityDAO.findAll().forEach(city -> city.setEnable(enable));
+            }
+        });
+        proxyFactory.addAdvice(transactionInterceptor);
+        cityService = (CityService) proxyFactory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+        requestEntityManager.close();
+        jdbcTemplate.update("DELETE FROM camping.city");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    @DisplayName("search*載入的實體為唯讀且不自動flush，結束後清除Session")
+    void testReadOnlySession() {
+        long transactionCount = transactionInterceptor.getTransactionCount();
+        long snapshotEntityCount = transactionInterceptor.getSnapshotEntityCount();
+        long readOnlyEntityCount = transactionInterceptor.getReadOnlyEntityCount();
+        Session session = requestEntityManager.unwrap(Session.class);
+
+        cityService.searchAll(cityList -> {
+            Assertions.assertEquals(3, cityList.size());
+            Assertions.assertTrue(cityList.stream().allMatch(session::isReadOnly));
+            Assertions.assertEquals(FlushMode.MANUAL, session.getHibernateFlushMode());
+        });
+
+        Assertions.assertAll(
+                () -> Assertions.assertFalse(session.isDefaultReadOnly()),
+                () -> Assertions.assertEquals(0, session.getStatistics().getEntityCount()),
+                () -> Assertions.assertEquals(transactionCount + 1, transactionInterceptor.getTransactionCount()),
+                () -> Assertions.assertEquals(snapshotEntityCount, transactionInterceptor.getSnapshotEntityCount()),
+                () -> Assertions.assertEquals(readOnlyEntityCount + 3, transactionInterceptor.getReadOnlyEntityCount())
+        );
+    }
+
+    @Test
+    @DisplayName("同一個請求中search*之後修改，修改的內容會寫入資料庫")
+    void testUpdateAfterSearch() {
+        cityService.searchAll(cityList -> {
+        });
+
+        cityService.updateEnable(false);
+
+        Assertions.assertEquals(
+                3,
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM camping.city WHERE enable = FALSE", Integer.class)
+        );
+    }
+
+    @Test
+    @DisplayName("Session中已有實體時不改為唯讀，也不清除Session")
+    void testLoadedSession() {
+        cityDAO.findAll();
+        long snapshotEntityCount = transactionInterceptor.getSnapshotEntityCount();
+        long readOnlyEntityCount = transactionInterceptor.getReadOnlyEntityCount();
+        Session session = requestEntityManager.unwrap(Session.class);
+
+        cityService.searchAll(cityList -> Assertions.assertTrue(cityList.stream().noneMatch(session::isReadOnly)));
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(3, session.getStatistics().getEntityCount()),
+                () -> Assertions.assertEquals(snapshotEntityCount + 3, transactionInterceptor.getSnapshotEntityCount()),
+                () -> Assertions.assertEquals(readOnlyEntityCount, transactionInterceptor.getReadOnlyEntityCount())
+        );
+    }
+}
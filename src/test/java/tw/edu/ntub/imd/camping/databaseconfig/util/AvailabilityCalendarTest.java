@@ -0,0 +1,100 @@
+package tw.edu.ntub.imd.camping.databaseconfig.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@DisplayName("測試AvailabilityCalendar")
+public class AvailabilityCalendarTest {
+    private static final LocalDate START_DATE = LocalDate.of(2020, 10, 1);
+    private static final LocalDate END_DATE = LocalDate.of(2020, 10, 31);
+
+    private static AvailabilityCalendar create(byte[] bitmap) {
+        return AvailabilityCalendar.of(
+                LocalDateTime.of(START_DATE, LocalTime.of(10, 0)),
+                LocalDateTime.of(END_DATE, LocalTime.of(18, 0)),
+                bitmap
+        );
+    }
+
+    @Test
+    @DisplayName("沒有日曆時整段可租借期間皆可租借")
+    public void testNullBitmap() {
+        AvailabilityCalendar calendar = create(null);
+
+        Assertions.assertTrue(calendar.isFree(START_DATE, END_DATE));
+        Assertions.assertFalse(calendar.isFree(START_DATE.minusDays(1)));
+        Assertions.assertFalse(calendar.isFree(END_DATE.plusDays(1)));
+        Assertions.assertFalse(calendar.isFree(START_DATE, END_DATE.plusDays(1)));
+        Assertions.assertFalse(calendar.isFree(END_DATE, START_DATE));
+    }
+
+    @Test
+    @DisplayName("不重疊的租借可同時存在，重疊的租借不做任何變更")
+    public void testBook() {
+        AvailabilityCalendar calendar = create(null);
+
+        Assertions.assertTrue(calendar.book(LocalDate.of(2020, 10, 3), LocalDate.of(2020, 10, 4)));
+        Assertions.assertTrue(calendar.book(LocalDate.of(2020, 10, 10), LocalDate.of(2020, 10, 11)));
+        Assertions.assertFalse(calendar.book(LocalDate.of(2020, 10, 4), LocalDate.of(2020, 10, 10)));
+
+        Assertions.assertTrue(calendar.isFree(LocalDate.of(2020, 10, 5), LocalDate.of(2020, 10, 9)));
+        Assertions.assertFalse(calendar.isFree(LocalDate.of(2020, 10, 3)));
+        Assertions.assertFalse(calendar.isFree(LocalDate.of(2020, 10, 11)));
+        Assertions.assertTrue(calendar.isFree(LocalDate.of(2020, 10, 12)));
+    }
+
+    @Test
+    @DisplayName("釋放後可再被租借，且不影響其他租借")
+    public void testRelease() {
+        AvailabilityCalendar calendar = create(null);
+        calendar.book(LocalDate.of(2020, 10, 3), LocalDate.of(2020, 10, 4));
+        calendar.book(LocalDate.of(2020, 10, 5), LocalDate.of(2020, 10, 6));
+
+        calendar.release(LocalDate.of(2020, 10, 3), LocalDate.of(2020, 10, 4));
+
+        Assertions.assertTrue(calendar.isFree(LocalDate.of(2020, 10, 1), LocalDate.of(2020, 10, 4)));
+        Assertions.assertFalse(calendar.isFree(LocalDate.of(2020, 10, 5)));
+        Assertions.assertFalse(calendar.isFree(LocalDate.of(2020, 10, 6)));
+    }
+
+    @Test
+    @DisplayName("轉為byte[]後再讀回內容相同")
+    public void testByteArray() {
+        AvailabilityCalendar calendar = create(null);
+        calendar.book(LocalDate.of(2020, 10, 9), LocalDate.of(2020, 10, 20));
+
+        AvailabilityCalendar restore = create(calendar.toByteArray());
+
+        for (LocalDate date = START_DATE.minusDays(2); !date.isAfter(END_DATE.plusDays(2)); date = date.plusDays(1)) {
+            Assertions.assertEquals(calendar.isFree(date), restore.isFree(date), date.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("整段期間都被租借後沒有可租借的日期")
+    public void testFullyBooked() {
+        AvailabilityCalendar calendar = create(null);
+        calendar.book(START_DATE, END_DATE);
+
+        Assertions.assertFalse(calendar.hasFreeDay(START_DATE));
+        Assertions.assertFalse(create(calendar.toByteArray()).hasFreeDay(START_DATE));
+    }
+
+    @Test
+    @DisplayName("只有起始日期之前的日期可租借時，視為沒有可租借的日期")
+    public void testHasFreeDayFrom() {
+        AvailabilityCalendar calendar = create(null);
+        calendar.book(LocalDate.of(2020, 10, 11), END_DATE);
+
+        Assertions.assertTrue(calendar.hasFreeDay(START_DATE.minusDays(1)));
+        Assertions.assertTrue(calendar.hasFreeDay(LocalDate.of(2020, 10, 10)));
+        Assertions.assertFalse(calendar.hasFreeDay(LocalDate.of(2020, 10, 11)));
+        Assertions.assertFalse(calendar.hasFreeDay(END_DATE.plusDays(1)));
+        Assertions.assertFalse(create(null).hasFreeDay(END_DATE.plusDays(1)));
+    }
+}
@@ -0,0 +1,114 @@
+package tw.edu.ntub.imd.camping.log;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.LogRecordDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.LogRecord;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@DisplayName("測試LogRecordWriter")
+public class LogRecordWriterTest {
+    private LogRecordDAO logRecordDAO;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        logRecordDAO = Mockito.mock(LogRecordDAO.class);
+        Mockito.when(logRecordDAO.insertAll(Mockito.anyList())).thenAnswer(invocation -> {
+            List<?> list = invocation.getArgument(0);
+            return list.size();
+        });
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private LogRecordWriter createWriter(int queueCapacity, int batchSize) {
+        return new LogRecordWriter(
+                logRecordDAO,
+                meterRegistry,
+                queueCapacity,
+                batchSize,
+                1000,
+                LogRecordWriter.FullPolicy.DROP,
+                0
+        );
+    }
+
+    @Test
+    @DisplayName("每次最多寫入batch-size筆")
+    @SuppressWarnings("unchecked")
+    public void testFlushByBatchSize() {
+        LogRecordWriter writer = createWriter(100, 20);
+        for (int i = 0; i < 45; i++) {
+            Assertions.assertTrue(writer.write(new LogRecord()));
+        }
+        Assertions.assertEquals(45, meterRegistry.get("camping.log-record.queue.size").gauge().value());
+
+        Assertions.assertEquals(20, writer.flush());
+        Assertions.assertEquals(20, writer.flush());
+        Assertions.assertEquals(5, writer.flush());
+        Assertions.assertEquals(0, writer.flush());
+
+        ArgumentCaptor<List<LogRecord>> captor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(logRecordDAO, Mockito.times(3)).insertAll(captor.capture());
+        Assertions.assertEquals(List.of(20, 20, 5), captor.getAllValues().stream().map(List::size).collect(Collectors.toList()));
+        Assertions.assertEquals(45, meterRegistry.get("camping.log-record.written").counter().count());
+        Assertions.assertEquals(0, meterRegistry.get("camping.log-record.queue.size").gauge().value());
+    }
+
+    @Test
+    @DisplayName("佇列已滿時捨棄")
+    public void testDropWhenFull() {
+        LogRecordWriter writer = createWriter(10, 20);
+        int acceptedCount = 0;
+        for (int i = 0; i < 15; i++) {
+            if (writer.write(new LogRecord())) {
+                acceptedCount++;
+            }
+        }
+
+        Assertions.assertEquals(10, acceptedCount);
+        Assertions.assertEquals(5, meterRegistry.get("camping.log-record.dropped").counter().count());
+        Assertions.assertEquals(10, writer.flush());
+    }
+
+    @Test
+    @DisplayName("寫入失敗不影響之後的紀錄")
+    public void testInsertFail() {
+        LogRecordWriter writer = createWriter(100, 20);
+        Mockito.when(logRecordDAO.insertAll(Mockito.anyList()))
+                .thenThrow(new IllegalStateException("測試"))
+                .thenReturn(3);
+        for (int i = 0; i < 3; i++) {
+            writer.write(new LogRecord());
+        }
+        writer.flush();
+        for (int i = 0; i < 3; i++) {
+            writer.write(new LogRecord());
+        }
+        writer.flush();
+
+        Assertions.assertEquals(3, meterRegistry.get("camping.log-record.failed").counter().count());
+        Assertions.assertEquals(3, meterRegistry.get("camping.log-record.written").counter().count());
+    }
+
+    @Test
+    @DisplayName("關閉時寫入剩餘紀錄")
+    public void testStop() throws InterruptedException {
+        LogRecordWriter writer = createWriter(100, 20);
+        writer.start();
+        for (int i = 0; i < 30; i++) {
+            writer.write(new LogRecord());
+        }
+        writer.stop();
+
+        Assertions.assertEquals(30, meterRegistry.get("camping.log-record.written").counter().count());
+    }
+}
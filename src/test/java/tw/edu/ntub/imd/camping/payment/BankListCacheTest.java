@@ -0,0 +1,107 @@
+package tw.edu.ntub.imd.camping.payment;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import tw.edu.ntub.imd.camping.dto.Bank;
+import tw.edu.ntub.imd.camping.exception.CreditCardApiUnavailableException;
+import tw.edu.ntub.imd.camping.util.TransactionUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@DisplayName("測試BankListCache")
+public class BankListCacheTest {
+    private TransactionUtils transactionUtils;
+
+    @BeforeEach
+    public void setUp() {
+        transactionUtils = Mockito.mock(TransactionUtils.class);
+    }
+
+    private static List<Bank> createBankList(String... idArray) {
+        return Stream.of(idArray)
+                .map(id -> {
+                    Bank bank = new Bank();
+                    bank.setId(id);
+                    return bank;
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("未過期時不再查詢")
+    public void testHit() {
+        BankListCache cache = new BankListCache(transactionUtils, 600, 86400);
+        Mockito.when(transactionUtils.searchBank()).thenReturn(createBankList("001"));
+
+        Assertions.assertEquals("001", cache.get().get(0).getId());
+        Assertions.assertEquals("001", cache.get().get(0).getId());
+
+        Mockito.verify(transactionUtils, Mockito.times(1)).searchBank();
+        Mockito.verify(transactionUtils, Mockito.never()).searchBankAsync();
+        Assertions.assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    @DisplayName("需要更新時先回傳舊的清單，背景查詢完成後才改用新的清單")
+    public void testRefreshAhead() {
+        BankListCache cache = new BankListCache(transactionUtils, 0, 86400);
+        Mockito.when(transactionUtils.searchBank()).thenReturn(createBankList("001"));
+        CompletableFuture<List<Bank>> refreshFuture = new CompletableFuture<>();
+        Mockito.when(transactionUtils.searchBankAsync()).thenReturn(refreshFuture);
+
+        cache.get();
+        Assertions.assertEquals("001", cache.get().get(0).getId());
+        Assertions.assertEquals("001", cache.get().get(0).getId());
+        // 背景查詢尚未完成時不重複送出
+        Mockito.verify(transactionUtils, Mockito.times(1)).searchBankAsync();
+
+        refreshFuture.complete(createBankList("700"));
+
+        Assertions.assertEquals("700", cache.get().get(0).getId());
+        Mockito.verify(transactionUtils, Mockito.times(1)).searchBank();
+    }
+
+    @Test
+    @DisplayName("背景更新失敗時繼續使用舊的清單")
+    public void testRefreshFailed() {
+        BankListCache cache = new BankListCache(transactionUtils, 0, 86400);
+        Mockito.when(transactionUtils.searchBank()).thenReturn(createBankList("001"));
+        Mockito.when(transactionUtils.searchBankAsync())
+                .thenReturn(CompletableFuture.failedFuture(new CreditCardApiUnavailableException("逾時")));
+
+        cache.get();
+
+        Assertions.assertEquals("001", cache.get().get(0).getId());
+        Assertions.assertEquals("001", cache.get().get(0).getId());
+        Assertions.assertEquals(2, cache.getLoadFailureCount());
+    }
+
+    @Test
+    @DisplayName("過期後查詢失敗時回傳舊的清單")
+    public void testExpiredAndLoadFailed() {
+        BankListCache cache = new BankListCache(transactionUtils, 0, 0);
+        Mockito.when(transactionUtils.searchBank())
+                .thenReturn(createBankList("001"))
+                .thenThrow(new CreditCardApiUnavailableException("逾時"));
+
+        cache.get();
+
+        Assertions.assertEquals("001", cache.get().get(0).getId());
+        Mockito.verify(transactionUtils, Mockito.times(2)).searchBank();
+    }
+
+    @Test
+    @DisplayName("沒有快取且查詢失敗時拋出例外")
+    public void testLoadFailedWithoutCache() {
+        BankListCache cache = new BankListCache(transactionUtils, 600, 86400);
+        Mockito.when(transactionUtils.searchBank()).thenThrow(new CreditCardApiUnavailableException("逾時"));
+
+        Assertions.assertThrows(CreditCardApiUnavailableException.class, cache::get);
+    }
+}
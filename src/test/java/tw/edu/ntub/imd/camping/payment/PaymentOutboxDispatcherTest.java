@@ -0,0 +1,333 @@
+package tw.edu.ntub.imd.camping.payment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tw.edu.ntub.imd.camping.catalog.CanBorrowProductGroupChangeEvent;
+import tw.edu.ntub.imd.camping.catalog.ProductGroupCalendarManager;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.PaymentOutboxDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.RegisteredBankAccountDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.RentalRecordDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.PaymentOutbox;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.RegisteredBankAccount;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.RentalRecord;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.PaymentOutboxStatus;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.PaymentOutboxType;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.RentalRecordStatus;
+import tw.edu.ntub.imd.camping.dto.BankAccount;
+import tw.edu.ntub.imd.camping.dto.CreditCard;
+import tw.edu.ntub.imd.camping.exception.CreditCardApiNotSentException;
+import tw.edu.ntub.imd.camping.exception.CreditCardApiUnavailableException;
+import tw.edu.ntub.imd.camping.exception.CreditCardTransactionException;
+import tw.edu.ntub.imd.camping.util.TransactionUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+@DisplayName("測試PaymentOutboxDispatcher")
+public class PaymentOutboxDispatcherTest {
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+    private PaymentOutboxDAO outboxDAO;
+    private RentalRecordDAO recordDAO;
+    private RegisteredBankAccountDAO registeredBankAccountDAO;
+    private ProductGroupCalendarManager calendarManager;
+    private PendingCreditCardStore creditCardStore;
+    private TransactionUtils transactionUtils;
+    private ApplicationEventPublisher eventPublisher;
+    private MeterRegistry meterRegistry;
+    private PaymentOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    public void setUp() {
+        outboxDAO = Mockito.mock(PaymentOutboxDAO.class);
+        recordDAO = Mockito.mock(RentalRecordDAO.class);
+        registeredBankAccountDAO = Mockito.mock(RegisteredBankAccountDAO.class);
+        calendarManager = Mockito.mock(ProductGroupCalendarManager.class);
+        creditCardStore = new PendingCreditCardStore();
+        transactionUtils = Mockito.mock(TransactionUtils.class);
+        eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new PaymentOutboxDispatcher(
+                outboxDAO,
+                recordDAO,
+                registeredBankAccountDAO,
+                calendarManager,
+                creditCardStore,
+                transactionUtils,
+                mapper,
+                new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)),
+                eventPublisher,
+                meterRegistry,
+                50,
+                3,
+                1000
+        );
+    }
+
+    private PaymentOutbox createTransactionOutbox(int attemptCount) throws Exception {
+        CreditCard creditCard = new CreditCard();
+        creditCard.setCardId("1234567891234567");
+        creditCard.setSafeCode("123");
+        creditCard.setExpireYear(25);
+        creditCard.setExpireMonth(11);
+        PaymentOutbox outbox = new PaymentOutbox();
+        outbox.setId(1);
+        outbox.setType(PaymentOutboxType.CREATE_TRANSACTION);
+        outbox.setRentalRecordId(10);
+        outbox.setPayeeBankAccount("1234567891234567");
+        outbox.setPayload(mapper.writeValueAsString(new TransactionCommand("1234567891234567", 1500)));
+        creditCardStore.put(outbox.getId(), creditCard);
+        outbox.setStatus(PaymentOutboxStatus.PENDING);
+        outbox.setAttemptCount(attemptCount);
+        outbox.setNextAttemptDate(LocalDateTime.now());
+        Mockito.when(outboxDAO.findDispatchable(
+                ArgumentMatchers.any(LocalDateTime.class),
+                ArgumentMatchers.any(Pageable.class)
+        )).thenReturn(List.of(outbox));
+        return outbox;
+    }
+
+    private void mockCreateTransaction(CompletableFuture<Integer> result) {
+        Mockito.when(transactionUtils.createTransactionAsync(
+                ArgumentMatchers.any(CreditCard.class),
+                ArgumentMatchers.eq("1234567891234567"),
+                ArgumentMatchers.eq(1500)
+        )).thenReturn(result);
+    }
+
+    @Test
+    @DisplayName("交易建立成功時寫回交易編號並改為未取貨")
+    public void testSent() throws Exception {
+        PaymentOutbox outbox = createTransactionOutbox(0);
+        mockCreateTransaction(CompletableFuture.completedFuture(99));
+        Mockito.when(recordDAO.updatePaymentResult(10, 99, RentalRecordStatus.PAYMENT_PENDING, RentalRecordStatus.NOT_PICK_UP))
+                .thenReturn(1);
+
+        Assertions.assertEquals(1, dispatcher.dispatch());
+
+        Assertions.assertEquals(PaymentOutboxStatus.SENT, outbox.getStatus());
+        Assertions.assertEquals(1, outbox.getAttemptCount());
+        Assertions.assertNull(outbox.getPayload());
+        Assertions.assertTrue(creditCardStore.get(1).isEmpty());
+        Mockito.verify(recordDAO).updatePaymentResult(10, 99, RentalRecordStatus.PAYMENT_PENDING, RentalRecordStatus.NOT_PICK_UP);
+        Assertions.assertEquals(1, meterRegistry.get("camping.payment-outbox.sent").counter().count());
+    }
+
+    @Test
+    @DisplayName("送出期間租借已取消時，改為結果未知並記錄交易編號")
+    public void testSentAfterCancel() throws Exception {
+        PaymentOutbox outbox = createTransactionOutbox(0);
+        mockCreateTransaction(CompletableFuture.completedFuture(99));
+
+        dispatcher.dispatch();
+
+        Assertions.assertEquals(PaymentOutboxStatus.UNKNOWN, outbox.getStatus());
+        Assertions.assertEquals(1, outbox.getAttemptCount());
+        Assertions.assertTrue(outbox.getLastError().contains("99"));
+        Assertions.assertTrue(creditCardStore.get(1).isEmpty());
+        Assertions.assertEquals(0, meterRegistry.get("camping.payment-outbox.sent").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get("camping.payment-outbox.unknown").counter().count());
+    }
+
+    @Test
+    @DisplayName("租借在送出前取消時不扣款")
+    public void testCancelBeforeDispatch() throws Exception {
+        // 背景程序已取出的指令，與取消租借時讀到的是不同的物件
+        PaymentOutbox outbox = createTransactionOutbox(0);
+        PaymentOutbox canceledOutbox = new PaymentOutbox();
+        canceledOutbox.setId(outbox.getId());
+        canceledOutbox.setStatus(PaymentOutboxStatus.PENDING);
+        Mockito.when(outboxDAO.findByRentalRecordIdAndTypeAndStatus(10, PaymentOutboxType.CREATE_TRANSACTION, PaymentOutboxStatus.PENDING))
+                .thenReturn(List.of(canceledOutbox));
+        PaymentOutboxWriter writer = new PaymentOutboxWriter(outboxDAO, registeredBankAccountDAO, creditCardStore, mapper);
+
+        writer.cancelTransaction(10);
+        dispatcher.dispatch();
+
+        Assertions.assertEquals(PaymentOutboxStatus.FAILED, canceledOutbox.getStatus());
+        Assertions.assertNull(canceledOutbox.getPayload());
+        Assertions.assertEquals(PaymentOutboxStatus.FAILED, outbox.getStatus());
+        Mockito.verify(transactionUtils, Mockito.never()).createTransactionAsync(
+                ArgumentMatchers.any(CreditCard.class),
+                ArgumentMatchers.anyString(),
+                ArgumentMatchers.anyInt()
+        );
+    }
+
+    @Test
+    @DisplayName("交易建立成功但無法寫回結果時，改為結果未知且不再送出")
+    public void testSentNotSaved() throws Exception {
+        PaymentOutbox outbox = createTransactionOutbox(0);
+        mockCreateTransaction(CompletableFuture.completedFuture(99));
+        Mockito.when(recordDAO.updatePaymentResult(10, 99, RentalRecordStatus.PAYMENT_PENDING, RentalRecordStatus.NOT_PICK_UP))
+                .thenThrow(new IllegalStateException("資料庫連線中斷"));
+
+        Assertions.assertEquals(1, dispatcher.dispatch());
+
+        Assertions.assertEquals(PaymentOutboxStatus.UNKNOWN, outbox.getStatus());
+        Assertions.assertTrue(outbox.getLastError().contains("99"));
+        Assertions.assertTrue(creditCardStore.get(1).isEmpty());
+        Assertions.assertEquals(1, meterRegistry.get("camping.payment-outbox.unknown").counter().count());
+
+        // 即使指令仍被當成等待送出再次取出，也因為沒有信用卡資料而不會重複扣款
+        outbox.setStatus(PaymentOutboxStatus.PENDING);
+        dispatcher.dispatch();
+
+        Mockito.verify(transactionUtils, Mockito.times(1)).createTransactionAsync(
+                ArgumentMatchers.any(CreditCard.class),
+                ArgumentMatchers.anyString(),
+                ArgumentMatchers.anyInt()
+        );
+    }
+
+    @Test
+    @DisplayName("請求沒有送出時延後重試")
+    public void testRetry() throws Exception {
+        PaymentOutbox outbox = createTransactionOutbox(0);
+        mockCreateTransaction(CompletableFuture.failedFuture(new CreditCardApiNotSentException("金流服務忙碌中")));
+        LocalDateTime beforeDispatch = LocalDateTime.now();
+
+        dispatcher.dispatch();
+
+        Assertions.assertEquals(PaymentOutboxStatus.PENDING, outbox.getStatus());
+        Assertions.assertEquals(1, outbox.getAttemptCount());
+        Assertions.assertNotNull(outbox.getPayload());
+        Assertions.assertTrue(creditCardStore.get(1).isPresent());
+        Assertions.assertTrue(outbox.getNextAttemptDate().isAfter(beforeDispatch.plusNanos(900_000_000)));
+        Mockito.verify(recordDAO, Mockito.never()).updatePaymentResult(
+                ArgumentMatchers.anyInt(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any()
+        );
+        Assertions.assertEquals(1, meterRegistry.get("camping.payment-outbox.retried").counter().count());
+    }
+
+    @Test
+    @DisplayName("超過重試次數時改為付款失敗")
+    public void testRetryExhausted() throws Exception {
+        PaymentOutbox outbox = createTransactionOutbox(2);
+        mockCreateTransaction(CompletableFuture.failedFuture(new CreditCardApiNotSentException("金流服務忙碌中")));
+        Mockito.when(recordDAO.updatePaymentResult(10, null, RentalRecordStatus.PAYMENT_PENDING, RentalRecordStatus.PAYMENT_FAILED))
+                .thenReturn(1);
+        RentalRecord rentalRecord = new RentalRecord();
+        rentalRecord.setProductGroupId(5);
+        Mockito.when(recordDAO.findById(10)).thenReturn(Optional.of(rentalRecord));
+
+        dispatcher.dispatch();
+
+        Assertions.assertEquals(PaymentOutboxStatus.FAILED, outbox.getStatus());
+        Assertions.assertEquals(3, outbox.getAttemptCount());
+        Assertions.assertNull(outbox.getPayload());
+        Mockito.verify(calendarManager).release(rentalRecord);
+        Mockito.verify(eventPublisher).publishEvent(ArgumentMatchers.any(CanBorrowProductGroupChangeEvent.class));
+    }
+
+    @Test
+    @DisplayName("建立交易逾時(金流服務可能已扣款)時不重試，改為結果未知並保留租借紀錄")
+    public void testUnknownResult() throws Exception {
+        PaymentOutbox outbox = createTransactionOutbox(0);
+        // 金流服務已建立交易，但回應在逾時後才送達
+        mockCreateTransaction(CompletableFuture.failedFuture(new CreditCardApiUnavailableException("逾時")));
+
+        dispatcher.dispatch();
+
+        Assertions.assertEquals(PaymentOutboxStatus.UNKNOWN, outbox.getStatus());
+        Assertions.assertEquals(1, outbox.getAttemptCount());
+        Assertions.assertNull(outbox.getPayload());
+        Assertions.assertTrue(creditCardStore.get(1).isEmpty());
+        Mockito.verify(transactionUtils, Mockito.times(1)).createTransactionAsync(
+                ArgumentMatchers.any(CreditCard.class),
+                ArgumentMatchers.anyString(),
+                ArgumentMatchers.anyInt()
+        );
+        Mockito.verify(recordDAO, Mockito.never()).updatePaymentResult(
+                ArgumentMatchers.anyInt(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any()
+        );
+        Mockito.verify(calendarManager, Mockito.never()).release(ArgumentMatchers.any());
+        Assertions.assertEquals(0, meterRegistry.get("camping.payment-outbox.retried").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get("camping.payment-outbox.unknown").counter().count());
+    }
+
+    @Test
+    @DisplayName("信用卡資料已遺失(應用程式重新啟動)時不送出，改為付款失敗並釋放租借期間")
+    public void testCreditCardMissing() throws Exception {
+        PaymentOutbox outbox = createTransactionOutbox(0);
+        creditCardStore.remove(1);
+        Mockito.when(recordDAO.updatePaymentResult(10, null, RentalRecordStatus.PAYMENT_PENDING, RentalRecordStatus.PAYMENT_FAILED))
+                .thenReturn(1);
+        RentalRecord rentalRecord = new RentalRecord();
+        rentalRecord.setProductGroupId(5);
+        Mockito.when(recordDAO.findById(10)).thenReturn(Optional.of(rentalRecord));
+
+        dispatcher.dispatch();
+
+        Assertions.assertEquals(PaymentOutboxStatus.FAILED, outbox.getStatus());
+        Assertions.assertNull(outbox.getPayload());
+        Mockito.verify(transactionUtils, Mockito.never()).createTransactionAsync(
+                ArgumentMatchers.any(CreditCard.class),
+                ArgumentMatchers.anyString(),
+                ArgumentMatchers.anyInt()
+        );
+        Mockito.verify(calendarManager).release(rentalRecord);
+    }
+
+    @Test
+    @DisplayName("金流服務拒絕時不重試，直接改為付款失敗")
+    public void testRejected() throws Exception {
+        PaymentOutbox outbox = createTransactionOutbox(0);
+        mockCreateTransaction(CompletableFuture.failedFuture(
+                new CreditCardTransactionException("餘額不足", "Transaction - Insufficient")
+        ));
+
+        dispatcher.dispatch();
+
+        Assertions.assertEquals(PaymentOutboxStatus.FAILED, outbox.getStatus());
+        Assertions.assertEquals("餘額不足", outbox.getLastError());
+        Mockito.verify(recordDAO).updatePaymentResult(10, null, RentalRecordStatus.PAYMENT_PENDING, RentalRecordStatus.PAYMENT_FAILED);
+        Mockito.verify(calendarManager, Mockito.never()).release(ArgumentMatchers.any());
+        Mockito.verify(eventPublisher, Mockito.never()).publishEvent(ArgumentMatchers.any(Object.class));
+        Assertions.assertEquals(1, meterRegistry.get("camping.payment-outbox.failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("金融機構帳號建立成功時記錄為已建立")
+    public void testBankAccountRegistered() throws Exception {
+        PaymentOutbox outbox = new PaymentOutbox();
+        outbox.setId(2);
+        outbox.setType(PaymentOutboxType.CREATE_BANK_ACCOUNT);
+        outbox.setPayeeBankAccount("1234567891234567");
+        outbox.setPayload(mapper.writeValueAsString(new BankAccount("1234567891234567")));
+        outbox.setStatus(PaymentOutboxStatus.PENDING);
+        outbox.setAttemptCount(0);
+        outbox.setNextAttemptDate(LocalDateTime.now());
+        Mockito.when(outboxDAO.findDispatchable(
+                ArgumentMatchers.any(LocalDateTime.class),
+                ArgumentMatchers.any(Pageable.class)
+        )).thenReturn(List.of(outbox));
+        Mockito.when(transactionUtils.createBankAccountAsync(ArgumentMatchers.any(BankAccount.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        dispatcher.dispatch();
+
+        Assertions.assertEquals(PaymentOutboxStatus.SENT, outbox.getStatus());
+        Mockito.verify(registeredBankAccountDAO).save(ArgumentMatchers.argThat(
+                (RegisteredBankAccount registered) -> registered.isNew() && "1234567891234567".equals(registered.getAccount())
+        ));
+    }
+}
@@ -0,0 +1,110 @@
+package tw.edu.ntub.imd.camping.payment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.PaymentOutboxDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.RegisteredBankAccountDAO;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.PaymentOutbox;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.PaymentOutboxStatus;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.PaymentOutboxType;
+import tw.edu.ntub.imd.camping.dto.CreditCard;
+
+import java.util.List;
+
+@DisplayName("測試PaymentOutboxWriter")
+public class PaymentOutboxWriterTest {
+    private PaymentOutboxDAO outboxDAO;
+    private PendingCreditCardStore creditCardStore;
+    private PaymentOutboxWriter writer;
+
+    @BeforeEach
+    public void setUp() {
+        outboxDAO = Mockito.mock(PaymentOutboxDAO.class);
+        Mockito.when(outboxDAO.save(ArgumentMatchers.any(PaymentOutbox.class))).thenAnswer(invocation -> {
+            PaymentOutbox outbox = invocation.getArgument(0);
+            outbox.setId(1);
+            return outbox;
+        });
+        creditCardStore = new PendingCreditCardStore();
+        writer = new PaymentOutboxWriter(
+                outboxDAO,
+                Mockito.mock(RegisteredBankAccountDAO.class),
+                creditCardStore,
+                new ObjectMapper()
+        );
+    }
+
+    private CreditCard createCreditCard() {
+        CreditCard creditCard = new CreditCard();
+        creditCard.setCardId("1234567891234567");
+        creditCard.setSafeCode("123");
+        creditCard.setExpireYear(25);
+        creditCard.setExpireMonth(11);
+        return creditCard;
+    }
+
+    @Test
+    @DisplayName("信用卡資料只保存在記憶體，不寫入金流指令內容")
+    public void testCreditCardNotPersisted() {
+        CreditCard creditCard = createCreditCard();
+
+        writer.addTransaction(10, creditCard, "9876543219876543", 1500);
+
+        Mockito.verify(outboxDAO).save(ArgumentMatchers.argThat((PaymentOutbox outbox) ->
+                !outbox.getPayload().contains("creditCard") &&
+                        !outbox.getPayload().contains("1234567891234567") &&
+                        outbox.getPayload().contains("9876543219876543")
+        ));
+        Assertions.assertSame(creditCard, creditCardStore.get(1).orElse(null));
+    }
+
+    @Test
+    @DisplayName("寫入指令的交易回滾時移除信用卡資料")
+    public void testRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            writer.addTransaction(10, createCreditCard(), "9876543219876543", 1500);
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Assertions.assertTrue(creditCardStore.get(1).isEmpty());
+    }
+
+    @Test
+    @DisplayName("取消租借時指令改為失敗，交易提交後才移除信用卡資料")
+    public void testCancelTransaction() {
+        writer.addTransaction(10, createCreditCard(), "9876543219876543", 1500);
+        PaymentOutbox outbox = new PaymentOutbox();
+        outbox.setId(1);
+        outbox.setStatus(PaymentOutboxStatus.PENDING);
+        outbox.setPayload("{}");
+        Mockito.when(outboxDAO.findByRentalRecordIdAndTypeAndStatus(10, PaymentOutboxType.CREATE_TRANSACTION, PaymentOutboxStatus.PENDING))
+                .thenReturn(List.of(outbox));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            writer.cancelTransaction(10);
+            Assertions.assertTrue(creditCardStore.get(1).isPresent());
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Assertions.assertEquals(PaymentOutboxStatus.FAILED, outbox.getStatus());
+        Assertions.assertNull(outbox.getPayload());
+        Assertions.assertTrue(creditCardStore.get(1).isEmpty());
+    }
+}
@@ -0,0 +1,118 @@
+package tw.edu.ntub.imd.camping.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tw.edu.ntub.imd.camping.annotation.DAOTest;
+import tw.edu.ntub.imd.camping.catalog.ReferenceDataCache;
+import tw.edu.ntub.imd.camping.databaseconfig.aspect.ReadOnlySessionTransactionInterceptor;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.CityDAO;
+import tw.edu.ntub.imd.camping.dto.Bank;
+import tw.edu.ntub.imd.camping.payment.BankListCache;
+import tw.edu.ntub.imd.camping.service.impl.BankServiceImpl;
+import tw.edu.ntub.imd.camping.service.impl.CityServiceImpl;
+import tw.edu.ntub.imd.camping.service.transformer.CityTransformer;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@DAOTest
+@Import(ReferenceDataCache.class)
+// 與正式環境相同由交易攔截器開啟交易，需使用具名的資料庫讓連線池中的所有連線共用
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:service-transaction;DB_CLOSE_DELAY=-1;DATABASE_TO_UPPER=false;INIT=CREATE SCHEMA IF NOT EXISTS camping")
+@DisplayName("測試Service方法的交易屬性")
+public class ServiceTransactionAttributeTest {
+    @Autowired
+    private ReadOnlySessionTransactionInterceptor transactionInterceptor;
+    @Autowired
+    private CityDAO cityDAO;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        jdbcTemplate.update("INSERT INTO camping.city (name, area_name, enable) VALUES ('臺北市', '中正區', TRUE)");
+        jdbcTemplate.update("INSERT INTO camping.city (name, area_name, enable) VALUES ('臺北市', '大安區', TRUE)");
+        referenceDataCache.evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM camping.city");
+        referenceDataCache.evictAll();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T createProxy(T target) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addAdvice(transactionInterceptor);
+        return (T) proxyFactory.getProxy();
+    }
+
+    // 與Open EntityManager in View相同，每個請求使用自己的EntityManager
+    private <T> T inRequest(Supplier<T> supplier) {
+        EntityManager requestEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(requestEntityManager));
+        try {
+            return supplier.get();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            requestEntityManager.close();
+        }
+    }
+
+    @Test
+    @DisplayName("查詢快取命中時不向連線池取得連線")
+    void testCacheHitWithoutConnection() {
+        CityService cityService = createProxy(new CityServiceImpl(cityDAO, Mockito.mock(CityTransformer.class)));
+        inRequest(cityService::searchAllEnableCity);
+        long connectCount = statistics.getConnectCount();
+
+        Map<String, List<String>> result = inRequest(cityService::searchAllEnableCity);
+
+        Assertions.assertEquals(List.of("中正區", "大安區"), result.get("臺北市"));
+        Assertions.assertEquals(connectCount, statistics.getConnectCount());
+    }
+
+    @Test
+    @DisplayName("只呼叫金流服務的查詢不開始交易，也不向連線池取得連線")
+    void testRemoteCallWithoutConnection() {
+        BankListCache bankListCache = Mockito.mock(BankListCache.class);
+        Mockito.when(bankListCache.get()).thenAnswer(invocation -> {
+            Assertions.assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+            return Collections.<Bank>emptyList();
+        });
+        BankService bankService = createProxy(new BankServiceImpl(bankListCache));
+        long connectCount = statistics.getConnectCount();
+
+        inRequest(bankService::searchAll);
+
+        Assertions.assertEquals(connectCount, statistics.getConnectCount());
+        Mockito.verify(bankListCache).get();
+    }
+}
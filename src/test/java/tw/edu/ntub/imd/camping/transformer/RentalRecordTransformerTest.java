@@ -0,0 +1,185 @@
+package tw.edu.ntub.imd.camping.transformer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import tw.edu.ntub.imd.camping.bean.ProductBean;
+import tw.edu.ntub.imd.camping.bean.RentalDetailBean;
+import tw.edu.ntub.imd.camping.bean.RentalRecordBean;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.*;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.*;
+import tw.edu.ntub.imd.camping.service.transformer.RentalRecordTransformer;
+import tw.edu.ntub.imd.camping.service.transformer.impl.*;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+@DisplayName("測試RentalRecordTransformer")
+public class RentalRecordTransformerTest {
+    private static final int GROUP_COUNT = 5;
+    private static final int RECORD_COUNT = 50;
+    private final List<User> userList = new ArrayList<>();
+    private final List<ProductGroup> productGroupList = new ArrayList<>();
+    private final List<Product> productList = new ArrayList<>();
+    private final List<ProductImage> imageList = new ArrayList<>();
+    private final List<RentalRecord> recordList = new ArrayList<>();
+    private final List<RentalDetail> detailList = new ArrayList<>();
+    private RentalDetailDAO detailDAO;
+    private ProductGroupDAO productGroupDAO;
+    private ProductDAO productDAO;
+    private ProductImageDAO imageDAO;
+    private ProductGroupCommentSummaryDAO productGroupCommentSummaryDAO;
+    private UserDAO userDAO;
+    private UserCommentSummaryDAO userCommentSummaryDAO;
+    private RentalRecordTransformer transformer;
+
+    @BeforeEach
+    void setUp() {
+        for (int groupId = 1; groupId <= GROUP_COUNT; groupId++) {
+            User user = User.builder().account("user" + groupId).nickName("使用者" + groupId).build();
+            userList.add(user);
+            ProductGroup productGroup = new ProductGroup();
+            productGroup.setId(groupId);
+            productGroup.setCreateAccount(user.getAccount());
+            productGroup.setUserByCreateAccount(user);
+            productGroupList.add(productGroup);
+            for (int j = 0; j < 2; j++) {
+                Product product = new Product();
+                product.setId(groupId * 10 + j);
+                product.setGroupId(groupId);
+                productList.add(product);
+                ProductImage image = new ProductImage();
+                image.setId(product.getId());
+                image.setProductId(product.getId());
+                imageList.add(image);
+            }
+        }
+        for (int recordId = 1; recordId <= RECORD_COUNT; recordId++) {
+            ProductGroup productGroup = productGroupList.get(recordId % GROUP_COUNT);
+            RentalRecord record = new RentalRecord();
+            record.setId(recordId);
+            record.setProductGroupId(productGroup.getId());
+            record.setProductGroupByProductGroupId(productGroup);
+            recordList.add(record);
+            for (Product product : productList) {
+                if (product.getGroupId().equals(productGroup.getId())) {
+                    RentalDetail detail = new RentalDetail();
+                    detail.setId(detailList.size() + 1);
+                    detail.setRecordId(recordId);
+                    detail.setProductId(product.getId());
+                    detail.setProductByProductId(product);
+                    detailList.add(detail);
+                }
+            }
+        }
+
+        detailDAO = Mockito.mock(RentalDetailDAO.class);
+        productGroupDAO = Mockito.mock(ProductGroupDAO.class);
+        productDAO = Mockito.mock(ProductDAO.class);
+        imageDAO = Mockito.mock(ProductImageDAO.class);
+        productGroupCommentSummaryDAO = Mockito.mock(ProductGroupCommentSummaryDAO.class);
+        userDAO = Mockito.mock(UserDAO.class);
+        userCommentSummaryDAO = Mockito.mock(UserCommentSummaryDAO.class);
+        Mockito.when(detailDAO.findByRecordIdIn(ArgumentMatchers.anyCollection())).thenAnswer(invocation -> {
+            Collection<Integer> recordIdCollection = invocation.getArgument(0);
+            return filter(detailList, detail -> recordIdCollection.contains(detail.getRecordId()));
+        });
+        Mockito.when(productGroupDAO.findAllById(ArgumentMatchers.anyIterable())).thenAnswer(invocation -> {
+            Set<Integer> idSet = toSet(invocation.getArgument(0));
+            return filter(productGroupList, productGroup -> idSet.contains(productGroup.getId()));
+        });
+        Mockito.when(productDAO.findAllById(ArgumentMatchers.anyIterable())).thenAnswer(invocation -> {
+            Set<Integer> idSet = toSet(invocation.getArgument(0));
+            return filter(productList, product -> idSet.contains(product.getId()));
+        });
+        Mockito.when(productDAO.findByGroupIdIn(ArgumentMatchers.anyCollection())).thenAnswer(invocation -> {
+            Collection<Integer> groupIdCollection = invocation.getArgument(0);
+            return filter(productList, product -> groupIdCollection.contains(product.getGroupId()));
+        });
+        Mockito.when(imageDAO.findByProductIdIn(ArgumentMatchers.anyCollection())).thenAnswer(invocation -> {
+            Collection<Integer> productIdCollection = invocation.getArgument(0);
+            return filter(imageList, image -> productIdCollection.contains(image.getProductId()));
+        });
+        Mockito.when(productGroupCommentSummaryDAO.getAverageCommentMapByGroupIdIn(ArgumentMatchers.anyCollection()))
+                .thenReturn(Map.of(1, 4.5));
+        Mockito.when(userDAO.findAllById(ArgumentMatchers.anyIterable())).thenAnswer(invocation -> {
+            Set<String> accountSet = toSet(invocation.getArgument(0));
+            return filter(userList, user -> accountSet.contains(user.getAccount()));
+        });
+        Mockito.when(userCommentSummaryDAO.getAverageCommentMapByUserAccountIn(ArgumentMatchers.anyCollection()))
+                .thenReturn(Map.of("user1", 3.0));
+
+        ProductTransformerImpl productTransformer = new ProductTransformerImpl(imageDAO, new ProductImageTransformerImpl());
+        transformer = new RentalRecordTransformerImpl(
+                detailDAO,
+                new RentalDetailTransformerImpl(productDAO, productTransformer),
+                productGroupDAO,
+                new ProductGroupTransformerImpl(
+                        productDAO,
+                        productTransformer,
+                        userDAO,
+                        new UserTransformerImpl(userCommentSummaryDAO),
+                        productGroupCommentSummaryDAO
+                )
+        );
+    }
+
+    private static <T> List<T> filter(List<T> list, java.util.function.Predicate<T> predicate) {
+        return list.stream().filter(predicate).collect(Collectors.toList());
+    }
+
+    private static <T> Set<T> toSet(Iterable<T> iterable) {
+        return StreamSupport.stream(iterable.spliterator(), false).collect(Collectors.toSet());
+    }
+
+    @Test
+    @DisplayName("測試transferToBeanList每種關聯只查詢一次")
+    void testTransferToBeanListQueryOncePerRelation() {
+        List<RentalRecordBean> result = transformer.transferToBeanList(recordList);
+
+        Assertions.assertEquals(RECORD_COUNT, result.size());
+        Mockito.verify(detailDAO, Mockito.times(1)).findByRecordIdIn(ArgumentMatchers.anyCollection());
+        Mockito.verify(productGroupDAO, Mockito.times(1)).findAllById(ArgumentMatchers.anyIterable());
+        Mockito.verify(productDAO, Mockito.times(1)).findAllById(ArgumentMatchers.anyIterable());
+        Mockito.verify(productDAO, Mockito.times(1)).findByGroupIdIn(ArgumentMatchers.anyCollection());
+        Mockito.verify(imageDAO, Mockito.times(2)).findByProductIdIn(ArgumentMatchers.anyCollection());
+        Mockito.verify(productGroupCommentSummaryDAO, Mockito.times(1)).getAverageCommentMapByGroupIdIn(ArgumentMatchers.anyCollection());
+        Mockito.verify(userDAO, Mockito.times(1)).findAllById(ArgumentMatchers.anyIterable());
+        Mockito.verify(userCommentSummaryDAO, Mockito.times(1)).getAverageCommentMapByUserAccountIn(ArgumentMatchers.anyCollection());
+        Mockito.verify(detailDAO, Mockito.never()).findByRecordId(ArgumentMatchers.any());
+        Mockito.verify(productDAO, Mockito.never()).findByGroupId(ArgumentMatchers.any());
+        Mockito.verify(imageDAO, Mockito.never()).findByProductId(ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    @DisplayName("測試transferToBeanList的關聯資料對應到正確的租借紀錄")
+    void testTransferToBeanListStitchRelation() {
+        List<RentalRecordBean> result = transformer.transferToBeanList(recordList);
+
+        for (int i = 0; i < recordList.size(); i++) {
+            RentalRecord record = recordList.get(i);
+            RentalRecordBean recordBean = result.get(i);
+            Assertions.assertEquals(record.getId(), recordBean.getId());
+            Assertions.assertEquals(record.getProductGroupId(), recordBean.getProductGroup().getId());
+            Assertions.assertEquals(
+                    record.getProductGroupByProductGroupId().getCreateAccount(),
+                    recordBean.getProductGroup().getCreateUser().getAccount()
+            );
+            Assertions.assertEquals(2, recordBean.getProductGroup().getProductArray().size());
+            Assertions.assertEquals(record.getProductGroupId() == 1 ? 4.5 : null, recordBean.getProductGroup().getComment());
+            Assertions.assertEquals(2, recordBean.getDetailBeanList().size());
+            for (RentalDetailBean detailBean : recordBean.getDetailBeanList()) {
+                Assertions.assertEquals(record.getId(), detailBean.getRecordId());
+                ProductBean productBean = detailBean.getProduct();
+                Assertions.assertEquals(detailBean.getProductId(), productBean.getId());
+                Assertions.assertEquals(record.getProductGroupId(), productBean.getGroupId());
+                Assertions.assertEquals(1, productBean.getImageArray().size());
+                Assertions.assertEquals(productBean.getId(), productBean.getImageArray().get(0).getProductId());
+            }
+        }
+    }
+}
@@ -2,9 +2,11 @@ package tw.edu.ntub.imd.camping.transformer;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import tw.edu.ntub.birc.common.enumerate.date.Month;
 import tw.edu.ntub.birc.common.wrapper.date.DateWrapperImpl;
 import tw.edu.ntub.imd.camping.bean.UserBean;
+import tw.edu.ntub.imd.camping.databaseconfig.dao.UserCommentSummaryDAO;
 import tw.edu.ntub.imd.camping.databaseconfig.entity.User;
 import tw.edu.ntub.imd.camping.databaseconfig.enumerate.Experience;
 import tw.edu.ntub.imd.camping.databaseconfig.enumerate.Gender;
@@ -30,7 +32,7 @@ public class UserTransformerTest {
                 .address("台北市中正區濟南路一段321號")
                 .birthday(new DateWrapperImpl(1999, Month.APRIL, 3))
                 .build();
-        UserTransformer transformer = new UserTransformerImpl();
+        UserTransformer transformer = new UserTransformerImpl(Mockito.mock(UserCommentSummaryDAO.class));
         UserBean userBean = transformer.transferToBean(user);
         UserAssertUtils.assertEqual(user, userBean);
     }
@@ -50,7 +52,7 @@ public class UserTransformerTest {
                 .address("台北市中正區濟南路一段321號")
                 .birthday(new DateWrapperImpl(1999, Month.APRIL, 3))
                 .build();
-        UserTransformer transformer = new UserTransformerImpl();
+        UserTransformer transformer = new UserTransformerImpl(Mockito.mock(UserCommentSummaryDAO.class));
         User user = transformer.transferToEntity(userBean);
         UserAssertUtils.assertEqual(userBean, user);
     }
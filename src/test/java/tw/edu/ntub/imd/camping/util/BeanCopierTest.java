@@ -0,0 +1,81 @@
+package tw.edu.ntub.imd.camping.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tw.edu.ntub.imd.camping.bean.ProductBean;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.Product;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductType;
+
+@DisplayName("測試BeanCopier")
+public class BeanCopierTest {
+
+    private Product createProduct() {
+        ProductType productType = new ProductType();
+        productType.setId(1);
+        productType.setName("帳篷");
+        Product product = new Product();
+        product.setId(1);
+        product.setType(1);
+        product.setProductTypeByType(productType);
+        product.setName("四人帳");
+        product.setCount(1);
+        product.setBrokenCompensation("照價賠償");
+        return product;
+    }
+
+    @Test
+    @DisplayName("複製相同名稱的屬性，AliasName由來源的屬性路徑取值")
+    void testCopyWithAliasName() {
+        ProductBean result = BeanCopier.copy(createProduct(), new ProductBean());
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(1, result.getId()),
+                () -> Assertions.assertEquals(1, result.getType()),
+                () -> Assertions.assertEquals("帳篷", result.getTypeName()),
+                () -> Assertions.assertEquals("四人帳", result.getName()),
+                () -> Assertions.assertEquals("照價賠償", result.getBrokenCompensation()),
+                () -> Assertions.assertNull(result.getImageArray())
+        );
+    }
+
+    @Test
+    @DisplayName("屬性路徑中有null時，AliasName的值為null")
+    void testCopyWithNullAliasPath() {
+        Product product = createProduct();
+        product.setProductTypeByType(null);
+
+        ProductBean result = BeanCopier.copy(product, new ProductBean());
+
+        Assertions.assertNull(result.getTypeName());
+        Assertions.assertEquals("四人帳", result.getName());
+    }
+
+    @Test
+    @DisplayName("預設略過值為null的屬性，只更新有值的欄位")
+    void testCopyIgnoreNull() {
+        ProductBean patchBean = new ProductBean();
+        patchBean.setCount(3);
+
+        Product result = BeanCopier.copy(patchBean, createProduct());
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(3, result.getCount()),
+                () -> Assertions.assertEquals("四人帳", result.getName()),
+                () -> Assertions.assertEquals("照價賠償", result.getBrokenCompensation())
+        );
+    }
+
+    @Test
+    @DisplayName("不略過null時，來源為null的屬性會覆蓋目標")
+    void testCopyNotIgnoreNull() {
+        ProductBean patchBean = new ProductBean();
+        patchBean.setCount(3);
+
+        Product result = BeanCopier.copy(patchBean, createProduct(), false);
+
+        Assertions.assertEquals(3, result.getCount());
+        Assertions.assertNull(result.getName());
+        Assertions.assertNull(result.getBrokenCompensation());
+    }
+}
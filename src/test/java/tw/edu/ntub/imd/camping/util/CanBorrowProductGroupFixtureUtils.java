@@ -0,0 +1,99 @@
+package tw.edu.ntub.imd.camping.util;
+
+import lombok.experimental.UtilityClass;
+import tw.edu.ntub.imd.camping.bean.ProductGroupFilterDataBean;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.view.CanBorrowProductGroup;
+import tw.edu.ntub.imd.camping.databaseconfig.util.ProductTypeMaskUtils;
+import tw.edu.ntub.imd.camping.enumerate.ProductGroupPriceRange;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+@UtilityClass
+public class CanBorrowProductGroupFixtureUtils {
+    // 預計租借日期都未填時只回傳今天之後可租借的商品群組，部分商品群組的可租借期間需在今天之前
+    public static final LocalDate BASE_DATE = LocalDate.now().minusDays(3);
+    private static final String[] CITY_AREA_NAME_ARRAY = {"中正區", "大安區", "宜蘭市"};
+    private static final long[] PRODUCT_TYPE_MASK_ARRAY = {
+            ProductTypeMaskUtils.toMask(1),
+            ProductTypeMaskUtils.toMask(2),
+            ProductTypeMaskUtils.toMask(1, 3),
+            ProductTypeMaskUtils.toMask(2, 3),
+            ProductTypeMaskUtils.toMask(4)
+    };
+    private static final int[] PRICE_ARRAY = {0, 1500, 2000, 2001, 3999, 4000, 4500};
+
+    /**
+     * @return 編號1 ~ 42，區域、商品類型、價格、可租借期間依編號交錯的可租借商品
+     */
+    public List<CanBorrowProductGroup> createRowList() {
+        return IntStream.rangeClosed(1, 42)
+                .mapToObj(CanBorrowProductGroupFixtureUtils::createRow)
+                .collect(Collectors.toList());
+    }
+
+    public CanBorrowProductGroup createRow(int id) {
+        LocalDateTime borrowStartDate = LocalDateTime.of(BASE_DATE.plusDays(id % 5), LocalTime.of(id % 24, 30));
+        CanBorrowProductGroup canBorrowProductGroup = new CanBorrowProductGroup();
+        canBorrowProductGroup.setId(id);
+        canBorrowProductGroup.setName("商品群組" + id);
+        canBorrowProductGroup.setCoverImage("cover" + id + ".png");
+        canBorrowProductGroup.setPrice(PRICE_ARRAY[id % PRICE_ARRAY.length]);
+        canBorrowProductGroup.setBorrowStartDate(borrowStartDate);
+        canBorrowProductGroup.setBorrowEndDate(borrowStartDate.plusDays(id % 7).withHour(23).withMinute(59));
+        canBorrowProductGroup.setCityName("臺北市");
+        canBorrowProductGroup.setCityAreaName(CITY_AREA_NAME_ARRAY[id % CITY_AREA_NAME_ARRAY.length]);
+        canBorrowProductGroup.setCity("臺北市 " + canBorrowProductGroup.getCityAreaName());
+        canBorrowProductGroup.setUserName("暱稱(account)");
+        canBorrowProductGroup.setProductTypeMask(PRODUCT_TYPE_MASK_ARRAY[id % PRODUCT_TYPE_MASK_ARRAY.length]);
+        canBorrowProductGroup.setComment(0.0);
+        return canBorrowProductGroup;
+    }
+
+    /**
+     * 供@MethodSource使用，涵蓋各篩選條件單獨與合併的情況
+     */
+    public Stream<ProductGroupFilterDataBean> filterDataStream() {
+        return Stream.of(
+                createFilterData(null, null, null, null, null),
+                createFilterData(BASE_DATE.plusDays(2), null, null, null, null),
+                createFilterData(null, BASE_DATE.plusDays(5), null, null, null),
+                createFilterData(BASE_DATE.plusDays(1), BASE_DATE.plusDays(7), null, null, null),
+                createFilterData(null, null, "大安區", null, null),
+                createFilterData(null, null, "不存在的區", null, null),
+                createFilterData(null, null, null, new int[]{3}, null),
+                createFilterData(null, null, null, new int[]{1, 4}, null),
+                createFilterData(null, null, null, new int[]{}, null),
+                createFilterData(null, null, null, null, ProductGroupPriceRange.ZERO_TO_TWO_THOUSANDS),
+                createFilterData(null, null, null, null, ProductGroupPriceRange.TWO_THOUSANDS_ONE_TO_FOUR_THOUSANDS),
+                createFilterData(
+                        BASE_DATE.plusDays(1),
+                        BASE_DATE.plusDays(9),
+                        "中正區",
+                        new int[]{2, 3},
+                        ProductGroupPriceRange.TWO_THOUSANDS_ONE_TO_FOUR_THOUSANDS
+                )
+        );
+    }
+
+    public ProductGroupFilterDataBean createFilterData(
+            LocalDate borrowStartDate,
+            LocalDate borrowEndDate,
+            String cityAreaName,
+            int[] typeArray,
+            ProductGroupPriceRange priceRange
+    ) {
+        ProductGroupFilterDataBean filterData = new ProductGroupFilterDataBean();
+        filterData.setBorrowStartDate(borrowStartDate);
+        filterData.setBorrowEndDate(borrowEndDate);
+        filterData.setCityAreaName(cityAreaName);
+        filterData.setTypeArray(typeArray);
+        filterData.setPriceRange(priceRange);
+        return filterData;
+    }
+}
@@ -0,0 +1,26 @@
+package tw.edu.ntub.imd.camping.util;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@UtilityClass
+public class CanBorrowProductGroupSourceUtils {
+    public void createView(JdbcTemplate jdbcTemplate) {
+        // H2由Hibernate建立資料表，不會建立檢視表，以與camping(migration)-1.5.0.sql相同的內容建立
+        jdbcTemplate.execute(
+                "CREATE OR REPLACE VIEW camping.can_borrow_product_group_source AS " +
+                        "SELECT g.id AS id, g.name AS name, g.cover_image AS cover_image, g.price AS price, " +
+                        "g.borrow_start_date AS borrow_start_date, g.borrow_end_date AS borrow_end_date, " +
+                        "CONCAT(g.city_name, ' ', g.city_area_name) AS city, g.city_name AS city_name, " +
+                        "g.city_area_name AS city_area_name, CONCAT(u.account, '(', u.nick_name, ')') AS user_name, " +
+                        "g.product_type_mask AS product_type_mask, " +
+                        "IFNULL(s.comment_sum / s.comment_count, 0) AS comment, " +
+                        "g.available_day_bitmap AS available_day_bitmap " +
+                        "FROM camping.product_group g " +
+                        "JOIN camping.user u ON g.create_account = u.account " +
+                        "LEFT JOIN camping.product_group_comment_summary s ON g.id = s.group_id " +
+                        "WHERE g.enable = TRUE"
+        );
+    }
+
+}
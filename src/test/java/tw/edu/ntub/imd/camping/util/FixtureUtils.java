@@ -0,0 +1,65 @@
+package tw.edu.ntub.imd.camping.util;
+
+import lombok.experimental.UtilityClass;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.ProductGroup;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.RentalRecord;
+import tw.edu.ntub.imd.camping.databaseconfig.entity.User;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.Experience;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.Gender;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.RentalRecordStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@UtilityClass
+public class FixtureUtils {
+    public User createUser(String account) {
+        return User.builder()
+                .account(account)
+                .password("password")
+                .birthday(LocalDate.of(2000, 1, 1))
+                .lastName("姓")
+                .firstName("名")
+                .nickName("暱稱")
+                .email("10646000@ntub.edu.tw")
+                .address("地址")
+                .gender(Gender.MALE)
+                .experience(Experience.ROOKIE)
+                .lastModifyAccount(account)
+                .build();
+    }
+
+    /**
+     * @return 可租借期間為2020/10/01 10:00 ~ 2020/10/31 18:00的商品群組，城市不存在於city資料表，需關閉參照完整性檢查
+     */
+    public ProductGroup createProductGroup(String ownerAccount) {
+        ProductGroup productGroup = new ProductGroup();
+        productGroup.setEnable(true);
+        productGroup.setBankAccount("0000000000000000");
+        productGroup.setName("商品群組");
+        productGroup.setCoverImage("cover.png");
+        productGroup.setCityName("臺北市");
+        productGroup.setCityAreaName("中正區");
+        productGroup.setPrice(1000);
+        productGroup.setBorrowStartDate(LocalDateTime.of(2020, 10, 1, 10, 0));
+        productGroup.setBorrowEndDate(LocalDateTime.of(2020, 10, 31, 18, 0));
+        productGroup.setCreateAccount(ownerAccount);
+        productGroup.setLastModifyAccount(ownerAccount);
+        return productGroup;
+    }
+
+    /**
+     * @return 租借2020/10/03 10:00 ~ 2020/10/04 18:00、尚未取貨的租借紀錄
+     */
+    public RentalRecord createRentalRecord(int groupId, String renterAccount) {
+        RentalRecord rentalRecord = new RentalRecord();
+        rentalRecord.setProductGroupId(groupId);
+        rentalRecord.setStatus(RentalRecordStatus.NOT_PICK_UP);
+        rentalRecord.setRenterAccount(renterAccount);
+        rentalRecord.setRenterCreditCardId("************1234");
+        rentalRecord.setBorrowStartDate(LocalDateTime.of(2020, 10, 3, 10, 0));
+        rentalRecord.setBorrowEndDate(LocalDateTime.of(2020, 10, 4, 18, 0));
+        rentalRecord.setLastModifyAccount(renterAccount);
+        return rentalRecord;
+    }
+}
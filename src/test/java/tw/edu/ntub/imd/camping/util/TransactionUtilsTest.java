@@ -0,0 +1,198 @@
+package tw.edu.ntub.imd.camping.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tw.edu.ntub.imd.camping.dto.Bank;
+import tw.edu.ntub.imd.camping.dto.BankAccount;
+import tw.edu.ntub.imd.camping.exception.CreditCardApiUnavailableException;
+import tw.edu.ntub.imd.camping.exception.CreditCardTransactionException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@DisplayName("測試TransactionUtils")
+public class TransactionUtilsTest {
+    private static final String SEARCH_BANK_RESPONSE = "{\"result\":true,\"errorCode\":\"\",\"message\":\"查詢成功\"," +
+            "\"data\":[{\"id\":\"001\",\"type\":0,\"name\":\"中央信託\"}]}";
+    private HttpServer server;
+    private MeterRegistry meterRegistry;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    // 依序回應的Http狀態，用完後回應200
+    private final Queue<Integer> statusQueue = new ConcurrentLinkedQueue<>();
+    private volatile long responseDelayMillis;
+    private volatile String responseBody = SEARCH_BANK_RESPONSE;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", this::handle);
+        server.start();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        exchange.getRequestBody().readAllBytes();
+        if (responseDelayMillis > 0) {
+            try {
+                Thread.sleep(responseDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Integer status = statusQueue.poll();
+        byte[] body = responseBody.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status != null ? status : 200, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+
+    private TransactionUtils createTransactionUtils(long deadlineMillis, int maxConcurrent, int failureThreshold) {
+        return new TransactionUtils(
+                "http://127.0.0.1:" + server.getAddress().getPort(),
+                new ObjectMapper(),
+                meterRegistry,
+                1000,
+                deadlineMillis,
+                maxConcurrent,
+                2,
+                10,
+                failureThreshold,
+                60_000
+        );
+    }
+
+    private long getRequestCount(String operation, String outcome) {
+        return meterRegistry.get("camping.credit-card-api.request")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+
+    @Test
+    @DisplayName("查詢金融機構")
+    public void testSearchBank() {
+        TransactionUtils transactionUtils = createTransactionUtils(5000, 10, 5);
+
+        List<Bank> bankList = transactionUtils.searchBank();
+
+        Assertions.assertEquals(1, bankList.size());
+        Assertions.assertEquals("001", bankList.get(0).getId());
+        Assertions.assertEquals(1, getRequestCount("bank-search", "success"));
+    }
+
+    @Test
+    @DisplayName("可重複執行的請求在5xx時重試")
+    public void testRetryIdempotent() {
+        TransactionUtils transactionUtils = createTransactionUtils(5000, 10, 5);
+        statusQueue.add(503);
+        statusQueue.add(502);
+
+        List<Bank> bankList = transactionUtils.searchBank();
+
+        Assertions.assertEquals(1, bankList.size());
+        Assertions.assertEquals(3, requestCount.get());
+    }
+
+    @Test
+    @DisplayName("扣款不重試")
+    public void testNotRetryNonIdempotent() {
+        TransactionUtils transactionUtils = createTransactionUtils(5000, 10, 5);
+        statusQueue.add(503);
+
+        Assertions.assertThrows(CreditCardTransactionException.class, () -> transactionUtils.transactionDebit(1));
+        Assertions.assertEquals(1, requestCount.get());
+        Assertions.assertEquals(1, getRequestCount("transaction-debit", "fail"));
+    }
+
+    @Test
+    @DisplayName("金流服務回傳重複建立時視為成功")
+    public void testCreateDuplicateBankAccount() {
+        TransactionUtils transactionUtils = createTransactionUtils(5000, 10, 5);
+        responseBody = "{\"result\":false,\"errorCode\":\"Create - Duplicate\",\"message\":\"帳號已存在\",\"data\":{}}";
+
+        Assertions.assertDoesNotThrow(() -> transactionUtils.createBankAccount(new BankAccount("1234567891234567")));
+        Assertions.assertEquals(1, requestCount.get());
+    }
+
+    @Test
+    @DisplayName("超過期限時拋出CreditCardApiUnavailableException")
+    public void testDeadline() {
+        TransactionUtils transactionUtils = createTransactionUtils(200, 10, 5);
+        responseDelayMillis = 2000;
+
+        long startTime = System.nanoTime();
+        CreditCardApiUnavailableException exception = Assertions.assertThrows(
+                CreditCardApiUnavailableException.class,
+                transactionUtils::searchBank
+        );
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        Assertions.assertEquals("CreditCardTransaction - Unavailable", exception.getErrorCode());
+        Assertions.assertTrue(elapsedMillis < 1500, "等待時間：" + elapsedMillis);
+        Assertions.assertEquals(1, getRequestCount("bank-search", "unavailable"));
+    }
+
+    @Test
+    @DisplayName("同時請求數已滿時直接拒絕")
+    public void testBulkhead() throws Exception {
+        TransactionUtils transactionUtils = createTransactionUtils(5000, 1, 5);
+        responseDelayMillis = 500;
+        CountDownLatch latch = new CountDownLatch(1);
+        server.createContext("/transaction", exchange -> {
+            latch.countDown();
+            handle(exchange);
+        });
+
+        CompletableFuture<Void> first = transactionUtils.transactionDebitAsync(1);
+        Assertions.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Assertions.assertThrows(CreditCardApiUnavailableException.class, () -> transactionUtils.transactionDebit(2));
+        Assertions.assertDoesNotThrow(() -> TransactionUtils.await(first));
+
+        Assertions.assertEquals(1, getRequestCount("transaction-debit", "rejected"));
+        Assertions.assertEquals(1, requestCount.get());
+    }
+
+    @Test
+    @DisplayName("連續失敗後斷路器開啟，不再送出請求")
+    public void testCircuitBreaker() {
+        TransactionUtils transactionUtils = createTransactionUtils(5000, 10, 2);
+        for (int i = 0; i < 10; i++) {
+            statusQueue.add(500);
+        }
+
+        Assertions.assertThrows(CreditCardTransactionException.class, () -> transactionUtils.transactionDebit(1));
+        Assertions.assertThrows(CreditCardTransactionException.class, () -> transactionUtils.transactionDebit(1));
+        Assertions.assertThrows(CreditCardApiUnavailableException.class, transactionUtils::searchBank);
+
+        Assertions.assertEquals(2, requestCount.get());
+        Assertions.assertEquals(1, meterRegistry.get("camping.credit-card-api.circuit-breaker.state").gauge().value());
+    }
+}
@@ -0,0 +1,61 @@
+package tw.edu.ntub.imd.camping.util.http;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tw.edu.ntub.imd.camping.util.json.array.CollectionArrayData;
+import tw.edu.ntub.imd.camping.util.json.object.ObjectData;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@DisplayName("測試ResponseEntityBuilder")
+public class ResponseEntityBuilderTest {
+    private static final List<Integer> ID_LIST = IntStream.rangeClosed(1, 20).boxed().collect(Collectors.toList());
+    private static final BiConsumer<ObjectData, Integer> ADD_ID_CONSUMER = (data, id) -> {
+        data.add("id", id);
+        data.add("name", "營具" + id);
+        data.add("deleted", id % 2 == 0);
+    };
+
+    @Test
+    @DisplayName("串流輸出與ObjectData輸出相同")
+    public void testStreamSameAsTree() {
+        String expected = ResponseEntityBuilder.success("查詢成功")
+                .data(new CollectionArrayData(ID_LIST, ADD_ID_CONSUMER))
+                .buildJSONString();
+        JsonResponseBody streamBody = ResponseEntityBuilder.success("查詢成功")
+                .data(ID_LIST, ADD_ID_CONSUMER)
+                .buildStream()
+                .getBody();
+
+        Assertions.assertNotNull(streamBody);
+        Assertions.assertEquals(new ObjectData(expected).getData(), new ObjectData(streamBody.toString()).getData());
+    }
+
+    @Test
+    @DisplayName("空集合輸出空陣列")
+    public void testEmptyCollection() {
+        JsonResponseBody streamBody = ResponseEntityBuilder.success("查詢成功")
+                .data(Collections.<Integer>emptyList(), ADD_ID_CONSUMER)
+                .buildStream()
+                .getBody();
+
+        Assertions.assertNotNull(streamBody);
+        Assertions.assertEquals("[]", new ObjectData(streamBody.toString()).getData().get("data").toString());
+    }
+
+    @Test
+    @DisplayName("固定成功訊息的回應內容")
+    public void testBuildSuccessMessage() {
+        ObjectData result = new ObjectData(ResponseEntityBuilder.buildSuccessMessage("更新成功").getBody());
+
+        Assertions.assertTrue(result.getBoolean("result"));
+        Assertions.assertEquals("", result.getString("errorCode"));
+        Assertions.assertEquals("更新成功", result.getString("message"));
+        Assertions.assertEquals("{}", result.getData().get("data").toString());
+    }
+}
@@ -0,0 +1,64 @@
+package tw.edu.ntub.imd.camping.wrapper;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.LogRecordDevice;
+import tw.edu.ntub.imd.camping.databaseconfig.enumerate.LogRecordDeviceType;
+
+@DisplayName("測試UserAgentInfoCache")
+public class UserAgentInfoCacheTest {
+    private static final String CHROME_USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) " +
+            "AppleWebKit/537.36 (KHTML, like Gecko) Chrome/85.0.4183.121 Safari/537.36";
+    private static final String FIREFOX_USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64; rv:81.0) " +
+            "Gecko/20100101 Firefox/81.0";
+    private static final String POSTMAN_USER_AGENT = "PostmanRuntime/7.26.5";
+
+    @Test
+    @DisplayName("解析結果")
+    public void testParse() {
+        UserAgentInfoCache cache = new UserAgentInfoCache(10);
+
+        UserAgentInfo chrome = cache.get(CHROME_USER_AGENT);
+        Assertions.assertEquals(LogRecordDevice.BROWSER, chrome.getDevice());
+        Assertions.assertEquals(LogRecordDeviceType.CHROME, chrome.getDeviceType());
+        Assertions.assertEquals("85.0.4183.121", chrome.getDeviceVersion());
+
+        UserAgentInfo postman = cache.get(POSTMAN_USER_AGENT);
+        Assertions.assertEquals(LogRecordDevice.POSTMAN, postman.getDevice());
+        Assertions.assertEquals(LogRecordDeviceType.POSTMAN, postman.getDeviceType());
+        Assertions.assertEquals("7.26.5", postman.getDeviceVersion());
+
+        Assertions.assertSame(UserAgentInfo.UNKNOWN, cache.get(null));
+    }
+
+    @Test
+    @DisplayName("相同User-Agent只解析一次")
+    public void testHitAndMiss() {
+        UserAgentInfoCache cache = new UserAgentInfoCache(10);
+
+        UserAgentInfo first = cache.get(CHROME_USER_AGENT);
+        UserAgentInfo second = cache.get(CHROME_USER_AGENT);
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, cache.getMissCount());
+        Assertions.assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    @DisplayName("超過上限時移除最久未使用的User-Agent")
+    public void testEvictLeastRecentlyUsed() {
+        UserAgentInfoCache cache = new UserAgentInfoCache(2);
+
+        cache.get(CHROME_USER_AGENT);
+        cache.get(FIREFOX_USER_AGENT);
+        cache.get(CHROME_USER_AGENT);
+        cache.get(POSTMAN_USER_AGENT);
+        Assertions.assertEquals(2, cache.size());
+
+        cache.get(CHROME_USER_AGENT);
+        Assertions.assertEquals(2, cache.getHitCount());
+        cache.get(FIREFOX_USER_AGENT);
+        Assertions.assertEquals(4, cache.getMissCount());
+    }
+}